@@ -145,9 +145,9 @@
 //     }
 
 //     private void seedOrderStatuses() {
-//         List<String> orderStatuses = Arrays.asList("pending", "in progress", "delivered");
+//         List<String> orderStatuses = Arrays.asList("pending", "in progress", "delivered", "cancelled");
 //         List<OrderStatus> orderStatusList = new ArrayList<>();
-//         for (int i = 0; i < 3; i++) {
+//         for (int i = 0; i < orderStatuses.size(); i++) {
 //             OrderStatus orderStatus = OrderStatus.builder()
 //                     .name(orderStatuses.get(i))
 //                     .build();
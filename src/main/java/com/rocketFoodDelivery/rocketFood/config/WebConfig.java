@@ -0,0 +1,26 @@
+package com.rocketFoodDelivery.rocketFood.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Web MVC configuration class.
+ * Raises the timeout of asynchronous responses, such as streamed order
+ * exports, above the servlet container's 30 second default.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final long asyncTimeoutMillis;
+
+    public WebConfig(@Value("${app.async.request-timeout-ms:3600000}") long asyncTimeoutMillis) {
+        this.asyncTimeoutMillis = asyncTimeoutMillis;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeoutMillis);
+    }
+}
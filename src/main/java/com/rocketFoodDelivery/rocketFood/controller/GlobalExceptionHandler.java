@@ -37,6 +37,13 @@ public class GlobalExceptionHandler {
                                                 .build());
         }
 
+        @ExceptionHandler(ForbiddenException.class)
+        public ResponseEntity<ApiErrorDto> handleForbiddenException(ForbiddenException ex) {
+                log.error("Forbidden: {}", ex.getMessage());
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                                .body(ApiErrorDto.builder().error("Forbidden").details(ex.getMessage()).build());
+        }
+
         @ExceptionHandler(BadRequestException.class)
         public ResponseEntity<ApiErrorDto> handleBadRequestException(BadRequestException ex) {
                 log.error("Bad request: {}", ex.getMessage(), ex);
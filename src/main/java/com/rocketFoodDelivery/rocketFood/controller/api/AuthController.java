@@ -1,11 +1,17 @@
 package com.rocketFoodDelivery.rocketFood.controller.api;
 
 import com.rocketFoodDelivery.rocketFood.service.AuthService;
+import com.rocketFoodDelivery.rocketFood.service.RefreshTokenService;
+import com.rocketFoodDelivery.rocketFood.service.UserService;
+import com.rocketFoodDelivery.rocketFood.dtos.AuthRefreshRequestDto;
 import com.rocketFoodDelivery.rocketFood.dtos.AuthRequestDto;
 import com.rocketFoodDelivery.rocketFood.dtos.AuthResponseSuccessDto;
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
 import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
 import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.security.JwtPrincipal;
 import com.rocketFoodDelivery.rocketFood.security.JwtUtil;
+import com.rocketFoodDelivery.rocketFood.security.TokenRevocationList;
 import org.springframework.security.authentication.AuthenticationManager;
 
 import jakarta.validation.Valid;
@@ -18,8 +24,12 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 
+import java.time.Instant;
+import java.util.Optional;
+
 /**
  * Controller for handling authentication-related requests.
  */
@@ -31,19 +41,30 @@ public class AuthController {
     private final AuthenticationManager authManager;
     private final JwtUtil jwtUtil;
     private final AuthService authService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList tokenRevocationList;
+    private final UserService userService;
 
     /**
      * Constructs an instance of AuthController with the given dependencies.
      *
-     * @param authManager The AuthenticationManager used for authenticating users.
-     * @param jwtUtil     The JwtUtil used for generating JWT tokens.
-     * @param authService The AuthService used for authentication logic.
+     * @param authManager         The AuthenticationManager used for authenticating users.
+     * @param jwtUtil             The JwtUtil used for generating JWT tokens.
+     * @param authService         The AuthService used for authentication logic.
+     * @param refreshTokenService The RefreshTokenService used for issuing and rotating refresh tokens.
+     * @param tokenRevocationList The list of access tokens revoked at logout.
+     * @param userService         The UserService used for resolving the roles put in access tokens.
      */
     @Autowired
-    public AuthController(AuthenticationManager authManager, JwtUtil jwtUtil, AuthService authService) {
+    public AuthController(AuthenticationManager authManager, JwtUtil jwtUtil, AuthService authService,
+            RefreshTokenService refreshTokenService, TokenRevocationList tokenRevocationList,
+            UserService userService) {
         this.authManager = authManager;
         this.jwtUtil = jwtUtil;
         this.authService = authService;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationList = tokenRevocationList;
+        this.userService = userService;
     }
 
     /**
@@ -66,15 +87,21 @@ public class AuthController {
             Authentication authentication = authenticateUser(request);
             UserEntity user = (UserEntity) authentication.getPrincipal();
 
-            // Generate JWT token
+            // Generate JWT token, carrying the roles of the user, and the refresh token to renew it
+            userService.populateRoles(user);
             String accessToken = jwtUtil.generateAccessToken(user);
+            String refreshToken = refreshTokenService.issue(user);
 
             log.info("Authentication successful for user: {}", user.getEmail());
-            AuthResponseSuccessDto response = createAuthSuccessResponse(accessToken);
+            AuthResponseSuccessDto response = createAuthSuccessResponse(accessToken, refreshToken);
             return ResponseEntity.ok(response);
         } catch (BadCredentialsException | UsernameNotFoundException e) {
             log.error("Authentication failed for user: {}", request.getEmail());
             return ResponseBuilder.buildAuthErrorResponse("Invalid email or password", HttpStatus.UNAUTHORIZED);
+        } catch (ServiceUnavailableException e) {
+            // Password hashing is saturated, the client should retry shortly
+            log.warn("Authentication refused for user: {}: {}", request.getEmail(), e.getMessage());
+            return ResponseBuilder.buildRetryLaterResponse(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE, 1);
         } catch (Exception e) {
             log.error("Unexpected error during authentication for user: {}", request.getEmail(), e);
             return ResponseBuilder.buildAuthErrorResponse("Unexpected error occurred",
@@ -82,6 +109,50 @@ public class AuthController {
         }
     }
 
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh
+     * token. The presented refresh token cannot be used again, and presenting
+     * it twice revokes every refresh token descending from the same login.
+     *
+     * @param request The request containing the refresh token.
+     * @return ResponseEntity containing the new tokens, or a 401 error response
+     *         if the refresh token is invalid, expired or already used.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody @Valid AuthRefreshRequestDto request) {
+        try {
+            RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+            // Roles are resolved again so the renewed access token reflects changes since login
+            userService.populateRoles(rotation.getUser());
+            String accessToken = jwtUtil.generateAccessToken(rotation.getUser());
+            return ResponseEntity.ok(createAuthSuccessResponse(accessToken, rotation.getRefreshToken()));
+        } catch (BadCredentialsException e) {
+            log.error("Token refresh failed: {}", e.getMessage());
+            return ResponseBuilder.buildAuthErrorResponse(e.getMessage(), HttpStatus.UNAUTHORIZED);
+        }
+    }
+
+    /**
+     * Logs out: revokes the refresh token and the tokens of its family and,
+     * if one is sent in the Authorization header, the access token until it
+     * expires.
+     *
+     * @param request       The request containing the refresh token.
+     * @param authorization The optional Authorization header with the access token.
+     * @return ResponseEntity with a 200 OK status.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody @Valid AuthRefreshRequestDto request,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        refreshTokenService.revoke(request.getRefreshToken());
+        if (authorization != null && authorization.startsWith("Bearer")) {
+            Optional<JwtPrincipal> principal = jwtUtil.verifyAccessToken(authorization.substring("Bearer".length()).trim());
+            principal.ifPresent(token -> tokenRevocationList.revoke(token.getTokenId(),
+                    Instant.ofEpochMilli(token.getExpiresAt())));
+        }
+        return ResponseBuilder.buildResponse("Success", null, HttpStatus.OK);
+    }
+
     /**
      * Authenticates the user with the provided email and password.
      *
@@ -96,16 +167,19 @@ public class AuthController {
     }
 
     /**
-     * Creates an AuthResponseSuccessDto with the given JWT access token.
+     * Creates an AuthResponseSuccessDto with the given tokens.
      *
-     * @param accessToken The JWT access token generated for the authenticated user.
-     * @return An AuthResponseSuccessDto containing the success status and JWT
-     *         access token.
+     * @param accessToken  The JWT access token generated for the authenticated user.
+     * @param refreshToken The refresh token to renew the access token with.
+     * @return An AuthResponseSuccessDto containing the success status, the
+     *         tokens and the lifetime of the access token.
      */
-    private AuthResponseSuccessDto createAuthSuccessResponse(String accessToken) {
+    private AuthResponseSuccessDto createAuthSuccessResponse(String accessToken, String refreshToken) {
         return AuthResponseSuccessDto.builder()
                 .success(true)
                 .accessToken(accessToken)
+                .refreshToken(refreshToken)
+                .expiresIn(jwtUtil.getAccessTokenTtlSeconds())
                 .build();
     }
 }
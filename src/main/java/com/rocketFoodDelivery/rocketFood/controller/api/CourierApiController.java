@@ -0,0 +1,109 @@
+package com.rocketFoodDelivery.rocketFood.controller.api;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierLocationBatchDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierLocationDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierLocationResultDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiNearbyCourierDto;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ForbiddenException;
+import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.service.CourierLocationService;
+import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controller for courier locations. Positions are kept in memory only and
+ * never written to the database.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/couriers")
+public class CourierApiController {
+
+    private final CourierLocationService courierLocationService;
+
+    /**
+     * Constructs an instance of CourierApiController with the given CourierLocationService.
+     *
+     * @param courierLocationService The in-memory index of courier positions.
+     */
+    public CourierApiController(CourierLocationService courierLocationService) {
+        this.courierLocationService = courierLocationService;
+    }
+
+    /**
+     * Records a batch of courier positions, up to 1000 at once.
+     *
+     * @param batch The positions to record.
+     * @return ResponseEntity with the number of positions recorded and ignored, or an error message.
+     */
+    @PostMapping("/locations")
+    public ResponseEntity<?> recordLocations(@RequestBody ApiCourierLocationBatchDto batch,
+            @AuthenticationPrincipal UserEntity caller) {
+        try {
+            ApiCourierLocationResultDto result = courierLocationService.record(batch, caller);
+            return ResponseBuilder.buildResponse("Success", result, HttpStatus.OK);
+        } catch (BadRequestException ex) {
+            log.error("Invalid courier locations: {}", ex.getMessage());
+            return ResponseBuilder.buildBadRequestResponse(ex.getMessage());
+        } catch (ForbiddenException ex) {
+            log.error("Forbidden courier locations: {}", ex.getMessage());
+            return ResponseBuilder.buildErrorResponse(ex.getMessage(), HttpStatus.FORBIDDEN);
+        } catch (ServiceUnavailableException ex) {
+            return ResponseBuilder.buildRetryLaterResponse(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE, 5);
+        }
+    }
+
+    /**
+     * Retrieves the recent positions of a courier, newest first.
+     *
+     * @param id The ID of the courier.
+     * @return ResponseEntity with the positions, or an error message.
+     */
+    @GetMapping("/{id}/locations")
+    public ResponseEntity<?> getLocations(@PathVariable int id) {
+        try {
+            List<ApiCourierLocationDto> history = courierLocationService.getHistory(id);
+            return ResponseBuilder.buildResponse("Success", history, HttpStatus.OK);
+        } catch (ResourceNotFoundException ex) {
+            return ResponseBuilder.buildNotFoundResponse(ex.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves the couriers within a radius of a restaurant, nearest first.
+     *
+     * @param restaurant The ID of the restaurant.
+     * @param radius     The search radius in meters, at most 50000.
+     * @param limit      The maximum number of couriers to return, capped at 100.
+     * @return ResponseEntity with the couriers found, or an error message.
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getNearbyCouriers(@RequestParam int restaurant,
+            @RequestParam(defaultValue = "2000") double radius,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            List<ApiNearbyCourierDto> couriers = courierLocationService.findNearRestaurant(restaurant, radius, limit);
+            return ResponseBuilder.buildResponse("Success", couriers, HttpStatus.OK);
+        } catch (ResourceNotFoundException ex) {
+            return ResponseBuilder.buildNotFoundResponse(ex.getMessage());
+        } catch (BadRequestException ex) {
+            log.error("Invalid nearby courier query: {}", ex.getMessage());
+            return ResponseBuilder.buildBadRequestResponse(ex.getMessage());
+        }
+    }
+}
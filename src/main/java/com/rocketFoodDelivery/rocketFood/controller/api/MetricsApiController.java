@@ -0,0 +1,189 @@
+package com.rocketFoodDelivery.rocketFood.controller.api;
+
+import com.rocketFoodDelivery.rocketFood.security.CachedUserDetailsService;
+import com.rocketFoodDelivery.rocketFood.security.PasswordHashingExecutor;
+import com.rocketFoodDelivery.rocketFood.security.RateLimiter;
+import com.rocketFoodDelivery.rocketFood.security.TokenRevocationList;
+import com.rocketFoodDelivery.rocketFood.service.CourierLocationService;
+import com.rocketFoodDelivery.rocketFood.service.CourierService;
+import com.rocketFoodDelivery.rocketFood.service.OrderEventService;
+import com.rocketFoodDelivery.rocketFood.service.OrderIntakeService;
+import com.rocketFoodDelivery.rocketFood.service.RestaurantCatalog;
+import com.rocketFoodDelivery.rocketFood.service.RestaurantPurgeService;
+import com.rocketFoodDelivery.rocketFood.service.SearchIndex;
+import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller exposing runtime metrics of the in-memory components.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsApiController {
+
+    private final RestaurantCatalog restaurantCatalog;
+    private final RestaurantPurgeService restaurantPurgeService;
+    private final OrderIntakeService orderIntakeService;
+    private final OrderEventService orderEventService;
+    private final CourierService courierService;
+    private final CourierLocationService courierLocationService;
+    private final SearchIndex searchIndex;
+    private final TokenRevocationList tokenRevocationList;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final CachedUserDetailsService userDetailsService;
+    private final RateLimiter rateLimiter;
+
+    /**
+     * Constructs an instance of MetricsApiController with the given components.
+     *
+     * @param restaurantCatalog       The in-memory restaurant catalog.
+     * @param restaurantPurgeService  The background purge of deleted restaurants.
+     * @param orderIntakeService      The asynchronous order intake.
+     * @param orderEventService       The order event streams.
+     * @param courierService          The courier dispatch engine.
+     * @param courierLocationService  The in-memory index of courier positions.
+     * @param searchIndex             The full-text search index.
+     * @param tokenRevocationList     The list of revoked access tokens.
+     * @param passwordHashingExecutor The pool verifying passwords at login.
+     * @param userDetailsService      The cached user lookup of the login.
+     * @param rateLimiter             The per-client request rate limits.
+     */
+    public MetricsApiController(RestaurantCatalog restaurantCatalog, RestaurantPurgeService restaurantPurgeService,
+            OrderIntakeService orderIntakeService, OrderEventService orderEventService,
+            CourierService courierService, CourierLocationService courierLocationService,
+            SearchIndex searchIndex, TokenRevocationList tokenRevocationList,
+            PasswordHashingExecutor passwordHashingExecutor, CachedUserDetailsService userDetailsService,
+            RateLimiter rateLimiter) {
+        this.restaurantCatalog = restaurantCatalog;
+        this.restaurantPurgeService = restaurantPurgeService;
+        this.orderIntakeService = orderIntakeService;
+        this.orderEventService = orderEventService;
+        this.courierService = courierService;
+        this.courierLocationService = courierLocationService;
+        this.searchIndex = searchIndex;
+        this.tokenRevocationList = tokenRevocationList;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.userDetailsService = userDetailsService;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Returns the version, size and rebuild time of the restaurant catalog.
+     *
+     * @return ResponseEntity containing the catalog statistics.
+     */
+    @GetMapping("/restaurant-catalog")
+    public ResponseEntity<?> getRestaurantCatalogStats() {
+        return ResponseBuilder.buildResponse("Success", restaurantCatalog.getStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Returns the progress of the most recent restaurant purges.
+     *
+     * @return ResponseEntity containing the purges, most recent first.
+     */
+    @GetMapping("/restaurant-purges")
+    public ResponseEntity<?> getRestaurantPurges() {
+        return ResponseBuilder.buildResponse("Success", restaurantPurgeService.getPurges(), HttpStatus.OK);
+    }
+
+    /**
+     * Returns the queue depth and counters of the asynchronous order intake.
+     *
+     * @return ResponseEntity containing the intake statistics.
+     */
+    @GetMapping("/order-intake")
+    public ResponseEntity<?> getOrderIntakeStats() {
+        return ResponseBuilder.buildResponse("Success", orderIntakeService.getStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Returns the open stream count and fan-out latency of the order events.
+     *
+     * @return ResponseEntity containing the event stream statistics.
+     */
+    @GetMapping("/order-events")
+    public ResponseEntity<?> getOrderEventStats() {
+        return ResponseBuilder.buildResponse("Success", orderEventService.getStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Returns the queue depths, conflicts and assignment latency of the
+     * courier dispatch engine.
+     *
+     * @return ResponseEntity containing the dispatch statistics.
+     */
+    @GetMapping("/dispatch")
+    public ResponseEntity<?> getDispatchStats() {
+        return ResponseBuilder.buildResponse("Success", courierService.getStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Returns the size and update counters of the courier location index.
+     *
+     * @return ResponseEntity containing the location index statistics.
+     */
+    @GetMapping("/courier-locations")
+    public ResponseEntity<?> getCourierLocationStats() {
+        return ResponseBuilder.buildResponse("Success", courierLocationService.getStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Returns the size, query count and rebuild time of the search index.
+     *
+     * @return ResponseEntity containing the search index statistics.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> getSearchStats() {
+        return ResponseBuilder.buildResponse("Success", searchIndex.getStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Returns the size of the revoked token filter and the outcome of the
+     * revocation checks.
+     *
+     * @return ResponseEntity containing the revocation list statistics.
+     */
+    @GetMapping("/token-revocations")
+    public ResponseEntity<?> getTokenRevocationStats() {
+        return ResponseBuilder.buildResponse("Success", tokenRevocationList.getStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Returns the load of the password hashing pool and the latency of the
+     * password checks.
+     *
+     * @return ResponseEntity containing the password hashing statistics.
+     */
+    @GetMapping("/password-hashing")
+    public ResponseEntity<?> getPasswordHashingStats() {
+        return ResponseBuilder.buildResponse("Success", passwordHashingExecutor.getStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Returns the size and hit rate of the login user cache.
+     *
+     * @return ResponseEntity containing the user cache statistics.
+     */
+    @GetMapping("/user-cache")
+    public ResponseEntity<?> getUserCacheStats() {
+        return ResponseBuilder.buildResponse("Success", userDetailsService.getStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Returns the number of rate limit buckets and the requests allowed and
+     * refused.
+     *
+     * @return ResponseEntity containing the rate limiter statistics.
+     */
+    @GetMapping("/rate-limits")
+    public ResponseEntity<?> getRateLimitStats() {
+        return ResponseBuilder.buildResponse("Success", rateLimiter.getStats(), HttpStatus.OK);
+    }
+}
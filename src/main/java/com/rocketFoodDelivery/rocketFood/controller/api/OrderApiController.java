@@ -1,18 +1,40 @@
 package com.rocketFoodDelivery.rocketFood.controller.api;
 
+import com.rocketFoodDelivery.rocketFood.dtos.ApiBulkOrderStatusRequestDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiBulkOrderStatusResultDto;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderRequestDto;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderStatusDto;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderIntakeDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderJournalEntryDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiPageDto;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.repository.OrderOwner;
+import com.rocketFoodDelivery.rocketFood.service.IdempotencyService;
+import com.rocketFoodDelivery.rocketFood.service.OrderEventService;
+import com.rocketFoodDelivery.rocketFood.service.OrderExportService;
+import com.rocketFoodDelivery.rocketFood.service.OrderIntakeService;
+import com.rocketFoodDelivery.rocketFood.service.OrderJournal;
 import com.rocketFoodDelivery.rocketFood.service.OrderService;
 import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ConflictException;
+import com.rocketFoodDelivery.rocketFood.exception.ForbiddenException;
 import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import org.springframework.http.HttpStatus;
 
-import java.util.List;
+import java.security.Principal;
+import java.util.function.Supplier;
 
 /**
  * Controller for managing orders in the system.
@@ -23,14 +45,31 @@ import java.util.List;
 public class OrderApiController {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final OrderIntakeService orderIntakeService;
+    private final IdempotencyService idempotencyService;
+    private final OrderEventService orderEventService;
+    private final OrderJournal orderJournal;
 
     /**
      * Constructs an instance of OrderApiController with the given OrderService.
      *
-     * @param orderService The OrderService used for managing orders.
+     * @param orderService       The OrderService used for managing orders.
+     * @param orderExportService The OrderExportService used for streaming exports.
+     * @param orderIntakeService The OrderIntakeService used for asynchronous order intake.
+     * @param idempotencyService The IdempotencyService used for Idempotency-Key handling.
+     * @param orderEventService  The OrderEventService used for order event streams.
+     * @param orderJournal       The OrderJournal used for the order history.
      */
-    public OrderApiController(OrderService orderService) {
+    public OrderApiController(OrderService orderService, OrderExportService orderExportService,
+            OrderIntakeService orderIntakeService, IdempotencyService idempotencyService,
+            OrderEventService orderEventService, OrderJournal orderJournal) {
         this.orderService = orderService;
+        this.orderExportService = orderExportService;
+        this.orderIntakeService = orderIntakeService;
+        this.idempotencyService = idempotencyService;
+        this.orderEventService = orderEventService;
+        this.orderJournal = orderJournal;
     }
 
     /**
@@ -43,13 +82,14 @@ public class OrderApiController {
     @PostMapping("/{order_id}/status")
     public ResponseEntity<?> changeOrderStatus(
             @PathVariable("order_id") Integer orderId,
-            @RequestBody ApiOrderStatusDto orderStatusDto) {
+            @RequestBody ApiOrderStatusDto orderStatusDto,
+            @AuthenticationPrincipal UserEntity caller) {
         log.info("Changing status of order ID: {} to {}", orderId, orderStatusDto.getStatus());
 
         try {
             validateOrderStatus(orderStatusDto);
 
-            String newStatus = orderService.changeOrderStatus(orderId, orderStatusDto);
+            String newStatus = orderService.changeOrderStatus(orderId, orderStatusDto, caller);
             log.info("Order status changed successfully: {}", newStatus);
 
             ApiOrderStatusDto responseDto = ApiOrderStatusDto.builder().status(newStatus).build();
@@ -57,6 +97,12 @@ public class OrderApiController {
         } catch (ResourceNotFoundException ex) {
             log.error("Order not found with ID: {}", orderId);
             return ResponseBuilder.buildNotFoundResponse("Order with id " + orderId + " not found");
+        } catch (ForbiddenException ex) {
+            log.error("Forbidden: {}", ex.getMessage());
+            return ResponseBuilder.buildErrorResponse(ex.getMessage(), HttpStatus.FORBIDDEN);
+        } catch (ConflictException ex) {
+            log.error("Status conflict: {}", ex.getMessage());
+            return ResponseBuilder.buildErrorResponse(ex.getMessage(), HttpStatus.CONFLICT);
         } catch (IllegalArgumentException ex) {
             log.error("Invalid status parameter: {}", ex.getMessage());
             return ResponseBuilder.buildBadRequestResponse("Invalid or missing parameters");
@@ -67,22 +113,57 @@ public class OrderApiController {
     }
 
     /**
-     * Retrieves a list of orders based on type and ID.
+     * Changes the status of several orders in one request and one
+     * transaction. Every item gets its own result. By default the successful
+     * items are committed even if others fail; with "atomic": true any failure
+     * rolls back every item and the response is 409.
      *
-     * @param type The type of orders to retrieve.
-     * @param id   The ID associated with the type.
-     * @return ResponseEntity containing the list of orders.
+     * @param request The list of order_id and status pairs, and the atomic flag.
+     * @return ResponseEntity with one result per item and the totals.
+     */
+    @PostMapping("/statuses")
+    public ResponseEntity<?> changeOrderStatuses(@RequestBody ApiBulkOrderStatusRequestDto request,
+            @AuthenticationPrincipal UserEntity caller) {
+        try {
+            ApiBulkOrderStatusResultDto result = orderService.changeOrderStatuses(request, caller);
+            if (!result.isCommitted()) {
+                return ResponseBuilder.buildResponse("No status was changed because some updates failed", result,
+                        HttpStatus.CONFLICT);
+            }
+            return ResponseBuilder.buildResponse("Success", result, HttpStatus.OK);
+        } catch (BadRequestException ex) {
+            log.error("Invalid bulk status update: {}", ex.getMessage());
+            return ResponseBuilder.buildBadRequestResponse(ex.getMessage());
+        } catch (Exception ex) {
+            log.error("Exception occurred while changing order statuses: {}", ex.getMessage(), ex);
+            return ResponseBuilder.buildErrorResponse("Internal server error", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Retrieves one page of orders based on type and ID.
+     *
+     * @param type   The type of orders to retrieve.
+     * @param id     The ID associated with the type.
+     * @param cursor The next_cursor of the previous page, if any.
+     * @param limit  The page size, capped at 100.
+     * @return ResponseEntity containing the page of orders.
      */
     @GetMapping
     public ResponseEntity<?> getOrders(
             @RequestParam String type,
-            @RequestParam Integer id) {
+            @RequestParam Integer id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         log.info("Fetching orders for type: {} with ID: {}", type, id);
 
         try {
-            List<ApiOrderDto> orders = orderService.getOrdersByTypeAndId(type, id);
-            log.info("Fetched orders: {}", orders);
+            ApiPageDto<ApiOrderDto> orders = orderService.getOrdersByTypeAndId(type, id, cursor, limit);
+            log.info("Fetched {} orders", orders.getItems().size());
             return ResponseBuilder.buildResponse("Success", orders, HttpStatus.OK);
+        } catch (BadRequestException ex) {
+            log.error("Invalid pagination parameters: {}", ex.getMessage());
+            return ResponseBuilder.buildBadRequestResponse(ex.getMessage());
         } catch (IllegalArgumentException ex) {
             log.error("Invalid type provided: {}", ex.getMessage(), ex);
             return ResponseBuilder.buildBadRequestResponse("Invalid or missing parameters");
@@ -93,28 +174,186 @@ public class OrderApiController {
     }
 
     /**
-     * Creates a new order with the given details.
+     * Streams every order of a customer, restaurant or courier with its
+     * products, oldest first, as NDJSON (one order per line) or CSV (one
+     * product line per row).
+     *
+     * @param type   The type of orders to export.
+     * @param id     The ID associated with the type.
+     * @param format The export format, ndjson or csv.
+     * @return ResponseEntity streaming the export, or an error message.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportOrders(
+            @RequestParam String type,
+            @RequestParam Integer id,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        log.info("Exporting orders for type: {} with ID: {} as {}", type, id, format);
+
+        try {
+            OrderOwner owner = OrderOwner.fromType(type);
+            OrderExportService.Format exportFormat = OrderExportService.Format.fromKey(format);
+            OrderExportService.Slot slot = orderExportService.acquireSlot();
+            StreamingResponseBody body = out -> {
+                try (slot) {
+                    orderExportService.exportOrders(owner, id, exportFormat, out);
+                }
+            };
+            String filename = "orders-" + type.toLowerCase() + "-" + id + "." + exportFormat.getKey();
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                    .body(body);
+        } catch (BadRequestException ex) {
+            log.error("Invalid export format: {}", ex.getMessage());
+            return ResponseBuilder.buildBadRequestResponse(ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            log.error("Invalid type provided: {}", ex.getMessage());
+            return ResponseBuilder.buildBadRequestResponse("Invalid or missing parameters");
+        } catch (ServiceUnavailableException ex) {
+            log.warn("Order export refused: {}", ex.getMessage());
+            return ResponseBuilder.buildRetryLaterResponse(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE, 30);
+        }
+    }
+
+    /**
+     * Opens a Server-Sent Events stream of the order events of a customer,
+     * restaurant or courier: a "created" event when an order is placed and a
+     * "status" event when its status changes, each with the order as JSON.
+     *
+     * @param type The type of entity to follow.
+     * @param id   The ID associated with the type.
+     * @return ResponseEntity streaming the events, or an error message.
+     */
+    @GetMapping(value = "/events", produces = { MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<?> streamOrderEvents(@RequestParam String type, @RequestParam Integer id) {
+        log.info("Opening order event stream for type: {} with ID: {}", type, id);
+
+        try {
+            SseEmitter emitter = orderEventService.subscribe(OrderOwner.fromType(type), id);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.TEXT_EVENT_STREAM)
+                    .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                    // Keeps reverse proxies from buffering the stream
+                    .header("X-Accel-Buffering", "no")
+                    .body(emitter);
+        } catch (IllegalArgumentException ex) {
+            log.error("Invalid type provided: {}", ex.getMessage());
+            return ResponseBuilder.buildBadRequestResponse("Invalid or missing parameters");
+        } catch (ServiceUnavailableException ex) {
+            return ResponseBuilder.buildRetryLaterResponse(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE, 5);
+        }
+    }
+
+    /**
+     * Reads the order event journal from a sequence on, optionally only the
+     * records of one order. Poll again from the returned next_cursor to tail
+     * the journal.
+     *
+     * @param from    The first sequence to read, 1 for the oldest record.
+     * @param limit   The maximum number of records.
+     * @param orderId The order to keep the records of, if any.
+     * @return ResponseEntity with the records and the next sequence.
+     */
+    @GetMapping("/journal")
+    public ResponseEntity<?> getOrderJournal(
+            @RequestParam(defaultValue = "1") long from,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(name = "order_id", required = false) Integer orderId) {
+        try {
+            ApiPageDto<ApiOrderJournalEntryDto> page = orderJournal.read(from, limit, orderId);
+            return ResponseBuilder.buildResponse("Success", page, HttpStatus.OK);
+        } catch (BadRequestException ex) {
+            return ResponseBuilder.buildBadRequestResponse(ex.getMessage());
+        } catch (ResourceNotFoundException ex) {
+            return ResponseBuilder.buildNotFoundResponse(ex.getMessage());
+        }
+    }
+
+    /**
+     * Creates a new order with the given details. In asynchronous intake mode
+     * the order is queued instead, and the response is 202 Accepted with a
+     * handle to poll at /api/order/intake/{handle}.
+     * With an Idempotency-Key header, a retried request returns the original
+     * order instead of creating another one.
      *
      * @param orderRequestDto The details of the order to create.
-     * @return ResponseEntity with the details of the created order.
+     * @param idempotencyKey  Optional client-chosen key identifying the order attempt.
+     * @param principal       The authenticated user, which scopes the key.
+     * @return ResponseEntity with the details of the created or queued order.
      */
     @PostMapping
-    public ResponseEntity<?> createOrder(@RequestBody ApiOrderRequestDto orderRequestDto) {
+    public ResponseEntity<?> createOrder(@RequestBody ApiOrderRequestDto orderRequestDto,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+            Principal principal) {
         log.info("Received order creation request: {}", orderRequestDto);
 
+        String scope = principal == null ? "" : principal.getName();
+        if (orderIntakeService.isEnabled()) {
+            return submitOrder(orderRequestDto, scope, idempotencyKey);
+        }
+
         try {
-            ApiOrderDto orderDto = orderService.createOrder(orderRequestDto);
+            ApiOrderDto orderDto = idempotent(scope, idempotencyKey, orderRequestDto, ApiOrderDto.class,
+                    () -> orderService.createOrder(orderRequestDto));
             log.debug("Order created: {}", orderDto);
             return ResponseBuilder.buildResponse("Success", orderDto, HttpStatus.CREATED);
+        } catch (BadRequestException ex) {
+            log.error("Invalid order: {}", ex.getMessage());
+            return ResponseBuilder.buildBadRequestResponse(ex.getMessage());
         } catch (ResourceNotFoundException ex) {
             log.error("Resource not found: {}", ex.getMessage());
             return ResponseBuilder.buildNotFoundResponse(ex.getMessage());
+        } catch (ConflictException ex) {
+            log.error("Idempotency conflict: {}", ex.getMessage());
+            return ResponseBuilder.buildErrorResponse(ex.getMessage(), HttpStatus.CONFLICT);
         } catch (Exception ex) {
             log.error("Unexpected error: {}", ex.getMessage());
             return ResponseBuilder.buildErrorResponse("Internal server error", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    /**
+     * Returns the status of an order accepted by the asynchronous intake.
+     *
+     * @param handle The handle returned when the order was accepted.
+     * @return ResponseEntity with the intake status, and the order once committed.
+     */
+    @GetMapping("/intake/{handle}")
+    public ResponseEntity<?> getOrderIntake(@PathVariable("handle") String handle) {
+        return orderIntakeService.getIntake(handle)
+                .<ResponseEntity<?>>map(intake -> ResponseBuilder.buildResponse("Success", intake, HttpStatus.OK))
+                .orElseGet(() -> ResponseBuilder.buildNotFoundResponse("Order intake " + handle + " not found"));
+    }
+
+    /**
+     * Queues an order in the asynchronous intake.
+     */
+    private ResponseEntity<?> submitOrder(ApiOrderRequestDto orderRequestDto, String scope, String idempotencyKey) {
+        try {
+            ApiOrderIntakeDto intake = idempotent(scope, idempotencyKey, orderRequestDto, ApiOrderIntakeDto.class,
+                    () -> orderIntakeService.submit(orderRequestDto));
+            return ResponseBuilder.buildResponse("Accepted", intake, HttpStatus.ACCEPTED);
+        } catch (BadRequestException ex) {
+            log.error("Invalid order: {}", ex.getMessage());
+            return ResponseBuilder.buildBadRequestResponse(ex.getMessage());
+        } catch (ConflictException ex) {
+            log.error("Idempotency conflict: {}", ex.getMessage());
+            return ResponseBuilder.buildErrorResponse(ex.getMessage(), HttpStatus.CONFLICT);
+        } catch (ServiceUnavailableException ex) {
+            return ResponseBuilder.buildRetryLaterResponse(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE, 1);
+        }
+    }
+
+    /**
+     * Runs the action through the IdempotencyService when a key was sent.
+     */
+    private <T> T idempotent(String scope, String idempotencyKey, ApiOrderRequestDto orderRequestDto,
+            Class<T> type, Supplier<T> action) {
+        return idempotencyKey == null ? action.get()
+                : idempotencyService.execute(scope, idempotencyKey, orderRequestDto, type, action);
+    }
+
     /**
      * Validates the given order status DTO.
      *
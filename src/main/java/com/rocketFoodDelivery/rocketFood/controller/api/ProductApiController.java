@@ -3,8 +3,10 @@ package com.rocketFoodDelivery.rocketFood.controller.api;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiProductDto;
 import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
 import com.rocketFoodDelivery.rocketFood.service.ProductService;
+import com.rocketFoodDelivery.rocketFood.service.ResourceVersionService;
 import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.HttpStatus;
@@ -20,34 +22,48 @@ import java.util.List;
 public class ProductApiController {
 
     private final ProductService productService;
+    private final ResourceVersionService resourceVersionService;
 
     /**
      * Constructs an instance of ProductApiController with the given ProductService.
      *
-     * @param productService The ProductService used for managing products.
+     * @param productService         The ProductService used for managing products.
+     * @param resourceVersionService The service providing the ETags of restaurant reads.
      */
-    public ProductApiController(ProductService productService) {
+    public ProductApiController(ProductService productService, ResourceVersionService resourceVersionService) {
         this.productService = productService;
+        this.resourceVersionService = resourceVersionService;
     }
 
     /**
      * Retrieves a list of products based on the restaurant ID.
      *
-     * @param restaurant The ID of the restaurant to fetch products for.
-     * @return ResponseEntity with the list of products or an error message.
+     * @param restaurant  The ID of the restaurant to fetch products for.
+     * @param ifNoneMatch The ETag of the client's cached copy, if any.
+     * @return ResponseEntity with the list of products, 304 if the cached copy is current, or an error message.
      */
     @GetMapping
-    public ResponseEntity<?> getProducts(@RequestParam Integer restaurant) {
+    public ResponseEntity<?> getProducts(@RequestParam Integer restaurant,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Fetching products for restaurant ID: {}", restaurant);
 
+        // Products are versioned with their restaurant
+        String eTag = resourceVersionService.restaurantETag(restaurant);
+        if (ResponseBuilder.isNotModified(ifNoneMatch, eTag, false)) {
+            return ResponseBuilder.buildNotModifiedResponse(eTag);
+        }
+
         try {
             List<ApiProductDto> products = productService.getProductsByRestaurantId(restaurant);
             if (products.isEmpty()) {
                 // Return a consistent error message
                 return ResponseBuilder.buildNotFoundResponse("No products found for restaurant ID " + restaurant);
             }
+            if (ResponseBuilder.isNotModified(ifNoneMatch, eTag)) {
+                return ResponseBuilder.buildNotModifiedResponse(eTag);
+            }
             log.info("Fetched products: {}", products);
-            return ResponseBuilder.buildResponse("Success", products, HttpStatus.OK);
+            return ResponseBuilder.buildResponse("Success", products, HttpStatus.OK, eTag);
         } catch (Exception ex) {
             log.error("Exception occurred while fetching products: {}", ex.getMessage(), ex);
             return ResponseBuilder.buildErrorResponse("Internal server error", HttpStatus.INTERNAL_SERVER_ERROR);
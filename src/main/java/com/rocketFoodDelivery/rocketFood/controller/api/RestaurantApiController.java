@@ -1,15 +1,22 @@
 package com.rocketFoodDelivery.rocketFood.controller.api;
 
 import com.rocketFoodDelivery.rocketFood.dtos.ApiCreateRestaurantDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiPageDto;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiRestaurantDto;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ForbiddenException;
 import com.rocketFoodDelivery.rocketFood.exception.ValidationException;
 import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.service.ResourceVersionService;
 import com.rocketFoodDelivery.rocketFood.service.RestaurantService;
 import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
 
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.HttpStatus;
@@ -23,24 +30,31 @@ import java.util.List;
 public class RestaurantApiController {
 
     private final RestaurantService restaurantService;
+    private final ResourceVersionService resourceVersionService;
 
-    public RestaurantApiController(RestaurantService restaurantService) {
+    public RestaurantApiController(RestaurantService restaurantService,
+            ResourceVersionService resourceVersionService) {
         this.restaurantService = restaurantService;
+        this.resourceVersionService = resourceVersionService;
     }
 
     @PostMapping
-    public ResponseEntity<?> createRestaurant(@RequestBody @Valid ApiCreateRestaurantDto restaurantDto) {
+    public ResponseEntity<?> createRestaurant(@RequestBody @Valid ApiCreateRestaurantDto restaurantDto,
+            @AuthenticationPrincipal UserEntity caller) {
         log.info("Received request to create restaurant: {}", restaurantDto);
 
         try {
             log.info("Validating restaurant data: {}", restaurantDto);
-            ApiRestaurantDto savedRestaurant = restaurantService.createRestaurant(restaurantDto);
+            ApiRestaurantDto savedRestaurant = restaurantService.createRestaurant(restaurantDto, caller);
             log.info("Restaurant created successfully: {}", savedRestaurant);
             // Changed to use HttpStatus instead of raw integer
             return ResponseBuilder.buildResponse("Success", savedRestaurant, HttpStatus.CREATED);
         } catch (ValidationException ex) {
             log.error("Validation error: {}", ex.getMessage());
             return ResponseBuilder.buildBadRequestResponse("Invalid or missing parameters");
+        } catch (ForbiddenException ex) {
+            log.error("Forbidden: {}", ex.getMessage());
+            return ResponseBuilder.buildErrorResponse(ex.getMessage(), HttpStatus.FORBIDDEN);
         } catch (Exception ex) {
             log.error("Exception occurred while saving restaurant: {}", ex.getMessage(), ex);
             // Changed to use HttpStatus instead of raw integer
@@ -51,20 +65,28 @@ public class RestaurantApiController {
 
     @GetMapping
     public ResponseEntity<?> getRestaurants(@RequestParam(required = false) Integer rating,
-            @RequestParam(name = "price_range", required = false) Integer priceRange) {
-        log.info("Received GET request to fetch restaurants with rating: {} and price range: {}", rating, priceRange);
-
-        if (priceRange == null) {
-            log.warn("Price range is null");
-        } else {
-            log.info("Price range is: {}", priceRange);
+            @RequestParam(name = "price_range", required = false) Integer priceRange,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Received GET request to fetch restaurants with rating: {}, price range: {}, sort: {}, limit: {}",
+                rating, priceRange, sort, limit);
+
+        // Read the version before the data, so a concurrent write can only make the ETag stale, never ahead
+        String eTag = resourceVersionService.catalogETag();
+        if (ResponseBuilder.isNotModified(ifNoneMatch, eTag)) {
+            return ResponseBuilder.buildNotModifiedResponse(eTag);
         }
 
         try {
-            List<ApiRestaurantDto> restaurants = restaurantService.getRestaurants(rating, priceRange);
-            log.info("Fetched restaurants: {}", restaurants);
-            // Changed to use HttpStatus instead of raw integer
-            return ResponseBuilder.buildResponse("Success", restaurants, HttpStatus.OK);
+            ApiPageDto<ApiRestaurantDto> restaurants = restaurantService.getRestaurants(rating, priceRange, sort,
+                    cursor, limit);
+            log.info("Fetched {} restaurants", restaurants.getItems().size());
+            return ResponseBuilder.buildResponse("Success", restaurants, HttpStatus.OK, eTag);
+        } catch (BadRequestException ex) {
+            log.error("Invalid pagination parameters: {}", ex.getMessage());
+            return ResponseBuilder.buildBadRequestResponse(ex.getMessage());
         } catch (Exception ex) {
             log.error("Exception occurred while fetching restaurants: {}", ex.getMessage());
             // Changed to use HttpStatus instead of raw integer
@@ -72,16 +94,57 @@ public class RestaurantApiController {
         }
     }
 
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getNearbyRestaurants(@RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(name = "postal_code", required = false) String postalCode,
+            @RequestParam(required = false) Double radius,
+            @RequestParam(required = false) Integer rating,
+            @RequestParam(name = "price_range", required = false) Integer priceRange,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Received GET request to fetch restaurants near {}, {} (postal code {}) within {} m", lat, lng,
+                postalCode, radius);
+
+        String eTag = resourceVersionService.catalogETag();
+        if (ResponseBuilder.isNotModified(ifNoneMatch, eTag)) {
+            return ResponseBuilder.buildNotModifiedResponse(eTag);
+        }
+
+        try {
+            List<ApiRestaurantDto> restaurants = restaurantService.getNearbyRestaurants(lat, lng, postalCode,
+                    radius, rating, priceRange, limit);
+            log.info("Fetched {} nearby restaurants", restaurants.size());
+            return ResponseBuilder.buildResponse("Success", restaurants, HttpStatus.OK, eTag);
+        } catch (BadRequestException ex) {
+            log.error("Invalid nearby search parameters: {}", ex.getMessage());
+            return ResponseBuilder.buildBadRequestResponse(ex.getMessage());
+        } catch (Exception ex) {
+            log.error("Exception occurred while fetching nearby restaurants: {}", ex.getMessage());
+            return ResponseBuilder.buildErrorResponse("Internal server error", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<?> getRestaurantById(@PathVariable Integer id) {
+    public ResponseEntity<?> getRestaurantById(@PathVariable Integer id,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Fetching restaurant with ID: {}", id);
 
+        String eTag = resourceVersionService.restaurantETag(id);
+        if (ResponseBuilder.isNotModified(ifNoneMatch, eTag, false)) {
+            return ResponseBuilder.buildNotModifiedResponse(eTag);
+        }
+
         try {
             log.info("Calling service to fetch restaurant by ID.");
             ApiRestaurantDto restaurant = restaurantService.getRestaurantById(id);
+            // "*" matches any current copy, so it only applies once the restaurant is found
+            if (ResponseBuilder.isNotModified(ifNoneMatch, eTag)) {
+                return ResponseBuilder.buildNotModifiedResponse(eTag);
+            }
             log.info("Restaurant details: {}", restaurant);
             // Changed to use HttpStatus instead of raw integer
-            return ResponseBuilder.buildResponse("Success", restaurant, HttpStatus.OK);
+            return ResponseBuilder.buildResponse("Success", restaurant, HttpStatus.OK, eTag);
         } catch (ResourceNotFoundException ex) {
             log.error("Restaurant not found with ID: {}", id);
             return ResponseBuilder.buildNotFoundResponse("Restaurant with id " + id + " not found");
@@ -94,12 +157,12 @@ public class RestaurantApiController {
 
     @PutMapping("/{id}")
     public ResponseEntity<?> updateRestaurant(@PathVariable Integer id,
-            @RequestBody @Valid ApiCreateRestaurantDto restaurantDto) {
+            @RequestBody @Valid ApiCreateRestaurantDto restaurantDto, @AuthenticationPrincipal UserEntity caller) {
         log.info("Received request to update restaurant: {}", restaurantDto);
 
         try {
             log.info("Validating updated restaurant data: {}", restaurantDto);
-            ApiRestaurantDto updatedRestaurant = restaurantService.updateRestaurant(id, restaurantDto);
+            ApiRestaurantDto updatedRestaurant = restaurantService.updateRestaurant(id, restaurantDto, caller);
             log.info("Restaurant updated successfully: {}", updatedRestaurant);
             // Changed to use HttpStatus instead of raw integer
             return ResponseBuilder.buildResponse("Success", updatedRestaurant, HttpStatus.OK);
@@ -109,6 +172,9 @@ public class RestaurantApiController {
         } catch (ResourceNotFoundException ex) {
             log.error("Restaurant not found with ID: {}", id);
             return ResponseBuilder.buildNotFoundResponse("Restaurant with id " + id + " not found");
+        } catch (ForbiddenException ex) {
+            log.error("Forbidden: {}", ex.getMessage());
+            return ResponseBuilder.buildErrorResponse(ex.getMessage(), HttpStatus.FORBIDDEN);
         } catch (Exception ex) {
             log.error("Exception occurred while updating restaurant: {}", ex.getMessage());
             // Changed to use HttpStatus instead of raw integer
@@ -117,18 +183,21 @@ public class RestaurantApiController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteRestaurant(@PathVariable Integer id) {
+    public ResponseEntity<?> deleteRestaurant(@PathVariable Integer id, @AuthenticationPrincipal UserEntity caller) {
         log.info("Deleting restaurant with ID: {}", id);
 
         try {
             log.info("Calling service to delete restaurant.");
-            ApiRestaurantDto deletedRestaurant = restaurantService.deleteRestaurant(id);
+            ApiRestaurantDto deletedRestaurant = restaurantService.deleteRestaurant(id, caller);
             log.info("Restaurant deleted successfully: {}", id);
             // Changed to use HttpStatus instead of raw integer
             return ResponseBuilder.buildResponse("Success", deletedRestaurant, HttpStatus.OK);
         } catch (ResourceNotFoundException ex) {
             log.error("Restaurant not found with ID: {}", id);
             return ResponseBuilder.buildNotFoundResponse("Restaurant with id " + id + " not found");
+        } catch (ForbiddenException ex) {
+            log.error("Forbidden: {}", ex.getMessage());
+            return ResponseBuilder.buildErrorResponse(ex.getMessage(), HttpStatus.FORBIDDEN);
         } catch (Exception ex) {
             log.error("Exception occurred while deleting restaurant: {}", ex.getMessage());
             // Changed to use HttpStatus instead of raw integer
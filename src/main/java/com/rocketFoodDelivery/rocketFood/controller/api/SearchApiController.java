@@ -0,0 +1,58 @@
+package com.rocketFoodDelivery.rocketFood.controller.api;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiPageDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiSearchResultDto;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.service.SearchIndex;
+import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for full-text search over restaurants and products.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/search")
+public class SearchApiController {
+
+    private final SearchIndex searchIndex;
+
+    /**
+     * Constructs an instance of SearchApiController with the given SearchIndex.
+     *
+     * @param searchIndex The in-memory index of restaurant and product text.
+     */
+    public SearchApiController(SearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Searches restaurant names and product names and descriptions, best
+     * match first. Misspelled words still match similar indexed words.
+     *
+     * @param q      The words to search for.
+     * @param type   Optional filter, restaurant or product.
+     * @param cursor Optional cursor returned with the previous page.
+     * @param limit  The page size, 20 by default and capped at 100.
+     * @return ResponseEntity with the page of results, or an error message.
+     */
+    @GetMapping
+    public ResponseEntity<?> search(@RequestParam String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            ApiPageDto<ApiSearchResultDto> page = searchIndex.search(q, type, cursor, limit);
+            return ResponseBuilder.buildResponse("Success", page, HttpStatus.OK);
+        } catch (BadRequestException ex) {
+            log.error("Invalid search query: {}", ex.getMessage());
+            return ResponseBuilder.buildBadRequestResponse(ex.getMessage());
+        }
+    }
+}
@@ -26,4 +26,8 @@ public class ApiAddressDto {
     @JsonProperty("postal_code")
     @NotNull
     private String postalCode;
+
+    private Double latitude; // Geocoded from the postal code when not given
+
+    private Double longitude; // Geocoded from the postal code when not given
 }
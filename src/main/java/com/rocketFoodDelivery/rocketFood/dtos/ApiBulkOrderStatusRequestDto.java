@@ -0,0 +1,23 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for a bulk order status update request.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiBulkOrderStatusRequestDto {
+    private List<ApiOrderStatusUpdateDto> updates; // The status changes to apply
+
+    private boolean atomic; // If true, apply all changes or none
+}
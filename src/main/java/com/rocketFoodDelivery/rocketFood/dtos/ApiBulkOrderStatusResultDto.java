@@ -0,0 +1,29 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the outcome of a bulk order status update.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiBulkOrderStatusResultDto {
+    private boolean committed; // Whether the successful items were committed
+
+    private int updated; // Items whose status was changed
+
+    private int unchanged; // Items that already had the requested status
+
+    private int failed; // Items that failed or were skipped
+
+    private List<ApiOrderStatusUpdateResultDto> results; // One result per item, in request order
+}
@@ -0,0 +1,34 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for the statistics of the in-memory restaurant catalog.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiCatalogStatsDto {
+    private long version; // Incremented on every rebuild or patch
+
+    private int size; // Number of restaurants in the snapshot
+
+    private int located; // Number of restaurants with coordinates in the spatial index
+
+    private int patches; // Restaurants patched since the last rebuild or fold
+
+    @JsonProperty("last_rebuild_at")
+    private Instant lastRebuildAt; // When the last full rebuild completed
+
+    @JsonProperty("last_rebuild_millis")
+    private long lastRebuildMillis; // Duration of the last full rebuild
+}
@@ -0,0 +1,27 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for one reported position of a courier.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiCourierLocationDto {
+    @JsonProperty("courier_id")
+    private Integer courierId; // ID of the courier
+
+    private Double latitude; // Latitude in degrees
+
+    private Double longitude; // Longitude in degrees
+
+    private Long timestamp; // Time of the fix in epoch milliseconds, or null for the time it was received
+}
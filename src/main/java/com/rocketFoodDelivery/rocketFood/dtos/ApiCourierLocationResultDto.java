@@ -0,0 +1,21 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for the outcome of recording a batch of courier positions.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiCourierLocationResultDto {
+    private int accepted; // Positions recorded
+
+    private int ignored; // Positions older than the latest known position of their courier
+}
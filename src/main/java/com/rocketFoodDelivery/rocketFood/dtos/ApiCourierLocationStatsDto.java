@@ -0,0 +1,36 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for the statistics of the courier location index.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiCourierLocationStatsDto {
+    private int couriers; // Couriers with a known position
+
+    private int cells; // Non-empty grid cells
+
+    @JsonProperty("history_size")
+    private int historySize; // Positions kept per courier
+
+    @JsonProperty("cell_size_meters")
+    private double cellSizeMeters; // Height of a grid cell
+
+    private long updates; // Positions recorded since startup
+
+    private long ignored; // Out-of-order positions ignored since startup
+
+    private long evicted; // Couriers dropped for not reporting since startup
+
+    private long queries; // Radius queries since startup
+}
@@ -0,0 +1,44 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for the statistics of the courier dispatch engine.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiDispatchStatsDto {
+    private boolean enabled; // Whether the dispatch engine runs
+
+    @JsonProperty("pending_orders")
+    private int pendingOrders; // Orders waiting for a courier
+
+    @JsonProperty("idle_couriers")
+    private int idleCouriers; // Free couriers waiting for an order
+
+    private long assigned; // Orders assigned since startup
+
+    private long conflicts; // Assignments lost to a concurrent change since startup
+
+    private long batches; // Micro-batches that proposed assignments since startup
+
+    @JsonProperty("last_batch_size")
+    private int lastBatchSize; // Assignments proposed by the last micro-batch
+
+    @JsonProperty("last_batch_millis")
+    private long lastBatchMillis; // Duration of the last micro-batch, including its writes
+
+    @JsonProperty("average_assignment_millis")
+    private double averageAssignmentMillis; // Mean time from queueing an order to its assignment
+
+    @JsonProperty("max_assignment_millis")
+    private long maxAssignmentMillis; // Longest time from queueing an order to its assignment
+}
@@ -0,0 +1,30 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for a courier found near a location.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiNearbyCourierDto {
+    @JsonProperty("courier_id")
+    private int courierId; // ID of the courier
+
+    private double latitude; // Latest latitude of the courier
+
+    private double longitude; // Latest longitude of the courier
+
+    private long timestamp; // Time of the latest position in epoch milliseconds
+
+    @JsonProperty("distance_meters")
+    private double distanceMeters; // Great-circle distance to the searched location
+}
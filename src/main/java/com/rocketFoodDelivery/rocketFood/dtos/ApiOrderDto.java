@@ -1,12 +1,16 @@
 package com.rocketFoodDelivery.rocketFood.dtos;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.util.List;
 
 @Data
 @Builder
+@AllArgsConstructor
+@NoArgsConstructor
 public class ApiOrderDto {
     private Integer id;
     private Integer customer_id;
@@ -0,0 +1,48 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for an order event sent to the subscribers of a
+ * customer, restaurant or courier.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiOrderEventDto {
+
+    /**
+     * Kind of order event; its lower case name is the SSE event name.
+     */
+    public enum Type {
+        CREATED, // The order was placed
+        STATUS, // The status of the order changed
+        ASSIGNED // The dispatch engine assigned a courier to the order
+    }
+
+    private Type type; // Kind of event
+
+    @JsonProperty("order_id")
+    private int orderId; // ID of the order
+
+    @JsonProperty("customer_id")
+    private int customerId; // ID of the customer who placed the order
+
+    @JsonProperty("restaurant_id")
+    private int restaurantId; // ID of the restaurant the order was placed with
+
+    @JsonProperty("courier_id")
+    private Integer courierId; // ID of the assigned courier, or null
+
+    private String status; // Status of the order after the event
+
+    @JsonProperty("previous_status")
+    private String previousStatus; // Status of the order before the event, if any
+}
@@ -0,0 +1,41 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for the statistics of the order event stream.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiOrderEventStatsDto {
+    private int subscribers; // Open event streams
+
+    @JsonProperty("max_subscribers")
+    private int maxSubscribers; // Maximum number of open event streams
+
+    private long opened; // Event streams opened since startup
+
+    private long dropped; // Event streams closed because their buffer was full or a write stalled
+
+    private long stalled; // Writes that ran past the send timeout
+
+    private long published; // Events published since startup
+
+    private long delivered; // Events written to a subscriber since startup
+
+    private long coalesced; // Events replaced by a newer event of the same order
+
+    @JsonProperty("average_fan_out_millis")
+    private double averageFanOutMillis; // Mean time from commit to delivery
+
+    @JsonProperty("max_fan_out_millis")
+    private double maxFanOutMillis; // Longest time from commit to delivery
+}
@@ -0,0 +1,34 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for an order accepted by the asynchronous intake.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiOrderIntakeDto {
+    private String handle; // Opaque handle to poll the intake status with
+
+    private String status; // QUEUED, COMMITTED or REJECTED
+
+    private ApiOrderDto order; // The created order, once committed
+
+    private String error; // Reason of the rejection, if rejected
+
+    @JsonProperty("accepted_at")
+    private Instant acceptedAt; // When the order was queued
+
+    @JsonProperty("completed_at")
+    private Instant completedAt; // When the order was committed or rejected
+}
@@ -0,0 +1,46 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for the statistics of the asynchronous order intake.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiOrderIntakeStatsDto {
+    private boolean enabled; // Whether POST /api/order uses the intake queue
+
+    @JsonProperty("queue_depth")
+    private int queueDepth; // Orders waiting for the writer
+
+    @JsonProperty("queue_capacity")
+    private int queueCapacity; // Maximum number of waiting orders
+
+    @JsonProperty("oldest_queued_millis")
+    private long oldestQueuedMillis; // Age of the oldest waiting order
+
+    private long accepted; // Orders accepted since startup
+
+    @JsonProperty("rejected_queue_full")
+    private long rejectedQueueFull; // Orders refused because the queue was full
+
+    private long committed; // Orders committed since startup
+
+    private long rejected; // Orders rejected by validation since startup
+
+    private long batches; // Group commits since startup
+
+    @JsonProperty("last_batch_size")
+    private int lastBatchSize; // Number of orders in the last group commit
+
+    @JsonProperty("last_batch_millis")
+    private long lastBatchMillis; // Duration of the last group commit
+}
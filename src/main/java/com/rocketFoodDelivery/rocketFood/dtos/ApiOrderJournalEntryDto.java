@@ -0,0 +1,43 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for one record of the order event journal.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiOrderJournalEntryDto {
+    private long sequence; // Position of the record in the journal, starting at 1
+
+    private Instant timestamp; // When the change committed
+
+    private ApiOrderEventDto.Type type; // Kind of change
+
+    @JsonProperty("order_id")
+    private int orderId; // ID of the order
+
+    @JsonProperty("customer_id")
+    private int customerId; // ID of the customer who placed the order
+
+    @JsonProperty("restaurant_id")
+    private int restaurantId; // ID of the restaurant the order was placed with
+
+    @JsonProperty("courier_id")
+    private Integer courierId; // ID of the assigned courier, or null
+
+    @JsonProperty("previous_status")
+    private String previousStatus; // Status before the change, null for a creation
+
+    private String status; // Status after the change
+}
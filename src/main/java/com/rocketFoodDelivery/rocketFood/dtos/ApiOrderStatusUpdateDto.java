@@ -0,0 +1,23 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for one item of a bulk order status update.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiOrderStatusUpdateDto {
+    @JsonProperty("order_id")
+    private Integer orderId; // ID of the order to update
+
+    private String status; // Name of the new status
+}
@@ -0,0 +1,48 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for the outcome of one item of a bulk order status
+ * update.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiOrderStatusUpdateResultDto {
+
+    /**
+     * Outcome of an item. Only UPDATED and UNCHANGED count as success.
+     */
+    public enum Outcome {
+        UPDATED, // The status was changed
+        UNCHANGED, // The order already had the requested status
+        INVALID, // The item is missing its order ID or status
+        DUPLICATE, // The order appears earlier in the same request
+        UNKNOWN_STATUS, // The status is not in the status registry
+        NOT_FOUND, // The order does not exist
+        FORBIDDEN, // The caller is neither the courier nor the restaurant owner of the order
+        INVALID_TRANSITION, // The state machine does not allow the change
+        CONFLICT, // The order was changed concurrently
+        SKIPPED // Not applied, because an atomic request had failures
+    }
+
+    @JsonProperty("order_id")
+    private Integer orderId; // ID of the order, as requested
+
+    private String status; // Requested status
+
+    private Outcome outcome; // What happened to the item
+
+    @JsonProperty("previous_status")
+    private String previousStatus; // Status of the order before the update, if read
+
+    private String message; // Explanation of a failure, if any
+}
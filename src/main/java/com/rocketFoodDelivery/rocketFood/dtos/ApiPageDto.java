@@ -0,0 +1,27 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for one page of a keyset-paginated listing.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiPageDto<T> {
+    private List<T> items; // The items of the page
+
+    @JsonProperty("next_cursor")
+    private String nextCursor; // Opaque cursor of the next page, null on the last page
+
+    private int limit; // The effective page size
+}
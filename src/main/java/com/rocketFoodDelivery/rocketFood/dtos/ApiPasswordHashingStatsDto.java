@@ -0,0 +1,40 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for the statistics of the password hashing pool.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiPasswordHashingStatsDto {
+    private int threads; // Hashes run at a time
+
+    private int active; // Hashes running now
+
+    private int queued; // Hashes waiting for a thread
+
+    private long completed; // Hashes completed since startup
+
+    private long rejected; // Hashes refused because the pool and its queue were full
+
+    @JsonProperty("timed_out")
+    private long timedOut; // Hashes abandoned after waiting longer than the timeout
+
+    @JsonProperty("average_hash_ms")
+    private double averageHashMillis; // Average time spent hashing
+
+    @JsonProperty("average_latency_ms")
+    private double averageLatencyMillis; // Average time from submission to result, queueing included
+
+    @JsonProperty("max_latency_ms")
+    private double maxLatencyMillis; // Longest time from submission to result
+}
@@ -0,0 +1,31 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for the statistics of the rate limiter.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiRateLimitStatsDto {
+    private boolean enabled; // Whether requests are limited
+
+    private int rules; // Route rules, the default rule included
+
+    private int buckets; // Buckets of clients that used tokens recently
+
+    private long allowed; // Requests let through since startup
+
+    private long limited; // Requests refused with 429 since startup
+
+    private long overflowed; // Requests that found their stripe full and used its shared bucket
+
+    private long evicted; // Idle buckets dropped since startup
+}
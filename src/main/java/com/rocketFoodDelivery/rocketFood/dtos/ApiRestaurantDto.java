@@ -1,5 +1,6 @@
 package com.rocketFoodDelivery.rocketFood.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -26,4 +27,8 @@ public class ApiRestaurantDto {
 
     @JsonProperty("address")
     private ApiAddressDto address; // The address details of the restaurant
+
+    @JsonProperty("distance_meters")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distanceMeters; // Distance from the searched location, only set by nearby searches
 }
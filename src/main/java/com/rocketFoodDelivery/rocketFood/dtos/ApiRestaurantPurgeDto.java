@@ -0,0 +1,46 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for the progress of a restaurant purge.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiRestaurantPurgeDto {
+    @JsonProperty("restaurant_id")
+    private int restaurantId; // ID of the soft-deleted restaurant
+
+    private String status; // PENDING, RUNNING, COMPLETED or FAILED
+
+    @JsonProperty("product_orders_deleted")
+    private long productOrdersDeleted; // Product orders deleted so far
+
+    @JsonProperty("orders_deleted")
+    private long ordersDeleted; // Orders deleted so far
+
+    @JsonProperty("products_deleted")
+    private long productsDeleted; // Products deleted so far
+
+    @JsonProperty("requested_at")
+    private Instant requestedAt; // When the restaurant was soft-deleted
+
+    @JsonProperty("updated_at")
+    private Instant updatedAt; // When the progress was last recorded
+
+    @JsonProperty("completed_at")
+    private Instant completedAt; // When the purge completed, if it did
+
+    @JsonProperty("last_error")
+    private String lastError; // Message of the last failure, if any
+}
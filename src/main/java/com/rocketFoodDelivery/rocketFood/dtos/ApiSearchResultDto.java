@@ -0,0 +1,34 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for one ranked search result, a restaurant or a dish.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiSearchResultDto {
+    private String type; // "restaurant" or "product"
+
+    private int id; // ID of the restaurant or product
+
+    @JsonProperty("restaurant_id")
+    private int restaurantId; // ID of the restaurant, or of the product's restaurant
+
+    @JsonProperty("restaurant_name")
+    private String restaurantName; // Name of the restaurant, or of the product's restaurant
+
+    private String name; // Name of the restaurant or product
+
+    private String description; // Description of the product, null for restaurants
+
+    private double score; // Relevance, higher is better
+}
@@ -0,0 +1,38 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for the statistics of the search index.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiSearchStatsDto {
+    private int restaurants; // Restaurants in the index
+
+    private int products; // Products in the index
+
+    private int terms; // Distinct terms
+
+    private int trigrams; // Distinct trigrams of the terms
+
+    private long postings; // Term occurrences across all documents
+
+    private long queries; // Searches since startup
+
+    @JsonProperty("last_rebuild_at")
+    private Instant lastRebuildAt; // When the last full rebuild completed
+
+    @JsonProperty("last_rebuild_millis")
+    private long lastRebuildMillis; // Duration of the last full rebuild, including its queries
+}
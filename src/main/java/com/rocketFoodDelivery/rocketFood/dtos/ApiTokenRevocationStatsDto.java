@@ -0,0 +1,38 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for the statistics of the access token revocation list.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiTokenRevocationStatsDto {
+    private int entries; // Revoked tokens that have not expired yet
+
+    @JsonProperty("filter_bits")
+    private long filterBits; // Size of the Bloom filter
+
+    @JsonProperty("hash_functions")
+    private int hashFunctions; // Bits set per revoked token
+
+    private long checks; // Tokens checked since startup
+
+    private long lookups; // Checks the filter could not answer alone and sent to the table
+
+    @JsonProperty("false_positives")
+    private long falsePositives; // Lookups that found the token was not revoked
+
+    @JsonProperty("last_reload_at")
+    private Instant lastReloadAt; // When the filter was last rebuilt from the table
+}
@@ -0,0 +1,25 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for the statistics of the login user cache.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiUserCacheStatsDto {
+    private int entries; // Users cached, expired ones included until purged
+
+    private long hits; // Logins served from the cache
+
+    private long misses; // Logins that read the user from the database
+
+    private long rehashed; // Legacy passwords rehashed at login since startup
+}
@@ -0,0 +1,21 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object for refresh token exchange and logout requests.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class AuthRefreshRequestDto {
+    @NotBlank(message = "Refresh token is mandatory")
+    private String refreshToken; // The refresh token returned by the last login or refresh
+}
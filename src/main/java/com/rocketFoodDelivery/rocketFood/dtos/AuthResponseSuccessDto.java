@@ -17,4 +17,6 @@ import lombok.Setter;
 public class AuthResponseSuccessDto {
     private boolean success; // Indicates if the authentication was successful
     private String accessToken; // The access token for the authenticated user
+    private String refreshToken; // The single-use token to exchange for new tokens
+    private long expiresIn; // Lifetime of the access token in seconds
 }
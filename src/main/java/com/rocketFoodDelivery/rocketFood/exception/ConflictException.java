@@ -0,0 +1,16 @@
+package com.rocketFoodDelivery.rocketFood.exception;
+
+/**
+ * Exception thrown when a request conflicts with the current state of a
+ * resource, for example a concurrent update.
+ */
+public class ConflictException extends RuntimeException {
+    /**
+     * Constructs a new ConflictException with the specified detail message.
+     *
+     * @param message the detail message.
+     */
+    public ConflictException(String message) {
+        super(message);
+    }
+}
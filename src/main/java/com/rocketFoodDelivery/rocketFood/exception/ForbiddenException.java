@@ -0,0 +1,16 @@
+package com.rocketFoodDelivery.rocketFood.exception;
+
+/**
+ * Exception thrown when the caller is authenticated but may not act on a
+ * resource, for example a restaurant owned by another user.
+ */
+public class ForbiddenException extends RuntimeException {
+    /**
+     * Constructs a new ForbiddenException with the specified detail message.
+     *
+     * @param message the detail message.
+     */
+    public ForbiddenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.rocketFoodDelivery.rocketFood.exception;
+
+/**
+ * Exception thrown when a request cannot be accepted right now, for example
+ * because a bounded queue is full. Clients may retry later.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    /**
+     * Constructs a new ServiceUnavailableException with the specified detail message.
+     *
+     * @param message the detail message.
+     */
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
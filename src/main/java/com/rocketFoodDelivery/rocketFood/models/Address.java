@@ -30,6 +30,10 @@ public class Address {
     @Column(name = "postal_code", nullable = false)
     private String postalCode; // Postal code of the address
 
+    private Double latitude; // Latitude in degrees, or null if unknown
+
+    private Double longitude; // Longitude in degrees, or null if unknown
+
     /**
      * Returns a string representation of the address.
      */
@@ -0,0 +1,29 @@
+package com.rocketFoodDelivery.rocketFood.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Records a one-time data migration that has been applied, so it does not
+ * run again on the next startup.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "app_migrations")
+public class AppMigration {
+
+    @Id
+    @Column(length = 64)
+    private String name; // Primary key, the name of the migration
+
+    @Column(name = "applied_at", nullable = false)
+    private Instant appliedAt; // When the migration was applied
+}
@@ -0,0 +1,44 @@
+package com.rocketFoodDelivery.rocketFood.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Represents the stored outcome of a request made with an Idempotency-Key.
+ * The row is inserted in the same transaction as the request's writes, so a
+ * key is recorded if and only if its request committed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+
+    public static final int MAX_KEY_LENGTH = 320; // Length of the scoped key column
+
+    @Id
+    @Column(name = "idempotency_key", length = MAX_KEY_LENGTH)
+    private String idempotencyKey; // Primary key, the client key scoped by user
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash; // SHA-256 of the request body
+
+    @Lob
+    @Column(name = "response_body", nullable = false, columnDefinition = "TEXT")
+    private String responseBody; // JSON of the original response data
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt; // When the request committed
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt; // When the key may be reused
+}
@@ -0,0 +1,54 @@
+package com.rocketFoodDelivery.rocketFood.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+/**
+ * Represents a refresh token issued at login or by a rotation.
+ * Only the SHA-256 of the token is stored. Every rotation revokes the
+ * presented token and issues a new one in the same family, so presenting a
+ * revoked token means it was stolen and revokes the whole family.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
+})
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id; // Primary key for the refresh token
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash; // SHA-256 of the token
+
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId; // Shared by the tokens descending from one login
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private UserEntity user; // User the token was issued to
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt; // When the token was issued
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt; // When the token stops being accepted
+
+    @Column(name = "revoked_at")
+    private Instant revokedAt; // When the token was rotated or revoked, null while usable
+}
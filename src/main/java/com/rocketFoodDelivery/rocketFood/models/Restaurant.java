@@ -20,7 +20,10 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "restaurants")
+@Table(name = "restaurants", indexes = {
+        @Index(name = "idx_restaurants_price_range", columnList = "price_range, id"),
+        @Index(name = "idx_restaurants_name", columnList = "name, id")
+})
 public class Restaurant {
 
     @Id
@@ -49,8 +52,9 @@ public class Restaurant {
     @Column(nullable = false)
     private String email; // Email of the restaurant
 
-    @Column(nullable = false)
-    private boolean active; // Whether the restaurant is active or not
+    @Column(nullable = false, columnDefinition = "boolean default true")
+    @Builder.Default
+    private boolean active = true; // Whether the restaurant is active or not; false once soft-deleted
 
     @OneToMany(mappedBy = "restaurant", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
@@ -65,6 +69,7 @@ public class Restaurant {
      */
     public Restaurant(int id) {
         this.id = id;
+        this.active = true;
     }
 
     /**
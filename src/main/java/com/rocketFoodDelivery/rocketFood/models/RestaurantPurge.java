@@ -0,0 +1,78 @@
+package com.rocketFoodDelivery.rocketFood.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Represents the background purge of a soft-deleted restaurant.
+ * The row is created in the same transaction that deactivates the restaurant
+ * and records the progress of the batched deletion of its data, so an
+ * interrupted purge resumes where it stopped.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "restaurant_purges", indexes = {
+        @Index(name = "idx_restaurant_purges_status", columnList = "status, requested_at")
+})
+public class RestaurantPurge {
+
+    /**
+     * Lifecycle of a purge.
+     */
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Id
+    @Column(name = "restaurant_id")
+    private int restaurantId; // Primary key, same as the purged restaurant ID
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status; // Current state of the purge
+
+    @Column(name = "product_orders_deleted", nullable = false)
+    private long productOrdersDeleted; // Product orders deleted so far
+
+    @Column(name = "orders_deleted", nullable = false)
+    private long ordersDeleted; // Orders deleted so far
+
+    @Column(name = "products_deleted", nullable = false)
+    private long productsDeleted; // Products deleted so far
+
+    @Column(name = "requested_at", nullable = false)
+    private Instant requestedAt; // When the restaurant was soft-deleted
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt; // When the progress was last recorded
+
+    @Column(name = "completed_at")
+    private Instant completedAt; // When the restaurant row itself was deleted
+
+    @Column(name = "last_error")
+    private String lastError; // Message of the last failure, if any
+
+    /**
+     * Creates a pending purge for a restaurant that was just soft-deleted.
+     */
+    public static RestaurantPurge pending(int restaurantId) {
+        Instant now = Instant.now();
+        return RestaurantPurge.builder()
+                .restaurantId(restaurantId)
+                .status(Status.PENDING)
+                .requestedAt(now)
+                .updatedAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.rocketFoodDelivery.rocketFood.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Represents the materialized rating aggregate of a restaurant.
+ * The row is maintained incrementally in the same transaction as the order
+ * writes that affect it, so reads never have to aggregate the orders table.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "restaurant_ratings", indexes = {
+        @Index(name = "idx_restaurant_ratings_rating", columnList = "rating, restaurant_id")
+})
+public class RestaurantRating {
+
+    @Id
+    @Column(name = "restaurant_id")
+    private int restaurantId; // Primary key, same as the restaurant ID
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum; // Sum of all restaurant_rating values of the restaurant's orders
+
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount; // Number of orders contributing to the sum
+
+    @Column(nullable = false)
+    private int rating; // Derived rating, CEIL(ratingSum / ratingCount) or 0 without orders
+
+    /**
+     * Derives the rating from a sum and a count with the same rounding as the
+     * SQL aggregate: MySQL divides to 4 decimals (div_precision_increment)
+     * before CEIL is applied, or 0 when there are no orders.
+     */
+    public static int deriveRating(long ratingSum, long ratingCount) {
+        if (ratingCount <= 0) {
+            return 0;
+        }
+        return BigDecimal.valueOf(ratingSum)
+                .divide(BigDecimal.valueOf(ratingCount), 4, RoundingMode.HALF_UP)
+                .setScale(0, RoundingMode.CEILING)
+                .intValue();
+    }
+
+    /**
+     * Creates an empty aggregate for a restaurant without orders.
+     */
+    public static RestaurantRating empty(int restaurantId) {
+        return new RestaurantRating(restaurantId, 0, 0, 0);
+    }
+}
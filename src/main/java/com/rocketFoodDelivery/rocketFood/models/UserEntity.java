@@ -7,13 +7,10 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 /**
  * Represents a user entity with security details.
@@ -40,6 +37,9 @@ public class UserEntity implements UserDetails {
     @Transient
     private boolean isEmployee; // Transient field to check if the user is an employee
 
+    @Transient
+    private boolean isRestaurantOwner; // Transient field to check if the user owns an active restaurant
+
     private Integer customerId; // ID of the customer, if applicable
     private Integer courierId; // ID of the courier, if applicable
 
@@ -49,19 +49,12 @@ public class UserEntity implements UserDetails {
     private Restaurant restaurant; // Restaurant associated with the user
 
     /**
-     * Returns the authorities granted to the user.
+     * Returns the authorities granted to the user, one per role it holds.
      */
     @JsonIgnore
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        List<GrantedAuthority> authorities = new ArrayList<>();
-
-        if (isEmployee) {
-            authorities.add(new SimpleGrantedAuthority("ROLE_EMPLOYEE"));
-        } else {
-            authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
-        }
-        return authorities;
+        return UserRole.authorities(UserRole.of(this));
     }
 
     @Override
@@ -0,0 +1,97 @@
+package com.rocketFoodDelivery.rocketFood.models;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Roles a user can hold, derived from the records the user is linked to.
+ * A user holds every role that applies, e.g. a courier who also orders food
+ * is both a courier and a customer.
+ */
+public enum UserRole {
+    EMPLOYEE("employee"),
+    CUSTOMER("customer"),
+    COURIER("courier"),
+    RESTAURANT_OWNER("restaurant_owner");
+
+    private final String claim;
+    private final GrantedAuthority authority;
+
+    UserRole(String claim) {
+        this.claim = claim;
+        this.authority = new SimpleGrantedAuthority("ROLE_" + name());
+    }
+
+    /**
+     * Returns the name of the role in the roles claim of access tokens.
+     *
+     * @return the claim value.
+     */
+    public String getClaim() {
+        return claim;
+    }
+
+    /**
+     * Returns the role named by a claim value.
+     *
+     * @param claim the claim value.
+     * @return the role, or null if the value names no role.
+     */
+    public static UserRole fromClaim(String claim) {
+        for (UserRole role : values()) {
+            if (role.claim.equals(claim)) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Derives the roles of a user. The employee and restaurant owner flags,
+     * and the customer and courier IDs, must have been populated by
+     * UserService.populateRoles.
+     *
+     * @param user the user.
+     * @return the roles of the user, possibly none.
+     */
+    public static Set<UserRole> of(UserEntity user) {
+        Set<UserRole> roles = EnumSet.noneOf(UserRole.class);
+        if (user.isEmployee()) {
+            roles.add(EMPLOYEE);
+        }
+        if (user.getCustomerId() != null) {
+            roles.add(CUSTOMER);
+        }
+        if (user.getCourierId() != null) {
+            roles.add(COURIER);
+        }
+        if (user.isRestaurantOwner() || user.getRestaurant() != null) {
+            roles.add(RESTAURANT_OWNER);
+        }
+        return roles;
+    }
+
+    /**
+     * Maps roles to Spring Security authorities. Users who are not
+     * employees also get ROLE_USER.
+     *
+     * @param roles the roles.
+     * @return the granted authorities.
+     */
+    public static Collection<GrantedAuthority> authorities(Set<UserRole> roles) {
+        List<GrantedAuthority> authorities = new ArrayList<>(roles.size() + 1);
+        if (!roles.contains(EMPLOYEE)) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
+        }
+        for (UserRole role : roles) {
+            authorities.add(role.authority);
+        }
+        return authorities;
+    }
+}
@@ -29,6 +29,10 @@ public interface AddressRepository extends JpaRepository<Address, Integer> {
     @Query(nativeQuery = true, value = "INSERT INTO addresses (street_address, city, postal_code) VALUES (:streetAddress, :city, :postalCode)")
     void saveAddress(String streetAddress, String city, String postalCode);
 
+    // Addresses of restaurants saved before coordinates were geocoded
+    @Query("SELECT a FROM Restaurant r JOIN r.address a WHERE a.latitude IS NULL OR a.longitude IS NULL")
+    List<Address> findRestaurantAddressesWithoutCoordinates();
+
     // Custom query to get the last inserted ID from the addresses table
     @Query(nativeQuery = true, value = "SELECT LAST_INSERT_ID() AS id")
     int getLastInsertedId();
@@ -0,0 +1,23 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import com.rocketFoodDelivery.rocketFood.models.AppMigration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+// Annotation to indicate that this interface is a Spring Data repository
+@Repository
+public interface AppMigrationRepository extends JpaRepository<AppMigration, String> {
+
+    // Method to record a migration as applied; instances starting together
+    // may both apply an idempotent migration, and only one row is kept
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "INSERT IGNORE INTO app_migrations (name, applied_at) VALUES (:name, :now)")
+    int markApplied(@Param("name") String name, @Param("now") Instant now);
+}
@@ -0,0 +1,12 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import lombok.Value;
+
+/**
+ * Assignment of a courier to an order, proposed by the dispatch engine.
+ */
+@Value
+public class CourierAssignment {
+    int orderId; // ID of the order
+    int courierId; // ID of the courier to assign
+}
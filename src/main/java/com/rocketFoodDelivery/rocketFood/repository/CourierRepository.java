@@ -2,14 +2,22 @@ package com.rocketFoodDelivery.rocketFood.repository;
 
 import com.rocketFoodDelivery.rocketFood.models.Courier;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 // Annotation to indicate that this interface is a Spring Data repository
 @Repository
-public interface CourierRepository extends JpaRepository<Courier, Integer> {
+public interface CourierRepository extends JpaRepository<Courier, Integer>, CourierRepositoryCustom {
 
     // Method to find a Courier by its associated UserEntity ID
     Optional<Courier> findByUserEntityId(int id);
+
+    // Method to find which of the given courier IDs exist
+    @Query("SELECT c.id FROM Courier c WHERE c.id IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
 }
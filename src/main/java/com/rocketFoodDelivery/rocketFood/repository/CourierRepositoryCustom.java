@@ -0,0 +1,31 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Custom fragment of CourierRepository for the dispatch engine, with plain
+ * JDBC reads and batched conditional status updates.
+ */
+public interface CourierRepositoryCustom {
+
+    /**
+     * Fetches the IDs of the active couriers with the given status.
+     *
+     * @param statusId the courier status ID, such as the one of "free".
+     * @return the courier IDs.
+     */
+    List<Integer> findActiveCourierIdsByStatus(int statusId);
+
+    /**
+     * Changes the status of active couriers as one JDBC batch of
+     * UPDATE ... WHERE id = ? AND courier_status_id = ? AND active.
+     *
+     * @param courierIds       the couriers to update.
+     * @param expectedStatusId the status the couriers must still have.
+     * @param newStatusId      the new status.
+     * @return the number of updated rows per courier, in order; 0 means the
+     *         courier no longer had the expected status or is inactive.
+     */
+    int[] updateStatusesIfCurrent(Collection<Integer> courierIds, int expectedStatusId, int newStatusId);
+}
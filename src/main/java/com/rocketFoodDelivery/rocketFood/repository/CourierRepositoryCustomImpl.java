@@ -0,0 +1,42 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC implementation of the CourierRepositoryCustom fragment.
+ */
+public class CourierRepositoryCustomImpl implements CourierRepositoryCustom {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Constructor for dependency injection of the NamedParameterJdbcTemplate
+    public CourierRepositoryCustomImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Integer> findActiveCourierIdsByStatus(int statusId) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM courier WHERE courier_status_id = :statusId AND active = true ORDER BY id",
+                new MapSqlParameterSource("statusId", statusId), Integer.class);
+    }
+
+    @Override
+    public int[] updateStatusesIfCurrent(Collection<Integer> courierIds, int expectedStatusId, int newStatusId) {
+        if (courierIds.isEmpty()) {
+            return new int[0];
+        }
+        SqlParameterSource[] batch = courierIds.stream()
+                .map(courierId -> new MapSqlParameterSource("courierId", courierId)
+                        .addValue("expectedStatusId", expectedStatusId)
+                        .addValue("newStatusId", newStatusId))
+                .toArray(SqlParameterSource[]::new);
+        return jdbcTemplate.batchUpdate("UPDATE courier SET courier_status_id = :newStatusId "
+                + "WHERE id = :courierId AND courier_status_id = :expectedStatusId AND active = true", batch);
+    }
+}
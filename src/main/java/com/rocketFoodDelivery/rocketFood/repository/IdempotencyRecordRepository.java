@@ -0,0 +1,22 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import com.rocketFoodDelivery.rocketFood.models.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+// Annotation to indicate that this interface is a Spring Data repository
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Method to delete the records whose keys have expired
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "DELETE FROM idempotency_keys WHERE expires_at < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
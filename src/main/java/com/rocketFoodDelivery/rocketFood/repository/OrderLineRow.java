@@ -0,0 +1,15 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import lombok.Value;
+
+/**
+ * Immutable product line of an order, joined with the product name.
+ */
+@Value
+public class OrderLineRow {
+    int orderId; // ID of the order the line belongs to
+    int productId; // ID of the ordered product
+    String productName; // Name of the ordered product
+    int quantity; // Quantity of the product in the order
+    int unitCost; // Cost per unit of the product in the order
+}
@@ -0,0 +1,44 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import java.util.Locale;
+
+/**
+ * The kinds of entity an order history can be listed for, each with the
+ * orders column referencing it.
+ */
+public enum OrderOwner {
+    CUSTOMER("customer_id"),
+    RESTAURANT("restaurant_id"),
+    COURIER("courier_id");
+
+    private final String column;
+
+    OrderOwner(String column) {
+        this.column = column;
+    }
+
+    /**
+     * Returns the orders column referencing the owner.
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Returns the owner for a request type such as "customer".
+     *
+     * @param type the type, case-insensitive.
+     * @return the owner.
+     * @throws IllegalArgumentException if the type is unknown.
+     */
+    public static OrderOwner fromType(String type) {
+        if (type != null) {
+            for (OrderOwner owner : values()) {
+                if (owner.name().equals(type.toUpperCase(Locale.ROOT))) {
+                    return owner;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Invalid type: " + type);
+    }
+}
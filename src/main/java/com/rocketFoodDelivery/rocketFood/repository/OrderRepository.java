@@ -13,7 +13,7 @@ import java.util.Optional;
 
 // Annotation to indicate that this interface is a Spring Data repository
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Integer> {
+public interface OrderRepository extends JpaRepository<Order, Integer>, OrderRepositoryCustom {
 
     // Method to find an Order by its ID
     Optional<Order> findById(int id);
@@ -40,4 +40,24 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
     @Transactional
     @Query(nativeQuery = true, value = "DELETE FROM orders WHERE id = :orderId")
     void deleteOrderById(@Param("orderId") int orderId);
+
+    // Custom query to change the status of an Order only if it still has the
+    // expected status; returns 0 when another update got there first
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "UPDATE orders SET status_id = :newStatusId WHERE id = :orderId AND status_id = :expectedStatusId")
+    int updateStatusIfCurrent(@Param("orderId") int orderId, @Param("expectedStatusId") int expectedStatusId,
+            @Param("newStatusId") int newStatusId);
+
+    // Custom query to find the IDs of a bounded batch of a restaurant's orders,
+    // used by the restaurant purge job
+    @Query(nativeQuery = true, value = "SELECT id FROM orders WHERE restaurant_id = :restaurantId ORDER BY id LIMIT :limit")
+    List<Integer> findOrderIdBatchByRestaurantId(@Param("restaurantId") int restaurantId,
+            @Param("limit") int limit);
+
+    // Custom query to delete a batch of Orders by their IDs
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "DELETE FROM orders WHERE id IN (:orderIds)")
+    int deleteOrdersByIds(@Param("orderIds") List<Integer> orderIds);
 }
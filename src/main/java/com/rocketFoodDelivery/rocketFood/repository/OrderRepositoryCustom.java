@@ -0,0 +1,91 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Custom fragment of OrderRepository for order histories, read with plain
+ * JDBC so that neither the eager associations of Order nor one product line
+ * query per order are involved.
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * Fetches one page of the orders of a customer, restaurant or courier,
+     * most recent first, seeking past afterId when a cursor is given.
+     *
+     * @param owner   the kind of entity the orders belong to.
+     * @param ownerId the ID of that entity.
+     * @param afterId the ID of the last order of the previous page, or null.
+     * @param limit   the maximum number of rows to return.
+     * @return the orders of the page.
+     */
+    List<OrderSummaryRow> findOrderPage(OrderOwner owner, int ownerId, Integer afterId, int limit);
+
+    /**
+     * Fetches the product lines of a batch of orders in one query.
+     *
+     * @param orderIds the IDs of the orders.
+     * @return the lines, grouped by order and in insertion order.
+     */
+    List<OrderLineRow> findOrderLines(Collection<Integer> orderIds);
+
+    /**
+     * Streams every order of a customer, restaurant or courier with its
+     * product lines through a forward-only cursor, oldest first. Rows are
+     * handed over one at a time and never collected, so memory use does not
+     * depend on the number of orders. If the handler throws, the statement is
+     * cancelled so the rest of the result is not read.
+     *
+     * @param owner     the kind of entity the orders belong to.
+     * @param ownerId   the ID of that entity.
+     * @param fetchSize the JDBC fetch size of the cursor.
+     * @param handler   called once per product line, ordered by order ID, with
+     *                  a null line for orders without products.
+     */
+    void streamOrdersWithLines(OrderOwner owner, int ownerId, int fetchSize,
+            BiConsumer<OrderSummaryRow, OrderLineRow> handler);
+
+    /**
+     * Reads the current status and owners of a batch of orders in one query.
+     *
+     * @param orderIds the IDs of the orders.
+     * @return the order rows by order ID; orders that do not exist are absent.
+     */
+    Map<Integer, OrderSummaryRow> findOrderSummaries(Collection<Integer> orderIds);
+
+    /**
+     * Applies conditional status changes as one JDBC batch of
+     * UPDATE orders SET status_id = ? WHERE id = ? AND status_id = ?.
+     *
+     * @param changes the changes to apply.
+     * @return the number of updated rows per change, in order; 0 means the
+     *         order no longer had the expected status.
+     */
+    int[] updateStatusesIfCurrent(List<OrderStatusChange> changes);
+
+    /**
+     * Fetches the orders without a courier whose status is one of the given
+     * ones, in ID order, seeking past afterId.
+     *
+     * @param statusIds the order status IDs to include.
+     * @param afterId   the highest order ID already fetched, or 0.
+     * @param limit     the maximum number of rows to return.
+     * @return the unassigned orders.
+     */
+    List<OrderSummaryRow> findUnassignedOrders(Collection<Integer> statusIds, int afterId, int limit);
+
+    /**
+     * Assigns couriers to orders as one JDBC batch of
+     * UPDATE orders SET courier_id = ? WHERE id = ? AND courier_id IS NULL
+     * AND status_id IN (...).
+     *
+     * @param assignments the assignments to apply.
+     * @param statusIds   the order status IDs an order may still have.
+     * @return the number of updated rows per assignment, in order; 0 means
+     *         the order was assigned or closed in the meantime.
+     */
+    int[] assignCouriers(List<CourierAssignment> assignments, Collection<Integer> statusIds);
+}
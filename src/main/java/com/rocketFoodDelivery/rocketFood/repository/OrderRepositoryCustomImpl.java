@@ -0,0 +1,170 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * JDBC implementation of the OrderRepositoryCustom fragment.
+ */
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private static final RowMapper<OrderSummaryRow> SUMMARY_ROW_MAPPER = (rs, rowNum) -> new OrderSummaryRow(
+            rs.getInt("id"),
+            rs.getInt("customer_id"),
+            rs.getInt("restaurant_id"),
+            rs.getObject("courier_id", Integer.class),
+            rs.getInt("status_id"));
+
+    private static final RowMapper<OrderLineRow> LINE_ROW_MAPPER = (rs, rowNum) -> new OrderLineRow(
+            rs.getInt("order_id"),
+            rs.getInt("product_id"),
+            rs.getString("name"),
+            rs.getInt("product_quantity"),
+            rs.getInt("product_unit_cost"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Constructor for dependency injection of the NamedParameterJdbcTemplate
+    public OrderRepositoryCustomImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<OrderSummaryRow> findOrderPage(OrderOwner owner, int ownerId, Integer afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ownerId", ownerId).addValue("limit", limit);
+        // The owner's foreign key index ends with the primary key, so the seek
+        // and the ORDER BY are both served by it
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, customer_id, restaurant_id, courier_id, status_id FROM orders WHERE ")
+                .append(owner.getColumn()).append(" = :ownerId ");
+        if (afterId != null) {
+            sql.append("AND id < :afterId ");
+            params.addValue("afterId", afterId);
+        }
+        sql.append("ORDER BY id DESC LIMIT :limit");
+        return jdbcTemplate.query(sql.toString(), params, SUMMARY_ROW_MAPPER);
+    }
+
+    @Override
+    public List<OrderLineRow> findOrderLines(Collection<Integer> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("SELECT po.order_id, po.product_id, p.name, po.product_quantity, "
+                + "po.product_unit_cost FROM product_orders po JOIN products p ON p.id = po.product_id "
+                + "WHERE po.order_id IN (:orderIds) ORDER BY po.order_id, po.id",
+                new MapSqlParameterSource("orderIds", orderIds), LINE_ROW_MAPPER);
+    }
+
+    @Override
+    public void streamOrdersWithLines(OrderOwner owner, int ownerId, int fetchSize,
+            BiConsumer<OrderSummaryRow, OrderLineRow> handler) {
+        String sql = "SELECT o.id, o.customer_id, o.restaurant_id, o.courier_id, o.status_id, "
+                + "po.product_id, p.name, po.product_quantity, po.product_unit_cost "
+                + "FROM orders o LEFT JOIN product_orders po ON po.order_id = o.id "
+                + "LEFT JOIN products p ON p.id = po.product_id "
+                + "WHERE o." + owner.getColumn() + " = ? ORDER BY o.id, po.id";
+        jdbcTemplate.getJdbcOperations().execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                statement.setInt(1, ownerId);
+                try (ResultSet rs = statement.executeQuery()) {
+                    OrderSummaryRow order = null;
+                    while (rs.next()) {
+                        int orderId = rs.getInt("id");
+                        if (order == null || order.getId() != orderId) {
+                            order = SUMMARY_ROW_MAPPER.mapRow(rs, 0);
+                        }
+                        Integer productId = rs.getObject("product_id", Integer.class);
+                        handler.accept(order, productId == null ? null
+                                : new OrderLineRow(orderId, productId, rs.getString("name"),
+                                        rs.getInt("product_quantity"), rs.getInt("product_unit_cost")));
+                    }
+                } catch (RuntimeException ex) {
+                    // Closing a streaming result set would otherwise read it to the end
+                    cancelQuietly(statement);
+                    throw ex;
+                }
+            }
+            return null;
+        });
+    }
+
+    private static void cancelQuietly(PreparedStatement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException ignored) {
+            // The statement is closed right after, nothing else to do
+        }
+    }
+
+    @Override
+    public Map<Integer, OrderSummaryRow> findOrderSummaries(Collection<Integer> orderIds) {
+        Map<Integer, OrderSummaryRow> orders = new HashMap<>();
+        if (orderIds.isEmpty()) {
+            return orders;
+        }
+        jdbcTemplate.query("SELECT id, customer_id, restaurant_id, courier_id, status_id FROM orders "
+                + "WHERE id IN (:orderIds)",
+                new MapSqlParameterSource("orderIds", orderIds),
+                rs -> {
+                    OrderSummaryRow order = SUMMARY_ROW_MAPPER.mapRow(rs, 0);
+                    orders.put(order.getId(), order);
+                });
+        return orders;
+    }
+
+    @Override
+    public int[] updateStatusesIfCurrent(List<OrderStatusChange> changes) {
+        if (changes.isEmpty()) {
+            return new int[0];
+        }
+        SqlParameterSource[] batch = changes.stream()
+                .map(change -> new MapSqlParameterSource("orderId", change.getOrderId())
+                        .addValue("expectedStatusId", change.getExpectedStatusId())
+                        .addValue("newStatusId", change.getNewStatusId()))
+                .toArray(SqlParameterSource[]::new);
+        return jdbcTemplate.batchUpdate("UPDATE orders SET status_id = :newStatusId "
+                + "WHERE id = :orderId AND status_id = :expectedStatusId", batch);
+    }
+
+    @Override
+    public List<OrderSummaryRow> findUnassignedOrders(Collection<Integer> statusIds, int afterId, int limit) {
+        if (statusIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("SELECT id, customer_id, restaurant_id, courier_id, status_id FROM orders "
+                + "WHERE courier_id IS NULL AND status_id IN (:statusIds) AND id > :afterId ORDER BY id LIMIT :limit",
+                new MapSqlParameterSource("statusIds", statusIds)
+                        .addValue("afterId", afterId)
+                        .addValue("limit", limit),
+                SUMMARY_ROW_MAPPER);
+    }
+
+    @Override
+    public int[] assignCouriers(List<CourierAssignment> assignments, Collection<Integer> statusIds) {
+        if (assignments.isEmpty()) {
+            return new int[0];
+        }
+        SqlParameterSource[] batch = assignments.stream()
+                .map(assignment -> new MapSqlParameterSource("orderId", assignment.getOrderId())
+                        .addValue("courierId", assignment.getCourierId())
+                        .addValue("statusIds", statusIds))
+                .toArray(SqlParameterSource[]::new);
+        return jdbcTemplate.batchUpdate("UPDATE orders SET courier_id = :courierId "
+                + "WHERE id = :orderId AND courier_id IS NULL AND status_id IN (:statusIds)", batch);
+    }
+}
@@ -0,0 +1,14 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import lombok.Value;
+
+/**
+ * Immutable conditional status change of an order, applied only if the order
+ * still has the expected status.
+ */
+@Value
+public class OrderStatusChange {
+    int orderId; // ID of the order to update
+    int expectedStatusId; // Status the order must still have
+    int newStatusId; // Status to set
+}
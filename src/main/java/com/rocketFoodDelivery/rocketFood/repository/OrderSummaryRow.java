@@ -0,0 +1,16 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import lombok.Value;
+
+/**
+ * Immutable order row without its associations, read with plain column
+ * values so listing orders never loads the restaurant, customer or courier.
+ */
+@Value
+public class OrderSummaryRow {
+    int id; // ID of the order
+    int customerId; // ID of the customer who placed the order
+    int restaurantId; // ID of the restaurant the order was placed with
+    Integer courierId; // ID of the assigned courier, or null
+    int statusId; // ID of the order status
+}
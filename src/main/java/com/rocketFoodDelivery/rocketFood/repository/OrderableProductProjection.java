@@ -0,0 +1,13 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+/**
+ * Projection of the product columns needed to place an order line.
+ */
+public interface OrderableProductProjection {
+
+    int getId();
+
+    String getName();
+
+    int getUnitCost();
+}
@@ -0,0 +1,15 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import lombok.Value;
+
+/**
+ * Immutable product order line, inserted in bulk by
+ * ProductOrderRepositoryCustom.insertProductOrders.
+ */
+@Value
+public class ProductOrderLine {
+    int productId; // ID of the ordered product
+    String productName; // Name of the product, used to build the response
+    int quantity; // Quantity of the product in the order
+    int unitCost; // Cost per unit of the product when the order was placed
+}
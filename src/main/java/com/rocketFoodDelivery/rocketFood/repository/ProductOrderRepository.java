@@ -13,7 +13,7 @@ import java.util.Optional;
 
 // Annotation to indicate that this interface is a Spring Data repository
 @Repository
-public interface ProductOrderRepository extends JpaRepository<ProductOrder, Integer> {
+public interface ProductOrderRepository extends JpaRepository<ProductOrder, Integer>, ProductOrderRepositoryCustom {
 
     // Custom query to delete product orders by order ID
     // The @Modifying annotation indicates that this is a modifying query (e.g.,
@@ -25,6 +25,20 @@ public interface ProductOrderRepository extends JpaRepository<ProductOrder, Inte
     @Query(nativeQuery = true, value = "DELETE FROM product_orders WHERE order_id = :orderId")
     void deleteProductOrdersByOrderId(@Param("orderId") int orderId);
 
+    // Custom query to delete the product orders of a batch of orders
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "DELETE FROM product_orders WHERE order_id IN (:orderIds)")
+    int deleteProductOrdersByOrderIds(@Param("orderIds") List<Integer> orderIds);
+
+    // Custom query to delete a bounded batch of product orders referencing the
+    // products of a restaurant, used by the restaurant purge job
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "DELETE FROM product_orders WHERE product_id IN "
+            + "(SELECT id FROM products WHERE restaurant_id = :restaurantId) LIMIT :limit")
+    int deleteProductOrderBatchByRestaurantId(@Param("restaurantId") int restaurantId, @Param("limit") int limit);
+
     // Method to find a ProductOrder by its ID
     Optional<ProductOrder> findById(int id);
 
@@ -0,0 +1,19 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import java.util.List;
+
+/**
+ * Custom fragment of ProductOrderRepository for bulk writes that Spring Data
+ * JPA cannot batch, since product orders use IDENTITY keys.
+ */
+public interface ProductOrderRepositoryCustom {
+
+    /**
+     * Inserts all lines of an order with a single multi-row INSERT statement.
+     *
+     * @param orderId the ID of the order.
+     * @param lines   the lines of the order, with distinct product IDs.
+     * @return the number of inserted rows.
+     */
+    int insertProductOrders(int orderId, List<ProductOrderLine> lines);
+}
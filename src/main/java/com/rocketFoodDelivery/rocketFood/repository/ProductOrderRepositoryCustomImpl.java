@@ -0,0 +1,41 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+
+/**
+ * JDBC implementation of the ProductOrderRepositoryCustom fragment.
+ */
+public class ProductOrderRepositoryCustomImpl implements ProductOrderRepositoryCustom {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Constructor for dependency injection of the NamedParameterJdbcTemplate
+    public ProductOrderRepositoryCustomImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int insertProductOrders(int orderId, List<ProductOrderLine> lines) {
+        if (lines.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("orderId", orderId);
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO product_orders (order_id, product_id, product_quantity, product_unit_cost) VALUES ");
+        for (int i = 0; i < lines.size(); i++) {
+            ProductOrderLine line = lines.get(i);
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:orderId, :productId").append(i).append(", :quantity").append(i).append(", :unitCost")
+                    .append(i).append(')');
+            params.addValue("productId" + i, line.getProductId())
+                    .addValue("quantity" + i, line.getQuantity())
+                    .addValue("unitCost" + i, line.getUnitCost());
+        }
+        return jdbcTemplate.update(sql.toString(), params);
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +29,34 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     @Query(nativeQuery = true, value = "SELECT * FROM products WHERE restaurant_id = :restaurantId")
     List<Product> findProductsByRestaurantId(@Param("restaurantId") int restaurantId);
 
+    // Custom query to find the Products of a restaurant that has not been
+    // soft-deleted
+    @Query(nativeQuery = true, value = "SELECT p.* FROM products p JOIN restaurants r ON r.id = p.restaurant_id "
+            + "WHERE p.restaurant_id = :restaurantId AND r.active = 1")
+    List<Product> findActiveProductsByRestaurantId(@Param("restaurantId") int restaurantId);
+
+    // Custom query validating all lines of an order at once: returns the
+    // requested products that belong to the restaurant, provided the restaurant
+    // has not been soft-deleted
+    @Query(nativeQuery = true, value = "SELECT p.id AS id, p.name AS name, p.unit_cost AS unitCost "
+            + "FROM products p JOIN restaurants r ON r.id = p.restaurant_id "
+            + "WHERE p.id IN (:productIds) AND p.restaurant_id = :restaurantId AND r.active = 1")
+    List<OrderableProductProjection> findOrderableProducts(@Param("restaurantId") int restaurantId,
+            @Param("productIds") Collection<Integer> productIds);
+
+    // Custom query reading the searchable text of every product of an active
+    // restaurant, without loading the restaurant entities
+    @Query(nativeQuery = true, value = "SELECT p.id AS id, p.restaurant_id AS restaurantId, p.name AS name, "
+            + "p.description AS description FROM products p JOIN restaurants r ON r.id = p.restaurant_id "
+            + "WHERE r.active = 1")
+    List<ProductSearchProjection> findSearchableProducts();
+
+    // Variant of findSearchableProducts for the products of one restaurant
+    @Query(nativeQuery = true, value = "SELECT p.id AS id, p.restaurant_id AS restaurantId, p.name AS name, "
+            + "p.description AS description FROM products p JOIN restaurants r ON r.id = p.restaurant_id "
+            + "WHERE p.restaurant_id = :restaurantId AND r.active = 1")
+    List<ProductSearchProjection> findSearchableProductsByRestaurantId(@Param("restaurantId") int restaurantId);
+
     // Method to find a Product by its ID and restaurant ID
     // Useful for ensuring a Product belongs to a specific restaurant
     Optional<Product> findByIdAndRestaurantId(int id, int restaurantId);
@@ -39,4 +68,11 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     @Transactional
     @Query(nativeQuery = true, value = "DELETE FROM products WHERE restaurant_id = :restaurantId")
     void deleteProductsByRestaurantId(@Param("restaurantId") int restaurantId);
+
+    // Bounded variant of deleteProductsByRestaurantId, used by the restaurant
+    // purge job so each batch holds its locks briefly
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "DELETE FROM products WHERE restaurant_id = :restaurantId LIMIT :limit")
+    int deleteProductBatchByRestaurantId(@Param("restaurantId") int restaurantId, @Param("limit") int limit);
 }
@@ -0,0 +1,16 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+/**
+ * Interface-based projection of the searchable text of a product.
+ * Getter names match the column aliases of the native queries that use it.
+ */
+public interface ProductSearchProjection {
+
+    int getId(); // The unique identifier of the product
+
+    int getRestaurantId(); // The unique identifier of the product's restaurant
+
+    String getName(); // The name of the product
+
+    String getDescription(); // The description of the product
+}
@@ -0,0 +1,38 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import com.rocketFoodDelivery.rocketFood.models.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+// Annotation to indicate that this interface is a Spring Data repository
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    // Method to find a refresh token by the SHA-256 of its value
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Method to revoke a usable token, returning 0 if it was already revoked
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE refresh_tokens SET revoked_at = :now "
+            + "WHERE id = :id AND revoked_at IS NULL")
+    int revokeIfUsable(@Param("id") long id, @Param("now") Instant now);
+
+    // Method to revoke every usable token of a family
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE refresh_tokens SET revoked_at = :now "
+            + "WHERE family_id = :familyId AND revoked_at IS NULL")
+    int revokeFamily(@Param("familyId") String familyId, @Param("now") Instant now);
+
+    // Method to delete the tokens that have expired
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "DELETE FROM refresh_tokens WHERE expires_at < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
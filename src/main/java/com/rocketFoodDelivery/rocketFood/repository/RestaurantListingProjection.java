@@ -0,0 +1,29 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+/**
+ * Interface-based projection of a restaurant row joined with its rating
+ * aggregate and its address, so a listing needs a single query.
+ * Getter names match the column aliases of the native queries that use it.
+ */
+public interface RestaurantListingProjection {
+
+    int getId(); // The unique identifier of the restaurant
+
+    String getName(); // The name of the restaurant
+
+    int getPriceRange(); // The price range of the restaurant
+
+    int getRating(); // The materialized rating of the restaurant
+
+    Integer getAddressId(); // The unique identifier of the address
+
+    String getStreetAddress(); // Street address of the restaurant
+
+    String getCity(); // City of the restaurant
+
+    String getPostalCode(); // Postal code of the restaurant
+
+    Double getLatitude(); // Latitude of the restaurant, or null if unknown
+
+    Double getLongitude(); // Longitude of the restaurant, or null if unknown
+}
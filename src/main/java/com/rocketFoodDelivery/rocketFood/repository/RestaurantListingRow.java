@@ -0,0 +1,35 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import lombok.Value;
+
+/**
+ * Immutable RestaurantListingProjection for listings read through JDBC.
+ */
+@Value
+public class RestaurantListingRow implements RestaurantListingProjection {
+    int id;
+    String name;
+    int priceRange;
+    int rating;
+    Integer addressId;
+    String streetAddress;
+    String city;
+    String postalCode;
+    Double latitude;
+    Double longitude;
+
+    /**
+     * Copies any listing projection into an immutable row.
+     *
+     * @param listing the listing to copy.
+     * @return the immutable row.
+     */
+    public static RestaurantListingRow of(RestaurantListingProjection listing) {
+        if (listing instanceof RestaurantListingRow) {
+            return (RestaurantListingRow) listing;
+        }
+        return new RestaurantListingRow(listing.getId(), listing.getName(), listing.getPriceRange(),
+                listing.getRating(), listing.getAddressId(), listing.getStreetAddress(), listing.getCity(),
+                listing.getPostalCode(), listing.getLatitude(), listing.getLongitude());
+    }
+}
@@ -0,0 +1,12 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+/**
+ * Interface-based projection of the coordinates of a restaurant's address.
+ * Getter names match the column aliases of the native queries that use it.
+ */
+public interface RestaurantLocationProjection {
+
+    Double getLatitude(); // Latitude of the restaurant, or null if unknown
+
+    Double getLongitude(); // Longitude of the restaurant, or null if unknown
+}
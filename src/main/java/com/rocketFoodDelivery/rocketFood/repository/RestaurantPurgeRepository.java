@@ -0,0 +1,19 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import com.rocketFoodDelivery.rocketFood.models.RestaurantPurge;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+// Annotation to indicate that this interface is a Spring Data repository
+@Repository
+public interface RestaurantPurgeRepository extends JpaRepository<RestaurantPurge, Integer> {
+
+    // Method to find the purges in the given states, oldest request first
+    List<RestaurantPurge> findByStatusInOrderByRequestedAtAsc(Collection<RestaurantPurge.Status> statuses);
+
+    // Method to find the most recent purges, used for progress reporting
+    List<RestaurantPurge> findTop50ByOrderByRequestedAtDesc();
+}
@@ -0,0 +1,63 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import com.rocketFoodDelivery.rocketFood.models.RestaurantRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Annotation to indicate that this interface is a Spring Data repository
+@Repository
+public interface RestaurantRatingRepository extends JpaRepository<RestaurantRating, Integer> {
+
+    // Adds one order rating to the totals of the aggregate, creating the row
+    // if needed. The rating itself is derived by deriveRatingIfChanged.
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "INSERT INTO restaurant_ratings (restaurant_id, rating_sum, rating_count, rating) "
+            + "VALUES (:restaurantId, :rating, 1, 0) "
+            + "ON DUPLICATE KEY UPDATE rating_sum = rating_sum + :rating, rating_count = rating_count + 1")
+    void addRating(@Param("restaurantId") int restaurantId, @Param("rating") int rating);
+
+    // Derives the rating from the totals, only touching the row if it changes,
+    // so the update count tells whether the rounded rating moved
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "UPDATE restaurant_ratings SET rating = CEIL(rating_sum / rating_count) "
+            + "WHERE restaurant_id = :restaurantId AND rating_count > 0 "
+            + "AND rating <> CEIL(rating_sum / rating_count)")
+    int deriveRatingIfChanged(@Param("restaurantId") int restaurantId);
+
+    // Recomputes a single aggregate from the orders table in one statement.
+    // The totals are selected through an aliased derived table, which the
+    // update clause references instead of the deprecated VALUES() function.
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "INSERT INTO restaurant_ratings (restaurant_id, rating_sum, rating_count, rating) "
+            + "SELECT * FROM (SELECT :restaurantId AS restaurant_id, "
+            + "COALESCE(SUM(o.restaurant_rating), 0) AS new_sum, COUNT(o.id) AS new_count, "
+            + "COALESCE(CEIL(SUM(o.restaurant_rating) / NULLIF(COUNT(o.id), 0)), 0) AS new_rating "
+            + "FROM orders o WHERE o.restaurant_id = :restaurantId) AS totals "
+            + "ON DUPLICATE KEY UPDATE rating_sum = totals.new_sum, rating_count = totals.new_count, "
+            + "rating = totals.new_rating")
+    void resyncFromOrders(@Param("restaurantId") int restaurantId);
+
+    // Aggregates the orders table per restaurant, used by the reconcile job
+    @Query(nativeQuery = true, value = "SELECT r.id AS restaurantId, COALESCE(SUM(o.restaurant_rating), 0) AS ratingSum, "
+            + "COUNT(o.id) AS ratingCount "
+            + "FROM restaurants r "
+            + "LEFT JOIN orders o ON r.id = o.restaurant_id "
+            + "GROUP BY r.id")
+    List<RestaurantRatingTotalsProjection> aggregateRatingsFromOrders();
+
+    // Removes aggregates whose restaurant no longer exists
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "DELETE FROM restaurant_ratings "
+            + "WHERE restaurant_id NOT IN (SELECT id FROM restaurants)")
+    int deleteOrphans();
+}
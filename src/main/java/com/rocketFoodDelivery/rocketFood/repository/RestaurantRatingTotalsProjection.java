@@ -0,0 +1,14 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+/**
+ * Interface-based projection of the rating totals of a restaurant, computed
+ * directly from the orders table.
+ */
+public interface RestaurantRatingTotalsProjection {
+
+    int getRestaurantId(); // The unique identifier of the restaurant
+
+    long getRatingSum(); // Sum of the restaurant_rating of all orders
+
+    long getRatingCount(); // Number of orders of the restaurant
+}
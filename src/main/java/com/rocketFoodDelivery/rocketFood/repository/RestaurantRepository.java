@@ -14,29 +14,27 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface RestaurantRepository extends JpaRepository<Restaurant, Integer> {
+public interface RestaurantRepository extends JpaRepository<Restaurant, Integer>, RestaurantRepositoryCustom {
 
         Optional<Restaurant> findByUserEntityId(int userId);
 
-        @Query(nativeQuery = true, value = "SELECT r.id, r.name, r.price_range, " +
-                        "COALESCE(CEIL(SUM(o.restaurant_rating) / NULLIF(COUNT(o.id), 0)), 0) AS rating, r.address_id "
-                        +
-                        "FROM restaurants r " +
-                        "LEFT JOIN orders o ON r.id = o.restaurant_id " +
-                        "GROUP BY r.id, r.name, r.price_range, r.address_id " +
-                        "HAVING (:priceRange IS NULL OR r.price_range = :priceRange) " +
-                        "AND (:rating IS NULL OR rating = :rating)")
-        List<Object[]> findRestaurantsByRatingAndPriceRange(@Param("rating") Integer rating,
-                        @Param("priceRange") Integer priceRange);
-
-        @Query(nativeQuery = true, value = "SELECT r.id, r.name, r.price_range, " +
-                        "COALESCE(CEIL(SUM(o.restaurant_rating) / NULLIF(COUNT(o.id), 0)), 0) AS rating, r.address_id "
-                        +
+        // IDs of the active restaurants a user owns, for ownership checks
+        @Query("SELECT r.id FROM Restaurant r WHERE r.userEntity.id = :userId AND r.active = true")
+        List<Integer> findActiveRestaurantIdsByUserId(@Param("userId") int userId);
+
+        @Query(nativeQuery = true, value = "SELECT r.id AS id, r.name AS name, r.price_range AS priceRange, " +
+                        "COALESCE(rr.rating, 0) AS rating, a.id AS addressId, a.street_address AS streetAddress, " +
+                        "a.city AS city, a.postal_code AS postalCode, a.latitude AS latitude, a.longitude AS longitude " +
                         "FROM restaurants r " +
-                        "LEFT JOIN orders o ON r.id = o.restaurant_id " +
-                        "WHERE r.id = :restaurantId " +
-                        "GROUP BY r.id, r.name, r.price_range, r.address_id")
-        List<Object[]> findRestaurantWithAverageRatingById(@Param("restaurantId") int restaurantId);
+                        "LEFT JOIN restaurant_ratings rr ON rr.restaurant_id = r.id " +
+                        "LEFT JOIN addresses a ON a.id = r.address_id " +
+                        "WHERE r.id = :restaurantId AND r.active = 1")
+        Optional<RestaurantListingProjection> findRestaurantListingById(@Param("restaurantId") int restaurantId);
+
+        @Query(nativeQuery = true, value = "SELECT a.latitude AS latitude, a.longitude AS longitude " +
+                        "FROM restaurants r JOIN addresses a ON a.id = r.address_id " +
+                        "WHERE r.id = :restaurantId AND r.active = 1")
+        Optional<RestaurantLocationProjection> findRestaurantLocationById(@Param("restaurantId") int restaurantId);
 
         @Modifying
         @Transactional
@@ -64,6 +62,22 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, Integer>
         @Query(nativeQuery = true, value = "DELETE FROM restaurants WHERE id = :restaurantId")
         void deleteRestaurantById(@Param("restaurantId") int restaurantId);
 
+        // Soft-deletes a restaurant; returns 0 if it was already inactive, so
+        // concurrent deletions only schedule one purge
+        @Modifying
+        @Transactional
+        @Query(nativeQuery = true, value = "UPDATE restaurants SET active = 0 WHERE id = :restaurantId AND active = 1")
+        int deactivateRestaurantById(@Param("restaurantId") int restaurantId);
+
+        // Reactivates the restaurants saved inactive before soft deletes existed;
+        // every soft delete records a purge in the same transaction, so an
+        // inactive restaurant without one was never deleted
+        @Modifying
+        @Transactional
+        @Query(nativeQuery = true, value = "UPDATE restaurants r SET r.active = 1 WHERE r.active = 0 " +
+                        "AND NOT EXISTS (SELECT 1 FROM restaurant_purges p WHERE p.restaurant_id = r.id)")
+        int activateRestaurantsWithoutPurge();
+
         Optional<Restaurant> findByUserEntityAndAddress(UserEntity userEntity, Address address);
 
         @Query("SELECT r FROM Restaurant r WHERE r.address = :address AND r.id <> :restaurantId")
@@ -0,0 +1,33 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import java.util.List;
+
+/**
+ * Custom fragment of RestaurantRepository for queries whose SQL depends on the
+ * request, such as keyset-paginated listings.
+ */
+public interface RestaurantRepositoryCustom {
+
+    /**
+     * Fetches one page of restaurant listings ordered by the given sort, seeking
+     * past the (afterValue, afterId) keyset when a cursor is given.
+     *
+     * @param rating     optional rating filter.
+     * @param priceRange optional price range filter.
+     * @param sort       the sort column.
+     * @param descending whether the sort is descending.
+     * @param afterValue the sort value of the last row of the previous page, or null.
+     * @param afterId    the ID of the last row of the previous page, or null.
+     * @param limit      the maximum number of rows to return.
+     * @return the listings of the page.
+     */
+    List<RestaurantListingProjection> findRestaurantListingPage(Integer rating, Integer priceRange,
+            RestaurantSort sort, boolean descending, Object afterValue, Integer afterId, int limit);
+
+    /**
+     * Fetches the listings of all restaurants in one query.
+     *
+     * @return every restaurant listing as an immutable row.
+     */
+    List<RestaurantListingRow> findAllRestaurantListings();
+}
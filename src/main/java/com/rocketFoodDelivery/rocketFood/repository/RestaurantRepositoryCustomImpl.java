@@ -0,0 +1,90 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+
+/**
+ * JDBC implementation of the RestaurantRepositoryCustom fragment.
+ */
+public class RestaurantRepositoryCustomImpl implements RestaurantRepositoryCustom {
+
+    private static final String SELECT_LISTING = "SELECT r.id, r.name, r.price_range, COALESCE(rr.rating, 0) AS rating, "
+            + "a.id AS address_id, a.street_address, a.city, a.postal_code, "
+            + "a.latitude, a.longitude ";
+
+    private static final RowMapper<RestaurantListingRow> LISTING_ROW_MAPPER = (rs, rowNum) -> new RestaurantListingRow(
+            rs.getInt("id"),
+            rs.getString("name"),
+            rs.getInt("price_range"),
+            rs.getInt("rating"),
+            rs.getObject("address_id", Integer.class),
+            rs.getString("street_address"),
+            rs.getString("city"),
+            rs.getString("postal_code"),
+            rs.getObject("latitude", Double.class),
+            rs.getObject("longitude", Double.class));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Constructor for dependency injection of the NamedParameterJdbcTemplate
+    public RestaurantRepositoryCustomImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<RestaurantListingProjection> findRestaurantListingPage(Integer rating, Integer priceRange,
+            RestaurantSort sort, boolean descending, Object afterValue, Integer afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        StringBuilder sql = new StringBuilder(SELECT_LISTING);
+
+        // Restaurants without an aggregate row are listed with a rating of 0,
+        // whatever the sort, so that DB pages match the in-memory catalog
+        sql.append("FROM restaurants r LEFT JOIN restaurant_ratings rr ON rr.restaurant_id = r.id "
+                + "LEFT JOIN addresses a ON a.id = r.address_id WHERE r.active = 1 ");
+
+        if (priceRange != null) {
+            sql.append("AND r.price_range = :priceRange ");
+            params.addValue("priceRange", priceRange);
+        }
+        if (rating != null) {
+            sql.append("AND COALESCE(rr.rating, 0) = :rating ");
+            params.addValue("rating", rating);
+        }
+
+        String column = sort.getColumn();
+        String idColumn = sort.getIdColumn();
+        String direction = descending ? "DESC" : "ASC";
+        if (afterId != null) {
+            String seek = descending ? "<" : ">";
+            if (sort == RestaurantSort.ID) {
+                sql.append("AND ").append(idColumn).append(' ').append(seek).append(" :afterId ");
+            } else {
+                sql.append("AND (").append(column).append(' ').append(seek).append(" :afterValue OR (")
+                        .append(column).append(" = :afterValue AND ").append(idColumn).append(' ').append(seek)
+                        .append(" :afterId)) ");
+                params.addValue("afterValue", afterValue);
+            }
+            params.addValue("afterId", afterId);
+        }
+
+        if (sort == RestaurantSort.ID) {
+            sql.append("ORDER BY ").append(idColumn).append(' ').append(direction);
+        } else {
+            sql.append("ORDER BY ").append(column).append(' ').append(direction)
+                    .append(", ").append(idColumn).append(' ').append(direction);
+        }
+        sql.append(" LIMIT :limit");
+
+        return List.copyOf(jdbcTemplate.query(sql.toString(), params, LISTING_ROW_MAPPER));
+    }
+
+    @Override
+    public List<RestaurantListingRow> findAllRestaurantListings() {
+        return jdbcTemplate.query(SELECT_LISTING
+                + "FROM restaurants r LEFT JOIN restaurant_ratings rr ON rr.restaurant_id = r.id "
+                + "LEFT JOIN addresses a ON a.id = r.address_id WHERE r.active = 1", LISTING_ROW_MAPPER);
+    }
+}
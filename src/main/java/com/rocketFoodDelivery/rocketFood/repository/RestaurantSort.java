@@ -0,0 +1,127 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sort options of the restaurant listing.
+ * Each option is backed by an index ending with the restaurant ID, which is
+ * the tie-breaker of the keyset.
+ */
+public enum RestaurantSort {
+    RATING("rating", "COALESCE(rr.rating, 0)", "r.id", true), // unrated restaurants sort as 0, like the catalog
+    PRICE_RANGE("price_range", "r.price_range", "r.id", true), // idx_restaurants_price_range (price_range, id)
+    NAME("name", "r.name", "r.id", false), // idx_restaurants_name (name, id)
+    ID("id", "r.id", "r.id", true); // primary key
+
+    private final String key;
+    private final String column;
+    private final String idColumn;
+    private final boolean numeric;
+
+    RestaurantSort(String key, String column, String idColumn, boolean numeric) {
+        this.key = key;
+        this.column = column;
+        this.idColumn = idColumn;
+        this.numeric = numeric;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getIdColumn() {
+        return idColumn;
+    }
+
+    /**
+     * Converts a cursor value back into the type of the sort column.
+     *
+     * @param value the sort value carried by the cursor.
+     * @return the typed sort value.
+     */
+    public Object parseValue(String value) {
+        return numeric ? Integer.valueOf(value) : value;
+    }
+
+    /**
+     * Extracts the sort value of a listing row, to be carried by a cursor.
+     *
+     * @param listing the last row of a page.
+     * @return the sort value as a string.
+     */
+    public String extractValue(RestaurantListingProjection listing) {
+        switch (this) {
+            case RATING:
+                return String.valueOf(listing.getRating());
+            case PRICE_RANGE:
+                return String.valueOf(listing.getPriceRange());
+            case NAME:
+                return listing.getName();
+            default:
+                return String.valueOf(listing.getId());
+        }
+    }
+
+    /**
+     * Returns the ascending (sort value, id) order of this option, consistent
+     * with the case-insensitive collation of the name column.
+     *
+     * @return the comparator of listing rows.
+     */
+    public Comparator<RestaurantListingProjection> comparator() {
+        Comparator<RestaurantListingProjection> byId = Comparator.comparingInt(RestaurantListingProjection::getId);
+        switch (this) {
+            case RATING:
+                return Comparator.comparingInt(RestaurantListingProjection::getRating).thenComparing(byId);
+            case PRICE_RANGE:
+                return Comparator.comparingInt(RestaurantListingProjection::getPriceRange).thenComparing(byId);
+            case NAME:
+                return Comparator.comparing(RestaurantListingProjection::getName, String.CASE_INSENSITIVE_ORDER)
+                        .thenComparing(byId);
+            default:
+                return byId;
+        }
+    }
+
+    /**
+     * Creates a row holding only the keyset of a cursor, to search a list
+     * sorted with comparator().
+     *
+     * @param value the typed sort value.
+     * @param id    the ID of the row.
+     * @return the probe row.
+     */
+    public RestaurantListingRow probe(Object value, int id) {
+        switch (this) {
+            case RATING:
+                return new RestaurantListingRow(id, "", 0, (Integer) value, null, null, null, null, null, null);
+            case PRICE_RANGE:
+                return new RestaurantListingRow(id, "", (Integer) value, 0, null, null, null, null, null, null);
+            case NAME:
+                return new RestaurantListingRow(id, (String) value, 0, 0, null, null, null, null, null, null);
+            default:
+                return new RestaurantListingRow(id, "", 0, 0, null, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * Resolves a sort option from its request key.
+     *
+     * @param key the sort key, e.g. "price_range".
+     * @return the matching sort option.
+     * @throws BadRequestException if the key is unknown.
+     */
+    public static RestaurantSort fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(sort -> sort.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Invalid sort: " + key));
+    }
+}
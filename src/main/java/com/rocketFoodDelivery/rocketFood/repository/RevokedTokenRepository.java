@@ -0,0 +1,27 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import com.rocketFoodDelivery.rocketFood.models.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+// Annotation to indicate that this interface is a Spring Data repository
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // Method to find the IDs of the revoked tokens that have not expired yet
+    @Query(nativeQuery = true, value = "SELECT token_id FROM revoked_tokens WHERE expires_at >= :now")
+    List<String> findUnexpiredTokenIds(@Param("now") Instant now);
+
+    // Method to delete the revoked tokens that have expired anyway
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "DELETE FROM revoked_tokens WHERE expires_at < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
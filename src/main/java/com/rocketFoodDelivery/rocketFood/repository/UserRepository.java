@@ -2,7 +2,11 @@ package com.rocketFoodDelivery.rocketFood.repository;
 
 import com.rocketFoodDelivery.rocketFood.models.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.List;
@@ -19,4 +23,16 @@ public interface UserRepository extends JpaRepository<UserEntity, Integer> {
 
     // Method to find all UserEntities and order them by ID in descending order
     List<UserEntity> findAllByOrderByIdDesc();
+
+    // Custom query to detach the users of a restaurant before it is deleted
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "UPDATE users SET restaurant_id = NULL WHERE restaurant_id = :restaurantId")
+    int clearRestaurantId(@Param("restaurantId") int restaurantId);
+
+    // Custom query to store a rehashed password without writing back the rest of the user
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "UPDATE users SET password = :password WHERE id = :id")
+    int updatePassword(@Param("id") int id, @Param("password") String password);
 }
@@ -0,0 +1,153 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiUserCacheStatsDto;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loads users by email for login, keeping the users found for a short time
+ * so that a client retrying its login, or a burst of logins by the same
+ * user, reads the users table once. Unknown emails are not cached, so
+ * guessing emails cannot fill the cache. Each caller gets its own copy of the
+ * cached user, since the authentication and the controller modify it.
+ * Also rehashes, on a successful login, the passwords stored with a legacy
+ * encoding; Spring Security calls updatePassword when the password encoder
+ * reports the stored hash needs an upgrade.
+ */
+@Slf4j
+@Component
+public class CachedUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private final UserRepository userRepository;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped by every eviction, so a load that raced with one does not cache what it read
+    private final AtomicLong evictions = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+
+    /**
+     * Constructor for dependency injection of the UserRepository and the cache settings.
+     *
+     * @param userRepository the repository for users.
+     * @param maxEntries     the maximum number of users cached, 0 to disable the cache.
+     * @param ttlMillis      how long a user is served from the cache.
+     */
+    public CachedUserDetailsService(UserRepository userRepository,
+            @Value("${app.auth.user-cache.size:10000}") int maxEntries,
+            @Value("${app.auth.user-cache.ttl-ms:30000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) {
+        return load(username, System.currentTimeMillis());
+    }
+
+    UserEntity load(String email, long now) {
+        Entry cached = entries.get(email);
+        if (cached != null && now - cached.loadedAt < ttlMillis) {
+            hits.increment();
+            return copy(cached.user);
+        }
+        misses.increment();
+        long evictionsBefore = evictions.get();
+        UserEntity user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User " + email + " not found."));
+        if (maxEntries > 0 && ttlMillis > 0) {
+            if (entries.size() >= maxEntries) {
+                entries.values().removeIf(entry -> now - entry.loadedAt >= ttlMillis);
+            }
+            if (entries.size() < maxEntries) {
+                Entry entry = new Entry(copy(user), now);
+                entries.put(email, entry);
+                if (evictions.get() != evictionsBefore) {
+                    entries.remove(email, entry);
+                }
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Stores the rehashed password of a user who just logged in with a
+     * password stored in a legacy encoding.
+     *
+     * @param user        the authenticated user.
+     * @param newPassword the password encoded with the current encoding.
+     * @return the user with the new password.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserEntity entity = (UserEntity) user;
+        userRepository.updatePassword(entity.getId(), newPassword);
+        evict(entity.getId());
+        entity.setPassword(newPassword);
+        rehashed.increment();
+        log.info("Rehashed the password of user ID {}", entity.getId());
+        return entity;
+    }
+
+    /**
+     * Drops a user from the cache, after it was changed or deleted.
+     *
+     * @param userId the ID of the user.
+     */
+    public void evict(int userId) {
+        evictions.incrementAndGet();
+        entries.values().removeIf(entry -> entry.user.getId() == userId);
+    }
+
+    /**
+     * Returns the size of the cache and the outcome of the lookups since startup.
+     *
+     * @return the user cache statistics.
+     */
+    public ApiUserCacheStatsDto getStats() {
+        return ApiUserCacheStatsDto.builder()
+                .entries(entries.size())
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .rehashed(rehashed.sum())
+                .build();
+    }
+
+    private static UserEntity copy(UserEntity user) {
+        return UserEntity.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .customerId(user.getCustomerId())
+                .courierId(user.getCourierId())
+                .restaurant(user.getRestaurant())
+                .build();
+    }
+
+    private static final class Entry {
+
+        final UserEntity user;
+        final long loadedAt;
+
+        Entry(UserEntity user, long loadedAt) {
+            this.user = user;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
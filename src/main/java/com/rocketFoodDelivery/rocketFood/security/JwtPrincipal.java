@@ -0,0 +1,21 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import com.rocketFoodDelivery.rocketFood.models.UserRole;
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * The identity carried by a verified access token. Immutable, so one
+ * instance can be shared by every request presenting the same token.
+ */
+@Value
+public class JwtPrincipal {
+    int userId; // The unique identifier of the user
+    String email; // The email of the user
+    String tokenId; // The jti claim of the token
+    long expiresAt; // Expiry of the token in epoch milliseconds
+    Set<UserRole> roles; // The roles of the user at login, empty for tokens issued without the roles claim
+    Integer customerId; // The customer ID of the user at login, or null
+    Integer courierId; // The courier ID of the user at login, or null
+}
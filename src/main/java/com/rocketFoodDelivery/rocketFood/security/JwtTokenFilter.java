@@ -1,6 +1,7 @@
 package com.rocketFoodDelivery.rocketFood.security;
 
 import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.models.UserRole;
 import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -17,6 +18,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.http.HttpStatus;
 
 import java.io.IOException;
+import java.util.Optional;
 
 /**
  * Filter to handle JWT token authentication.
@@ -26,9 +28,14 @@ import java.io.IOException;
 @Component
 public class JwtTokenFilter extends OncePerRequestFilter {
 
+    private static final String BEARER_PREFIX = "Bearer";
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
     /**
      * Filters each request and validates the JWT token if present.
      * 
@@ -52,15 +59,22 @@ public class JwtTokenFilter extends OncePerRequestFilter {
         String token = getAccessToken(request);
 
         try {
-            // Validate the token
-            if (!jwtUtil.validateAccessToken(token)) {
+            // Verify the token, parsing it at most once
+            Optional<JwtPrincipal> principal = jwtUtil.verifyAccessToken(token);
+            if (principal.isEmpty()) {
                 // If the token is invalid, respond with an error
                 ResponseBuilder.buildErrorResponse(response, "Invalid Token", HttpStatus.UNAUTHORIZED);
                 return;
             }
 
+            // Tokens revoked at logout stay rejected until they expire
+            if (tokenRevocationList.isRevoked(principal.get().getTokenId())) {
+                ResponseBuilder.buildErrorResponse(response, "Token has been revoked", HttpStatus.UNAUTHORIZED);
+                return;
+            }
+
             // Set the authentication context if the token is valid
-            setAuthenticationContext(token, request);
+            setAuthenticationContext(principal.get(), request);
         } catch (Exception ex) {
             // If an error occurs during authentication, respond with an error
             ResponseBuilder.buildErrorResponse(response, "Authentication error: " + ex.getMessage(),
@@ -81,7 +95,7 @@ public class JwtTokenFilter extends OncePerRequestFilter {
      */
     private boolean hasAuthorizationBearer(HttpServletRequest request) {
         String header = request.getHeader("Authorization");
-        return !ObjectUtils.isEmpty(header) && header.startsWith("Bearer");
+        return !ObjectUtils.isEmpty(header) && header.startsWith(BEARER_PREFIX);
     }
 
     /**
@@ -92,20 +106,21 @@ public class JwtTokenFilter extends OncePerRequestFilter {
      */
     private String getAccessToken(HttpServletRequest request) {
         String header = request.getHeader("Authorization");
-        return header.split(" ")[1].trim();
+        return header.substring(BEARER_PREFIX.length()).trim();
     }
 
     /**
-     * Sets the authentication context in the security context holder.
+     * Sets the authentication context in the security context holder. The
+     * authorities come from the roles claim of the token, without a query.
      * 
-     * @param token   the JWT token
-     * @param request the HttpServletRequest
+     * @param principal the principal of the verified token
+     * @param request   the HttpServletRequest
      */
-    private void setAuthenticationContext(String token, HttpServletRequest request) {
-        UserDetails userDetails = getUserDetails(token);
+    private void setAuthenticationContext(JwtPrincipal principal, HttpServletRequest request) {
+        UserDetails userDetails = getUserDetails(principal);
 
         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null,
-                userDetails.getAuthorities());
+                UserRole.authorities(principal.getRoles()));
 
         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
@@ -113,17 +128,19 @@ public class JwtTokenFilter extends OncePerRequestFilter {
     }
 
     /**
-     * Retrieves user details from the JWT token.
+     * Builds the user details from the principal of a verified token.
      * 
-     * @param token the JWT token
+     * @param principal the principal of the verified token
      * @return the user details
      */
-    private UserDetails getUserDetails(String token) {
+    private UserDetails getUserDetails(JwtPrincipal principal) {
         UserEntity userDetails = new UserEntity();
-        String[] jwtSubject = jwtUtil.getSubject(token).split(",");
-
-        userDetails.setId(Integer.parseInt(jwtSubject[0]));
-        userDetails.setEmail(jwtSubject[1]);
+        userDetails.setId(principal.getUserId());
+        userDetails.setEmail(principal.getEmail());
+        userDetails.setEmployee(principal.getRoles().contains(UserRole.EMPLOYEE));
+        userDetails.setRestaurantOwner(principal.getRoles().contains(UserRole.RESTAURANT_OWNER));
+        userDetails.setCustomerId(principal.getCustomerId());
+        userDetails.setCourierId(principal.getCourierId());
 
         return userDetails;
     }
@@ -1,13 +1,21 @@
 package com.rocketFoodDelivery.rocketFood.security;
 
 import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.models.UserRole;
 import io.jsonwebtoken.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Utility class for handling JWT operations.
@@ -16,15 +24,37 @@ import javax.annotation.PostConstruct;
 @Component
 public class JwtUtil {
 
-    @Value("${app.jwt.secret}")
-    private String secret;
-
     private static final Logger LOGGER = LoggerFactory.getLogger(JwtUtil.class);
 
+    static final String ROLES_CLAIM = "roles";
+    static final String CUSTOMER_CLAIM = "customer_id";
+    static final String COURIER_CLAIM = "courier_id";
+
+    private final String secret;
+    private final long accessTokenTtlMillis;
+    private final VerifiedTokenCache verifiedTokens;
+
+    /**
+     * Constructor for injection of the JWT settings.
+     *
+     * @param secret                 the HS512 signing secret.
+     * @param accessTokenTtlMillis   the lifetime of access tokens.
+     * @param verifiedCacheSize      the maximum number of verified tokens cached, 0 to disable the cache.
+     * @param verifiedCacheTtlMillis the maximum time a verified token is trusted without verifying it again.
+     */
+    public JwtUtil(@Value("${app.jwt.secret}") String secret,
+            @Value("${app.jwt.access-token-ttl-ms:900000}") long accessTokenTtlMillis,
+            @Value("${app.jwt.verified-cache-size:10000}") int verifiedCacheSize,
+            @Value("${app.jwt.verified-cache-ttl-ms:300000}") long verifiedCacheTtlMillis) {
+        this.secret = secret;
+        this.accessTokenTtlMillis = accessTokenTtlMillis;
+        this.verifiedTokens = new VerifiedTokenCache(verifiedCacheSize, verifiedCacheTtlMillis);
+        validateSecret();
+    }
+
     /**
      * Validates that the secret key is not null or empty.
      */
-    @PostConstruct
     public void validateSecret() {
         if (secret == null || secret.isEmpty()) {
             throw new IllegalArgumentException("JWT secret cannot be null or empty");
@@ -32,28 +62,57 @@ public class JwtUtil {
     }
 
     /**
-     * Generates an access token for the user.
-     * 
+     * Generates an access token for the user, expiring after the configured
+     * lifetime and carrying a unique ID so it can be revoked. The roles of the
+     * user travel in the token so requests can be authorized without a query;
+     * the roles must have been populated beforehand. The customer and courier
+     * IDs travel too, so requests can be checked against them.
+     *
      * @param user the UserEntity
      * @return the generated JWT token
      */
     public String generateAccessToken(UserEntity user) {
+        long now = System.currentTimeMillis();
+        List<String> roles = UserRole.of(user).stream().map(UserRole::getClaim).toList();
         return Jwts.builder()
                 .setSubject(String.format("%s,%s", user.getId(), user.getEmail()))
+                .claim(ROLES_CLAIM, roles)
+                .claim(CUSTOMER_CLAIM, user.getCustomerId())
+                .claim(COURIER_CLAIM, user.getCourierId())
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + accessTokenTtlMillis))
                 .signWith(SignatureAlgorithm.HS512, secret)
                 .compact();
     }
 
     /**
-     * Validates the access token.
-     * 
+     * Returns the lifetime of the access tokens generated.
+     *
+     * @return the lifetime in seconds
+     */
+    public long getAccessTokenTtlSeconds() {
+        return accessTokenTtlMillis / 1000;
+    }
+
+    /**
+     * Verifies the access token and returns the identity it carries. The
+     * token is parsed and its signature checked at most once while it stays
+     * in the verified-token cache.
+     *
      * @param token the JWT token
-     * @return true if the token is valid, false otherwise
+     * @return the principal of the token, or empty if the token is invalid
      */
-    public boolean validateAccessToken(String token) {
+    public Optional<JwtPrincipal> verifyAccessToken(String token) {
+        long now = System.currentTimeMillis();
+        JwtPrincipal cached = verifiedTokens.get(token, now);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
         try {
-            Jwts.parser().setSigningKey(secret).parseClaimsJws(token);
-            return true;
+            JwtPrincipal principal = toPrincipal(parseClaims(token));
+            verifiedTokens.put(token, principal, now);
+            return Optional.of(principal);
         } catch (ExpiredJwtException ex) {
             LOGGER.error("JWT expired: {}", ex.getMessage());
         } catch (IllegalArgumentException ex) {
@@ -65,22 +124,103 @@ public class JwtUtil {
         } catch (SignatureException ex) {
             LOGGER.error("Signature validation failed: {}", ex.getMessage());
         }
-        return false;
+        return Optional.empty();
     }
 
     /**
-     * Extracts the subject (user information) from the token.
-     * 
+     * Validates the access token.
+     *
      * @param token the JWT token
-     * @return the subject
+     * @return true if the token is valid, false otherwise
+     */
+    public boolean validateAccessToken(String token) {
+        return verifyAccessToken(token).isPresent();
+    }
+
+    /**
+     * Returns the number of tokens in the verified-token cache.
+     *
+     * @return the number of cached tokens
      */
-    public String getSubject(String token) {
-        return parseClaims(token).getSubject();
+    int verifiedCacheSize() {
+        return verifiedTokens.size();
+    }
+
+    /**
+     * Builds the principal from the "id,email" subject, the expiry, the ID, the roles and the customer and
+     * courier IDs of the claims.
+     * Tokens without an expiry or ID are refused, since they could never expire nor be revoked.
+     *
+     * @param claims the verified claims
+     * @return the principal
+     * @throws MalformedJwtException if the subject is not in the expected form, or the expiry or ID is missing
+     */
+    private JwtPrincipal toPrincipal(Claims claims) {
+        String subject = claims.getSubject();
+        int separator = subject == null ? -1 : subject.indexOf(',');
+        if (separator <= 0) {
+            throw new MalformedJwtException("Subject is not in the form id,email");
+        }
+        int userId;
+        try {
+            userId = Integer.parseInt(subject.substring(0, separator));
+        } catch (NumberFormatException ex) {
+            throw new MalformedJwtException("Subject does not start with a user ID");
+        }
+        Date expiration = claims.getExpiration();
+        if (expiration == null || claims.getId() == null) {
+            throw new MalformedJwtException("Token has no expiry or ID");
+        }
+        return new JwtPrincipal(userId, subject.substring(separator + 1), claims.getId(), expiration.getTime(),
+                parseRoles(claims.get(ROLES_CLAIM)), parseId(claims.get(CUSTOMER_CLAIM)),
+                parseId(claims.get(COURIER_CLAIM)));
+    }
+
+    /**
+     * Parses the roles claim. Unknown role names are ignored, so tokens issued
+     * by a newer version of the application grant no more than this one knows.
+     *
+     * @param claim the value of the roles claim, null for tokens issued without it
+     * @return the roles
+     * @throws MalformedJwtException if the claim is not a list
+     */
+    private static Set<UserRole> parseRoles(Object claim) {
+        if (claim == null) {
+            return Collections.emptySet();
+        }
+        if (!(claim instanceof Collection<?> names)) {
+            throw new MalformedJwtException("Roles claim is not a list");
+        }
+        Set<UserRole> roles = EnumSet.noneOf(UserRole.class);
+        for (Object name : names) {
+            UserRole role = name instanceof String ? UserRole.fromClaim((String) name) : null;
+            if (role != null) {
+                roles.add(role);
+            }
+        }
+        return Collections.unmodifiableSet(roles);
+    }
+
+    /**
+     * Parses a customer or courier ID claim.
+     *
+     * @param claim the value of the claim, null if the user has no such ID
+     * @return the ID, or null
+     * @throws MalformedJwtException if the claim is not an integer
+     */
+    private static Integer parseId(Object claim) {
+        if (claim == null) {
+            return null;
+        }
+        if (!(claim instanceof Integer id)) {
+            throw new MalformedJwtException("ID claim is not an integer");
+        }
+        return id;
     }
 
     /**
      * Parses the claims from the token.
-     * 
+     *
      * @param token the JWT token
      * @return the claims
      */
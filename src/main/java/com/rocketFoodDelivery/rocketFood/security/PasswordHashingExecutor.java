@@ -0,0 +1,183 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiPasswordHashingStatsDto;
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs password hashing on a small dedicated pool. An adaptive hash such as
+ * BCrypt costs tens of milliseconds of CPU on purpose, so a burst of logins
+ * run on the request threads would leave none for the rest of the API. Here
+ * at most threads hashes run at a time and queue-capacity more wait; a login
+ * arriving when both are full fails at once with a 503 instead of queueing
+ * behind the others, and one that waits longer than timeout-ms gives up.
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * Constructor for injection of the pool settings.
+     *
+     * @param threads       the number of hashes run at a time.
+     * @param queueCapacity the number of hashes that may wait for a thread, 0 for none.
+     * @param timeoutMillis the longest a caller waits for its hash, queueing included.
+     */
+    public PasswordHashingExecutor(@Value("${app.auth.hashing.threads:4}") int threads,
+            @Value("${app.auth.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${app.auth.hashing.timeout-ms:5000}") long timeoutMillis) {
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity)
+                : new SynchronousQueue<>();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Wraps a password encoder so that encode and matches run on this pool.
+     *
+     * @param delegate the encoder doing the hashing.
+     * @return the offloading encoder.
+     */
+    public PasswordEncoder offload(PasswordEncoder delegate) {
+        return new OffloadingPasswordEncoder(delegate);
+    }
+
+    /**
+     * Runs a hash on the pool and waits for its result.
+     *
+     * @param hash the hashing work.
+     * @return the result of the hash.
+     * @throws ServiceUnavailableException if the pool and its queue are full,
+     *                                     or the hash did not complete in time.
+     */
+    <T> T run(Callable<T> hash) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return hash.call();
+                } finally {
+                    hashNanos.add(System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many logins in progress");
+        }
+        try {
+            T result = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            long elapsed = System.nanoTime() - submittedAt;
+            completed.increment();
+            latencyNanos.add(elapsed);
+            maxLatencyNanos.accumulateAndGet(elapsed, Math::max);
+            return result;
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            timedOut.increment();
+            throw new ServiceUnavailableException("Password verification timed out");
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while verifying the password");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        }
+    }
+
+    /**
+     * Returns the load of the pool and the latency of the hashes since startup.
+     *
+     * @return the hashing statistics.
+     */
+    public ApiPasswordHashingStatsDto getStats() {
+        long count = completed.sum();
+        return ApiPasswordHashingStatsDto.builder()
+                .threads(executor.getMaximumPoolSize())
+                .active(executor.getActiveCount())
+                .queued(executor.getQueue().size())
+                .completed(count)
+                .rejected(rejected.sum())
+                .timedOut(timedOut.sum())
+                .averageHashMillis(count == 0 ? 0 : hashNanos.sum() / count / 1_000_000.0)
+                .averageLatencyMillis(count == 0 ? 0 : latencyNanos.sum() / count / 1_000_000.0)
+                .maxLatencyMillis(maxLatencyNanos.get() / 1_000_000.0)
+                .build();
+    }
+
+    /**
+     * Stops the hashing threads.
+     */
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Password encoder running the hashes of its delegate on the pool.
+     */
+    private class OffloadingPasswordEncoder implements PasswordEncoder {
+
+        private final PasswordEncoder delegate;
+
+        OffloadingPasswordEncoder(PasswordEncoder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return run(() -> delegate.encode(rawPassword));
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return run(() -> delegate.matches(rawPassword, encodedPassword));
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            // Only reads the prefix of the stored hash
+            return delegate.upgradeEncoding(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter applying the rate limits of the RateLimiter.
+ * It runs after JwtTokenFilter, so an authenticated request is counted
+ * against its user, wherever it comes from, and an anonymous one against its
+ * client IP address. A request over its limit gets a 429 with a Retry-After
+ * header.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    /**
+     * Takes a token for the request, and refuses it if there is none.
+     *
+     * @param request     the HttpServletRequest
+     * @param response    the HttpServletResponse
+     * @param filterChain the FilterChain
+     * @throws ServletException in case of a servlet error
+     * @throws IOException      in case of an I/O error
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        long waitNanos = rateLimiter.tryAcquire(request.getMethod(), path, getClientKey(request));
+        if (waitNanos > 0) {
+            // Round up, a client retrying early would only be refused again
+            long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)
+                    / TimeUnit.SECONDS.toNanos(1));
+            ResponseBuilder.buildRetryLaterResponse(response, "Too many requests", HttpStatus.TOO_MANY_REQUESTS,
+                    retryAfterSeconds);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Returns the key the request is counted against: the user ID of a
+     * verified access token, or else the client IP address.
+     *
+     * @param request the HttpServletRequest
+     * @return the client key
+     */
+    private String getClientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserEntity user) {
+            return "user:" + user.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
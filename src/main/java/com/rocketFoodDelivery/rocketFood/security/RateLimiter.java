@@ -0,0 +1,288 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiRateLimitStatsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket rate limits per client and route. Each route rule gives every
+ * client a bucket of capacity requests refilled at a steady rate; a request
+ * finding its bucket empty is refused with the time until the next token.
+ * A bucket is a single AtomicLong holding the time at which it will be full
+ * again (the generic cell rate form of the token bucket), so taking a token
+ * is one compare-and-set and never blocks.
+ * Buckets live in striped maps bounded to max-buckets in total. A full bucket
+ * is the same as a new one, so the buckets of idle clients are dropped by the
+ * periodic sweep, or by a stripe that runs out of room, without losing any
+ * state. When a stripe is still full after that, the new clients of that
+ * stripe share one bucket per rule until room frees up.
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    private static final int STRIPES = 64;
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+
+    private final boolean enabled;
+    private final List<Rule> rules;
+    private final int maxBucketsPerStripe;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder limited = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * Constructor for injection of the limits.
+     *
+     * @param enabled         whether requests are limited at all.
+     * @param routes          the route rules, comma separated, each
+     *                        "[METHOD ]pattern=capacity:refillPerSecond"; the first match wins.
+     * @param defaultCapacity the capacity of the buckets of requests matching no rule.
+     * @param defaultRefill   the tokens per second added to those buckets.
+     * @param maxBuckets      the maximum number of buckets kept.
+     */
+    public RateLimiter(@Value("${app.rate-limit.enabled:true}") boolean enabled,
+            @Value("${app.rate-limit.routes:POST /api/order=20:5,/api/order/**=100:50,/api/restaurants/**=100:50}")
+            String routes,
+            @Value("${app.rate-limit.default-capacity:200}") int defaultCapacity,
+            @Value("${app.rate-limit.default-refill-per-second:100}") double defaultRefill,
+            @Value("${app.rate-limit.max-buckets:100000}") int maxBuckets) {
+        this.enabled = enabled;
+        this.rules = parseRules(routes, defaultCapacity, defaultRefill);
+        this.maxBucketsPerStripe = Math.max(1, maxBuckets / STRIPES);
+        long now = System.nanoTime();
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(rules.size(), now);
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of a client for a route.
+     *
+     * @param method    the HTTP method of the request.
+     * @param path      the path of the request.
+     * @param clientKey the client, such as its user ID or IP address.
+     * @return 0 if the request may proceed, otherwise the nanoseconds until it may be retried.
+     */
+    public long tryAcquire(String method, String path, String clientKey) {
+        return tryAcquire(method, path, clientKey, System.nanoTime());
+    }
+
+    long tryAcquire(String method, String path, String clientKey, long now) {
+        if (!enabled) {
+            return 0;
+        }
+        Rule rule = match(method, path);
+        String key = rule.index + " " + clientKey;
+        Stripe stripe = stripes[spread(key.hashCode()) & (STRIPES - 1)];
+        Bucket bucket = stripe.buckets.get(key);
+        if (bucket == null) {
+            bucket = stripe.bucketFor(key, rule, now);
+        }
+        long wait = bucket.take(rule, now);
+        if (wait == 0) {
+            allowed.increment();
+        } else {
+            limited.increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Drops the buckets that have refilled completely, on the configured interval.
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}",
+            initialDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        long before = evicted.sum();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.purge(now);
+            }
+        }
+        log.debug("Rate limiter sweep dropped {} idle buckets", evicted.sum() - before);
+    }
+
+    /**
+     * Returns the number of buckets and the outcome of the requests since startup.
+     *
+     * @return the rate limiter statistics.
+     */
+    public ApiRateLimitStatsDto getStats() {
+        int buckets = 0;
+        for (Stripe stripe : stripes) {
+            buckets += stripe.buckets.size();
+        }
+        return ApiRateLimitStatsDto.builder()
+                .enabled(enabled)
+                .rules(rules.size())
+                .buckets(buckets)
+                .allowed(allowed.sum())
+                .limited(limited.sum())
+                .overflowed(overflowed.sum())
+                .evicted(evicted.sum())
+                .build();
+    }
+
+    private Rule match(String method, String path) {
+        for (Rule rule : rules) {
+            if ((rule.method == null || rule.method.equalsIgnoreCase(method))
+                    && (rule.pattern == null || PATHS.match(rule.pattern, path))) {
+                return rule;
+            }
+        }
+        // The default rule matches everything, this is never reached
+        return rules.get(rules.size() - 1);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Parses the route rules and appends the default rule.
+     *
+     * @throws IllegalArgumentException if a rule is not in the expected form.
+     */
+    static List<Rule> parseRules(String routes, int defaultCapacity, double defaultRefill) {
+        List<Rule> rules = new ArrayList<>();
+        for (String route : routes.split(",")) {
+            String trimmed = route.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int equals = trimmed.lastIndexOf('=');
+            int colon = trimmed.lastIndexOf(':');
+            if (equals <= 0 || colon < equals) {
+                throw new IllegalArgumentException("Rate limit route is not in the form "
+                        + "[METHOD ]pattern=capacity:refillPerSecond: " + trimmed);
+            }
+            String target = trimmed.substring(0, equals).trim();
+            int space = target.indexOf(' ');
+            String method = space < 0 ? null : target.substring(0, space);
+            String pattern = space < 0 ? target : target.substring(space + 1).trim();
+            rules.add(new Rule(rules.size(), method, pattern,
+                    Integer.parseInt(trimmed.substring(equals + 1, colon).trim()),
+                    Double.parseDouble(trimmed.substring(colon + 1).trim())));
+        }
+        rules.add(new Rule(rules.size(), null, null, defaultCapacity, defaultRefill));
+        return List.copyOf(rules);
+    }
+
+    /**
+     * A route rule: the requests it matches and the bucket size and rate of each client.
+     */
+    static final class Rule {
+
+        final int index;
+        final String method;
+        final String pattern;
+        // Time for one token to come back
+        final long intervalNanos;
+        // How far the full time of a bucket may run ahead of now, capacity - 1 tokens
+        final long toleranceNanos;
+
+        Rule(int index, String method, String pattern, int capacity, double refillPerSecond) {
+            if (capacity < 1 || refillPerSecond <= 0) {
+                throw new IllegalArgumentException("Rate limit capacity and refill must be positive");
+            }
+            this.index = index;
+            this.method = method;
+            this.pattern = pattern;
+            this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+            this.toleranceNanos = intervalNanos * (capacity - 1);
+        }
+    }
+
+    /**
+     * A token bucket, as the time at which it is full again.
+     */
+    static final class Bucket {
+
+        private final AtomicLong fullAt;
+
+        Bucket(long now) {
+            this.fullAt = new AtomicLong(now);
+        }
+
+        /**
+         * Takes a token.
+         *
+         * @return 0 if a token was taken, otherwise the nanoseconds until one is available.
+         */
+        long take(Rule rule, long now) {
+            while (true) {
+                long current = fullAt.get();
+                long start = current - now < 0 ? now : current;
+                long ahead = start - now;
+                if (ahead > rule.toleranceNanos) {
+                    return ahead - rule.toleranceNanos;
+                }
+                if (fullAt.compareAndSet(current, start + rule.intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return fullAt.get() - now <= 0;
+        }
+    }
+
+    /**
+     * One stripe of the buckets. Purges lock the stripe, lookups do not.
+     */
+    private final class Stripe {
+
+        final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+        // Shared, per rule, by the clients that found the stripe full
+        final Bucket[] overflow;
+
+        Stripe(int ruleCount, long now) {
+            overflow = new Bucket[ruleCount];
+            for (int i = 0; i < ruleCount; i++) {
+                overflow[i] = new Bucket(now);
+            }
+        }
+
+        Bucket bucketFor(String key, Rule rule, long now) {
+            if (buckets.size() >= maxBucketsPerStripe) {
+                synchronized (this) {
+                    if (buckets.size() >= maxBucketsPerStripe) {
+                        purge(now);
+                    }
+                }
+                if (buckets.size() >= maxBucketsPerStripe) {
+                    overflowed.increment();
+                    return overflow[rule.index];
+                }
+            }
+            return buckets.computeIfAbsent(key, k -> new Bucket(now));
+        }
+
+        void purge(long now) {
+            // A client taking a token from a bucket as it is removed gets at most that one token for free
+            buckets.values().removeIf(bucket -> {
+                if (!bucket.isFull(now)) {
+                    return false;
+                }
+                evicted.increment();
+                return true;
+            });
+        }
+    }
+}
@@ -1,22 +1,26 @@
 package com.rocketFoodDelivery.rocketFood.security;
 
-import com.rocketFoodDelivery.rocketFood.repository.UserRepository;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Map;
+
 /**
  * Security configuration class.
  * This class configures the security settings for the application, including
@@ -30,18 +34,7 @@ public class SecurityConfig {
     private JwtTokenFilter jwtTokenFilter;
 
     @Autowired
-    private UserRepository userRepository;
-
-    /**
-     * Defines the UserDetailsService bean.
-     * 
-     * @return the UserDetailsService
-     */
-    @Bean
-    public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User " + username + " not found."));
-    }
+    private RateLimitFilter rateLimitFilter;
 
     /**
      * Defines the AuthenticationManager bean.
@@ -56,7 +49,9 @@ public class SecurityConfig {
     }
 
     /**
-     * Defines the SecurityFilterChain bean.
+     * Defines the SecurityFilterChain bean. Role rules are checked against the
+     * authorities JwtTokenFilter derives from the roles claim of the access
+     * token, so authorizing a request needs no query.
      * 
      * @param http the HttpSecurity
      * @return the SecurityFilterChain
@@ -68,22 +63,47 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
+                        // Async dispatches resume a request that was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/api/metrics/**").hasRole("EMPLOYEE")
+                        // Any user may create a restaurant of their own; RestaurantService
+                        // checks ownership of the restaurant on create, update and delete
+                        .requestMatchers(HttpMethod.POST, "/api/couriers/locations").hasAnyRole("EMPLOYEE", "COURIER")
+                        .requestMatchers("/api/couriers/**").hasAnyRole("EMPLOYEE", "RESTAURANT_OWNER", "COURIER")
+                        .requestMatchers(HttpMethod.POST, "/api/order").hasAnyRole("EMPLOYEE", "CUSTOMER")
+                        .requestMatchers(HttpMethod.POST, "/api/order/*/status", "/api/order/statuses")
+                        .hasAnyRole("EMPLOYEE", "RESTAURANT_OWNER", "COURIER")
+                        // OrderService further limits a status change to the courier or
+                        // the restaurant owner of the order
+                        .requestMatchers("/api/order/export", "/api/order/journal").hasRole("EMPLOYEE")
                         .anyRequest().authenticated())
                 .exceptionHandling(exception -> exception
                         .authenticationEntryPoint((request, response, ex) -> response
                                 .sendError(HttpServletResponse.SC_UNAUTHORIZED, ex.getMessage())))
-                .addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class)
+                // After the token filter, so authenticated requests are limited per user
+                .addFilterAfter(rateLimitFilter, JwtTokenFilter.class);
 
         return http.build();
     }
 
     /**
-     * Defines the PasswordEncoder bean.
+     * Defines the PasswordEncoder bean. New hashes are BCrypt, stored with a
+     * {bcrypt} prefix, and computed on the bounded hashing pool. Passwords
+     * stored in plain text before hashing was introduced have no prefix; they
+     * still match, and CachedUserDetailsService rehashes them at login.
      * 
+     * @param passwordHashingExecutor the pool running the hashes
+     * @param bcryptStrength          the BCrypt work factor
      * @return the PasswordEncoder
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return NoOpPasswordEncoder.getInstance();
+    @SuppressWarnings("deprecation")
+    public PasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor,
+            @Value("${app.auth.bcrypt-strength:10}") int bcryptStrength) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(bcryptStrength)));
+        encoder.setDefaultPasswordEncoderForMatches(NoOpPasswordEncoder.getInstance());
+        return passwordHashingExecutor.offload(encoder);
     }
 }
@@ -0,0 +1,158 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiTokenRevocationStatsDto;
+import com.rocketFoodDelivery.rocketFood.models.RevokedToken;
+import com.rocketFoodDelivery.rocketFood.repository.RevokedTokenRepository;
+import com.rocketFoodDelivery.rocketFood.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Revoked access tokens, checked on every authenticated request. The
+ * revoked_tokens table is the source of truth, and an in-memory Bloom filter
+ * over its token IDs answers the common case: a token that was never revoked
+ * is accepted without touching the database. Only the rare tokens the filter
+ * reports, revoked or false positives, are looked up in the table.
+ * The filter is rebuilt from the table on startup and on the configured
+ * interval, which also deletes the rows whose tokens have expired anyway and
+ * picks up revocations made by other instances.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+
+    // Guards swapping the filter against concurrent revocations
+    private final Object writeLock = new Object();
+    private final Object reloadLock = new Object();
+    private volatile BloomFilter filter;
+    private volatile int entries;
+    // Token IDs revoked while a reload is reading the table, added to the new filter before it is published
+    private List<String> revokedDuringReload;
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private volatile Instant lastReloadAt;
+
+    /**
+     * Constructor for dependency injection of the RevokedTokenRepository and
+     * the sizing of the filter.
+     *
+     * @param revokedTokenRepository the repository for revoked tokens.
+     * @param expectedEntries        the number of unexpired revocations the filter is sized for.
+     * @param falsePositiveRate      the share of unrevoked tokens the filter sends to the table.
+     */
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+            @Value("${app.jwt.revocation.expected-entries:100000}") int expectedEntries,
+            @Value("${app.jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    /**
+     * Revokes an access token until it expires.
+     *
+     * @param tokenId   the jti claim of the token.
+     * @param expiresAt when the token expires.
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt));
+        // Setting the bits before the row commits is harmless: the table lookup still says no
+        synchronized (writeLock) {
+            filter.put(tokenId);
+            entries++;
+            if (revokedDuringReload != null) {
+                revokedDuringReload.add(tokenId);
+            }
+        }
+        log.info("Revoked access token {} until {}", tokenId, expiresAt);
+    }
+
+    /**
+     * Tells whether an access token was revoked.
+     *
+     * @param tokenId the jti claim of the token, null for tokens issued without one.
+     * @return true if the token was revoked.
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        checks.increment();
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        lookups.increment();
+        boolean revoked = revokedTokenRepository.existsById(tokenId);
+        if (!revoked) {
+            falsePositives.increment();
+        }
+        return revoked;
+    }
+
+    /**
+     * Deletes the expired revocations and rebuilds the filter from the
+     * table, on startup and then on the configured interval.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.reload-interval-ms:60000}",
+            initialDelayString = "${app.jwt.revocation.reload-interval-ms:60000}")
+    public void reload() {
+        synchronized (reloadLock) {
+            synchronized (writeLock) {
+                revokedDuringReload = new ArrayList<>();
+            }
+            Instant now = Instant.now();
+            int deleted = revokedTokenRepository.deleteExpired(now);
+            List<String> tokenIds = revokedTokenRepository.findUnexpiredTokenIds(now);
+
+            // Leave headroom so the rate holds until the next reload
+            BloomFilter fresh = new BloomFilter(Math.max(expectedEntries, tokenIds.size() * 2), falsePositiveRate);
+            tokenIds.forEach(fresh::put);
+            synchronized (writeLock) {
+                revokedDuringReload.forEach(fresh::put);
+                Set<String> all = new HashSet<>(tokenIds);
+                all.addAll(revokedDuringReload);
+                filter = fresh;
+                entries = all.size();
+                revokedDuringReload = null;
+            }
+            lastReloadAt = now;
+            log.info("Loaded {} revoked access tokens, deleted {} expired", tokenIds.size(), deleted);
+        }
+    }
+
+    /**
+     * Returns the size of the filter and the outcome of the checks since startup.
+     *
+     * @return the revocation list statistics.
+     */
+    public ApiTokenRevocationStatsDto getStats() {
+        BloomFilter current = filter;
+        return ApiTokenRevocationStatsDto.builder()
+                .entries(entries)
+                .filterBits(current.bitSize())
+                .hashFunctions(current.hashCount())
+                .checks(checks.sum())
+                .lookups(lookups.sum())
+                .falsePositives(falsePositives.sum())
+                .lastReloadAt(lastReloadAt)
+                .build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of the principals of tokens whose signature was already
+ * verified. Entries are keyed by the SHA-256 digest of the whole token,
+ * signature included, so a tampered token never hits and raw tokens are not
+ * kept in memory. An entry lives until the token expires or for at most the
+ * configured time to live, whichever comes first. The cache is split into
+ * segments by digest, each an access-ordered map under its own lock.
+ */
+final class VerifiedTokenCache {
+
+    private static final int SEGMENTS = 16;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    });
+
+    private final long ttlMillis;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxEntries the maximum number of tokens kept, 0 to disable the cache.
+     * @param ttlMillis  the maximum time a verified token is trusted without
+     *                   verifying it again.
+     */
+    VerifiedTokenCache(int maxEntries, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        int perSegment = maxEntries <= 0 ? 0 : Math.max(1, maxEntries / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * Returns the cached principal of a token, or null if the token was not
+     * verified recently or has expired since.
+     */
+    JwtPrincipal get(String token, long now) {
+        Digest digest = Digest.of(token);
+        Segment segment = segmentFor(digest);
+        synchronized (segment) {
+            Entry entry = segment.get(digest);
+            if (entry != null && entry.validUntil > now) {
+                hits.increment();
+                return entry.principal;
+            }
+            if (entry != null) {
+                segment.remove(digest);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches the principal of a token that has just been verified.
+     */
+    void put(String token, JwtPrincipal principal, long now) {
+        long validUntil = Math.min(now + ttlMillis, principal.getExpiresAt());
+        if (validUntil <= now) {
+            return;
+        }
+        Digest digest = Digest.of(token);
+        Segment segment = segmentFor(digest);
+        synchronized (segment) {
+            if (segment.maxEntries > 0) {
+                segment.put(digest, new Entry(principal, validUntil));
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    private Segment segmentFor(Digest digest) {
+        return segments[digest.hashCode() & (SEGMENTS - 1)];
+    }
+
+    private static final class Segment extends LinkedHashMap<Digest, Entry> {
+
+        final int maxEntries;
+
+        Segment(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Digest, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    }
+
+    private static final class Entry {
+
+        final JwtPrincipal principal;
+        final long validUntil;
+
+        Entry(JwtPrincipal principal, long validUntil) {
+            this.principal = principal;
+            this.validUntil = validUntil;
+        }
+    }
+
+    private static final class Digest {
+
+        final byte[] bytes;
+        final int hash;
+
+        private Digest(byte[] bytes) {
+            this.bytes = bytes;
+            // A digest is uniformly distributed, so its first bytes are a good hash
+            this.hash = (bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8 | (bytes[3] & 0xFF);
+        }
+
+        static Digest of(String token) {
+            return new Digest(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Digest && Arrays.equals(bytes, ((Digest) other).bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
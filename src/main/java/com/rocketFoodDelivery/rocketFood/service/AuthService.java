@@ -8,6 +8,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
 import com.rocketFoodDelivery.rocketFood.models.UserEntity;
 
 @Service // This annotation indicates that the class is a service component in Spring
@@ -29,6 +30,7 @@ public class AuthService {
      * @param password The user's password.
      * @return The authenticated UserEntity.
      * @throws UsernameNotFoundException If the credentials are invalid.
+     * @throws ServiceUnavailableException If password hashing is saturated.
      * @throws RuntimeException          If authentication fails for another reason.
      */
     public UserEntity authenticate(String email, String password) {
@@ -42,6 +44,9 @@ public class AuthService {
         } catch (BadCredentialsException e) {
             // Throw exception if credentials are invalid
             throw new UsernameNotFoundException("Invalid credentials", e);
+        } catch (ServiceUnavailableException e) {
+            // Let the caller answer 503 rather than a generic failure
+            throw e;
         } catch (Exception e) {
             // Throw a generic exception if any other error occurs
             throw new RuntimeException("Authentication failed", e);
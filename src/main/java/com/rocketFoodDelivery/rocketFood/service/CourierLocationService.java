@@ -0,0 +1,456 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierLocationBatchDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierLocationDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierLocationResultDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierLocationStatsDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiNearbyCourierDto;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ForbiddenException;
+import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.repository.CourierRepository;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantLocationProjection;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory index of courier positions, fed far more often than the database
+ * could take. Each courier keeps its latest positions in a fixed-size ring
+ * buffer, and is listed in the cell of a uniform latitude/longitude grid
+ * holding its latest position. Readers never lock: the latest position of a
+ * courier is an immutable object behind a volatile field, and the grid is a
+ * concurrent map of concurrent sets. Writers lock only the courier they
+ * update, and the grid cells they move it between.
+ */
+@Slf4j
+@Service
+public class CourierLocationService {
+
+    static final double EARTH_RADIUS_METERS = 6_371_008.8;
+    static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180;
+    static final int MAX_BATCH_SIZE = 1000;
+    static final double MAX_RADIUS_METERS = 50_000;
+    static final int MAX_RESULTS = 100;
+    static final long MAX_CLOCK_SKEW_MILLIS = 60_000;
+
+    private final RestaurantRepository restaurantRepository;
+    private final CourierRepository courierRepository;
+    private final int historySize;
+    private final double cellSizeMeters;
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+    private final int maxCouriers;
+    private final long maxAgeMillis;
+    private final long retentionMillis;
+
+    private final ConcurrentHashMap<Integer, Track> tracks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Integer>> cells = new ConcurrentHashMap<>();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder ignored = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+
+    /**
+     * Constructor for dependency injection of the repositories and the index
+     * settings.
+     *
+     * @param restaurantRepository the repository resolving restaurant locations.
+     * @param courierRepository    the repository checking that couriers exist.
+     * @param historySize          the number of positions kept per courier.
+     * @param cellSizeMeters       the height of a grid cell.
+     * @param maxCouriers          the maximum number of couriers tracked.
+     * @param maxAgeMillis         the age beyond which a position is not found by radius queries.
+     * @param retentionMillis      the age beyond which a silent courier is dropped.
+     */
+    @Autowired
+    public CourierLocationService(RestaurantRepository restaurantRepository, CourierRepository courierRepository,
+            @Value("${app.courier-locations.history-size:16}") int historySize,
+            @Value("${app.courier-locations.cell-size-m:500}") double cellSizeMeters,
+            @Value("${app.courier-locations.max-couriers:100000}") int maxCouriers,
+            @Value("${app.courier-locations.max-age-ms:120000}") long maxAgeMillis,
+            @Value("${app.courier-locations.retention-ms:900000}") long retentionMillis) {
+        this.restaurantRepository = restaurantRepository;
+        this.courierRepository = courierRepository;
+        this.historySize = Math.max(1, historySize);
+        this.cellSizeMeters = cellSizeMeters;
+        this.cellDegrees = cellSizeMeters / METERS_PER_DEGREE;
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+        this.maxCouriers = maxCouriers;
+        this.maxAgeMillis = maxAgeMillis;
+        this.retentionMillis = retentionMillis;
+    }
+
+    /**
+     * Records a batch of courier positions. The batch is validated as a whole
+     * first; a position older than the latest one of its courier is ignored.
+     * A courier may only report its own position, the courier ID of its
+     * token; employees may report any courier, and the couriers not tracked
+     * yet are checked against the courier table with one query, so unknown
+     * IDs cannot fill the index up to max-couriers.
+     *
+     * @param batch  the positions to record.
+     * @param caller the authenticated user.
+     * @return the number of positions recorded and ignored.
+     * @throws BadRequestException         if the batch or one of its positions is invalid,
+     *                                     or a courier does not exist.
+     * @throws ForbiddenException          if the caller reports another courier.
+     * @throws ServiceUnavailableException if a new courier would exceed max-couriers.
+     */
+    public ApiCourierLocationResultDto record(ApiCourierLocationBatchDto batch, UserEntity caller) {
+        List<ApiCourierLocationDto> locations = batch == null ? null : batch.getLocations();
+        if (locations == null || locations.isEmpty()) {
+            throw new BadRequestException("At least one location is required");
+        }
+        if (locations.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("At most " + MAX_BATCH_SIZE + " locations can be sent at once");
+        }
+        long now = System.currentTimeMillis();
+        for (ApiCourierLocationDto location : locations) {
+            if (location == null || location.getCourierId() == null) {
+                throw new BadRequestException("Each location needs a courier_id");
+            }
+            validateCoordinates(location.getLatitude(), location.getLongitude());
+            if (location.getTimestamp() != null && location.getTimestamp() > now + MAX_CLOCK_SKEW_MILLIS) {
+                throw new BadRequestException("Location of courier " + location.getCourierId() + " is in the future");
+            }
+        }
+        checkCouriers(locations, caller);
+
+        int accepted = 0;
+        for (ApiCourierLocationDto location : locations) {
+            long timestamp = location.getTimestamp() == null ? now : location.getTimestamp();
+            if (update(location.getCourierId(), location.getLatitude(), location.getLongitude(), timestamp)) {
+                accepted++;
+            }
+        }
+        return new ApiCourierLocationResultDto(accepted, locations.size() - accepted);
+    }
+
+    /**
+     * Returns the positions kept for a courier, newest first.
+     *
+     * @param courierId the ID of the courier.
+     * @return the recent positions of the courier.
+     * @throws ResourceNotFoundException if no position of the courier is known.
+     */
+    public List<ApiCourierLocationDto> getHistory(int courierId) {
+        Track track = tracks.get(courierId);
+        if (track == null) {
+            throw new ResourceNotFoundException("No location known for courier " + courierId);
+        }
+        synchronized (track) {
+            List<ApiCourierLocationDto> history = new ArrayList<>(track.size);
+            for (int i = 1; i <= track.size; i++) {
+                int slot = Math.floorMod(track.next - i, historySize);
+                history.add(new ApiCourierLocationDto(courierId, track.latitudes[slot], track.longitudes[slot],
+                        track.timestamps[slot]));
+            }
+            return history;
+        }
+    }
+
+    /**
+     * Finds the couriers whose latest position is within a radius of a
+     * restaurant, nearest first.
+     *
+     * @param restaurantId the ID of the restaurant.
+     * @param radiusMeters the search radius.
+     * @param limit        the maximum number of couriers to return, capped at 100.
+     * @return the couriers found, nearest first.
+     * @throws ResourceNotFoundException if the restaurant does not exist.
+     * @throws BadRequestException       if the restaurant has no coordinates or the parameters are invalid.
+     */
+    public List<ApiNearbyCourierDto> findNearRestaurant(int restaurantId, double radiusMeters, Integer limit) {
+        RestaurantLocationProjection location = restaurantRepository.findRestaurantLocationById(restaurantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Restaurant with ID " + restaurantId + " not found"));
+        if (location.getLatitude() == null || location.getLongitude() == null) {
+            throw new BadRequestException("Restaurant " + restaurantId + " has no coordinates");
+        }
+        return findNear(location.getLatitude(), location.getLongitude(), radiusMeters, limit);
+    }
+
+    /**
+     * Finds the couriers whose latest position is within a radius of a point,
+     * nearest first. Positions older than max-age are left out.
+     *
+     * @param latitude     the latitude of the point.
+     * @param longitude    the longitude of the point.
+     * @param radiusMeters the search radius.
+     * @param limit        the maximum number of couriers to return, capped at 100.
+     * @return the couriers found, nearest first.
+     * @throws BadRequestException if the parameters are invalid.
+     */
+    public List<ApiNearbyCourierDto> findNear(double latitude, double longitude, double radiusMeters, Integer limit) {
+        validateCoordinates(latitude, longitude);
+        if (!(radiusMeters > 0 && radiusMeters <= MAX_RADIUS_METERS)) {
+            throw new BadRequestException("Radius must be between 0 and " + (int) MAX_RADIUS_METERS + " meters");
+        }
+        int max = limit == null ? MAX_RESULTS : limit;
+        if (max < 1) {
+            throw new BadRequestException("Limit must be positive");
+        }
+        max = Math.min(max, MAX_RESULTS);
+        queries.increment();
+
+        // Bounding box of the circle in grid cells; columns wrap around the antimeridian
+        double latitudeSpan = radiusMeters / METERS_PER_DEGREE;
+        double cos = Math.cos(Math.toRadians(Math.min(90, Math.abs(latitude) + latitudeSpan)));
+        double longitudeSpan = cos <= 0 ? 180 : Math.min(180, latitudeSpan / cos);
+        int firstRow = row(Math.max(-90, latitude - latitudeSpan));
+        int lastRow = row(Math.min(90, latitude + latitudeSpan));
+        int firstColumn = (int) Math.floor((longitude - longitudeSpan + 180) / cellDegrees);
+        int lastColumn = (int) Math.floor((longitude + longitudeSpan + 180) / cellDegrees);
+        if (lastColumn - firstColumn + 1 >= columns) {
+            firstColumn = 0;
+            lastColumn = columns - 1;
+        }
+
+        long oldest = System.currentTimeMillis() - maxAgeMillis;
+        Set<Integer> seen = new HashSet<>();
+        List<ApiNearbyCourierDto> found = new ArrayList<>();
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                Set<Integer> cell = cells.get(cellKey(row, Math.floorMod(column, columns)));
+                if (cell == null) {
+                    continue;
+                }
+                for (Integer courierId : cell) {
+                    // A courier moving between cells can be listed in both for a moment
+                    Track track = tracks.get(courierId);
+                    Position position = track == null ? null : track.latest;
+                    if (position == null || position.getTimestamp() < oldest || !seen.add(courierId)) {
+                        continue;
+                    }
+                    double distance = distanceMeters(latitude, longitude, position.getLatitude(),
+                            position.getLongitude());
+                    if (distance <= radiusMeters) {
+                        found.add(new ApiNearbyCourierDto(courierId, position.getLatitude(), position.getLongitude(),
+                                position.getTimestamp(), distance));
+                    }
+                }
+            }
+        }
+        found.sort(Comparator.comparingDouble(ApiNearbyCourierDto::getDistanceMeters)
+                .thenComparingInt(ApiNearbyCourierDto::getCourierId));
+        return found.size() > max ? new ArrayList<>(found.subList(0, max)) : found;
+    }
+
+    /**
+     * Drops the couriers that have not reported for longer than retention-ms,
+     * so couriers going off shift do not pile up in the index.
+     */
+    @Scheduled(fixedDelayString = "${app.courier-locations.evict-interval-ms:60000}")
+    public void evictSilentCouriers() {
+        long oldest = System.currentTimeMillis() - retentionMillis;
+        int count = 0;
+        for (Track track : tracks.values()) {
+            synchronized (track) {
+                if (track.latest != null && track.latest.getTimestamp() < oldest) {
+                    track.evicted = true;
+                    tracks.remove(track.courierId, track);
+                    removeFromCell(track.latest.getCell(), track.courierId);
+                    count++;
+                }
+            }
+        }
+        if (count > 0) {
+            evicted.add(count);
+            log.info("Dropped {} couriers that stopped reporting their location", count);
+        }
+    }
+
+    /**
+     * Returns the size and counters of the location index.
+     *
+     * @return the statistics since startup.
+     */
+    public ApiCourierLocationStatsDto getStats() {
+        return ApiCourierLocationStatsDto.builder()
+                .couriers(tracks.size())
+                .cells(cells.size())
+                .historySize(historySize)
+                .cellSizeMeters(cellSizeMeters)
+                .updates(updates.sum())
+                .ignored(ignored.sum())
+                .evicted(evicted.sum())
+                .queries(queries.sum())
+                .build();
+    }
+
+    /**
+     * Records one position, unless the courier already has a newer one.
+     *
+     * @return true if the position was recorded.
+     */
+    boolean update(int courierId, double latitude, double longitude, long timestamp) {
+        while (true) {
+            Track track = tracks.get(courierId);
+            if (track == null) {
+                if (tracks.size() >= maxCouriers) {
+                    throw new ServiceUnavailableException("Too many couriers are reporting their location");
+                }
+                track = tracks.computeIfAbsent(courierId, Track::new);
+            }
+            synchronized (track) {
+                if (track.evicted) {
+                    // Dropped by the eviction between the lookup and the lock, start over
+                    continue;
+                }
+                Position previous = track.latest;
+                if (previous != null && timestamp <= previous.getTimestamp()) {
+                    ignored.increment();
+                    return false;
+                }
+                int slot = track.next;
+                track.latitudes[slot] = latitude;
+                track.longitudes[slot] = longitude;
+                track.timestamps[slot] = timestamp;
+                track.next = (slot + 1) % historySize;
+                track.size = Math.min(track.size + 1, historySize);
+
+                Position position = new Position(latitude, longitude, timestamp, cellKey(latitude, longitude));
+                // Join the new cell before leaving the old one, so the courier is never missing from the grid
+                if (previous == null || previous.getCell() != position.getCell()) {
+                    cells.compute(position.getCell(), (key, cell) -> {
+                        Set<Integer> members = cell == null ? ConcurrentHashMap.newKeySet() : cell;
+                        members.add(courierId);
+                        return members;
+                    });
+                    if (previous != null) {
+                        removeFromCell(previous.getCell(), courierId);
+                    }
+                }
+                track.latest = position;
+                updates.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of grid memberships, which equals the number of
+     * tracked couriers once no update is in flight.
+     */
+    long indexedEntries() {
+        return cells.values().stream().mapToLong(Set::size).sum();
+    }
+
+    /**
+     * Returns the great-circle distance between two points with the
+     * haversine formula.
+     */
+    static double distanceMeters(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double deltaLatitude = Math.toRadians(latitude2 - latitude1);
+        double deltaLongitude = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(deltaLatitude / 2) * Math.sin(deltaLatitude / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                        * Math.sin(deltaLongitude / 2) * Math.sin(deltaLongitude / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Checks that the caller may report the couriers of a batch, and that
+     * they exist. The courier ID of a token was read from the courier table
+     * when the token was issued, so only an employee's batch needs a query.
+     */
+    private void checkCouriers(List<ApiCourierLocationDto> locations, UserEntity caller) {
+        if (caller == null) {
+            throw new ForbiddenException("Only couriers can report their location");
+        }
+        if (!caller.isEmployee()) {
+            for (ApiCourierLocationDto location : locations) {
+                if (!location.getCourierId().equals(caller.getCourierId())) {
+                    throw new ForbiddenException("Couriers can only report their own location");
+                }
+            }
+            return;
+        }
+        Set<Integer> untracked = new HashSet<>();
+        for (ApiCourierLocationDto location : locations) {
+            if (!tracks.containsKey(location.getCourierId())) {
+                untracked.add(location.getCourierId());
+            }
+        }
+        if (untracked.isEmpty()) {
+            return;
+        }
+        untracked.removeAll(courierRepository.findExistingIds(untracked));
+        if (!untracked.isEmpty()) {
+            throw new BadRequestException("Unknown courier " + untracked.iterator().next());
+        }
+    }
+
+    private void removeFromCell(long key, int courierId) {
+        cells.computeIfPresent(key, (k, members) -> {
+            members.remove(courierId);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        int column = Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), columns);
+        return cellKey(row(latitude), column);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | column;
+    }
+
+    private int row(double latitude) {
+        return Math.min(rows - 1, (int) Math.floor((latitude + 90) / cellDegrees));
+    }
+
+    private static void validateCoordinates(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null || !(latitude >= -90 && latitude <= 90)
+                || !(longitude >= -180 && longitude <= 180)) {
+            throw new BadRequestException("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+    }
+
+    /**
+     * The positions of one courier. The ring buffer is guarded by the track's
+     * monitor; the latest position can be read without it.
+     */
+    private final class Track {
+
+        final int courierId;
+        final double[] latitudes = new double[historySize];
+        final double[] longitudes = new double[historySize];
+        final long[] timestamps = new long[historySize];
+        int next;
+        int size;
+        boolean evicted;
+        volatile Position latest;
+
+        Track(int courierId) {
+            this.courierId = courierId;
+        }
+    }
+
+    /**
+     * Immutable latest position of a courier, with its grid cell.
+     */
+    @lombok.Value
+    private static class Position {
+        double latitude;
+        double longitude;
+        long timestamp;
+        long cell;
+    }
+}
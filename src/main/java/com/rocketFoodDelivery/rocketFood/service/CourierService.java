@@ -1,18 +1,404 @@
 package com.rocketFoodDelivery.rocketFood.service;
 
+import com.rocketFoodDelivery.rocketFood.dtos.ApiDispatchStatsDto;
+import com.rocketFoodDelivery.rocketFood.models.CourierStatus;
+import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
+import com.rocketFoodDelivery.rocketFood.repository.CourierAssignment;
 import com.rocketFoodDelivery.rocketFood.repository.CourierRepository;
+import com.rocketFoodDelivery.rocketFood.repository.OrderRepository;
+import com.rocketFoodDelivery.rocketFood.repository.OrderSummaryRow;
+import com.rocketFoodDelivery.rocketFood.service.DispatchScorer.CourierCandidate;
+import com.rocketFoodDelivery.rocketFood.service.DispatchScorer.OrderCandidate;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-@Service // This annotation indicates that the class is a service component in Spring
-public class CourierService { // This service is a placeholder for operations related to couriers.
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Service for couriers, and the dispatch engine that assigns them to orders.
+ * The engine keeps the unassigned orders in a priority queue by age and the
+ * free, active couriers in a priority queue by idle time, both refreshed
+ * from the database every refresh-ms. A refresh only reads the orders above
+ * the highest ID seen so far; every rescan-ms it reads all unassigned open
+ * orders instead, which queues orders that committed after a higher ID was
+ * read and drops the ones assigned or closed elsewhere. Every interval-ms a
+ * micro-batch offers
+ * each of up to batch-size of the oldest orders the candidates longest idle
+ * couriers, assigns the one the DispatchScorer ranks best, and persists all
+ * assignments of the batch in one transaction with a fixed number of JDBC
+ * batches: the couriers are claimed (free to busy), the orders updated, and
+ * couriers whose order was taken meanwhile released again. Every update is
+ * conditional, so assignments made elsewhere are never overwritten. Once the
+ * transaction commits, OrderService journals the assignments and notifies
+ * the subscribers of the orders.
+ * Disabled unless app.dispatch.enabled is set.
+ */
+@Slf4j
+@Service
+public class CourierService {
+
+    static final String FREE = "free";
+    static final String BUSY = "busy";
+    static final List<String> OPEN_ORDER_STATUSES = List.of("pending", "in progress");
+    static final int REFRESH_PAGE_SIZE = 1000;
 
-    // Dependency injection of CourierRepository
     private final CourierRepository courierRepository;
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final DispatchScorer dispatchScorer;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int candidates;
+    private final long refreshMillis;
+    private final long rescanMillis;
+
+    // Dispatch state, only touched by dispatch() which is synchronized. A
+    // queue entry is stale once its map entry is gone or replaced.
+    private final Map<Integer, OrderCandidate> pendingOrders = new HashMap<>();
+    private final PriorityQueue<OrderCandidate> orderQueue = new PriorityQueue<>(
+            Comparator.comparingLong(OrderCandidate::getQueuedAtMillis).thenComparingInt(OrderCandidate::getOrderId));
+    private final Map<Integer, CourierCandidate> idleCouriers = new HashMap<>();
+    private final PriorityQueue<CourierCandidate> courierQueue = new PriorityQueue<>(
+            Comparator.comparingLong(CourierCandidate::getIdleSinceMillis)
+                    .thenComparingInt(CourierCandidate::getCourierId));
+    private int lastOrderId;
+    private long nextRefreshAt;
+    private long nextRescanAt;
+
+    // Statistics, read without the lock
+    private volatile int pendingOrderCount;
+    private volatile int idleCourierCount;
+    private volatile long assigned;
+    private volatile long conflicts;
+    private volatile long batches;
+    private volatile int lastBatchSize;
+    private volatile long lastBatchMillis;
+    private volatile long assignmentMillisTotal;
+    private volatile long maxAssignmentMillis;
 
     // Constructor for dependency injection
     @Autowired
-    public CourierService(CourierRepository courierRepository) {
+    public CourierService(CourierRepository courierRepository, OrderRepository orderRepository,
+            OrderService orderService, ReferenceDataRegistry referenceDataRegistry, DispatchScorer dispatchScorer,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.dispatch.enabled:false}") boolean enabled,
+            @Value("${app.dispatch.batch-size:500}") int batchSize,
+            @Value("${app.dispatch.candidates:16}") int candidates,
+            @Value("${app.dispatch.refresh-ms:1000}") long refreshMillis,
+            @Value("${app.dispatch.rescan-ms:30000}") long rescanMillis) {
         this.courierRepository = courierRepository;
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.dispatchScorer = dispatchScorer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.candidates = Math.max(1, candidates);
+        this.refreshMillis = refreshMillis;
+        this.rescanMillis = rescanMillis;
+    }
+
+    /**
+     * Runs one dispatch micro-batch: refreshes the queues when due, matches
+     * orders to couriers and persists the assignments.
+     *
+     * @return the number of orders assigned.
+     */
+    @Scheduled(fixedDelayString = "${app.dispatch.interval-ms:250}")
+    public synchronized int dispatch() {
+        if (!enabled) {
+            return 0;
+        }
+        Optional<DispatchStatuses> statuses = resolveStatuses();
+        if (statuses.isEmpty()) {
+            log.warn("Courier or order statuses missing, dispatch skipped");
+            return 0;
+        }
+        long started = System.currentTimeMillis();
+        if (started >= nextRefreshAt) {
+            refresh(statuses.get(), started);
+            nextRefreshAt = started + refreshMillis;
+        }
+
+        List<CourierAssignment> proposals = match(started);
+        int assignedCount = 0;
+        if (!proposals.isEmpty()) {
+            assignedCount = apply(proposals, statuses.get(), started);
+            batches++;
+            lastBatchSize = proposals.size();
+            lastBatchMillis = System.currentTimeMillis() - started;
+        }
+        pendingOrderCount = pendingOrders.size();
+        idleCourierCount = idleCouriers.size();
+        return assignedCount;
+    }
+
+    /**
+     * Returns the queue depths, counters and assignment latency of the
+     * dispatch engine.
+     *
+     * @return the statistics since startup.
+     */
+    public ApiDispatchStatsDto getStats() {
+        long assignedCount = assigned;
+        return ApiDispatchStatsDto.builder()
+                .enabled(enabled)
+                .pendingOrders(pendingOrderCount)
+                .idleCouriers(idleCourierCount)
+                .assigned(assignedCount)
+                .conflicts(conflicts)
+                .batches(batches)
+                .lastBatchSize(lastBatchSize)
+                .lastBatchMillis(lastBatchMillis)
+                .averageAssignmentMillis(assignedCount == 0 ? 0 : (double) assignmentMillisTotal / assignedCount)
+                .maxAssignmentMillis(maxAssignmentMillis)
+                .build();
+    }
+
+    /**
+     * Queues the orders created since the last refresh, or when a rescan is
+     * due all unassigned open orders, and replaces the idle couriers with the
+     * ones currently free, keeping the queue time and idle time of those
+     * already known.
+     */
+    private void refresh(DispatchStatuses statuses, long now) {
+        // IDs are allocated before commit, so an order may become visible
+        // after a higher one was read; only a rescan from the start finds it
+        boolean rescan = now >= nextRescanAt;
+        Set<Integer> unassigned = new HashSet<>();
+        int afterId = rescan ? 0 : lastOrderId;
+        List<OrderSummaryRow> page;
+        do {
+            page = orderRepository.findUnassignedOrders(statuses.openOrderStatusIds, afterId, REFRESH_PAGE_SIZE);
+            for (OrderSummaryRow order : page) {
+                OrderCandidate candidate = new OrderCandidate(order.getId(), order.getRestaurantId(), now);
+                if (pendingOrders.putIfAbsent(order.getId(), candidate) == null) {
+                    orderQueue.add(candidate);
+                }
+                unassigned.add(order.getId());
+                afterId = order.getId();
+            }
+        } while (page.size() == REFRESH_PAGE_SIZE);
+        lastOrderId = Math.max(lastOrderId, afterId);
+        if (rescan) {
+            // Orders assigned or closed elsewhere leave the queue
+            pendingOrders.keySet().retainAll(unassigned);
+            if (orderQueue.size() > 2 * pendingOrders.size() + batchSize) {
+                orderQueue.removeIf(candidate -> pendingOrders.get(candidate.getOrderId()) != candidate);
+            }
+            nextRescanAt = now + rescanMillis;
+        }
+
+        Set<Integer> free = new HashSet<>(courierRepository.findActiveCourierIdsByStatus(statuses.freeStatusId));
+        idleCouriers.keySet().retainAll(free);
+        for (Integer courierId : free) {
+            if (!idleCouriers.containsKey(courierId)) {
+                CourierCandidate candidate = new CourierCandidate(courierId, now);
+                idleCouriers.put(courierId, candidate);
+                courierQueue.add(candidate);
+            }
+        }
+        // Drop the stale entries left behind by couriers that are no longer free
+        if (courierQueue.size() > 2 * idleCouriers.size() + candidates) {
+            courierQueue.removeIf(candidate -> idleCouriers.get(candidate.getCourierId()) != candidate);
+        }
+    }
+
+    /**
+     * Offers the oldest orders the longest idle couriers and proposes the best
+     * scored courier for each. Proposed orders and couriers leave the queues
+     * until their assignment is applied.
+     */
+    private List<CourierAssignment> match(long now) {
+        List<CourierAssignment> proposals = new ArrayList<>();
+        List<OrderCandidate> unmatched = new ArrayList<>();
+        List<CourierCandidate> offered = new ArrayList<>(candidates);
+        while (proposals.size() < batchSize) {
+            OrderCandidate order = poll(orderQueue, pendingOrders, OrderCandidate::getOrderId);
+            if (order == null) {
+                break;
+            }
+            offered.clear();
+            CourierCandidate courier;
+            while (offered.size() < candidates
+                    && (courier = poll(courierQueue, idleCouriers, CourierCandidate::getCourierId)) != null) {
+                offered.add(courier);
+            }
+            if (offered.isEmpty()) {
+                unmatched.add(order);
+                break;
+            }
+            CourierCandidate best = null;
+            double bestScore = Double.POSITIVE_INFINITY;
+            for (CourierCandidate candidate : offered) {
+                double score = dispatchScorer.score(order, candidate, now);
+                if (score < bestScore) {
+                    best = candidate;
+                    bestScore = score;
+                }
+            }
+            for (CourierCandidate candidate : offered) {
+                if (candidate != best) {
+                    courierQueue.add(candidate);
+                }
+            }
+            if (best == null) {
+                unmatched.add(order);
+            } else {
+                proposals.add(new CourierAssignment(order.getOrderId(), best.getCourierId()));
+            }
+        }
+        orderQueue.addAll(unmatched);
+        return proposals;
+    }
+
+    /**
+     * Persists the proposals in one transaction and updates the queues with
+     * the outcome of each.
+     */
+    private int apply(List<CourierAssignment> proposals, DispatchStatuses statuses, long started) {
+        Set<Integer> claimed = new HashSet<>();
+        Set<Integer> assignedOrders = new HashSet<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                claimed.clear();
+                assignedOrders.clear();
+                List<Integer> courierIds = proposals.stream().map(CourierAssignment::getCourierId)
+                        .collect(Collectors.toList());
+                int[] claims = courierRepository.updateStatusesIfCurrent(courierIds, statuses.freeStatusId,
+                        statuses.busyStatusId);
+                List<CourierAssignment> claimedProposals = new ArrayList<>();
+                for (int i = 0; i < proposals.size(); i++) {
+                    if (applied(claims[i])) {
+                        claimed.add(proposals.get(i).getCourierId());
+                        claimedProposals.add(proposals.get(i));
+                    }
+                }
+                int[] updates = orderRepository.assignCouriers(claimedProposals, statuses.openOrderStatusIds);
+                List<Integer> release = new ArrayList<>();
+                for (int i = 0; i < claimedProposals.size(); i++) {
+                    if (applied(updates[i])) {
+                        assignedOrders.add(claimedProposals.get(i).getOrderId());
+                    } else {
+                        release.add(claimedProposals.get(i).getCourierId());
+                    }
+                }
+                courierRepository.updateStatusesIfCurrent(release, statuses.busyStatusId, statuses.freeStatusId);
+                orderService.recordCourierAssignments(assignedOrders);
+            });
+        } catch (RuntimeException ex) {
+            log.error("Could not persist {} courier assignments: {}", proposals.size(), ex.getMessage());
+            // Nothing was written, everyone goes back in line
+            proposals.forEach(proposal -> {
+                requeue(orderQueue, pendingOrders.get(proposal.getOrderId()));
+                requeue(courierQueue, idleCouriers.get(proposal.getCourierId()));
+            });
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        int assignedCount = 0;
+        for (CourierAssignment proposal : proposals) {
+            OrderCandidate order = pendingOrders.get(proposal.getOrderId());
+            if (assignedOrders.contains(proposal.getOrderId())) {
+                pendingOrders.remove(proposal.getOrderId());
+                idleCouriers.remove(proposal.getCourierId());
+                recordAssignment(now - order.getQueuedAtMillis());
+                assignedCount++;
+            } else if (!claimed.contains(proposal.getCourierId())) {
+                // The courier is no longer free, the order waits for another one
+                idleCouriers.remove(proposal.getCourierId());
+                orderQueue.add(order);
+                conflicts++;
+            } else {
+                // The order was assigned or closed elsewhere, the courier was released
+                pendingOrders.remove(proposal.getOrderId());
+                courierQueue.add(idleCouriers.get(proposal.getCourierId()));
+                conflicts++;
+            }
+        }
+        log.debug("Dispatch batch assigned {} of {} orders in {} ms", assignedCount, proposals.size(),
+                now - started);
+        return assignedCount;
+    }
+
+    private void recordAssignment(long latencyMillis) {
+        assigned++;
+        assignmentMillisTotal += latencyMillis;
+        maxAssignmentMillis = Math.max(maxAssignmentMillis, latencyMillis);
+    }
+
+    private Optional<DispatchStatuses> resolveStatuses() {
+        Optional<CourierStatus> free = referenceDataRegistry.findCourierStatus(FREE);
+        Optional<CourierStatus> busy = referenceDataRegistry.findCourierStatus(BUSY);
+        List<Integer> open = OPEN_ORDER_STATUSES.stream()
+                .map(referenceDataRegistry::findOrderStatus)
+                .flatMap(Optional::stream)
+                .map(OrderStatus::getId)
+                .collect(Collectors.toList());
+        if (free.isEmpty() || busy.isEmpty() || open.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new DispatchStatuses(free.get().getId(), busy.get().getId(), open));
+    }
+
+    /**
+     * Polls the queue until an entry that is still current in the map.
+     */
+    private static <T> T poll(PriorityQueue<T> queue, Map<Integer, T> current,
+            ToIntFunction<T> id) {
+        T next;
+        while ((next = queue.poll()) != null) {
+            if (current.get(id.applyAsInt(next)) == next) {
+                return next;
+            }
+        }
+        return null;
+    }
+
+    private static <T> void requeue(PriorityQueue<T> queue, T candidate) {
+        if (candidate != null) {
+            queue.add(candidate);
+        }
+    }
+
+    // SUCCESS_NO_INFO means the driver executed the statement without a count
+    private static boolean applied(int count) {
+        return count > 0 || count == Statement.SUCCESS_NO_INFO;
+    }
+
+    /**
+     * The status IDs the dispatch engine works with.
+     */
+    private static final class DispatchStatuses {
+
+        final int freeStatusId;
+        final int busyStatusId;
+        final List<Integer> openOrderStatusIds;
+
+        DispatchStatuses(int freeStatusId, int busyStatusId, List<Integer> openOrderStatusIds) {
+            this.freeStatusId = freeStatusId;
+            this.busyStatusId = busyStatusId;
+            this.openOrderStatusIds = openOrderStatusIds;
+        }
     }
 }
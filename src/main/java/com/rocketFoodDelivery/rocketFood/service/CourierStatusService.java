@@ -1,20 +1,19 @@
 package com.rocketFoodDelivery.rocketFood.service;
 
 import com.rocketFoodDelivery.rocketFood.models.CourierStatus;
-import com.rocketFoodDelivery.rocketFood.repository.CourierStatusRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service // This annotation indicates that the class is a service component in Spring
 public class CourierStatusService {
 
-    // Dependency injection of CourierStatusRepository
-    private final CourierStatusRepository courierStatusRepository;
+    // Dependency injection of ReferenceDataRegistry, which serves the statuses from memory
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     // Constructor for dependency injection
     @Autowired
-    public CourierStatusService(CourierStatusRepository courierStatusRepository) {
-        this.courierStatusRepository = courierStatusRepository;
+    public CourierStatusService(ReferenceDataRegistry referenceDataRegistry) {
+        this.referenceDataRegistry = referenceDataRegistry;
     }
 
     /**
@@ -24,6 +23,6 @@ public class CourierStatusService {
      * @return The CourierStatus object if found, or null if not.
      */
     public CourierStatus findByName(String name) {
-        return courierStatusRepository.findByName(name);
+        return referenceDataRegistry.findCourierStatus(name).orElse(null);
     }
 }
@@ -0,0 +1,40 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+/**
+ * Scores a courier for an order in the dispatch engine. The engine offers
+ * each order the longest idle couriers and assigns the one with the lowest
+ * score. To plug in another policy, declare a DispatchScorer bean marked
+ * {@code @Primary}.
+ */
+public interface DispatchScorer {
+
+    /**
+     * Scores a courier for an order.
+     *
+     * @param order     the order waiting for a courier.
+     * @param courier   a free courier.
+     * @param nowMillis the current time.
+     * @return the score, lower is better; infinity or NaN if the courier must
+     *         not take the order.
+     */
+    double score(OrderCandidate order, CourierCandidate courier, long nowMillis);
+
+    /**
+     * An order waiting for a courier.
+     */
+    @lombok.Value
+    class OrderCandidate {
+        int orderId; // ID of the order
+        int restaurantId; // ID of the restaurant the order is picked up at
+        long queuedAtMillis; // When the engine first saw the order
+    }
+
+    /**
+     * A free courier.
+     */
+    @lombok.Value
+    class CourierCandidate {
+        int courierId; // ID of the courier
+        long idleSinceMillis; // When the engine first saw the courier free
+    }
+}
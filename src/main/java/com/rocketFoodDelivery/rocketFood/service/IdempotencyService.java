@@ -0,0 +1,296 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ConflictException;
+import com.rocketFoodDelivery.rocketFood.models.IdempotencyRecord;
+import com.rocketFoodDelivery.rocketFood.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Service class for Idempotency-Key handling.
+ * Keys live in a bounded in-memory map for ttl-ms. The first request with a
+ * key runs; concurrent requests with the same key wait for its outcome
+ * instead of running again, and later requests replay the stored result.
+ * Keys still running are never evicted, so the map may exceed max-entries by
+ * the number of requests in flight.
+ * Failed requests are forgotten so the client can retry with the same key.
+ * With app.idempotency.persistent=true the result is also stored in the
+ * idempotency_keys table, in the request's own transaction, so keys survive
+ * restarts and are shared between instances.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean persistent;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long waitTimeoutMillis;
+
+    private final Object lock = new Object();
+    // Insertion order is expiry order, since every entry has the same TTL
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private final AtomicLong replays = new AtomicLong();
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.idempotency.persistent:false}") boolean persistent,
+            @Value("${app.idempotency.max-entries:100000}") int maxEntries,
+            @Value("${app.idempotency.ttl-ms:86400000}") long ttlMillis,
+            @Value("${app.idempotency.wait-timeout-ms:30000}") long waitTimeoutMillis) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.persistent = persistent;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    /**
+     * Runs an action at most once per key and request body.
+     *
+     * @param scope          the caller the key belongs to, such as the user name.
+     * @param idempotencyKey the Idempotency-Key header.
+     * @param request        the request body, fingerprinted to detect key reuse.
+     * @param type           the type of the action's result.
+     * @param action         the action to run on the first request with the key.
+     * @param <T>            the type of the action's result.
+     * @return the result of the action, either fresh or replayed.
+     * @throws BadRequestException if the key is blank, or too long to be
+     *                             stored once scoped.
+     * @throws ConflictException   if the key was used with a different request,
+     *                             or its first request is still running after
+     *                             wait-timeout-ms.
+     */
+    public <T> T execute(String scope, String idempotencyKey, Object request, Class<T> type,
+            Supplier<T> action) {
+        // Keys are per caller, so one user cannot replay another user's result
+        String key = scope + ":" + idempotencyKey;
+        int maxLength = Math.min(MAX_KEY_LENGTH, IdempotencyRecord.MAX_KEY_LENGTH - scope.length() - 1);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > maxLength) {
+            throw new BadRequestException("Idempotency-Key must be 1 to " + maxLength + " characters");
+        }
+        String fingerprint = fingerprint(request);
+        Entry mine = new Entry(fingerprint, System.currentTimeMillis() + ttlMillis);
+        Entry existing;
+        synchronized (lock) {
+            expireEntries(System.currentTimeMillis());
+            existing = entries.get(key);
+            if (existing == null) {
+                entries.put(key, mine);
+                if (entries.size() > maxEntries) {
+                    evictEldestCompleted();
+                }
+            }
+        }
+
+        if (existing != null) {
+            checkFingerprint(existing.fingerprint, fingerprint);
+            replays.incrementAndGet();
+            log.info("Replaying result of Idempotency-Key {}", key);
+            return type.cast(await(existing.result));
+        }
+
+        try {
+            T result = persistent ? executePersistent(key, fingerprint, type, action) : action.get();
+            mine.result.complete(result);
+            return result;
+        } catch (RuntimeException ex) {
+            // Failures are not remembered, so the client can retry with the same key
+            synchronized (lock) {
+                entries.remove(key, mine);
+            }
+            mine.result.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the number of requests answered from a stored result.
+     *
+     * @return the replay count since startup.
+     */
+    public long getReplayCount() {
+        return replays.get();
+    }
+
+    /**
+     * Removes expired keys from memory and, in persistent mode, from the table.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        synchronized (lock) {
+            expireEntries(System.currentTimeMillis());
+        }
+        if (persistent) {
+            int deleted = idempotencyRecordRepository.deleteExpired(Instant.now());
+            log.debug("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    /**
+     * Looks the key up in the table, then runs the action and stores its
+     * result in one transaction. If another instance commits the same key
+     * first, the primary key rejects this insert, the whole transaction rolls
+     * back, and the winner's result is replayed.
+     */
+    private <T> T executePersistent(String key, String fingerprint, Class<T> type, Supplier<T> action) {
+        Optional<T> stored = findStored(key, fingerprint, type);
+        if (stored.isPresent()) {
+            replays.incrementAndGet();
+            return stored.get();
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                T result = action.get();
+                Instant now = Instant.now();
+                idempotencyRecordRepository.save(IdempotencyRecord.builder()
+                        .idempotencyKey(key)
+                        .requestHash(fingerprint)
+                        .responseBody(toJson(result))
+                        .createdAt(now)
+                        .expiresAt(now.plusMillis(ttlMillis))
+                        .build());
+                return result;
+            });
+        } catch (DataIntegrityViolationException ex) {
+            log.info("Idempotency-Key {} was committed concurrently, replaying", key);
+            replays.incrementAndGet();
+            return findStored(key, fingerprint, type).orElseThrow(() -> ex);
+        }
+    }
+
+    private <T> Optional<T> findStored(String key, String fingerprint, Class<T> type) {
+        return idempotencyRecordRepository.findById(key)
+                .filter(record -> record.getExpiresAt().isAfter(Instant.now()))
+                .map(record -> {
+                    checkFingerprint(record.getRequestHash(), fingerprint);
+                    return fromJson(record.getResponseBody(), type);
+                });
+    }
+
+    private Object await(CompletableFuture<Object> result) {
+        try {
+            return result.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new ConflictException("A request with this Idempotency-Key is still in progress");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("A request with this Idempotency-Key is still in progress");
+        }
+    }
+
+    private static void checkFingerprint(String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new ConflictException("Idempotency-Key was already used with a different request");
+        }
+    }
+
+    /**
+     * Drops expired entries from the head of the map, skipping the ones still
+     * running. Called with the lock held.
+     */
+    private void expireEntries(long now) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.expiresAtMillis > now) {
+                return;
+            }
+            if (entry.result.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops the oldest entry whose request has completed. Entries still
+     * running are skipped, since dropping one would let a retry run the
+     * request a second time. Called with the lock held.
+     */
+    private void evictEldestCompleted() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().result.isDone()) {
+                iterator.remove();
+                return;
+            }
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(hash);
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Could not fingerprint request", ex);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize idempotent result", ex);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json.getBytes(StandardCharsets.UTF_8), type);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not read stored idempotent result", ex);
+        }
+    }
+
+    /**
+     * A key's request fingerprint and the eventual result of its first request.
+     */
+    private static final class Entry {
+
+        final String fingerprint;
+        final long expiresAtMillis;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Entry(String fingerprint, long expiresAtMillis) {
+            this.fingerprint = fingerprint;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
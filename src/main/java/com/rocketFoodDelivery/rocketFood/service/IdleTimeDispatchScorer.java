@@ -0,0 +1,16 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Default dispatch policy: the courier who has been free the longest gets
+ * the order, which spreads work evenly between couriers.
+ */
+@Component
+public class IdleTimeDispatchScorer implements DispatchScorer {
+
+    @Override
+    public double score(OrderCandidate order, CourierCandidate courier, long nowMillis) {
+        return -(double) (nowMillis - courier.getIdleSinceMillis());
+    }
+}
@@ -0,0 +1,520 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderEventDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderEventStatsDto;
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
+import com.rocketFoodDelivery.rocketFood.repository.OrderOwner;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process publish/subscribe of order events to Server-Sent Events streams.
+ * Clients subscribe to a customer, restaurant or courier and receive an event
+ * when an order of theirs is created or changes status, once the change has
+ * committed.
+ * Publishing never blocks: each subscriber has a buffer of at most
+ * buffer-size orders, a newer event of an order already in the buffer
+ * replaces the older one, and a subscriber whose buffer is full of distinct
+ * orders is dropped. Buffers are written to the clients by a small pool of
+ * sender threads, at most one thread per subscriber at a time.
+ * A write to a stalled client blocks its sender thread until the container's
+ * write timeout. A watchdog drops a subscriber whose write has run for longer
+ * than send-timeout-ms and lends the pool a spare thread until the write
+ * returns, so stalled clients never hold up the others; the stream is closed
+ * as soon as the write gives up.
+ * Events live in memory only: a client that reconnects should re-read the
+ * orders it cares about, then rely on the stream.
+ */
+@Slf4j
+@Service
+public class OrderEventService {
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long streamTimeoutMillis;
+    private final long sendTimeoutNanos;
+    private final Executor sender;
+
+    private final ConcurrentHashMap<Topic, Set<Subscription>> topics = new ConcurrentHashMap<>();
+    private final Set<Subscription> sending = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder stalled = new LongAdder();
+    private final LongAdder fanOutNanos = new LongAdder();
+    private final AtomicLong maxFanOutNanos = new AtomicLong();
+
+    @Autowired
+    public OrderEventService(@Value("${app.order-events.buffer-size:64}") int bufferSize,
+            @Value("${app.order-events.max-subscribers:10000}") int maxSubscribers,
+            @Value("${app.order-events.stream-timeout-ms:1800000}") long streamTimeoutMillis,
+            @Value("${app.order-events.send-timeout-ms:5000}") long sendTimeoutMillis,
+            @Value("${app.order-events.sender-threads:4}") int senderThreads) {
+        this(bufferSize, maxSubscribers, streamTimeoutMillis, sendTimeoutMillis, newSenderPool(senderThreads));
+    }
+
+    OrderEventService(int bufferSize, int maxSubscribers, long streamTimeoutMillis, long sendTimeoutMillis,
+            Executor sender) {
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.streamTimeoutMillis = streamTimeoutMillis;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.sender = sender;
+    }
+
+    /**
+     * Opens an event stream for the orders of a customer, restaurant or
+     * courier.
+     *
+     * @param owner   the kind of entity to follow.
+     * @param ownerId the ID of that entity.
+     * @return the emitter of the stream.
+     * @throws ServiceUnavailableException if max-subscribers streams are open.
+     */
+    public SseEmitter subscribe(OrderOwner owner, int ownerId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        Subscription subscription = subscribe(owner, ownerId, new SseSink(emitter));
+        // The client went away or the stream timed out, there is nothing to close
+        emitter.onCompletion(subscription::unsubscribe);
+        emitter.onTimeout(subscription::unsubscribe);
+        emitter.onError(ex -> subscription.unsubscribe());
+        return emitter;
+    }
+
+    Subscription subscribe(OrderOwner owner, int ownerId, EventSink sink) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceUnavailableException("Too many open order event streams");
+        }
+        Topic topic = new Topic(owner, ownerId);
+        Subscription subscription = new Subscription(topic, sink);
+        // compute is atomic with the removal of an emptied topic in remove
+        topics.compute(topic, (key, subscriptions) -> {
+            Set<Subscription> set = subscriptions == null ? new CopyOnWriteArraySet<>() : subscriptions;
+            set.add(subscription);
+            return set;
+        });
+        opened.increment();
+        log.debug("Opened order event stream for {} {}", owner, ownerId);
+        return subscription;
+    }
+
+    /**
+     * Publishes an event once the current transaction commits, or right away
+     * if there is no transaction. Events of rolled back changes are never
+     * published.
+     *
+     * @param event the event to publish.
+     */
+    public void publishAfterCommit(ApiOrderEventDto event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(event);
+                }
+            });
+        } else {
+            publish(event);
+        }
+    }
+
+    /**
+     * Hands an event to the subscribers of its customer, restaurant and
+     * courier without waiting for any of them.
+     */
+    void publish(ApiOrderEventDto event) {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        published.increment();
+        long now = System.nanoTime();
+        offer(new Topic(OrderOwner.CUSTOMER, event.getCustomerId()), event, now);
+        offer(new Topic(OrderOwner.RESTAURANT, event.getRestaurantId()), event, now);
+        if (event.getCourierId() != null) {
+            offer(new Topic(OrderOwner.COURIER, event.getCourierId()), event, now);
+        }
+    }
+
+    private void offer(Topic topic, ApiOrderEventDto event, long publishedNanos) {
+        Set<Subscription> subscriptions = topics.get(topic);
+        if (subscriptions != null) {
+            subscriptions.forEach(subscription -> subscription.offer(event, publishedNanos));
+        }
+    }
+
+    /**
+     * Sends a comment to every idle stream, so proxies keep the connection
+     * open and closed connections are noticed.
+     */
+    @Scheduled(fixedDelayString = "${app.order-events.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        topics.values().forEach(subscriptions -> subscriptions.forEach(Subscription::requestHeartbeat));
+    }
+
+    /**
+     * Drops the subscribers whose current write has run for longer than
+     * send-timeout-ms. The emitter cannot be completed while the write holds
+     * it, so the stream is closed by its sender thread once the write
+     * returns; until then the pool gets one more thread in its place.
+     */
+    @Scheduled(fixedDelayString = "${app.order-events.watchdog-interval-ms:1000}")
+    public void closeStalledStreams() {
+        long now = System.nanoTime();
+        sending.forEach(subscription -> subscription.closeIfStalled(now));
+    }
+
+    /**
+     * Returns the connection count and fan-out statistics of the stream.
+     *
+     * @return the statistics since startup.
+     */
+    public ApiOrderEventStatsDto getStats() {
+        long deliveredCount = delivered.sum();
+        return ApiOrderEventStatsDto.builder()
+                .subscribers(subscriberCount.get())
+                .maxSubscribers(maxSubscribers)
+                .opened(opened.sum())
+                .dropped(dropped.sum())
+                .stalled(stalled.sum())
+                .published(published.sum())
+                .delivered(deliveredCount)
+                .coalesced(coalesced.sum())
+                .averageFanOutMillis(deliveredCount == 0 ? 0 : fanOutNanos.sum() / 1e6 / deliveredCount)
+                .maxFanOutMillis(maxFanOutNanos.get() / 1e6)
+                .build();
+    }
+
+    /**
+     * Closes every stream and stops the sender threads.
+     */
+    @PreDestroy
+    public void close() {
+        topics.values().forEach(subscriptions -> subscriptions.forEach(subscription -> {
+            subscription.unsubscribe();
+            subscription.sink.close();
+        }));
+        if (sender instanceof ExecutorService) {
+            ((ExecutorService) sender).shutdownNow();
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        topics.computeIfPresent(subscription.topic, (key, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+        subscriberCount.decrementAndGet();
+    }
+
+    private void recordDelivery(long publishedNanos) {
+        long elapsed = System.nanoTime() - publishedNanos;
+        delivered.increment();
+        fanOutNanos.add(elapsed);
+        maxFanOutNanos.accumulateAndGet(elapsed, Math::max);
+    }
+
+    /**
+     * Grows or shrinks the sender pool by one thread per stalled write. The
+     * maximum size is raised before and lowered after the core size, so it
+     * never falls below it.
+     */
+    private synchronized void resizeSenderPool(int delta) {
+        if (!(sender instanceof ThreadPoolExecutor pool)) {
+            return;
+        }
+        if (delta > 0) {
+            pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+            pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+        } else {
+            pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+            pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+        }
+    }
+
+    private static ExecutorService newSenderPool(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "order-events-sender-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Where the events of one subscriber are written. Calls never overlap.
+     */
+    interface EventSink {
+
+        void send(ApiOrderEventDto event) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    /**
+     * Writes events to an SseEmitter, named after their type and with a JSON
+     * body.
+     */
+    private static final class SseSink implements EventSink {
+
+        private final SseEmitter emitter;
+
+        SseSink(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void send(ApiOrderEventDto event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .name(event.getType().name().toLowerCase(Locale.ROOT))
+                    .data(event, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+
+    /**
+     * The entity a subscriber follows.
+     */
+    @lombok.Value
+    private static class Topic {
+        OrderOwner owner; // Kind of entity
+        int ownerId; // ID of the entity
+    }
+
+    /**
+     * An event waiting in a subscriber's buffer, with its publication time.
+     */
+    @lombok.Value
+    private static class Pending {
+        ApiOrderEventDto event; // The event to send
+        long publishedNanos; // System.nanoTime() when the event was published
+    }
+
+    /**
+     * One open stream and its buffer of pending events, keyed by order so a
+     * newer event of an order replaces the older one in place.
+     */
+    final class Subscription {
+
+        private final Topic topic;
+        private final EventSink sink;
+
+        // Guarded by this
+        private final LinkedHashMap<Integer, Pending> pending = new LinkedHashMap<>();
+        private boolean scheduled;
+        private boolean heartbeatDue;
+        private boolean closed;
+        private boolean closeSink;
+        private boolean stalledWrite;
+        private volatile long sendStartedNanos;
+
+        Subscription(Topic topic, EventSink sink) {
+            this.topic = topic;
+            this.sink = sink;
+        }
+
+        void offer(ApiOrderEventDto event, long publishedNanos) {
+            boolean overflow = false;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                Pending next = new Pending(event, publishedNanos);
+                if (pending.replace(event.getOrderId(), next) != null) {
+                    coalesced.increment();
+                } else if (pending.size() >= bufferSize) {
+                    overflow = true;
+                } else {
+                    pending.put(event.getOrderId(), next);
+                }
+                if (!overflow) {
+                    scheduleDrain();
+                }
+            }
+            if (overflow) {
+                drop();
+            }
+        }
+
+        void requestHeartbeat() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                heartbeatDue = true;
+                scheduleDrain();
+            }
+        }
+
+        /**
+         * Forgets a subscriber whose stream is already over.
+         */
+        void unsubscribe() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                pending.clear();
+            }
+            remove(this);
+        }
+
+        /**
+         * Drops a subscriber that cannot keep up. The stream is closed by a
+         * sender thread, since the client may be blocking the current writer.
+         */
+        private void drop() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                closeSink = true;
+                pending.clear();
+                scheduleDrain();
+            }
+            remove(this);
+            dropped.increment();
+            log.warn("Dropped slow order event subscriber of {} {}", topic.getOwner(), topic.getOwnerId());
+        }
+
+        /**
+         * Drops the subscriber if its current write started more than
+         * send-timeout-ms before now, and lends the pool a thread.
+         */
+        void closeIfStalled(long now) {
+            boolean open;
+            synchronized (this) {
+                // The sender removes itself from sending before it checks stalledWrite
+                if (stalledWrite || !sending.contains(this) || now - sendStartedNanos < sendTimeoutNanos) {
+                    return;
+                }
+                stalledWrite = true;
+                open = !closed;
+                closed = true;
+                closeSink = true;
+                pending.clear();
+            }
+            resizeSenderPool(1);
+            stalled.increment();
+            if (open) {
+                remove(this);
+                dropped.increment();
+            }
+            log.warn("Dropped order event subscriber of {} {} stalled for more than {} ms", topic.getOwner(),
+                    topic.getOwnerId(), TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+        }
+
+        // Called with the lock held
+        private void scheduleDrain() {
+            if (!scheduled) {
+                scheduled = true;
+                sender.execute(this::drain);
+            }
+        }
+
+        private void sendFinished() {
+            sending.remove(this);
+            boolean spare;
+            synchronized (this) {
+                spare = stalledWrite;
+                stalledWrite = false;
+            }
+            if (spare) {
+                resizeSenderPool(-1);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                List<Pending> batch;
+                boolean heartbeat;
+                boolean close;
+                synchronized (this) {
+                    close = closed && closeSink;
+                    closeSink = false;
+                    if (closed) {
+                        scheduled = false;
+                    }
+                }
+                if (close) {
+                    sink.close();
+                }
+                synchronized (this) {
+                    if (closed) {
+                        return;
+                    }
+                    if (pending.isEmpty() && !heartbeatDue) {
+                        scheduled = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                    heartbeat = heartbeatDue && batch.isEmpty();
+                    heartbeatDue = false;
+                }
+                sendStartedNanos = System.nanoTime();
+                sending.add(this);
+                try {
+                    for (Pending next : batch) {
+                        sink.send(next.getEvent());
+                        recordDelivery(next.getPublishedNanos());
+                    }
+                    if (heartbeat) {
+                        sink.heartbeat();
+                    }
+                } catch (IOException | RuntimeException ex) {
+                    log.debug("Order event stream of {} {} closed: {}", topic.getOwner(), topic.getOwnerId(),
+                            ex.getMessage());
+                    unsubscribe();
+                    synchronized (this) {
+                        scheduled = false;
+                    }
+                    return;
+                } finally {
+                    sendFinished();
+                }
+            }
+        }
+    }
+}
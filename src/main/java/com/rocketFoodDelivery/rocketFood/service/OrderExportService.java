@@ -0,0 +1,280 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiProductForOrderApiDto;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
+import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
+import com.rocketFoodDelivery.rocketFood.repository.OrderLineRow;
+import com.rocketFoodDelivery.rocketFood.repository.OrderOwner;
+import com.rocketFoodDelivery.rocketFood.repository.OrderRepository;
+import com.rocketFoodDelivery.rocketFood.repository.OrderSummaryRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service class for exporting full order histories as NDJSON or CSV.
+ * Orders are read through a forward-only cursor and written as they arrive,
+ * holding at most one order in memory. Output is flushed every few orders so
+ * the client receives data steadily; a slow client blocks the writes, which
+ * in turn stops reading from the cursor, and a disconnected client makes the
+ * next flush fail, which cancels the query.
+ * An export holds a pooled connection for as long as the client takes to
+ * read it, so at most max-concurrent exports run at once and the rest are
+ * refused, leaving the pool to regular requests.
+ */
+@Slf4j
+@Service
+public class OrderExportService {
+
+    /**
+     * Supported export formats.
+     */
+    public enum Format {
+        NDJSON("ndjson", "application/x-ndjson"),
+        CSV("csv", "text/csv");
+
+        private final String key;
+        private final String mediaType;
+
+        Format(String key, String mediaType) {
+            this.key = key;
+            this.mediaType = mediaType;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Returns the format for a request parameter such as "csv".
+         *
+         * @param key the format key, case-insensitive.
+         * @return the format.
+         * @throws BadRequestException if the format is unknown.
+         */
+        public static Format fromKey(String key) {
+            for (Format format : values()) {
+                if (format.key.equals(key == null ? null : key.toLowerCase(Locale.ROOT))) {
+                    return format;
+                }
+            }
+            throw new BadRequestException("Invalid format: " + key);
+        }
+    }
+
+    static final String CSV_HEADER = "order_id,customer_id,restaurant_id,courier_id,status,"
+            + "product_id,product_name,quantity,unit_cost,total_cost";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OrderRepository orderRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final int flushEvery;
+    private final Semaphore slots;
+
+    /**
+     * Constructor for dependency injection.
+     * The default fetch size of Integer.MIN_VALUE makes MySQL Connector/J
+     * stream rows one at a time. The server then waits on the client for up
+     * to net_write_timeout, which Connector/J raises to its
+     * netTimeoutForStreamingResults (600 s) for the query; an export stalled
+     * longer is killed. With useCursorFetch=true on the JDBC URL, a positive
+     * fetch size reads the rows in chunks from a server-side cursor instead,
+     * and a slow client no longer holds up the server.
+     */
+    public OrderExportService(OrderRepository orderRepository, ReferenceDataRegistry referenceDataRegistry,
+            ObjectMapper objectMapper,
+            @Value("${app.order-export.fetch-size:" + Integer.MIN_VALUE + "}") int fetchSize,
+            @Value("${app.order-export.flush-every:100}") int flushEvery,
+            @Value("${app.order-export.max-concurrent:2}") int maxConcurrent) {
+        this.orderRepository = orderRepository;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.flushEvery = flushEvery;
+        this.slots = new Semaphore(Math.max(1, maxConcurrent));
+    }
+
+    /**
+     * Reserves one of the max-concurrent export slots, to be closed once the
+     * export is over. Taken before the response starts streaming, so a
+     * refused export can still answer with an error status.
+     *
+     * @return the reserved slot.
+     * @throws ServiceUnavailableException if max-concurrent exports are running.
+     */
+    public Slot acquireSlot() {
+        if (!slots.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many order exports are running");
+        }
+        return new Slot();
+    }
+
+    /**
+     * Writes every order of a customer, restaurant or courier to the output
+     * stream, oldest first.
+     *
+     * @param owner   the kind of entity the orders belong to.
+     * @param ownerId the ID of that entity.
+     * @param format  the export format.
+     * @param out     the response stream; it is flushed but not closed.
+     * @throws IOException if writing fails, typically because the client went away.
+     */
+    public void exportOrders(OrderOwner owner, int ownerId, Format format, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        ExportSink sink = new ExportSink(writer, format);
+        try {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            orderRepository.streamOrdersWithLines(owner, ownerId, fetchSize, sink::accept);
+            sink.finish();
+        } catch (UncheckedIOException ex) {
+            log.warn("Order export for {} ID {} aborted after {} orders: {}", owner, ownerId, sink.orderCount,
+                    ex.getCause().getMessage());
+            throw ex.getCause();
+        }
+        log.info("Exported {} orders for {} ID {} as {} in {} ms", sink.orderCount, owner, ownerId, format,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * A reserved export slot, released once when closed.
+     */
+    public final class Slot implements AutoCloseable {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Slot() {
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+    }
+
+    /**
+     * Groups the streamed rows into orders and writes each order once all of
+     * its lines have arrived.
+     */
+    private final class ExportSink {
+
+        private final Writer writer;
+        private final Format format;
+        private final List<OrderLineRow> lines = new ArrayList<>();
+        private OrderSummaryRow current;
+        private long orderCount;
+
+        ExportSink(Writer writer, Format format) {
+            this.writer = writer;
+            this.format = format;
+        }
+
+        void accept(OrderSummaryRow order, OrderLineRow line) {
+            try {
+                if (current != null && current.getId() != order.getId()) {
+                    writeCurrent();
+                }
+                current = order;
+                if (line != null) {
+                    lines.add(line);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        void finish() throws IOException {
+            if (current != null) {
+                writeCurrent();
+            }
+            writer.flush();
+        }
+
+        private void writeCurrent() throws IOException {
+            String status = referenceDataRegistry.findOrderStatus(current.getStatusId())
+                    .map(OrderStatus::getName).orElse(null);
+            if (format == Format.NDJSON) {
+                writeNdjson(status);
+            } else {
+                writeCsv(status);
+            }
+            lines.clear();
+            if (++orderCount % flushEvery == 0) {
+                writer.flush();
+            }
+        }
+
+        private void writeNdjson(String status) throws IOException {
+            List<ApiProductForOrderApiDto> products = new ArrayList<>(lines.size());
+            int totalCost = 0;
+            for (OrderLineRow line : lines) {
+                int lineCost = line.getQuantity() * line.getUnitCost();
+                products.add(new ApiProductForOrderApiDto(line.getProductId(), line.getProductName(),
+                        line.getQuantity(), line.getUnitCost(), lineCost));
+                totalCost += lineCost;
+            }
+            ApiOrderDto dto = ApiOrderDto.builder()
+                    .id(current.getId())
+                    .customer_id(current.getCustomerId())
+                    .restaurant_id(current.getRestaurantId())
+                    .courier_id(current.getCourierId())
+                    .status(status)
+                    .products(products)
+                    .total_cost(totalCost)
+                    .build();
+            writer.write(objectMapper.writeValueAsString(dto));
+            writer.write('\n');
+        }
+
+        private void writeCsv(String status) throws IOException {
+            String prefix = current.getId() + "," + current.getCustomerId() + "," + current.getRestaurantId() + ","
+                    + (current.getCourierId() == null ? "" : current.getCourierId()) + "," + csv(status) + ",";
+            if (lines.isEmpty()) {
+                writer.write(prefix + ",,,,0\n");
+                return;
+            }
+            for (OrderLineRow line : lines) {
+                writer.write(prefix + line.getProductId() + "," + csv(line.getProductName()) + ","
+                        + line.getQuantity() + "," + line.getUnitCost() + ","
+                        + line.getQuantity() * line.getUnitCost() + "\n");
+            }
+        }
+    }
+
+    /**
+     * Quotes a CSV field when it contains a separator, quote or line break.
+     */
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,363 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderIntakeDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderIntakeStatsDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderRequestDto;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class for the asynchronous order intake mode.
+ * When enabled, POST /api/order only checks the shape of the request, puts it
+ * in a bounded queue and answers 202 Accepted with a handle. A single writer
+ * thread takes up to batch-size orders, or whatever arrived within
+ * batch-window-ms, and validates and inserts them in one transaction, so a
+ * burst of orders shares one commit. Clients poll the handle until the order
+ * is COMMITTED or REJECTED.
+ * A queued order is only held in memory: on shutdown the intake stops after
+ * the web server, so no new orders arrive, and the writer drains the queue
+ * before the data source closes. Orders still queued when the process dies
+ * are lost, which is why QUEUED must not be shown to a customer as placed.
+ */
+@Slf4j
+@Service
+public class OrderIntakeService implements SmartLifecycle {
+
+    /**
+     * Status of an accepted order.
+     */
+    public enum Status {
+        QUEUED, COMMITTED, REJECTED
+    }
+
+    // Below the web server's phase, so the intake starts before and stops after it
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 2048;
+    private static final long POLL_MILLIS = 100;
+
+    private final OrderService orderService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long batchWindowMillis;
+    private final long statusTtlMillis;
+    private final long shutdownTimeoutMillis;
+
+    private final BlockingQueue<Intake> queue;
+    private final Map<String, Intake> intakes = new ConcurrentHashMap<>();
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejectedQueueFull = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile long lastBatchMillis;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public OrderIntakeService(OrderService orderService, PlatformTransactionManager transactionManager,
+            @Value("${app.order-intake.async-enabled:false}") boolean enabled,
+            @Value("${app.order-intake.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.order-intake.batch-size:50}") int batchSize,
+            @Value("${app.order-intake.batch-window-ms:10}") long batchWindowMillis,
+            @Value("${app.order-intake.status-ttl-ms:600000}") long statusTtlMillis,
+            @Value("${app.order-intake.shutdown-timeout-ms:30000}") long shutdownTimeoutMillis) {
+        this.orderService = orderService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.batchWindowMillis = batchWindowMillis;
+        this.statusTtlMillis = statusTtlMillis;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Returns whether POST /api/order should go through the intake queue.
+     *
+     * @return true if the asynchronous intake mode is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Checks the shape of an order request and queues it for the writer.
+     *
+     * @param orderRequestDto the order request.
+     * @return the intake, with status QUEUED and the handle to poll.
+     * @throws BadRequestException         if the order has no products or a
+     *                                     quantity below 1.
+     * @throws ServiceUnavailableException if the queue is full or the intake
+     *                                     is not running.
+     */
+    public ApiOrderIntakeDto submit(ApiOrderRequestDto orderRequestDto) {
+        orderService.validateOrderRequest(orderRequestDto);
+        if (!running) {
+            throw new ServiceUnavailableException("Order intake is not accepting orders");
+        }
+
+        Intake intake = new Intake(UUID.randomUUID().toString(), orderRequestDto);
+        intakes.put(intake.handle, intake);
+        if (!queue.offer(intake)) {
+            intakes.remove(intake.handle);
+            rejectedQueueFull.incrementAndGet();
+            log.warn("Order intake queue is full ({} orders), rejecting order", queueCapacity);
+            throw new ServiceUnavailableException("Order intake queue is full");
+        }
+        accepted.incrementAndGet();
+        log.debug("Queued order intake {}", intake.handle);
+        return intake.toDto();
+    }
+
+    /**
+     * Returns the status of an accepted order. Completed intakes are kept for
+     * status-ttl-ms.
+     *
+     * @param handle the handle returned by submit.
+     * @return the intake, or empty if it is unknown or expired.
+     */
+    public Optional<ApiOrderIntakeDto> getIntake(String handle) {
+        return Optional.ofNullable(intakes.get(handle)).map(Intake::toDto);
+    }
+
+    /**
+     * Returns the queue depth and counters of the intake.
+     *
+     * @return the intake statistics.
+     */
+    public ApiOrderIntakeStatsDto getStats() {
+        Intake oldest = queue.peek();
+        return ApiOrderIntakeStatsDto.builder()
+                .enabled(enabled)
+                .queueDepth(queue.size())
+                .queueCapacity(queueCapacity)
+                .oldestQueuedMillis(oldest == null ? 0
+                        : System.currentTimeMillis() - oldest.acceptedAt.toEpochMilli())
+                .accepted(accepted.get())
+                .rejectedQueueFull(rejectedQueueFull.get())
+                .committed(committed.get())
+                .rejected(rejected.get())
+                .batches(batches.get())
+                .lastBatchSize(lastBatchSize)
+                .lastBatchMillis(lastBatchMillis)
+                .build();
+    }
+
+    /**
+     * Forgets completed intakes older than status-ttl-ms.
+     */
+    @Scheduled(fixedDelayString = "${app.order-intake.status-ttl-ms:600000}")
+    public void evictCompleted() {
+        Instant cutoff = Instant.now().minusMillis(statusTtlMillis);
+        intakes.values().removeIf(intake -> intake.completedAt != null && intake.completedAt.isBefore(cutoff));
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "order-intake-writer");
+        writer.start();
+        log.info("Order intake started: capacity {}, batches of {} orders or {} ms", queueCapacity, batchSize,
+                batchWindowMillis);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        log.info("Stopping order intake, draining {} queued orders", queue.size());
+        try {
+            writer.join(shutdownTimeoutMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.error("Order intake did not drain within {} ms, {} queued orders were not committed",
+                    shutdownTimeoutMillis, queue.size());
+            writer.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Writer loop: collects a batch and commits it, until the intake is
+     * stopped and the queue is empty.
+     */
+    private void runWriter() {
+        List<Intake> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                log.warn("Order intake writer interrupted with {} orders in flight", batch.size());
+            }
+            if (!batch.isEmpty()) {
+                commitBatch(batch);
+                batch.clear();
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits for a first order, then gathers more until the batch is full or
+     * the batch window has passed.
+     */
+    private void collectBatch(List<Intake> batch) throws InterruptedException {
+        Intake first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindowMillis);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            Intake next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Validates and inserts a batch of orders in one transaction. Orders that
+     * fail validation are rejected without affecting the others. If the
+     * transaction itself fails, the remaining orders are retried one by one
+     * so a single bad order cannot sink the batch.
+     *
+     * @param batch the queued orders, in arrival order.
+     */
+    void commitBatch(List<Intake> batch) {
+        long start = System.currentTimeMillis();
+        Map<Intake, ApiOrderDto> created = new LinkedHashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Intake intake : batch) {
+                    OrderService.PreparedOrder prepared;
+                    try {
+                        prepared = orderService.prepareOrder(intake.request);
+                    } catch (BadRequestException | ResourceNotFoundException ex) {
+                        reject(intake, ex.getMessage());
+                        continue;
+                    }
+                    created.put(intake, orderService.insertOrder(prepared));
+                }
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Group commit of {} orders failed, committing them one by one: {}", batch.size(),
+                    ex.getMessage());
+            created.clear();
+            for (Intake intake : batch) {
+                if (intake.status != Status.QUEUED) {
+                    continue;
+                }
+                try {
+                    created.put(intake, orderService.createOrder(intake.request));
+                } catch (BadRequestException | ResourceNotFoundException single) {
+                    reject(intake, single.getMessage());
+                } catch (RuntimeException single) {
+                    log.error("Order intake {} failed: {}", intake.handle, single.getMessage(), single);
+                    reject(intake, "Order could not be saved");
+                }
+            }
+        }
+
+        created.forEach((intake, order) -> {
+            intake.order = order;
+            intake.completedAt = Instant.now();
+            intake.status = Status.COMMITTED;
+        });
+        committed.addAndGet(created.size());
+        batches.incrementAndGet();
+        lastBatchSize = batch.size();
+        lastBatchMillis = System.currentTimeMillis() - start;
+        log.debug("Committed {} of {} queued orders in {} ms", created.size(), batch.size(), lastBatchMillis);
+    }
+
+    private void reject(Intake intake, String error) {
+        intake.error = error;
+        intake.completedAt = Instant.now();
+        intake.status = Status.REJECTED;
+        rejected.incrementAndGet();
+    }
+
+    /**
+     * An accepted order and its progress. Written by the writer thread only;
+     * status is written last so readers see the order or error with it.
+     */
+    static final class Intake {
+
+        final String handle;
+        final ApiOrderRequestDto request;
+        final Instant acceptedAt = Instant.now();
+        volatile ApiOrderDto order;
+        volatile String error;
+        volatile Instant completedAt;
+        volatile Status status = Status.QUEUED;
+
+        Intake(String handle, ApiOrderRequestDto request) {
+            this.handle = handle;
+            this.request = request;
+        }
+
+        ApiOrderIntakeDto toDto() {
+            Status current = status;
+            return ApiOrderIntakeDto.builder()
+                    .handle(handle)
+                    .status(current.name())
+                    .order(current == Status.COMMITTED ? order : null)
+                    .error(current == Status.REJECTED ? error : null)
+                    .acceptedAt(acceptedAt)
+                    .completedAt(current == Status.QUEUED ? null : completedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,509 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderEventDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderJournalEntryDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiPageDto;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
+import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of order creations, status changes and courier
+ * assignments, kept in fixed-size segment files on local disk so the history
+ * of an order can be rebuilt without an audit table.
+ * Records are RECORD_SIZE bytes with a CRC32C checksum and are written into
+ * the memory-mapped active segment, so an append is a few absolute puts under
+ * a lock, with no system call and no allocation. The page cache is forced to
+ * disk every force-interval-ms, which batches the fsyncs of all the appends
+ * in between; a crash can lose at most that interval. On startup the active
+ * segment is scanned up to the first record whose sequence or checksum does
+ * not match, which drops a torn last write.
+ * A full segment is closed and a new one started; only the newest
+ * max-segments segments are kept.
+ * Disabled unless app.order-journal.enabled is set.
+ */
+@Slf4j
+@Service
+public class OrderJournal {
+
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 48;
+    static final int MAX_READ_LIMIT = 1000;
+    // Upper bound of the records examined by one filtered read
+    static final int MAX_SCAN = 100_000;
+
+    private static final int MAGIC = 0x4F524A31; // "ORJ1"
+    private static final int CHECKSUMMED_BYTES = 44;
+    private static final String SUFFIX = ".journal";
+    // Types are stored by ordinal, so new types must be added at the end
+    private static final ApiOrderEventDto.Type[] TYPES = ApiOrderEventDto.Type.values();
+
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+
+    private final Object lock = new Object();
+    // Guarded by lock: closed segments oldest first, then the active one
+    private final List<Segment> segments = new ArrayList<>();
+    private final CRC32C writeChecksum = new CRC32C();
+    private long nextSequence = 1;
+
+    public OrderJournal(ReferenceDataRegistry referenceDataRegistry,
+            @Value("${app.order-journal.enabled:false}") boolean enabled,
+            @Value("${app.order-journal.dir:data/order-journal}") String directory,
+            @Value("${app.order-journal.segment-size:67108864}") int segmentSize,
+            @Value("${app.order-journal.max-segments:16}") int maxSegments) {
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(1, maxSegments);
+        if (segmentSize < HEADER_SIZE + RECORD_SIZE) {
+            throw new IllegalArgumentException("Journal segment size must be at least "
+                    + (HEADER_SIZE + RECORD_SIZE) + " bytes");
+        }
+    }
+
+    /**
+     * Opens the journal directory and recovers the active segment.
+     *
+     * @throws IOException if the directory or a segment cannot be opened.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        synchronized (lock) {
+            Files.createDirectories(directory);
+            List<Path> paths;
+            try (Stream<Path> files = Files.list(directory)) {
+                paths = files.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+            for (int i = 0; i < paths.size(); i++) {
+                Path path = paths.get(i);
+                long firstSequence = firstSequenceOf(path);
+                if (i < paths.size() - 1) {
+                    Segment closed = new Segment(path, firstSequence, capacityOf(Files.size(path)));
+                    closed.count = (int) (firstSequenceOf(paths.get(i + 1)) - firstSequence);
+                    segments.add(closed);
+                } else {
+                    Segment active = map(path, firstSequence);
+                    active.count = recover(active);
+                    segments.add(active);
+                    nextSequence = firstSequence + active.count;
+                }
+            }
+            if (segments.isEmpty()) {
+                segments.add(map(segmentPath(1), 1));
+            }
+            log.info("Opened order journal in {}, next sequence {}", directory, nextSequence);
+        }
+    }
+
+    /**
+     * Tells whether the journal is recording.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends a change once the current transaction commits, or right away if
+     * there is no transaction, so rolled back changes are never recorded.
+     *
+     * @param type             the kind of change.
+     * @param orderId          the ID of the order.
+     * @param customerId       the ID of the order's customer.
+     * @param restaurantId     the ID of the order's restaurant.
+     * @param courierId        the ID of the order's courier, or null.
+     * @param previousStatusId the status ID before the change, 0 for a creation.
+     * @param statusId         the status ID after the change.
+     */
+    public void appendAfterCommit(ApiOrderEventDto.Type type, int orderId, int customerId, int restaurantId,
+            Integer courierId, int previousStatusId, int statusId) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(type, orderId, customerId, restaurantId, courierId, previousStatusId, statusId);
+                }
+            });
+        } else {
+            append(type, orderId, customerId, restaurantId, courierId, previousStatusId, statusId);
+        }
+    }
+
+    /**
+     * Appends a change to the active segment, starting a new segment when it
+     * is full. Failures are logged, since the change itself has committed.
+     *
+     * @return the sequence of the record, or 0 if it could not be written.
+     */
+    long append(ApiOrderEventDto.Type type, int orderId, int customerId, int restaurantId, Integer courierId,
+            int previousStatusId, int statusId) {
+        long timestamp = System.currentTimeMillis();
+        synchronized (lock) {
+            try {
+                Segment active = segments.get(segments.size() - 1);
+                if (active.count == active.capacity) {
+                    active = rotate(active);
+                }
+                long sequence = nextSequence;
+                MappedByteBuffer buffer = active.buffer;
+                int offset = HEADER_SIZE + active.count * RECORD_SIZE;
+                buffer.putLong(offset, sequence);
+                buffer.putLong(offset + 8, timestamp);
+                buffer.putInt(offset + 16, orderId);
+                buffer.putInt(offset + 20, customerId);
+                buffer.putInt(offset + 24, restaurantId);
+                buffer.putInt(offset + 28, courierId == null ? 0 : courierId);
+                buffer.putInt(offset + 32, previousStatusId);
+                buffer.putInt(offset + 36, statusId);
+                buffer.put(offset + 40, (byte) type.ordinal());
+                active.checksumView.limit(offset + CHECKSUMMED_BYTES).position(offset);
+                writeChecksum.reset();
+                writeChecksum.update(active.checksumView);
+                buffer.putInt(offset + CHECKSUMMED_BYTES, (int) writeChecksum.getValue());
+                active.count++;
+                nextSequence++;
+                return sequence;
+            } catch (IOException | RuntimeException ex) {
+                log.error("Could not append {} of order {} to the journal: {}", type, orderId, ex.getMessage());
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Forces the appended records of the active segment to disk.
+     */
+    @Scheduled(fixedDelayString = "${app.order-journal.force-interval-ms:1000}")
+    public void force() {
+        if (!enabled) {
+            return;
+        }
+        MappedByteBuffer buffer;
+        synchronized (lock) {
+            buffer = segments.isEmpty() ? null : segments.get(segments.size() - 1).buffer;
+        }
+        // Outside the lock, so appends never wait for the disk
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Reads the records from a sequence on, in order, until the visitor
+     * returns false or the end of the journal. Records dropped by retention
+     * are skipped.
+     *
+     * @param fromSequence the first sequence to read.
+     * @param visitor      called once per record.
+     * @return the sequence following the last record read, where a tailing
+     *         reader continues.
+     */
+    public long replay(long fromSequence, Predicate<Entry> visitor) {
+        List<Segment> snapshot;
+        int activeCount;
+        synchronized (lock) {
+            snapshot = new ArrayList<>(segments);
+            activeCount = snapshot.isEmpty() ? 0 : snapshot.get(snapshot.size() - 1).count;
+        }
+        long sequence = Math.max(fromSequence, 1);
+        byte[] chunk = new byte[RECORD_SIZE * 1024];
+        ByteBuffer chunkBuffer = ByteBuffer.wrap(chunk);
+        CRC32C checksum = new CRC32C();
+        for (int i = 0; i < snapshot.size(); i++) {
+            Segment segment = snapshot.get(i);
+            int count = i == snapshot.size() - 1 ? activeCount : segment.count;
+            if (sequence >= segment.firstSequence + count) {
+                continue;
+            }
+            sequence = Math.max(sequence, segment.firstSequence);
+            int index = (int) (sequence - segment.firstSequence);
+            try {
+                while (index < count) {
+                    int records = Math.min(count - index, chunk.length / RECORD_SIZE);
+                    segment.read(index, chunk, records);
+                    for (int r = 0; r < records; r++) {
+                        Entry entry = decode(chunkBuffer, r * RECORD_SIZE, checksum);
+                        if (entry == null || entry.getSequence() != sequence) {
+                            log.warn("Corrupt order journal record {} in {}", sequence, segment.path);
+                            return sequence;
+                        }
+                        sequence++;
+                        if (!visitor.test(entry)) {
+                            return sequence;
+                        }
+                    }
+                    index += records;
+                }
+            } catch (IOException ex) {
+                // The segment was deleted by retention while it was read
+                log.warn("Could not read order journal segment {}: {}", segment.path, ex.getMessage());
+                sequence = segment.firstSequence + count;
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Reads one page of the journal, optionally only the records of one order.
+     *
+     * @param fromSequence the first sequence to read, 1 for the oldest record.
+     * @param limit        the maximum number of records, capped at MAX_READ_LIMIT.
+     * @param orderId      the order to keep the records of, or null for all.
+     * @return the records and, as next cursor, the sequence to read from next.
+     * @throws ResourceNotFoundException if the journal is not enabled.
+     * @throws BadRequestException       if the limit is below 1.
+     */
+    public ApiPageDto<ApiOrderJournalEntryDto> read(long fromSequence, int limit, Integer orderId) {
+        if (!enabled) {
+            throw new ResourceNotFoundException("Order journal is not enabled");
+        }
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be at least 1");
+        }
+        int pageSize = Math.min(limit, MAX_READ_LIMIT);
+        List<ApiOrderJournalEntryDto> items = new ArrayList<>();
+        int[] scanned = { 0 };
+        long next = replay(fromSequence, entry -> {
+            if (orderId == null || entry.getOrderId() == orderId) {
+                items.add(toDto(entry));
+            }
+            return items.size() < pageSize && ++scanned[0] < MAX_SCAN;
+        });
+        return ApiPageDto.<ApiOrderJournalEntryDto>builder()
+                .items(items)
+                .nextCursor(String.valueOf(next))
+                .limit(pageSize)
+                .build();
+    }
+
+    /**
+     * Forces and closes the active segment.
+     */
+    @PreDestroy
+    public void close() {
+        synchronized (lock) {
+            for (Segment segment : segments) {
+                segment.close();
+            }
+        }
+    }
+
+    private ApiOrderJournalEntryDto toDto(Entry entry) {
+        return ApiOrderJournalEntryDto.builder()
+                .sequence(entry.getSequence())
+                .timestamp(Instant.ofEpochMilli(entry.getTimestampMillis()))
+                .type(entry.getType())
+                .orderId(entry.getOrderId())
+                .customerId(entry.getCustomerId())
+                .restaurantId(entry.getRestaurantId())
+                .courierId(entry.getCourierId())
+                .previousStatus(statusName(entry.getPreviousStatusId()))
+                .status(statusName(entry.getStatusId()))
+                .build();
+    }
+
+    private String statusName(int statusId) {
+        return statusId == 0 ? null
+                : referenceDataRegistry.findOrderStatus(statusId).map(OrderStatus::getName).orElse(null);
+    }
+
+    /**
+     * Closes a full segment, starts the next one and applies retention.
+     * Called with the lock held.
+     */
+    private Segment rotate(Segment full) throws IOException {
+        full.close();
+        Segment next = map(segmentPath(nextSequence), nextSequence);
+        segments.add(next);
+        while (segments.size() > maxSegments) {
+            Segment oldest = segments.remove(0);
+            Files.deleteIfExists(oldest.path);
+            log.info("Deleted order journal segment {}", oldest.path);
+        }
+        return next;
+    }
+
+    private Segment map(Path path, long firstSequence) throws IOException {
+        boolean created = !Files.exists(path);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long size = created ? segmentSize : channel.size();
+        Segment segment = new Segment(path, firstSequence, capacityOf(size));
+        segment.channel = channel;
+        segment.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        segment.checksumView = segment.buffer.duplicate();
+        if (created) {
+            segment.buffer.putInt(0, MAGIC);
+            segment.buffer.putInt(4, RECORD_SIZE);
+            segment.buffer.putLong(8, firstSequence);
+        } else if (segment.buffer.getInt(0) != MAGIC || segment.buffer.getInt(4) != RECORD_SIZE) {
+            channel.close();
+            throw new IOException("Not an order journal segment: " + path);
+        }
+        return segment;
+    }
+
+    /**
+     * Counts the valid records at the start of a reopened segment.
+     */
+    private static int recover(Segment segment) {
+        CRC32C checksum = new CRC32C();
+        ByteBuffer buffer = segment.buffer.duplicate();
+        for (int index = 0; index < segment.capacity; index++) {
+            Entry entry = decode(buffer, HEADER_SIZE + index * RECORD_SIZE, checksum);
+            if (entry == null || entry.getSequence() != segment.firstSequence + index) {
+                return index;
+            }
+        }
+        return segment.capacity;
+    }
+
+    /**
+     * Decodes the record at an offset, or returns null if its checksum does
+     * not match, as for the zeroes past the last record.
+     */
+    private static Entry decode(ByteBuffer buffer, int offset, CRC32C checksum) {
+        checksum.reset();
+        ByteBuffer view = buffer.duplicate();
+        view.limit(offset + CHECKSUMMED_BYTES).position(offset);
+        checksum.update(view);
+        long sequence = buffer.getLong(offset);
+        if (sequence == 0 || (int) checksum.getValue() != buffer.getInt(offset + CHECKSUMMED_BYTES)) {
+            return null;
+        }
+        int type = buffer.get(offset + 40);
+        if (type < 0 || type >= TYPES.length) {
+            return null;
+        }
+        int courierId = buffer.getInt(offset + 28);
+        return new Entry(sequence, buffer.getLong(offset + 8), TYPES[type], buffer.getInt(offset + 16),
+                buffer.getInt(offset + 20), buffer.getInt(offset + 24), courierId == 0 ? null : courierId,
+                buffer.getInt(offset + 32), buffer.getInt(offset + 36));
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+    }
+
+    private static long firstSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private static int capacityOf(long size) {
+        return (int) ((size - HEADER_SIZE) / RECORD_SIZE);
+    }
+
+    /**
+     * One journal record.
+     */
+    @lombok.Value
+    public static class Entry {
+        long sequence; // Position of the record in the journal
+        long timestampMillis; // When the change was appended
+        ApiOrderEventDto.Type type; // Kind of change
+        int orderId; // ID of the order
+        int customerId; // ID of the order's customer
+        int restaurantId; // ID of the order's restaurant
+        Integer courierId; // ID of the order's courier, or null
+        int previousStatusId; // Status ID before the change, 0 for a creation
+        int statusId; // Status ID after the change
+    }
+
+    /**
+     * A segment file. Only the active segment is mapped; closed segments are
+     * read with positional reads, so deleting them never races a mapping.
+     */
+    private static final class Segment {
+
+        final Path path;
+        final long firstSequence;
+        final int capacity;
+        // Records written; fixed once the segment is closed
+        int count;
+        FileChannel channel;
+        // Read without the lock by replay, which falls back to the file once null
+        volatile MappedByteBuffer buffer;
+        ByteBuffer checksumView;
+
+        Segment(Path path, long firstSequence, int capacity) {
+            this.path = path;
+            this.firstSequence = firstSequence;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Copies records into the start of the chunk.
+         */
+        void read(int index, byte[] chunk, int records) throws IOException {
+            long position = HEADER_SIZE + (long) index * RECORD_SIZE;
+            int length = records * RECORD_SIZE;
+            MappedByteBuffer mapped = buffer;
+            if (mapped != null) {
+                mapped.duplicate().position((int) position).get(chunk, 0, length);
+                return;
+            }
+            try (FileChannel reader = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer target = ByteBuffer.wrap(chunk, 0, length);
+                while (target.hasRemaining()) {
+                    if (reader.read(target, position + target.position()) < 0) {
+                        throw new IOException("Unexpected end of " + path);
+                    }
+                }
+            }
+        }
+
+        void close() {
+            if (buffer != null) {
+                buffer.force();
+                buffer = null;
+                checksumView = null;
+            }
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                channel = null;
+            }
+        }
+    }
+}
@@ -1,194 +1,652 @@
 package com.rocketFoodDelivery.rocketFood.service;
 
 import com.rocketFoodDelivery.rocketFood.dtos.*;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ConflictException;
+import com.rocketFoodDelivery.rocketFood.exception.ForbiddenException;
 import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
 import com.rocketFoodDelivery.rocketFood.models.*;
 import com.rocketFoodDelivery.rocketFood.repository.*;
+import com.rocketFoodDelivery.rocketFood.util.KeysetCursor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.Statement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class OrderService {
 
+        static final int DEFAULT_PAGE_SIZE = 20;
+        static final int MAX_PAGE_SIZE = 100;
+        static final int MAX_BULK_STATUS_UPDATES = 100;
+
         private final OrderRepository orderRepository;
-        private final OrderStatusRepository orderStatusRepository;
+        private final ReferenceDataRegistry referenceDataRegistry;
         private final ProductOrderRepository productOrderRepository;
         private final ProductRepository productRepository;
         private final RestaurantRepository restaurantRepository;
         private final CustomerRepository customerRepository;
+        private final RestaurantRatingService restaurantRatingService;
+        private final OrderEventService orderEventService;
+        private final OrderJournal orderJournal;
+        private final CourierRepository courierRepository;
 
         /**
          * Constructor for dependency injection.
          */
-        public OrderService(OrderRepository orderRepository, OrderStatusRepository orderStatusRepository,
+        public OrderService(OrderRepository orderRepository, ReferenceDataRegistry referenceDataRegistry,
                         ProductOrderRepository productOrderRepository, ProductRepository productRepository,
-                        RestaurantRepository restaurantRepository, CustomerRepository customerRepository) {
+                        RestaurantRepository restaurantRepository, CustomerRepository customerRepository,
+                        RestaurantRatingService restaurantRatingService, OrderEventService orderEventService,
+                        OrderJournal orderJournal, CourierRepository courierRepository) {
                 this.orderRepository = orderRepository;
-                this.orderStatusRepository = orderStatusRepository;
+                this.referenceDataRegistry = referenceDataRegistry;
                 this.productOrderRepository = productOrderRepository;
                 this.productRepository = productRepository;
                 this.restaurantRepository = restaurantRepository;
                 this.customerRepository = customerRepository;
+                this.restaurantRatingService = restaurantRatingService;
+                this.orderEventService = orderEventService;
+                this.orderJournal = orderJournal;
+                this.courierRepository = courierRepository;
         }
 
         /**
-         * Changes the status of an order.
+         * Changes the status of an order with two statements and no entity
+         * loading: the current status ID is read, the transition is checked
+         * against OrderStatusTransitions, and a conditional UPDATE applies it
+         * only if the status is still the one that was read. Requesting the
+         * current status again is a no-op. An order reaching a final status
+         * releases its courier (busy to free) in the same transaction, so the
+         * dispatch engine can offer the courier the next order. Once the change
+         * commits it is journaled and the subscribers of the order's customer,
+         * restaurant and courier are notified.
          *
          * @param orderId        The ID of the order.
          * @param orderStatusDto The new status of the order.
+         * @param caller         The authenticated user: an employee, the courier
+         *                       of the order or the owner of its restaurant.
          * @return The updated order status.
+         * @throws ResourceNotFoundException if the order or status does not exist.
+         * @throws ForbiddenException        if the caller may not change the order.
+         * @throws ConflictException         if the transition is not allowed, or
+         *                                   the order was changed concurrently.
          */
-        public String changeOrderStatus(Integer orderId, ApiOrderStatusDto orderStatusDto) {
-                log.info("Fetching order by ID: {}", orderId);
-
-                Order order = orderRepository.findById(orderId)
-                                .orElseThrow(() -> new ResourceNotFoundException(
-                                                "Order with id " + orderId + " not found"));
+        @Transactional
+        public String changeOrderStatus(Integer orderId, ApiOrderStatusDto orderStatusDto, UserEntity caller) {
+                log.info("Changing status of order ID: {} to {}", orderId, orderStatusDto.getStatus());
 
-                OrderStatus orderStatus = orderStatusRepository.findByName(orderStatusDto.getStatus())
+                OrderStatus target = referenceDataRegistry.findOrderStatus(orderStatusDto.getStatus())
                                 .orElseThrow(() -> new ResourceNotFoundException(
                                                 "Order status " + orderStatusDto.getStatus() + " not found"));
 
-                log.info("Updating order status to: {}", orderStatusDto.getStatus());
+                OrderSummaryRow order = orderRepository.findOrderSummaries(List.of(orderId)).get(orderId);
+                if (order == null) {
+                        throw new ResourceNotFoundException("Order with id " + orderId + " not found");
+                }
+                if (!new OrderAccess(caller, restaurantRepository).allows(order)) {
+                        throw new ForbiddenException("Order " + orderId + " is not yours");
+                }
+                int currentStatusId = order.getStatusId();
+                if (currentStatusId == target.getId()) {
+                        return target.getName();
+                }
+
+                String current = referenceDataRegistry.findOrderStatus(currentStatusId)
+                                .map(OrderStatus::getName).orElse(null);
+                if (!OrderStatusTransitions.isAllowed(current, target.getName())) {
+                        throw new ConflictException("Cannot change status of order " + orderId + " from "
+                                        + current + " to " + target.getName());
+                }
 
-                order.setOrder_status(orderStatus);
-                orderRepository.save(order);
+                if (orderRepository.updateStatusIfCurrent(orderId, currentStatusId, target.getId()) == 0) {
+                        log.warn("Status of order ID {} changed concurrently", orderId);
+                        throw new ConflictException("Order " + orderId + " was modified concurrently, status was "
+                                        + current);
+                }
+                releaseCouriers(List.of(order), target);
+                recordStatusChange(order, currentStatusId, current, target);
+                return target.getName();
+        }
+
+        /**
+         * Changes the status of several orders in one transaction, with one
+         * query reading every current status and one JDBC batch of conditional
+         * UPDATEs, whatever the number of items.
+         * Each item is validated and applied on its own: by default the
+         * successful items are committed even if others fail, and the result
+         * tells which ones did. With atomic set, any failed item rolls back
+         * the whole request and the remaining items are reported as SKIPPED.
+         * Couriers of orders reaching a final status are released with one
+         * more batch. Only committed changes are journaled and sent to
+         * subscribers. Orders the caller may not change are reported as
+         * FORBIDDEN; the restaurants of the caller are read at most once.
+         *
+         * @param request The status changes and the atomic flag.
+         * @param caller  The authenticated user, as for changeOrderStatus.
+         * @return One result per item, in request order, and the totals.
+         * @throws BadRequestException if there are no items or more than
+         *                             MAX_BULK_STATUS_UPDATES.
+         */
+        @Transactional
+        public ApiBulkOrderStatusResultDto changeOrderStatuses(ApiBulkOrderStatusRequestDto request,
+                        UserEntity caller) {
+                List<ApiOrderStatusUpdateDto> updates = request.getUpdates();
+                if (updates == null || updates.isEmpty()) {
+                        throw new BadRequestException("At least one status update is required");
+                }
+                if (updates.size() > MAX_BULK_STATUS_UPDATES) {
+                        throw new BadRequestException("At most " + MAX_BULK_STATUS_UPDATES
+                                        + " status updates are allowed per request");
+                }
+                log.info("Changing status of {} orders, atomic: {}", updates.size(), request.isAtomic());
+
+                // Validate the items that need no database access first
+                List<ApiOrderStatusUpdateResultDto> results = new ArrayList<>(updates.size());
+                Map<Integer, OrderStatus> targets = new LinkedHashMap<>();
+                for (ApiOrderStatusUpdateDto update : updates) {
+                        ApiOrderStatusUpdateResultDto result = ApiOrderStatusUpdateResultDto.builder()
+                                        .orderId(update.getOrderId())
+                                        .status(update.getStatus())
+                                        .build();
+                        results.add(result);
+                        if (update.getOrderId() == null || update.getStatus() == null || update.getStatus().isBlank()) {
+                                fail(result, ApiOrderStatusUpdateResultDto.Outcome.INVALID,
+                                                "order_id and status are required");
+                        } else if (targets.containsKey(update.getOrderId())) {
+                                fail(result, ApiOrderStatusUpdateResultDto.Outcome.DUPLICATE,
+                                                "Order " + update.getOrderId() + " appears more than once");
+                        } else {
+                                Optional<OrderStatus> target = referenceDataRegistry.findOrderStatus(update.getStatus());
+                                if (target.isPresent()) {
+                                        targets.put(update.getOrderId(), target.get());
+                                } else {
+                                        // Reserve the order ID so later duplicates are still reported
+                                        targets.put(update.getOrderId(), null);
+                                        fail(result, ApiOrderStatusUpdateResultDto.Outcome.UNKNOWN_STATUS,
+                                                        "Order status " + update.getStatus() + " not found");
+                                }
+                        }
+                }
+
+                // Read every current status with one query and check the transitions
+                Map<Integer, OrderSummaryRow> orders = orderRepository.findOrderSummaries(targets.entrySet().stream()
+                                .filter(entry -> entry.getValue() != null)
+                                .map(Map.Entry::getKey)
+                                .collect(Collectors.toList()));
+                List<ApiOrderStatusUpdateResultDto> pending = new ArrayList<>();
+                List<OrderStatusChange> changes = new ArrayList<>();
+                OrderAccess access = new OrderAccess(caller, restaurantRepository);
+                for (ApiOrderStatusUpdateResultDto result : results) {
+                        if (result.getOutcome() != null) {
+                                continue;
+                        }
+                        OrderStatus target = targets.get(result.getOrderId());
+                        OrderSummaryRow order = orders.get(result.getOrderId());
+                        if (order == null) {
+                                fail(result, ApiOrderStatusUpdateResultDto.Outcome.NOT_FOUND,
+                                                "Order with id " + result.getOrderId() + " not found");
+                                continue;
+                        }
+                        if (!access.allows(order)) {
+                                fail(result, ApiOrderStatusUpdateResultDto.Outcome.FORBIDDEN,
+                                                "Order " + result.getOrderId() + " is not yours");
+                                continue;
+                        }
+                        int currentStatusId = order.getStatusId();
+                        String current = referenceDataRegistry.findOrderStatus(currentStatusId)
+                                        .map(OrderStatus::getName).orElse(null);
+                        result.setPreviousStatus(current);
+                        if (currentStatusId == target.getId()) {
+                                result.setOutcome(ApiOrderStatusUpdateResultDto.Outcome.UNCHANGED);
+                        } else if (!OrderStatusTransitions.isAllowed(current, target.getName())) {
+                                fail(result, ApiOrderStatusUpdateResultDto.Outcome.INVALID_TRANSITION,
+                                                "Cannot change status from " + current + " to " + target.getName());
+                        } else {
+                                pending.add(result);
+                                changes.add(new OrderStatusChange(result.getOrderId(), currentStatusId,
+                                                target.getId()));
+                        }
+                }
+
+                boolean failed = results.stream().anyMatch(OrderService::isFailure);
+                if (!(request.isAtomic() && failed)) {
+                        int[] counts = orderRepository.updateStatusesIfCurrent(changes);
+                        List<OrderSummaryRow> finished = new ArrayList<>();
+                        for (int i = 0; i < pending.size(); i++) {
+                                // SUCCESS_NO_INFO means the driver executed the statement
+                                // without reporting a count
+                                if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                                        ApiOrderStatusUpdateResultDto result = pending.get(i);
+                                        result.setOutcome(ApiOrderStatusUpdateResultDto.Outcome.UPDATED);
+                                        if (OrderStatusTransitions.isFinal(targets.get(result.getOrderId()).getName())) {
+                                                finished.add(orders.get(result.getOrderId()));
+                                        }
+                                        // Only recorded if the transaction commits
+                                        recordStatusChange(orders.get(result.getOrderId()),
+                                                        changes.get(i).getExpectedStatusId(),
+                                                        result.getPreviousStatus(), targets.get(result.getOrderId()));
+                                } else {
+                                        fail(pending.get(i), ApiOrderStatusUpdateResultDto.Outcome.CONFLICT,
+                                                        "Order " + pending.get(i).getOrderId()
+                                                                        + " was modified concurrently");
+                                }
+                        }
+                        releaseCouriers(finished, null);
+                        failed = results.stream().anyMatch(OrderService::isFailure);
+                }
+
+                boolean committed = !(request.isAtomic() && failed);
+                if (!committed) {
+                        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                        }
+                        results.stream()
+                                        .filter(result -> !isFailure(result))
+                                        .forEach(result -> fail(result, ApiOrderStatusUpdateResultDto.Outcome.SKIPPED,
+                                                        "Not applied because other updates failed"));
+                }
+
+                Map<ApiOrderStatusUpdateResultDto.Outcome, Long> totals = results.stream().collect(
+                                Collectors.groupingBy(ApiOrderStatusUpdateResultDto::getOutcome, Collectors.counting()));
+                int updated = totals.getOrDefault(ApiOrderStatusUpdateResultDto.Outcome.UPDATED, 0L).intValue();
+                int unchanged = totals.getOrDefault(ApiOrderStatusUpdateResultDto.Outcome.UNCHANGED, 0L).intValue();
+                log.info("Bulk status update: {} updated, {} unchanged, {} failed, committed: {}", updated, unchanged,
+                                results.size() - updated - unchanged, committed);
+                return ApiBulkOrderStatusResultDto.builder()
+                                .committed(committed)
+                                .updated(updated)
+                                .unchanged(unchanged)
+                                .failed(results.size() - updated - unchanged)
+                                .results(results)
+                                .build();
+        }
 
-                return order.getOrder_status().getName();
+        /**
+         * Journals the courier assignments of orders and notifies subscribers,
+         * once the current transaction commits. Called by the dispatch engine
+         * within the transaction that assigned the couriers, so the orders are
+         * read back with one query, assignments included.
+         *
+         * @param orderIds The IDs of the orders just assigned a courier.
+         */
+        public void recordCourierAssignments(Collection<Integer> orderIds) {
+                if (orderIds.isEmpty()) {
+                        return;
+                }
+                for (OrderSummaryRow order : orderRepository.findOrderSummaries(orderIds).values()) {
+                        String status = referenceDataRegistry.findOrderStatus(order.getStatusId())
+                                        .map(OrderStatus::getName).orElse(null);
+                        orderJournal.appendAfterCommit(ApiOrderEventDto.Type.ASSIGNED, order.getId(),
+                                        order.getCustomerId(), order.getRestaurantId(), order.getCourierId(),
+                                        order.getStatusId(), order.getStatusId());
+                        orderEventService.publishAfterCommit(ApiOrderEventDto.builder()
+                                        .type(ApiOrderEventDto.Type.ASSIGNED)
+                                        .orderId(order.getId())
+                                        .customerId(order.getCustomerId())
+                                        .restaurantId(order.getRestaurantId())
+                                        .courierId(order.getCourierId())
+                                        .status(status)
+                                        .previousStatus(status)
+                                        .build());
+                }
         }
 
         /**
-         * Retrieves orders based on type and ID.
+         * Moves the couriers of orders that reached a final status from busy
+         * back to free, with one conditional JDBC batch. A courier whose
+         * status was changed meanwhile is left as it is.
          *
-         * @param type The type of entity (customer, restaurant, courier).
-         * @param id   The ID of the entity.
-         * @return A list of orders.
+         * @param orders The orders, as read before the change.
+         * @param target The final status they all reached, or null if the
+         *               caller already kept only orders reaching one.
          */
-        public List<ApiOrderDto> getOrdersByTypeAndId(String type, Integer id) {
-                log.info("Fetching orders by type: {} and ID: {}", type, id);
-                List<Order> orders;
-                switch (type.toLowerCase()) {
-                        case "customer":
-                                log.info("Fetching orders for customer ID: {}", id);
-                                orders = orderRepository.findByCustomerId(id);
-                                break;
-                        case "restaurant":
-                                log.info("Fetching orders for restaurant ID: {}", id);
-                                orders = orderRepository.findByRestaurantId(id);
-                                break;
-                        case "courier":
-                                log.info("Fetching orders for courier ID: {}", id);
-                                orders = orderRepository.findByCourierId(id);
-                                break;
-                        default:
-                                log.error("Invalid type: {}", type);
-                                throw new IllegalArgumentException("Invalid type: " + type);
-                }
-                log.info("Orders fetched: {}", orders);
-                return orders.stream().map(this::mapToApiOrderDto).collect(Collectors.toList());
+        private void releaseCouriers(List<OrderSummaryRow> orders, OrderStatus target) {
+                if (target != null && !OrderStatusTransitions.isFinal(target.getName())) {
+                        return;
+                }
+                List<Integer> courierIds = orders.stream()
+                                .map(OrderSummaryRow::getCourierId)
+                                .filter(courierId -> courierId != null)
+                                .distinct()
+                                .collect(Collectors.toList());
+                if (courierIds.isEmpty()) {
+                        return;
+                }
+                Optional<CourierStatus> busy = referenceDataRegistry.findCourierStatus(CourierService.BUSY);
+                Optional<CourierStatus> free = referenceDataRegistry.findCourierStatus(CourierService.FREE);
+                if (busy.isEmpty() || free.isEmpty()) {
+                        log.warn("Courier statuses missing, {} couriers not released", courierIds.size());
+                        return;
+                }
+                courierRepository.updateStatusesIfCurrent(courierIds, busy.get().getId(), free.get().getId());
+        }
+
+        /**
+         * Journals a status change and notifies subscribers, once the current
+         * transaction commits.
+         */
+        private void recordStatusChange(OrderSummaryRow order, int previousStatusId, String previousStatus,
+                        OrderStatus target) {
+                orderJournal.appendAfterCommit(ApiOrderEventDto.Type.STATUS, order.getId(), order.getCustomerId(),
+                                order.getRestaurantId(), order.getCourierId(), previousStatusId, target.getId());
+                orderEventService.publishAfterCommit(ApiOrderEventDto.builder()
+                                .type(ApiOrderEventDto.Type.STATUS)
+                                .orderId(order.getId())
+                                .customerId(order.getCustomerId())
+                                .restaurantId(order.getRestaurantId())
+                                .courierId(order.getCourierId())
+                                .status(target.getName())
+                                .previousStatus(previousStatus)
+                                .build());
+        }
+
+        private static boolean isFailure(ApiOrderStatusUpdateResultDto result) {
+                return result.getOutcome() != null
+                                && result.getOutcome() != ApiOrderStatusUpdateResultDto.Outcome.UPDATED
+                                && result.getOutcome() != ApiOrderStatusUpdateResultDto.Outcome.UNCHANGED;
+        }
+
+        private static void fail(ApiOrderStatusUpdateResultDto result, ApiOrderStatusUpdateResultDto.Outcome outcome,
+                        String message) {
+                result.setOutcome(outcome);
+                result.setMessage(message);
+        }
+
+        /**
+         * Retrieves one keyset-paginated page of the orders of a customer,
+         * restaurant or courier, most recent first. The page and all of its
+         * product lines are read with two queries, whatever the page size.
+         *
+         * @param type   The type of entity (customer, restaurant, courier).
+         * @param id     The ID of the entity.
+         * @param cursor Opaque cursor returned with the previous page, or null.
+         * @param limit  Requested page size, capped at MAX_PAGE_SIZE.
+         * @return The page of orders and the cursor of the next page.
+         * @throws IllegalArgumentException if the type is invalid.
+         * @throws BadRequestException      if the cursor or limit is invalid.
+         */
+        public ApiPageDto<ApiOrderDto> getOrdersByTypeAndId(String type, Integer id, String cursor,
+                        Integer limit) {
+                log.info("Fetching orders by type: {} and ID: {}, limit: {}", type, id, limit);
+                OrderOwner owner = OrderOwner.fromType(type);
+
+                if (limit != null && limit < 1) {
+                        throw new BadRequestException("Limit must be at least 1");
+                }
+                int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+
+                // Cursors are bound to the listing they were issued for
+                String cursorKey = owner.name().toLowerCase(Locale.ROOT) + "=" + id;
+                Integer afterId = cursor == null || cursor.isBlank() ? null
+                                : KeysetCursor.decode(cursor, cursorKey).getId();
+
+                // Fetch one extra row to know whether there is a next page
+                List<OrderSummaryRow> orders = orderRepository.findOrderPage(owner, id, afterId, pageSize + 1);
+                String nextCursor = null;
+                if (orders.size() > pageSize) {
+                        orders = orders.subList(0, pageSize);
+                        nextCursor = new KeysetCursor(cursorKey, orders.get(pageSize - 1).getId(), "").encode();
+                }
+
+                Map<Integer, List<ApiProductForOrderApiDto>> productsByOrder = new HashMap<>();
+                orderRepository.findOrderLines(orders.stream().map(OrderSummaryRow::getId)
+                                .collect(Collectors.toList()))
+                                .forEach(line -> productsByOrder
+                                                .computeIfAbsent(line.getOrderId(), orderId -> new ArrayList<>())
+                                                .add(new ApiProductForOrderApiDto(line.getProductId(),
+                                                                line.getProductName(), line.getQuantity(),
+                                                                line.getUnitCost(),
+                                                                line.getQuantity() * line.getUnitCost())));
+                log.info("Fetched {} orders", orders.size());
+
+                return ApiPageDto.<ApiOrderDto>builder()
+                                .items(orders.stream()
+                                                .map(order -> mapToApiOrderDto(order,
+                                                                productsByOrder.getOrDefault(order.getId(), List.of())))
+                                                .collect(Collectors.toList()))
+                                .nextCursor(nextCursor)
+                                .limit(pageSize)
+                                .build();
         }
 
         /**
          * Creates a new order.
+         * The statement count does not depend on the number of line items: one
+         * query validates every product against the restaurant, the status comes
+         * from the reference data registry, the order is inserted once, all
+         * product orders go in a single multi-row INSERT, and the response is
+         * built from memory instead of re-reading the order.
          *
          * @param orderRequestDto The order request data transfer object.
          * @return The created order data transfer object.
+         * @throws BadRequestException       if the order has no products or a
+         *                                   quantity below 1.
+         * @throws ResourceNotFoundException if the restaurant, customer or a
+         *                                   product does not exist.
          */
+        @Transactional
         public ApiOrderDto createOrder(ApiOrderRequestDto orderRequestDto) {
-                log.info("Creating order for customer ID: {}, restaurant ID: {}", orderRequestDto.getCustomer_id(),
-                                orderRequestDto.getRestaurant_id());
+                return insertOrder(prepareOrder(orderRequestDto));
+        }
 
-                // Validate if the restaurant exists
-                log.debug("Fetching restaurant with ID: {}", orderRequestDto.getRestaurant_id());
-                Restaurant restaurant = restaurantRepository.findById(orderRequestDto.getRestaurant_id())
-                                .orElseThrow(() -> new ResourceNotFoundException(
-                                                "Restaurant with id " + orderRequestDto.getRestaurant_id()
-                                                                + " not found"));
+        /**
+         * Checks the shape of an order request without touching the database:
+         * at least one product, and every quantity at least 1.
+         *
+         * @param orderRequestDto The order request data transfer object.
+         * @throws BadRequestException if the order has no products or a
+         *                             quantity below 1.
+         */
+        public void validateOrderRequest(ApiOrderRequestDto orderRequestDto) {
+                if (orderRequestDto.getProducts() == null || orderRequestDto.getProducts().isEmpty()) {
+                        throw new BadRequestException("Order must contain at least one product");
+                }
+                for (ApiProductOrderRequestDto productRequestDto : orderRequestDto.getProducts()) {
+                        if (productRequestDto.getQuantity() < 1) {
+                                throw new BadRequestException("Quantity of product " + productRequestDto.getId()
+                                                + " must be at least 1");
+                        }
+                }
+        }
 
-                // Validate if the customer exists
-                log.debug("Fetching customer with ID: {}", orderRequestDto.getCustomer_id());
-                Customer customer = customerRepository.findById(orderRequestDto.getCustomer_id())
+        /**
+         * Validates an order request against the database and resolves its
+         * product lines, without writing anything. Failures leave the current
+         * transaction usable, so a batch of orders can share one transaction.
+         *
+         * @param orderRequestDto The order request data transfer object.
+         * @return The validated order, ready for insertOrder.
+         * @throws BadRequestException       if the order has no products or a
+         *                                   quantity below 1.
+         * @throws ResourceNotFoundException if the restaurant, customer or a
+         *                                   product does not exist.
+         */
+        public PreparedOrder prepareOrder(ApiOrderRequestDto orderRequestDto) {
+                int restaurantId = orderRequestDto.getRestaurant_id();
+                int customerId = orderRequestDto.getCustomer_id();
+                log.info("Creating order for customer ID: {}, restaurant ID: {}", customerId, restaurantId);
+
+                validateOrderRequest(orderRequestDto);
+
+                // Merge repeated products, since an order holds one line per product
+                Map<Integer, Integer> quantities = new LinkedHashMap<>();
+                for (ApiProductOrderRequestDto productRequestDto : orderRequestDto.getProducts()) {
+                        quantities.merge(productRequestDto.getId(), productRequestDto.getQuantity(), Integer::sum);
+                }
+
+                // Validate all products, and the restaurant, with one query
+                Map<Integer, OrderableProductProjection> products = productRepository
+                                .findOrderableProducts(restaurantId, quantities.keySet()).stream()
+                                .collect(Collectors.toMap(OrderableProductProjection::getId, Function.identity()));
+                if (products.size() < quantities.size()) {
+                        throw missingProductException(restaurantId, quantities.keySet(), products.keySet());
+                }
+
+                if (!customerRepository.existsById(customerId)) {
+                        throw new ResourceNotFoundException("Customer with id " + customerId + " not found");
+                }
+
+                OrderStatus inProgress = referenceDataRegistry.findOrderStatus("in progress")
                                 .orElseThrow(() -> new ResourceNotFoundException(
-                                                "Customer with id " + orderRequestDto.getCustomer_id() + " not found"));
+                                                "Order status 'in progress' not found"));
+
+                List<ProductOrderLine> lines = new ArrayList<>(quantities.size());
+                quantities.forEach((productId, quantity) -> {
+                        OrderableProductProjection product = products.get(productId);
+                        lines.add(new ProductOrderLine(productId, product.getName(), quantity,
+                                        product.getUnitCost()));
+                });
+                return new PreparedOrder(restaurantId, customerId, inProgress, lines);
+        }
 
-                // Log product details
-                orderRequestDto.getProducts().forEach(
-                                product -> log.info("Product ID: {}, Quantity: {}", product.getId(),
-                                                product.getQuantity()));
+        /**
+         * Inserts an order validated by prepareOrder, with a fixed number of
+         * statements, and builds the response from memory. Once the order
+         * commits it is journaled and the subscribers of the customer and
+         * restaurant are notified.
+         *
+         * @param prepared The validated order.
+         * @return The created order data transfer object.
+         */
+        @Transactional
+        public ApiOrderDto insertOrder(PreparedOrder prepared) {
+                int restaurantId = prepared.getRestaurantId();
+                int customerId = prepared.getCustomerId();
+                OrderStatus inProgress = prepared.getStatus();
+                List<ProductOrderLine> lines = prepared.getLines();
 
-                // Create and save the order
+                // References are enough for the foreign keys, nothing else is loaded
                 Order order = new Order();
-                order.setCustomer(customer); // Set the full Customer object
-                order.setRestaurant(restaurant); // Set the full Restaurant object
-                order.setOrder_status(orderStatusRepository.findByName("in progress")
-                                .orElseThrow(() -> new ResourceNotFoundException(
-                                                "Order status 'in progress' not found")));
+                order.setCustomer(customerRepository.getReferenceById(customerId));
+                order.setRestaurant(restaurantRepository.getReferenceById(restaurantId));
+                order.setOrder_status(inProgress);
                 order.setRestaurant_rating(1);
+                orderRepository.save(order);
 
-                orderRepository.save(order); // Save order after validation
+                productOrderRepository.insertProductOrders(order.getId(), lines);
+                restaurantRatingService.recordOrderRating(restaurantId, order.getRestaurant_rating());
+                log.info("Order created successfully with ID: {}", order.getId());
+                orderJournal.appendAfterCommit(ApiOrderEventDto.Type.CREATED, order.getId(), customerId,
+                                restaurantId, null, 0, inProgress.getId());
+                orderEventService.publishAfterCommit(ApiOrderEventDto.builder()
+                                .type(ApiOrderEventDto.Type.CREATED)
+                                .orderId(order.getId())
+                                .customerId(customerId)
+                                .restaurantId(restaurantId)
+                                .status(inProgress.getName())
+                                .build());
 
-                // Validate if each product exists and belongs to the restaurant
-                final Order savedOrder = order;
-                List<ProductOrder> productOrders = orderRequestDto.getProducts().stream().map(productRequestDto -> {
-                        ProductOrder productOrder = new ProductOrder();
-                        productOrder.setOrder(savedOrder);
+                List<ApiProductForOrderApiDto> productDtos = lines.stream()
+                                .map(line -> new ApiProductForOrderApiDto(line.getProductId(), line.getProductName(),
+                                                line.getQuantity(), line.getUnitCost(),
+                                                line.getQuantity() * line.getUnitCost()))
+                                .collect(Collectors.toList());
+                return ApiOrderDto.builder()
+                                .id(order.getId())
+                                .customer_id(customerId)
+                                .restaurant_id(restaurantId)
+                                .courier_id(null)
+                                .status(inProgress.getName())
+                                .products(productDtos)
+                                .total_cost(productDtos.stream().mapToInt(ApiProductForOrderApiDto::getTotal_cost).sum())
+                                .build();
+        }
 
-                        Product product = productRepository.findByIdAndRestaurantId(productRequestDto.getId(),
-                                        orderRequestDto.getRestaurant_id())
-                                        .orElseThrow(() -> new ResourceNotFoundException(
-                                                        "Product with id " + productRequestDto.getId()
-                                                                        + " not found or does not belong to the restaurant"));
+        /**
+         * Decides which orders a caller may change the status of: any order for
+         * an employee, otherwise the orders assigned to the caller's courier
+         * and those of the restaurants the caller owns. The owned restaurants
+         * are only read if the courier check does not settle it, and then once.
+         */
+        private static final class OrderAccess {
+                private final UserEntity caller;
+                private final RestaurantRepository restaurantRepository;
+                private List<Integer> ownedRestaurantIds;
 
-                        productOrder.setProduct(product);
-                        productOrder.setProduct_quantity(productRequestDto.getQuantity());
-                        productOrder.setProduct_unit_cost(product.getUnitCost()); // Setting product unit cost from the
-                                                                                  // product entity
-                        log.info("Added product ID: {} to order", productRequestDto.getId()); // Added log
-                        return productOrder;
-                }).collect(Collectors.toList());
+                OrderAccess(UserEntity caller, RestaurantRepository restaurantRepository) {
+                        this.caller = caller;
+                        this.restaurantRepository = restaurantRepository;
+                }
 
-                productOrderRepository.saveAll(productOrders);
-                log.info("Order created successfully with ID: {}", order.getId()); // Added log
+                boolean allows(OrderSummaryRow order) {
+                        if (caller == null) {
+                                return false;
+                        }
+                        if (caller.isEmployee()) {
+                                return true;
+                        }
+                        if (caller.getCourierId() != null && caller.getCourierId().equals(order.getCourierId())) {
+                                return true;
+                        }
+                        if (ownedRestaurantIds == null) {
+                                ownedRestaurantIds = restaurantRepository
+                                                .findActiveRestaurantIdsByUserId(caller.getId());
+                        }
+                        return ownedRestaurantIds.contains(order.getRestaurantId());
+                }
+        }
 
-                Order finalOrder = orderRepository.findById(order.getId())
-                                .orElseThrow(() -> new ResourceNotFoundException(
-                                                "Order with id " + order.getId() + " not found after save")); // Ensure
-                                                                                                              // the
-                                                                                                              // order
-                                                                                                              // is
-                                                                                                              // retrieved
-                                                                                                              // after
-                                                                                                              // save
-                return mapToApiOrderDto(finalOrder); // Ensure this method correctly converts Order to ApiOrderDto
+        /**
+         * An order request that passed validation, with its resolved product
+         * lines and initial status.
+         */
+        @Value
+        public static class PreparedOrder {
+                int restaurantId; // ID of the restaurant the order is placed with
+                int customerId; // ID of the customer placing the order
+                OrderStatus status; // Initial status of the order
+                List<ProductOrderLine> lines; // Merged product lines of the order
         }
 
         /**
-         * Maps an Order entity to an ApiOrderDto.
+         * Builds the exception for an order whose products did not all validate.
+         * Only runs on the failure path, to tell a missing restaurant apart from
+         * a missing product.
+         */
+        private ResourceNotFoundException missingProductException(int restaurantId, Set<Integer> requestedIds,
+                        Set<Integer> foundIds) {
+                if (foundIds.isEmpty() && restaurantRepository.findById(restaurantId)
+                                .filter(Restaurant::isActive).isEmpty()) {
+                        return new ResourceNotFoundException("Restaurant with id " + restaurantId + " not found");
+                }
+                int missingId = requestedIds.stream().filter(id -> !foundIds.contains(id)).findFirst().orElseThrow();
+                return new ResourceNotFoundException(
+                                "Product with id " + missingId + " not found or does not belong to the restaurant");
+        }
+
+        /**
+         * Maps an order row and its product lines to an ApiOrderDto.
          *
-         * @param order The order entity.
+         * @param order    The order row.
+         * @param products The product lines of the order.
          * @return The API order data transfer object.
          */
-        private ApiOrderDto mapToApiOrderDto(Order order) {
-                List<ApiProductForOrderApiDto> products = productOrderRepository.findByOrderId(order.getId()).stream()
-                                .map(productOrder -> new ApiProductForOrderApiDto(
-                                                productOrder.getProduct().getId(),
-                                                productOrder.getProduct().getName(),
-                                                productOrder.getProduct_quantity(),
-                                                productOrder.getProduct_unit_cost(),
-                                                productOrder.getProduct_quantity()
-                                                                * productOrder.getProduct_unit_cost()))
-                                .collect(Collectors.toList());
-
+        private ApiOrderDto mapToApiOrderDto(OrderSummaryRow order, List<ApiProductForOrderApiDto> products) {
                 return ApiOrderDto.builder()
                                 .id(order.getId())
-                                .customer_id(order.getCustomer().getId())
-                                .restaurant_id(order.getRestaurant().getId())
-                                .courier_id(order.getCourier() != null ? order.getCourier().getId() : null)
-                                .status(order.getOrder_status().getName())
+                                .customer_id(order.getCustomerId())
+                                .restaurant_id(order.getRestaurantId())
+                                .courier_id(order.getCourierId())
+                                .status(referenceDataRegistry.findOrderStatus(order.getStatusId())
+                                                .map(OrderStatus::getName).orElse(null))
                                 .products(products)
                                 .total_cost(products.stream().mapToInt(ApiProductForOrderApiDto::getTotal_cost).sum())
                                 .build();
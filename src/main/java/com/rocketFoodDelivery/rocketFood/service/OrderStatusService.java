@@ -1,7 +1,6 @@
 package com.rocketFoodDelivery.rocketFood.service;
 
 import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
-import com.rocketFoodDelivery.rocketFood.repository.OrderStatusRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -11,12 +10,13 @@ import java.util.Optional;
 @Service
 public class OrderStatusService {
 
-    private final OrderStatusRepository orderStatusRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
-    // Constructor for dependency injection of OrderStatusRepository
+    // Constructor for dependency injection of ReferenceDataRegistry, which
+    // serves the statuses from memory
     @Autowired
-    public OrderStatusService(OrderStatusRepository orderStatusRepository) {
-        this.orderStatusRepository = orderStatusRepository;
+    public OrderStatusService(ReferenceDataRegistry referenceDataRegistry) {
+        this.referenceDataRegistry = referenceDataRegistry;
     }
 
     /**
@@ -25,7 +25,7 @@ public class OrderStatusService {
      * @return a list of all order statuses.
      */
     public List<OrderStatus> getAllOrderStatuses() {
-        return orderStatusRepository.findAll();
+        return referenceDataRegistry.getOrderStatuses();
     }
 
     /**
@@ -36,6 +36,17 @@ public class OrderStatusService {
      *         found.
      */
     public Optional<OrderStatus> findById(int id) {
-        return orderStatusRepository.findById(id);
+        return referenceDataRegistry.findOrderStatus(id);
+    }
+
+    /**
+     * Finds an order status by its name.
+     *
+     * @param name the name of the order status.
+     * @return an optional containing the order status if found, or empty if not
+     *         found.
+     */
+    public Optional<OrderStatus> findByName(String name) {
+        return referenceDataRegistry.findOrderStatus(name);
     }
 }
@@ -0,0 +1,55 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The order status state machine, keyed by the names in order_statuses.
+ * An order moves forward from pending to in progress to delivered, and can be
+ * cancelled until it is delivered; delivered and cancelled are final.
+ * Statuses that are not listed here accept no transitions.
+ */
+public final class OrderStatusTransitions {
+
+    /**
+     * The statuses of the state machine, seeded into order_statuses when missing.
+     */
+    public static final List<String> STATUSES = List.of("pending", "in progress", "delivered", "cancelled");
+
+    private static final Map<String, Set<String>> ALLOWED = Map.of(
+            "pending", Set.of("in progress", "cancelled"),
+            "in progress", Set.of("delivered", "cancelled"),
+            "delivered", Set.of(),
+            "cancelled", Set.of());
+
+    private OrderStatusTransitions() {
+    }
+
+    /**
+     * Checks whether an order may move from one status to another.
+     *
+     * @param from the current status name, case-insensitive.
+     * @param to   the requested status name, case-insensitive.
+     * @return true if the transition is allowed.
+     */
+    public static boolean isAllowed(String from, String to) {
+        return ALLOWED.getOrDefault(normalize(from), Set.of()).contains(normalize(to));
+    }
+
+    /**
+     * Checks whether a status is final, so an order in it is done with its courier.
+     *
+     * @param status the status name, case-insensitive.
+     * @return true if the status is part of the state machine and allows no transition.
+     */
+    public static boolean isFinal(String status) {
+        Set<String> next = ALLOWED.get(normalize(status));
+        return next != null && next.isEmpty();
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,102 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Stand-in for a geocoding service: resolves a postal code to the
+ * approximate centroid of its area, from a prefix table on the classpath.
+ * The longest matching prefix wins, so a Montreal forward sortation area
+ * such as "H2X" is placed more precisely than the "H" region around it.
+ */
+@Slf4j
+@Component
+public class PostalCodeGeocoder {
+
+    static final String TABLE = "geocoding/postal-code-centroids.csv";
+
+    private final Map<String, Coordinates> centroids;
+    private final int longestPrefix;
+
+    /**
+     * Constructor loading the prefix table from the classpath.
+     */
+    public PostalCodeGeocoder() {
+        this(load(TABLE));
+    }
+
+    /**
+     * Constructor for a given prefix table.
+     *
+     * @param centroids the centroids by normalized postal code prefix.
+     */
+    PostalCodeGeocoder(Map<String, Coordinates> centroids) {
+        this.centroids = Map.copyOf(centroids);
+        this.longestPrefix = centroids.keySet().stream().mapToInt(String::length).max().orElse(0);
+    }
+
+    /**
+     * Resolves a postal code to the centroid of its longest known prefix.
+     *
+     * @param postalCode the postal code, in any case and spacing.
+     * @return the approximate coordinates, or empty if no prefix is known.
+     */
+    public Optional<Coordinates> geocode(String postalCode) {
+        if (postalCode == null) {
+            return Optional.empty();
+        }
+        String normalized = postalCode.replaceAll("[\\s-]", "").toUpperCase(Locale.ROOT);
+        for (int length = Math.min(longestPrefix, normalized.length()); length > 0; length--) {
+            Coordinates centroid = centroids.get(normalized.substring(0, length));
+            if (centroid != null) {
+                return Optional.of(centroid);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Map<String, Coordinates> load(String resource) {
+        InputStream input = PostalCodeGeocoder.class.getClassLoader().getResourceAsStream(resource);
+        if (input == null) {
+            log.warn("Postal code table {} not found, addresses will not be geocoded", resource);
+            return Map.of();
+        }
+        Map<String, Coordinates> centroids = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                centroids.put(fields[0].trim().toUpperCase(Locale.ROOT),
+                        new Coordinates(Double.parseDouble(fields[1].trim()), Double.parseDouble(fields[2].trim())));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read postal code table " + resource, ex);
+        }
+        return centroids;
+    }
+
+    /**
+     * A latitude and longitude in degrees.
+     */
+    @Value
+    public static class Coordinates {
+        double latitude;
+        double longitude;
+    }
+}
@@ -35,7 +35,7 @@ public class ProductService {
      */
     public List<ApiProductDto> getProductsByRestaurantId(Integer restaurantId) {
         log.info("Fetching products for restaurant ID: {}", restaurantId);
-        List<Product> products = productRepository.findProductsByRestaurantId(restaurantId);
+        List<Product> products = productRepository.findActiveProductsByRestaurantId(restaurantId);
         return products.stream()
                 .map(this::mapToApiProductDto)
                 .collect(Collectors.toList());
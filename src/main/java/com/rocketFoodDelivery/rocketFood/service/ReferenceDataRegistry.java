@@ -0,0 +1,190 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.models.CourierStatus;
+import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
+import com.rocketFoodDelivery.rocketFood.repository.CourierStatusRepository;
+import com.rocketFoodDelivery.rocketFood.repository.OrderStatusRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * In-memory registry of the order and courier statuses.
+ * These rows practically never change, so they are loaded once into
+ * immutable id/name maps and resolved without touching the database; unknown
+ * names are rejected from memory. The maps are reloaded on the configured
+ * interval or when refresh is called.
+ */
+@Slf4j
+@Component
+public class ReferenceDataRegistry {
+
+    private final OrderStatusRepository orderStatusRepository;
+    private final CourierStatusRepository courierStatusRepository;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Constructor for dependency injection of the status repositories.
+     *
+     * @param orderStatusRepository   the repository for order statuses.
+     * @param courierStatusRepository the repository for courier statuses.
+     */
+    public ReferenceDataRegistry(OrderStatusRepository orderStatusRepository,
+            CourierStatusRepository courierStatusRepository) {
+        this.orderStatusRepository = orderStatusRepository;
+        this.courierStatusRepository = courierStatusRepository;
+    }
+
+    /**
+     * Finds an order status by name, ignoring case like the database collation.
+     *
+     * @param name the name of the status.
+     * @return the status, or empty if no such status exists.
+     */
+    public Optional<OrderStatus> findOrderStatus(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        // Read the snapshot once, so the ID and the name come from the same load
+        Snapshot current = current();
+        Integer id = current.orderStatusIds.get(normalize(name));
+        return id == null ? Optional.empty() : Optional.of(new OrderStatus(id, current.orderStatusNames.get(id)));
+    }
+
+    /**
+     * Finds an order status by ID.
+     *
+     * @param id the ID of the status.
+     * @return the status, or empty if no such status exists.
+     */
+    public Optional<OrderStatus> findOrderStatus(int id) {
+        String name = current().orderStatusNames.get(id);
+        return name == null ? Optional.empty() : Optional.of(new OrderStatus(id, name));
+    }
+
+    /**
+     * Returns all order statuses, ordered by ID.
+     *
+     * @return the statuses.
+     */
+    public List<OrderStatus> getOrderStatuses() {
+        List<OrderStatus> statuses = new ArrayList<>();
+        current().orderStatusNames.forEach((id, name) -> statuses.add(new OrderStatus(id, name)));
+        return statuses;
+    }
+
+    /**
+     * Finds a courier status by name, ignoring case like the database collation.
+     *
+     * @param name the name of the status.
+     * @return the status, or empty if no such status exists.
+     */
+    public Optional<CourierStatus> findCourierStatus(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        Snapshot current = current();
+        Integer id = current.courierStatusIds.get(normalize(name));
+        return id == null ? Optional.empty()
+                : Optional.of(new CourierStatus(id, current.courierStatusNames.get(id)));
+    }
+
+    /**
+     * Inserts, once the application has started, the order statuses of the
+     * state machine missing from order_statuses, such as "cancelled" in
+     * databases seeded before orders could be cancelled, then loads the
+     * statuses.
+     *
+     * @return the number of statuses inserted.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int seedOrderStatuses() {
+        Set<String> existing = new HashSet<>();
+        orderStatusRepository.findAll().forEach(status -> existing.add(normalize(status.getName())));
+        int seeded = 0;
+        for (String name : OrderStatusTransitions.STATUSES) {
+            if (existing.contains(name)) {
+                continue;
+            }
+            try {
+                orderStatusRepository.save(OrderStatus.builder().name(name).build());
+                log.info("Seeded missing order status '{}'", name);
+                seeded++;
+            } catch (DataIntegrityViolationException ex) {
+                // Another instance inserted it first
+                log.debug("Order status '{}' was seeded concurrently", name);
+            }
+        }
+        refresh();
+        return seeded;
+    }
+
+    /**
+     * Reloads the statuses on the configured interval.
+     */
+    @Scheduled(fixedDelayString = "${app.reference-data.refresh-interval-ms:600000}",
+            initialDelayString = "${app.reference-data.refresh-interval-ms:600000}")
+    public void refresh() {
+        List<OrderStatus> orderStatuses = orderStatusRepository.findAll();
+        List<CourierStatus> courierStatuses = courierStatusRepository.findAll();
+
+        Map<Integer, String> orderStatusNames = new TreeMap<>();
+        orderStatuses.forEach(status -> orderStatusNames.put(status.getId(), status.getName()));
+        Map<Integer, String> courierStatusNames = new TreeMap<>();
+        courierStatuses.forEach(status -> courierStatusNames.put(status.getId(), status.getName()));
+
+        snapshot = new Snapshot(orderStatusNames, courierStatusNames);
+        log.info("Loaded {} order statuses and {} courier statuses", orderStatusNames.size(),
+                courierStatusNames.size());
+    }
+
+    /**
+     * Returns the current snapshot, loading it on first use.
+     */
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Immutable statuses by ID and by normalized name.
+     */
+    private static final class Snapshot {
+
+        final Map<Integer, String> orderStatusNames;
+        final Map<String, Integer> orderStatusIds;
+        final Map<Integer, String> courierStatusNames;
+        final Map<String, Integer> courierStatusIds;
+
+        Snapshot(Map<Integer, String> orderStatusNames, Map<Integer, String> courierStatusNames) {
+            this.orderStatusNames = Collections.unmodifiableMap(orderStatusNames);
+            this.orderStatusIds = invert(orderStatusNames);
+            this.courierStatusNames = Collections.unmodifiableMap(courierStatusNames);
+            this.courierStatusIds = invert(courierStatusNames);
+        }
+
+        private static Map<String, Integer> invert(Map<Integer, String> names) {
+            Map<String, Integer> ids = new HashMap<>(names.size() * 2);
+            names.forEach((id, name) -> ids.put(normalize(name), id));
+            return Collections.unmodifiableMap(ids);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.models.RefreshToken;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Service class for refresh tokens.
+ * A refresh token is an opaque random value, stored only as its SHA-256, that
+ * can be exchanged once for a new access token and a new refresh token. The
+ * tokens issued from one login form a family: presenting a token that was
+ * already exchanged means two parties hold it, so the whole family is revoked
+ * and the user has to log in again.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final long ttlMillis;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+            @Value("${app.jwt.refresh-token-ttl-ms:1209600000}") long ttlMillis) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Issues the first refresh token of a new family, at login.
+     *
+     * @param user the authenticated user.
+     * @return the refresh token, to be returned to the client once.
+     */
+    @Transactional
+    public String issue(UserEntity user) {
+        return issue(user, UUID.randomUUID().toString(), Instant.now());
+    }
+
+    /**
+     * Exchanges a refresh token for a new one of the same family. The
+     * presented token can never be used again.
+     *
+     * @param refreshToken the refresh token presented by the client.
+     * @return the user the token was issued to and the new refresh token.
+     * @throws BadCredentialsException if the token is unknown, expired or revoked.
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public Rotation rotate(String refreshToken) {
+        Instant now = Instant.now();
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw new BadCredentialsException("Refresh token expired");
+        }
+        // The conditional update lets exactly one of two concurrent exchanges of the same token win
+        if (current.getRevokedAt() != null || refreshTokenRepository.revokeIfUsable(current.getId(), now) == 0) {
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            log.warn("Refresh token reuse for user ID {}, revoked {} tokens of family {}", current.getUser().getId(),
+                    revoked, current.getFamilyId());
+            throw new BadCredentialsException("Refresh token already used");
+        }
+        String next = issue(current.getUser(), current.getFamilyId(), now);
+        return new Rotation(current.getUser(), next);
+    }
+
+    /**
+     * Revokes the family of a refresh token, at logout. Unknown tokens are ignored.
+     *
+     * @param refreshToken the refresh token presented by the client.
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        Optional<RefreshToken> token = refreshTokenRepository.findByTokenHash(hash(refreshToken));
+        token.ifPresent(current -> refreshTokenRepository.revokeFamily(current.getFamilyId(), Instant.now()));
+    }
+
+    /**
+     * Deletes the expired refresh tokens on the configured interval.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.refresh-token-cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String issue(UserEntity user, String familyId, Instant now) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .user(user)
+                .createdAt(now)
+                .expiresAt(now.plusMillis(ttlMillis))
+                .build());
+        return token;
+    }
+
+    static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * The outcome of a rotation: the user to issue an access token to and
+     * the refresh token that replaces the presented one.
+     */
+    @lombok.Value
+    public static class Rotation {
+        UserEntity user;
+        String refreshToken;
+    }
+}
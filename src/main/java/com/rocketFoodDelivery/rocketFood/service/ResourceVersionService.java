@@ -0,0 +1,74 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class holding in-memory version counters of the restaurant catalog
+ * and of each restaurant (including its products), used to derive strong
+ * ETags without reading the data they describe.
+ * Counters start from zero on every boot, so the ETags also carry the boot
+ * time to never repeat a tag issued by a previous run.
+ */
+@Service
+public class ResourceVersionService {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final ConcurrentMap<Integer, AtomicLong> restaurantVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the ETag of the restaurant catalog as a whole.
+     *
+     * @return the quoted strong ETag.
+     */
+    public String catalogETag() {
+        return "\"c" + epoch + "." + catalogVersion.get() + "\"";
+    }
+
+    /**
+     * Returns the ETag of a restaurant and its products.
+     *
+     * @param restaurantId the ID of the restaurant.
+     * @return the quoted strong ETag.
+     */
+    public String restaurantETag(int restaurantId) {
+        AtomicLong version = restaurantVersions.get(restaurantId);
+        return "\"r" + restaurantId + "." + epoch + "." + (version == null ? 0 : version.get()) + "\"";
+    }
+
+    /**
+     * Bumps the version of a restaurant and of the catalog.
+     *
+     * @param restaurantId the ID of the changed restaurant.
+     */
+    public void bumpRestaurant(int restaurantId) {
+        restaurantVersions.computeIfAbsent(restaurantId, id -> new AtomicLong()).incrementAndGet();
+        catalogVersion.incrementAndGet();
+    }
+
+    /**
+     * Bumps the version of a restaurant once the current transaction commits,
+     * or immediately when no transaction is active, so a new ETag is never
+     * issued for data that is not visible yet.
+     *
+     * @param restaurantId the ID of the changed restaurant.
+     */
+    public void bumpRestaurantAfterCommit(int restaurantId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpRestaurant(restaurantId);
+                }
+            });
+        } else {
+            bumpRestaurant(restaurantId);
+        }
+    }
+}
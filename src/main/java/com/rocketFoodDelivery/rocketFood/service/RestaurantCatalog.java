@@ -0,0 +1,400 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCatalogStatsDto;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantListingProjection;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantListingRow;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRepository;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantSort;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, copy-on-write in-memory snapshot of the restaurant listings.
+ * Readers dereference a volatile snapshot and never lock; writers build a new
+ * snapshot under a lock and publish it with a single reference swap.
+ * Each snapshot also carries a spatial index of the restaurants' coordinates.
+ * Restaurant writes and order ratings patch the snapshot once their
+ * transaction commits, and bump the ETag version of the restaurant in the
+ * same step, so a new ETag is never issued for a stale listing. The
+ * sorted views and spatial index of the last rebuild are kept as they are,
+ * and the patched listings are held in a small overlay merged in by readers,
+ * so a write costs O(k log k) in the number k of patches since the rebuild.
+ * Once there are more than max-patches of them, the overlay is folded into
+ * new views. A periodic rebuild picks up changes made behind the catalog's
+ * back, such as rating repairs, empties the overlay and bumps the ETag
+ * version of every restaurant whose listing it changed.
+ */
+@Slf4j
+@Component
+public class RestaurantCatalog {
+
+    private final RestaurantRepository restaurantRepository;
+    private final ResourceVersionService resourceVersionService;
+    private final int maxPatches;
+    private final Object writeLock = new Object();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Constructor for dependency injection of the RestaurantRepository and
+     * ResourceVersionService.
+     *
+     * @param restaurantRepository   the repository for restaurants.
+     * @param resourceVersionService the service versioning restaurant reads.
+     * @param maxPatches             the number of patches kept before they are folded into the views.
+     */
+    public RestaurantCatalog(RestaurantRepository restaurantRepository,
+            ResourceVersionService resourceVersionService,
+            @Value("${app.catalog.max-patches:256}") int maxPatches) {
+        this.restaurantRepository = restaurantRepository;
+        this.resourceVersionService = resourceVersionService;
+        this.maxPatches = maxPatches;
+    }
+
+    /**
+     * Finds the listing of a restaurant in the current snapshot.
+     *
+     * @param restaurantId the ID of the restaurant.
+     * @return the listing, or empty if the restaurant is not in the catalog.
+     */
+    public Optional<RestaurantListingRow> find(int restaurantId) {
+        return Optional.ofNullable(current().get(restaurantId));
+    }
+
+    /**
+     * Returns one page of listings from the current snapshot, with the same
+     * semantics as RestaurantRepository.findRestaurantListingPage.
+     *
+     * @param rating     optional rating filter.
+     * @param priceRange optional price range filter.
+     * @param sort       the sort column.
+     * @param descending whether the sort is descending.
+     * @param afterValue the sort value of the last row of the previous page, or null.
+     * @param afterId    the ID of the last row of the previous page, or null.
+     * @param limit      the maximum number of rows to return.
+     * @return the listings of the page.
+     */
+    public List<RestaurantListingProjection> findRestaurantListingPage(Integer rating, Integer priceRange,
+            RestaurantSort sort, boolean descending, Object afterValue, Integer afterId, int limit) {
+        Snapshot current = current();
+        List<RestaurantListingRow> sorted = current.sorted.get(sort);
+        List<RestaurantListingRow> patched = current.patchedSorted.get(sort);
+        int i = startPosition(sorted, sort, descending, afterValue, afterId);
+        int j = startPosition(patched, sort, descending, afterValue, afterId);
+        Comparator<RestaurantListingProjection> order = descending ? sort.comparator().reversed() : sort.comparator();
+
+        // Merges the views of the last rebuild, minus the patched rows, with the patched rows
+        List<RestaurantListingProjection> page = new ArrayList<>(Math.min(limit, current.size));
+        int step = descending ? -1 : 1;
+        while (page.size() < limit) {
+            while (i >= 0 && i < sorted.size() && current.patches.containsKey(sorted.get(i).getId())) {
+                i += step;
+            }
+            boolean hasRow = i >= 0 && i < sorted.size();
+            boolean hasPatched = j >= 0 && j < patched.size();
+            RestaurantListingRow row;
+            if (hasPatched && (!hasRow || order.compare(patched.get(j), sorted.get(i)) < 0)) {
+                row = patched.get(j);
+                j += step;
+            } else if (hasRow) {
+                row = sorted.get(i);
+                i += step;
+            } else {
+                break;
+            }
+            if ((rating == null || row.getRating() == rating)
+                    && (priceRange == null || row.getPriceRange() == priceRange)) {
+                page.add(row);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Returns the index of the first row of a page in a sorted view.
+     */
+    private static int startPosition(List<RestaurantListingRow> sorted, RestaurantSort sort, boolean descending,
+            Object afterValue, Integer afterId) {
+        if (afterId == null) {
+            return descending ? sorted.size() - 1 : 0;
+        }
+        int found = Collections.binarySearch(sorted, sort.probe(afterValue, afterId), sort.comparator());
+        int insertion = found >= 0 ? found : -(found + 1);
+        return descending ? insertion - 1 : (found >= 0 ? found + 1 : insertion);
+    }
+
+    /**
+     * Finds the restaurants nearest to a point in the current snapshot, with
+     * the same rating and price range filters as the listing pages.
+     *
+     * @param latitude     the latitude of the point.
+     * @param longitude    the longitude of the point.
+     * @param radiusMeters the search radius.
+     * @param rating       optional rating filter.
+     * @param priceRange   optional price range filter.
+     * @param limit        the maximum number of restaurants to return.
+     * @return the restaurants found, nearest first.
+     */
+    public List<RestaurantSpatialIndex.Match> findNearby(double latitude, double longitude, double radiusMeters,
+            Integer rating, Integer priceRange, int limit) {
+        Snapshot current = current();
+        Predicate<RestaurantListingRow> filter = row -> (rating == null || row.getRating() == rating)
+                && (priceRange == null || row.getPriceRange() == priceRange);
+        List<RestaurantSpatialIndex.Match> matches = current.spatialIndex.findNearest(latitude, longitude,
+                radiusMeters, row -> !current.patches.containsKey(row.getId()) && filter.test(row), limit);
+        if (current.patches.isEmpty()) {
+            return matches;
+        }
+
+        List<RestaurantSpatialIndex.Match> merged = new ArrayList<>(matches);
+        merged.addAll(current.patchedIndex.findNearest(latitude, longitude, radiusMeters, filter, limit));
+        merged.sort(Comparator.comparingDouble(RestaurantSpatialIndex.Match::getDistanceMeters)
+                .thenComparingInt(match -> match.getListing().getId()));
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    /**
+     * Refreshes the listing of a restaurant once the current transaction
+     * commits, or immediately when no transaction is active. Nothing happens
+     * if the transaction rolls back.
+     *
+     * @param restaurantId the ID of the created, updated or deleted restaurant.
+     */
+    public void refreshAfterCommit(int restaurantId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(restaurantId);
+                }
+            });
+        } else {
+            refresh(restaurantId);
+        }
+    }
+
+    /**
+     * Re-reads the listing of one restaurant and publishes a patched snapshot,
+     * removing the restaurant if it no longer exists, then bumps the ETag
+     * version of the restaurant if its listing changed.
+     *
+     * @param restaurantId the ID of the restaurant.
+     */
+    public void refresh(int restaurantId) {
+        synchronized (writeLock) {
+            Snapshot base = current();
+            RestaurantListingRow row = restaurantRepository.findRestaurantListingById(restaurantId)
+                    .map(RestaurantListingRow::of)
+                    .orElse(null);
+            if (Objects.equals(row, base.get(restaurantId))) {
+                return;
+            }
+            snapshot = base.patch(restaurantId, row, maxPatches);
+            resourceVersionService.bumpRestaurant(restaurantId);
+            log.debug("Patched restaurant catalog for restaurant ID {}, version {}", restaurantId,
+                    snapshot.version);
+        }
+    }
+
+    /**
+     * Rebuilds the whole snapshot from the database on the configured interval,
+     * which also picks up rating changes made by orders.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.refresh-interval-ms:60000}",
+            initialDelayString = "${app.catalog.refresh-interval-ms:60000}")
+    public void rebuild() {
+        synchronized (writeLock) {
+            long start = System.nanoTime();
+            List<RestaurantListingRow> rows = restaurantRepository.findAllRestaurantListings();
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            Snapshot previous = snapshot;
+            snapshot = Snapshot.of(previous.version + 1, rows, Instant.now(), elapsedMillis);
+            if (previous != Snapshot.EMPTY) {
+                bumpChangedListings(previous, snapshot);
+            }
+            log.info("Rebuilt restaurant catalog with {} restaurants in {} ms, version {}", rows.size(),
+                    elapsedMillis, snapshot.version);
+        }
+    }
+
+    /**
+     * Bumps the ETag version of every restaurant added, removed or changed
+     * between a snapshot and a rebuilt one, once the new snapshot is published.
+     */
+    private void bumpChangedListings(Snapshot before, Snapshot after) {
+        after.byId.forEach((id, row) -> {
+            if (!row.equals(before.get(id))) {
+                resourceVersionService.bumpRestaurant(id);
+            }
+        });
+        before.byId.keySet().stream()
+                .filter(id -> !before.patches.containsKey(id))
+                .filter(id -> !after.byId.containsKey(id))
+                .forEach(resourceVersionService::bumpRestaurant);
+        before.patches.forEach((id, row) -> {
+            if (row != null && !after.byId.containsKey(id)) {
+                resourceVersionService.bumpRestaurant(id);
+            }
+        });
+    }
+
+    /**
+     * Returns the version, size and rebuild timing of the current snapshot.
+     *
+     * @return the catalog statistics.
+     */
+    public ApiCatalogStatsDto getStats() {
+        Snapshot current = snapshot;
+        return ApiCatalogStatsDto.builder()
+                .version(current.version)
+                .size(current.size)
+                .located(current.located)
+                .patches(current.patches.size())
+                .lastRebuildAt(current.lastRebuildAt)
+                .lastRebuildMillis(current.lastRebuildMillis)
+                .build();
+    }
+
+    /**
+     * Returns the current snapshot, loading it on first use.
+     */
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == Snapshot.EMPTY) {
+            synchronized (writeLock) {
+                if (snapshot == Snapshot.EMPTY) {
+                    rebuild();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Immutable catalog state: the rows by ID, one sorted view per sort and
+     * the spatial index as of the last rebuild or fold, and the overlay of the
+     * rows patched since, by ID (null for a deleted restaurant), sorted and
+     * indexed the same way.
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0, Map.of(), emptySortedViews(), RestaurantSpatialIndex.EMPTY,
+                Map.of(), emptySortedViews(), RestaurantSpatialIndex.EMPTY, null, 0);
+
+        final long version;
+        final Map<Integer, RestaurantListingRow> byId;
+        final Map<RestaurantSort, List<RestaurantListingRow>> sorted;
+        final RestaurantSpatialIndex spatialIndex;
+        final Map<Integer, RestaurantListingRow> patches;
+        final Map<RestaurantSort, List<RestaurantListingRow>> patchedSorted;
+        final RestaurantSpatialIndex patchedIndex;
+        final Instant lastRebuildAt;
+        final long lastRebuildMillis;
+        final int size;
+        final int located;
+
+        private Snapshot(long version, Map<Integer, RestaurantListingRow> byId,
+                Map<RestaurantSort, List<RestaurantListingRow>> sorted, RestaurantSpatialIndex spatialIndex,
+                Map<Integer, RestaurantListingRow> patches,
+                Map<RestaurantSort, List<RestaurantListingRow>> patchedSorted, RestaurantSpatialIndex patchedIndex,
+                Instant lastRebuildAt, long lastRebuildMillis) {
+            this.version = version;
+            this.byId = byId;
+            this.sorted = sorted;
+            this.spatialIndex = spatialIndex;
+            this.patches = patches;
+            this.patchedSorted = patchedSorted;
+            this.patchedIndex = patchedIndex;
+            this.lastRebuildAt = lastRebuildAt;
+            this.lastRebuildMillis = lastRebuildMillis;
+
+            int size = byId.size();
+            int located = spatialIndex.size() + patchedIndex.size();
+            for (Map.Entry<Integer, RestaurantListingRow> patch : patches.entrySet()) {
+                RestaurantListingRow replaced = byId.get(patch.getKey());
+                size += (patch.getValue() != null ? 1 : 0) - (replaced != null ? 1 : 0);
+                located -= replaced != null && isLocated(replaced) ? 1 : 0;
+            }
+            this.size = size;
+            this.located = located;
+        }
+
+        static Snapshot of(long version, Collection<RestaurantListingRow> rows, Instant lastRebuildAt,
+                long lastRebuildMillis) {
+            Map<Integer, RestaurantListingRow> byId = new HashMap<>(rows.size() * 2);
+            rows.forEach(row -> byId.put(row.getId(), row));
+            return new Snapshot(version, Collections.unmodifiableMap(byId), sortedViews(byId.values()),
+                    new RestaurantSpatialIndex(byId.values()), Map.of(), emptySortedViews(),
+                    RestaurantSpatialIndex.EMPTY, lastRebuildAt, lastRebuildMillis);
+        }
+
+        /**
+         * Returns the listing of a restaurant, patched or not.
+         */
+        RestaurantListingRow get(int restaurantId) {
+            return patches.containsKey(restaurantId) ? patches.get(restaurantId) : byId.get(restaurantId);
+        }
+
+        /**
+         * Returns this snapshot with the listing of one restaurant replaced,
+         * or removed when the row is null. Only the overlay is rebuilt, unless
+         * it grows past maxPatches and is folded into the views.
+         */
+        Snapshot patch(int restaurantId, RestaurantListingRow row, int maxPatches) {
+            Map<Integer, RestaurantListingRow> patched = new HashMap<>(patches);
+            patched.put(restaurantId, row);
+            if (patched.size() > maxPatches) {
+                Map<Integer, RestaurantListingRow> rows = new HashMap<>(byId);
+                patched.forEach((id, listing) -> {
+                    if (listing == null) {
+                        rows.remove(id);
+                    } else {
+                        rows.put(id, listing);
+                    }
+                });
+                return of(version + 1, rows.values(), lastRebuildAt, lastRebuildMillis);
+            }
+
+            List<RestaurantListingRow> present = new ArrayList<>(patched.size());
+            patched.values().forEach(listing -> {
+                if (listing != null) {
+                    present.add(listing);
+                }
+            });
+            return new Snapshot(version + 1, byId, sorted, spatialIndex, Collections.unmodifiableMap(patched),
+                    sortedViews(present), new RestaurantSpatialIndex(present), lastRebuildAt, lastRebuildMillis);
+        }
+
+        private static boolean isLocated(RestaurantListingRow row) {
+            return row.getLatitude() != null && row.getLongitude() != null;
+        }
+
+        private static Map<RestaurantSort, List<RestaurantListingRow>> sortedViews(
+                Collection<RestaurantListingRow> rows) {
+            Map<RestaurantSort, List<RestaurantListingRow>> sorted = new EnumMap<>(RestaurantSort.class);
+            for (RestaurantSort sort : RestaurantSort.values()) {
+                List<RestaurantListingRow> view = new ArrayList<>(rows);
+                view.sort(sort.comparator());
+                sorted.put(sort, Collections.unmodifiableList(view));
+            }
+            return Collections.unmodifiableMap(sorted);
+        }
+
+        private static Map<RestaurantSort, List<RestaurantListingRow>> emptySortedViews() {
+            Map<RestaurantSort, List<RestaurantListingRow>> sorted = new EnumMap<>(RestaurantSort.class);
+            for (RestaurantSort sort : RestaurantSort.values()) {
+                sorted.put(sort, List.of());
+            }
+            return Collections.unmodifiableMap(sorted);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiRestaurantPurgeDto;
+import com.rocketFoodDelivery.rocketFood.models.RestaurantPurge;
+import com.rocketFoodDelivery.rocketFood.repository.AddressRepository;
+import com.rocketFoodDelivery.rocketFood.repository.OrderRepository;
+import com.rocketFoodDelivery.rocketFood.repository.ProductOrderRepository;
+import com.rocketFoodDelivery.rocketFood.repository.ProductRepository;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantPurgeRepository;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRepository;
+import com.rocketFoodDelivery.rocketFood.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for purging the data of soft-deleted restaurants.
+ * Deleting a restaurant only flips its active flag and records a pending
+ * purge; this job then removes its product orders, orders and products in
+ * bounded batches, each in its own short transaction, and finally deletes the
+ * restaurant row. Progress is stored after every batch.
+ */
+@Slf4j
+@Service
+public class RestaurantPurgeService {
+
+    private final RestaurantPurgeRepository restaurantPurgeRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final AddressRepository addressRepository;
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final ProductOrderRepository productOrderRepository;
+    private final RestaurantRatingService restaurantRatingService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public RestaurantPurgeService(RestaurantPurgeRepository restaurantPurgeRepository,
+            RestaurantRepository restaurantRepository, AddressRepository addressRepository,
+            UserRepository userRepository, ProductRepository productRepository, OrderRepository orderRepository,
+            ProductOrderRepository productOrderRepository, RestaurantRatingService restaurantRatingService,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.restaurant-purge.batch-size:1000}") int batchSize) {
+        this.restaurantPurgeRepository = restaurantPurgeRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.addressRepository = addressRepository;
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.productOrderRepository = productOrderRepository;
+        this.restaurantRatingService = restaurantRatingService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Records a pending purge for a restaurant, in the transaction that
+     * soft-deletes it.
+     *
+     * @param restaurantId the ID of the soft-deleted restaurant.
+     */
+    public void schedulePurge(int restaurantId) {
+        log.info("Scheduling purge of restaurant ID: {}", restaurantId);
+        restaurantPurgeRepository.save(RestaurantPurge.pending(restaurantId));
+    }
+
+    /**
+     * Returns the progress of the most recent purges.
+     *
+     * @return the purges, most recently requested first.
+     */
+    public List<ApiRestaurantPurgeDto> getPurges() {
+        return restaurantPurgeRepository.findTop50ByOrderByRequestedAtDesc().stream()
+                .map(this::mapToApiRestaurantPurgeDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Runs every unfinished purge on the configured interval. Purges that were
+     * interrupted by a restart are resumed, failed ones are retried.
+     */
+    @Scheduled(fixedDelayString = "${app.restaurant-purge.interval-ms:10000}")
+    public void purgePending() {
+        List<RestaurantPurge> purges = restaurantPurgeRepository.findByStatusInOrderByRequestedAtAsc(
+                EnumSet.of(RestaurantPurge.Status.PENDING, RestaurantPurge.Status.RUNNING,
+                        RestaurantPurge.Status.FAILED));
+        for (RestaurantPurge purge : purges) {
+            try {
+                purge(purge);
+            } catch (RuntimeException ex) {
+                log.error("Purge of restaurant ID {} failed: {}", purge.getRestaurantId(), ex.getMessage(), ex);
+                purge.setStatus(RestaurantPurge.Status.FAILED);
+                purge.setLastError(ex.getMessage());
+                purge.setUpdatedAt(Instant.now());
+                restaurantPurgeRepository.save(purge);
+            }
+        }
+    }
+
+    /**
+     * Purges one restaurant: first the product orders and orders of its orders,
+     * then the product orders still referencing its products, then its
+     * products, and finally the restaurant itself.
+     *
+     * @param purge the purge to run.
+     */
+    void purge(RestaurantPurge purge) {
+        int restaurantId = purge.getRestaurantId();
+        long start = System.currentTimeMillis();
+        log.info("Purging restaurant ID {} in batches of {}", restaurantId, batchSize);
+        purge.setStatus(RestaurantPurge.Status.RUNNING);
+        saveProgress(purge);
+
+        List<Integer> orderIds;
+        while (!(orderIds = orderRepository.findOrderIdBatchByRestaurantId(restaurantId, batchSize)).isEmpty()) {
+            List<Integer> batch = orderIds;
+            int[] deleted = transactionTemplate.execute(status -> new int[] {
+                    productOrderRepository.deleteProductOrdersByOrderIds(batch),
+                    orderRepository.deleteOrdersByIds(batch) });
+            purge.setProductOrdersDeleted(purge.getProductOrdersDeleted() + deleted[0]);
+            purge.setOrdersDeleted(purge.getOrdersDeleted() + deleted[1]);
+            saveProgress(purge);
+        }
+
+        int deleted;
+        while ((deleted = productOrderRepository.deleteProductOrderBatchByRestaurantId(restaurantId, batchSize)) > 0) {
+            purge.setProductOrdersDeleted(purge.getProductOrdersDeleted() + deleted);
+            saveProgress(purge);
+        }
+        while ((deleted = productRepository.deleteProductBatchByRestaurantId(restaurantId, batchSize)) > 0) {
+            purge.setProductsDeleted(purge.getProductsDeleted() + deleted);
+            saveProgress(purge);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            restaurantRepository.findById(restaurantId).ifPresent(restaurant -> {
+                userRepository.clearRestaurantId(restaurantId);
+                restaurantRepository.deleteRestaurantById(restaurantId);
+                addressRepository.deleteById(restaurant.getAddress().getId());
+            });
+            restaurantRatingService.remove(restaurantId);
+            purge.setStatus(RestaurantPurge.Status.COMPLETED);
+            purge.setLastError(null);
+            purge.setCompletedAt(Instant.now());
+            saveProgress(purge);
+        });
+        log.info("Purged restaurant ID {} in {} ms: {} product orders, {} orders, {} products", restaurantId,
+                System.currentTimeMillis() - start, purge.getProductOrdersDeleted(), purge.getOrdersDeleted(),
+                purge.getProductsDeleted());
+    }
+
+    private void saveProgress(RestaurantPurge purge) {
+        purge.setUpdatedAt(Instant.now());
+        restaurantPurgeRepository.save(purge);
+        log.debug("Purge of restaurant ID {}: {} product orders, {} orders, {} products deleted so far",
+                purge.getRestaurantId(), purge.getProductOrdersDeleted(), purge.getOrdersDeleted(),
+                purge.getProductsDeleted());
+    }
+
+    private ApiRestaurantPurgeDto mapToApiRestaurantPurgeDto(RestaurantPurge purge) {
+        return ApiRestaurantPurgeDto.builder()
+                .restaurantId(purge.getRestaurantId())
+                .status(purge.getStatus().name())
+                .productOrdersDeleted(purge.getProductOrdersDeleted())
+                .ordersDeleted(purge.getOrdersDeleted())
+                .productsDeleted(purge.getProductsDeleted())
+                .requestedAt(purge.getRequestedAt())
+                .updatedAt(purge.getUpdatedAt())
+                .completedAt(purge.getCompletedAt())
+                .lastError(purge.getLastError())
+                .build();
+    }
+}
@@ -0,0 +1,145 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.models.RestaurantRating;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRatingRepository;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRatingTotalsProjection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for maintaining the per-restaurant rating aggregates.
+ * Writes go through here in the same transaction as the order changes that
+ * cause them; a reconcile job repairs any drift against the orders table.
+ */
+@Slf4j
+@Service
+public class RestaurantRatingService {
+
+    private final RestaurantRatingRepository restaurantRatingRepository;
+    private final RestaurantCatalog restaurantCatalog;
+
+    /**
+     * Constructor for dependency injection of the RestaurantRatingRepository
+     * and RestaurantCatalog.
+     *
+     * @param restaurantRatingRepository the repository for rating aggregates.
+     * @param restaurantCatalog          the in-memory catalog serving restaurant reads.
+     */
+    public RestaurantRatingService(RestaurantRatingRepository restaurantRatingRepository,
+            RestaurantCatalog restaurantCatalog) {
+        this.restaurantRatingRepository = restaurantRatingRepository;
+        this.restaurantCatalog = restaurantCatalog;
+    }
+
+    /**
+     * Returns the current rating of a restaurant, or 0 if it has no aggregate.
+     *
+     * @param restaurantId the ID of the restaurant.
+     * @return the derived rating.
+     */
+    public int getRating(int restaurantId) {
+        return restaurantRatingRepository.findById(restaurantId)
+                .map(RestaurantRating::getRating)
+                .orElse(0);
+    }
+
+    /**
+     * Creates the empty aggregate of a newly created restaurant.
+     *
+     * @param restaurantId the ID of the restaurant.
+     */
+    @Transactional
+    public void initialize(int restaurantId) {
+        restaurantRatingRepository.save(RestaurantRating.empty(restaurantId));
+    }
+
+    /**
+     * Adds the rating of a newly placed order to its restaurant's aggregate.
+     * Most orders leave the rounded rating as it was; only when it changes
+     * are the catalog listing and the ETag of the restaurant refreshed,
+     * together, once the transaction commits.
+     *
+     * @param restaurantId the ID of the restaurant.
+     * @param rating       the restaurant_rating of the order.
+     */
+    @Transactional
+    public void recordOrderRating(int restaurantId, int rating) {
+        log.debug("Recording rating {} for restaurant ID: {}", rating, restaurantId);
+        restaurantRatingRepository.addRating(restaurantId, rating);
+        if (restaurantRatingRepository.deriveRatingIfChanged(restaurantId) > 0) {
+            restaurantCatalog.refreshAfterCommit(restaurantId);
+        }
+    }
+
+    /**
+     * Removes the aggregate of a deleted restaurant.
+     *
+     * @param restaurantId the ID of the restaurant.
+     */
+    @Transactional
+    public void remove(int restaurantId) {
+        if (restaurantRatingRepository.existsById(restaurantId)) {
+            restaurantRatingRepository.deleteById(restaurantId);
+        }
+    }
+
+    /**
+     * Backfills and repairs the aggregates once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    /**
+     * Periodically repairs the aggregates on the configured schedule.
+     */
+    @Scheduled(cron = "${app.ratings.reconcile-cron:0 0 3 * * *}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * Compares every aggregate with the orders table and resynchronizes the
+     * ones that are missing or have drifted. Each repair is a single statement,
+     * so the job never holds locks across restaurants.
+     *
+     * @return the number of aggregates that were repaired.
+     */
+    public int reconcile() {
+        long start = System.currentTimeMillis();
+        Map<Integer, RestaurantRating> current = restaurantRatingRepository.findAll().stream()
+                .collect(Collectors.toMap(RestaurantRating::getRestaurantId, Function.identity()));
+
+        int repaired = 0;
+        List<RestaurantRatingTotalsProjection> expectedRows = restaurantRatingRepository.aggregateRatingsFromOrders();
+        for (RestaurantRatingTotalsProjection row : expectedRows) {
+            int restaurantId = row.getRestaurantId();
+            long ratingSum = row.getRatingSum();
+            long ratingCount = row.getRatingCount();
+
+            RestaurantRating aggregate = current.get(restaurantId);
+            if (aggregate == null || aggregate.getRatingSum() != ratingSum
+                    || aggregate.getRatingCount() != ratingCount
+                    || aggregate.getRating() != RestaurantRating.deriveRating(ratingSum, ratingCount)) {
+                log.warn("Rating aggregate of restaurant ID {} drifted, resynchronizing", restaurantId);
+                restaurantRatingRepository.resyncFromOrders(restaurantId);
+                repaired++;
+            }
+        }
+
+        int orphans = restaurantRatingRepository.deleteOrphans();
+        log.info("Reconciled {} rating aggregates in {} ms: {} repaired, {} orphans removed",
+                expectedRows.size(), System.currentTimeMillis() - start, repaired, orphans);
+        return repaired;
+    }
+}
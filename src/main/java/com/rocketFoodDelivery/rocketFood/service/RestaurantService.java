@@ -2,70 +2,153 @@ package com.rocketFoodDelivery.rocketFood.service;
 
 import com.rocketFoodDelivery.rocketFood.dtos.ApiAddressDto;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiCreateRestaurantDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiPageDto;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiRestaurantDto;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ForbiddenException;
 import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
 import com.rocketFoodDelivery.rocketFood.exception.ValidationException;
 import com.rocketFoodDelivery.rocketFood.models.Address;
 import com.rocketFoodDelivery.rocketFood.models.Restaurant;
-import com.rocketFoodDelivery.rocketFood.models.Product;
 import com.rocketFoodDelivery.rocketFood.models.Employee;
 import com.rocketFoodDelivery.rocketFood.models.Customer;
 import com.rocketFoodDelivery.rocketFood.models.UserEntity;
 import com.rocketFoodDelivery.rocketFood.repository.AddressRepository;
+import com.rocketFoodDelivery.rocketFood.repository.AppMigrationRepository;
 import com.rocketFoodDelivery.rocketFood.repository.RestaurantRepository;
 import com.rocketFoodDelivery.rocketFood.repository.EmployeeRepository;
-import com.rocketFoodDelivery.rocketFood.repository.ProductRepository;
 import com.rocketFoodDelivery.rocketFood.repository.UserRepository;
 import com.rocketFoodDelivery.rocketFood.repository.CustomerRepository;
-import com.rocketFoodDelivery.rocketFood.repository.OrderRepository;
-import com.rocketFoodDelivery.rocketFood.repository.ProductOrderRepository;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantListingProjection;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantSort;
+import com.rocketFoodDelivery.rocketFood.util.KeysetCursor;
 
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import java.util.Arrays;
 
 @Slf4j
 @Service
 public class RestaurantService {
 
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    static final double DEFAULT_NEARBY_RADIUS_METERS = 5_000;
+    static final double MAX_NEARBY_RADIUS_METERS = 50_000;
+    static final String LEGACY_REACTIVATION = "reactivate-legacy-restaurants";
+
     private final RestaurantRepository restaurantRepository;
     private final AddressRepository addressRepository;
     private final UserRepository userRepository;
     private final EmployeeRepository employeeRepository;
-    private final ProductRepository productRepository;
     private final CustomerRepository customerRepository;
-    private final OrderRepository orderRepository;
-    private final ProductOrderRepository productOrderRepository;
+    private final RestaurantRatingService restaurantRatingService;
+    private final RestaurantPurgeService restaurantPurgeService;
+    private final RestaurantCatalog restaurantCatalog;
+    private final PostalCodeGeocoder postalCodeGeocoder;
+    private final SearchIndex searchIndex;
+    private final AppMigrationRepository appMigrationRepository;
+    private final boolean catalogEnabled;
 
     public RestaurantService(RestaurantRepository restaurantRepository, AddressRepository addressRepository,
-            UserRepository userRepository, EmployeeRepository employeeRepository, ProductRepository productRepository,
-            CustomerRepository customerRepository, OrderRepository orderRepository,
-            ProductOrderRepository productOrderRepository) {
+            UserRepository userRepository, EmployeeRepository employeeRepository,
+            CustomerRepository customerRepository, RestaurantRatingService restaurantRatingService,
+            RestaurantPurgeService restaurantPurgeService, RestaurantCatalog restaurantCatalog,
+            PostalCodeGeocoder postalCodeGeocoder, SearchIndex searchIndex,
+            AppMigrationRepository appMigrationRepository,
+            @Value("${app.catalog.enabled:true}") boolean catalogEnabled) {
         this.restaurantRepository = restaurantRepository;
         this.addressRepository = addressRepository;
         this.userRepository = userRepository;
         this.employeeRepository = employeeRepository;
-        this.productRepository = productRepository;
         this.customerRepository = customerRepository;
-        this.orderRepository = orderRepository;
-        this.productOrderRepository = productOrderRepository;
+        this.restaurantRatingService = restaurantRatingService;
+        this.restaurantPurgeService = restaurantPurgeService;
+        this.restaurantCatalog = restaurantCatalog;
+        this.postalCodeGeocoder = postalCodeGeocoder;
+        this.searchIndex = searchIndex;
+        this.appMigrationRepository = appMigrationRepository;
+        this.catalogEnabled = catalogEnabled;
+    }
+
+    /**
+     * Reactivates the restaurants that were saved with active = false before
+     * deletes became soft deletes, and reloads the in-memory catalog and
+     * search index if any were found. Runs on the first startup only: the
+     * migration is recorded in app_migrations once the UPDATE is done, so an
+     * interrupted run is simply repeated.
+     *
+     * @return the number of reactivated restaurants.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int reactivateLegacyRestaurants() {
+        if (appMigrationRepository.existsById(LEGACY_REACTIVATION)) {
+            return 0;
+        }
+        int reactivated = restaurantRepository.activateRestaurantsWithoutPurge();
+        appMigrationRepository.markApplied(LEGACY_REACTIVATION, Instant.now());
+        if (reactivated > 0) {
+            log.warn("Reactivated {} restaurants saved inactive before soft deletes", reactivated);
+            restaurantCatalog.rebuild();
+            searchIndex.rebuild();
+        }
+        return reactivated;
     }
 
+    /**
+     * Geocodes, once the application has started, the postal codes of the
+     * restaurant addresses saved without coordinates before nearby search
+     * existed, and reloads the in-memory catalog if any were located, so
+     * those restaurants are found by nearby searches too. Addresses whose
+     * postal code is unknown are left as they are.
+     *
+     * @return the number of addresses geocoded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int geocodeLegacyAddresses() {
+        List<Address> located = new ArrayList<>();
+        for (Address address : addressRepository.findRestaurantAddressesWithoutCoordinates()) {
+            postalCodeGeocoder.geocode(address.getPostalCode()).ifPresent(centroid -> {
+                address.setLatitude(centroid.getLatitude());
+                address.setLongitude(centroid.getLongitude());
+                located.add(address);
+            });
+        }
+        if (!located.isEmpty()) {
+            addressRepository.saveAll(located);
+            log.warn("Geocoded {} restaurant addresses saved without coordinates", located.size());
+            restaurantCatalog.rebuild();
+        }
+        return located.size();
+    }
+
+    /**
+     * Creates a restaurant owned by the user of the DTO.
+     *
+     * @param restaurantDto the restaurant to create.
+     * @param caller        the authenticated user; only employees may create a
+     *                      restaurant for another user.
+     * @throws ForbiddenException if the caller may not create it.
+     */
     @Transactional
-    public ApiRestaurantDto createRestaurant(@Valid ApiCreateRestaurantDto restaurantDto) {
+    public ApiRestaurantDto createRestaurant(@Valid ApiCreateRestaurantDto restaurantDto, UserEntity caller) {
         log.info("Validating restaurant data: {}", restaurantDto);
 
         if (restaurantDto.getAddress() == null) {
             log.error("Address is required");
             throw new ValidationException("Address is required");
         }
+        requireSelfOrEmployee(caller, restaurantDto.getUserId());
 
         UserEntity userEntity = userRepository.findById(restaurantDto.getUserId())
                 .orElseThrow(() -> new ValidationException("User not found"));
@@ -78,57 +161,170 @@ public class RestaurantService {
         Address savedAddress = addressRepository.save(address);
         restaurant.setAddress(savedAddress);
         Restaurant savedRestaurant = restaurantRepository.save(restaurant);
+        restaurantRatingService.initialize(savedRestaurant.getId());
+        restaurantCatalog.refreshAfterCommit(savedRestaurant.getId());
+        searchIndex.refreshRestaurantAfterCommit(savedRestaurant.getId());
 
         log.info("Converting saved entity to DTO: {}", savedRestaurant);
         return mapToApiRestaurantDto(savedRestaurant);
     }
 
-    public List<ApiRestaurantDto> getRestaurants(Integer rating, Integer priceRange) {
-        log.info("Fetching restaurants with rating: {} and price range: {}", rating, priceRange);
+    /**
+     * Returns one keyset-paginated page of restaurants.
+     *
+     * @param rating     optional rating filter.
+     * @param priceRange optional price range filter.
+     * @param sort       sort key (rating, price_range, name or id), prefixed with
+     *                   "-" for descending order; defaults to id.
+     * @param cursor     opaque cursor returned with the previous page, or null.
+     * @param limit      requested page size, capped at MAX_PAGE_SIZE.
+     * @return the page of restaurants and the cursor of the next page.
+     * @throws BadRequestException if the sort, cursor or limit is invalid.
+     */
+    public ApiPageDto<ApiRestaurantDto> getRestaurants(Integer rating, Integer priceRange, String sort,
+            String cursor, Integer limit) {
+        log.info("Fetching restaurants with rating: {}, price range: {}, sort: {}, limit: {}", rating, priceRange,
+                sort, limit);
+
+        String sortKey = sort == null || sort.isBlank() ? RestaurantSort.ID.getKey() : sort;
+        boolean descending = sortKey.startsWith("-");
+        RestaurantSort restaurantSort = RestaurantSort.fromKey(descending ? sortKey.substring(1) : sortKey);
+
+        if (limit != null && limit < 1) {
+            throw new BadRequestException("Limit must be at least 1");
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+
+        Object afterValue = null;
+        Integer afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor keysetCursor = KeysetCursor.decode(cursor, sortKey);
+            try {
+                afterValue = restaurantSort.parseValue(keysetCursor.getValue());
+            } catch (NumberFormatException ex) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            afterId = keysetCursor.getId();
+        }
+
+        // Fetch one extra row to know whether there is a next page
+        List<RestaurantListingProjection> listings = catalogEnabled
+                ? restaurantCatalog.findRestaurantListingPage(rating, priceRange, restaurantSort, descending,
+                        afterValue, afterId, pageSize + 1)
+                : restaurantRepository.findRestaurantListingPage(rating, priceRange, restaurantSort, descending,
+                        afterValue, afterId, pageSize + 1);
+        log.info("Retrieved {} restaurant listings", listings.size());
+
+        String nextCursor = null;
+        if (listings.size() > pageSize) {
+            listings = listings.subList(0, pageSize);
+            RestaurantListingProjection last = listings.get(pageSize - 1);
+            nextCursor = new KeysetCursor(sortKey, last.getId(), restaurantSort.extractValue(last)).encode();
+        }
 
-        List<Object[]> restaurantData = restaurantRepository.findRestaurantsByRatingAndPriceRange(rating, priceRange);
-        log.info("Retrieved restaurant data: {}",
-                restaurantData.stream().map(Arrays::toString).collect(Collectors.joining(", ")));
+        return ApiPageDto.<ApiRestaurantDto>builder()
+                .items(listings.stream().map(this::mapToApiRestaurantDto).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .limit(pageSize)
+                .build();
+    }
 
-        return restaurantData.stream()
-                .map(this::mapToApiRestaurantDtoFromData)
+    /**
+     * Returns the restaurants nearest to a location, nearest first, from the
+     * spatial index of the in-memory catalog. The location is either a
+     * latitude and longitude, or a postal code resolved to the centroid of
+     * its area.
+     *
+     * @param latitude     latitude of the location, with longitude.
+     * @param longitude    longitude of the location, with latitude.
+     * @param postalCode   postal code of the location, when no coordinates are given.
+     * @param radiusMeters search radius, defaults to 5 km and capped at 50 km.
+     * @param rating       optional rating filter.
+     * @param priceRange   optional price range filter.
+     * @param limit        requested number of restaurants, capped at MAX_PAGE_SIZE.
+     * @return the restaurants found, each with its distance.
+     * @throws BadRequestException if the location, radius or limit is invalid.
+     */
+    public List<ApiRestaurantDto> getNearbyRestaurants(Double latitude, Double longitude, String postalCode,
+            Double radiusMeters, Integer rating, Integer priceRange, Integer limit) {
+        if (latitude == null && longitude == null && postalCode != null && !postalCode.isBlank()) {
+            PostalCodeGeocoder.Coordinates centroid = postalCodeGeocoder.geocode(postalCode)
+                    .orElseThrow(() -> new BadRequestException("Unknown postal code " + postalCode));
+            latitude = centroid.getLatitude();
+            longitude = centroid.getLongitude();
+        }
+        if (latitude == null || longitude == null) {
+            throw new BadRequestException("Latitude and longitude, or a postal code, are required");
+        }
+        if (!isValidLocation(latitude, longitude)) {
+            throw new BadRequestException("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+        double radius = radiusMeters == null ? DEFAULT_NEARBY_RADIUS_METERS : radiusMeters;
+        if (!(radius > 0 && radius <= MAX_NEARBY_RADIUS_METERS)) {
+            throw new BadRequestException("Radius must be between 0 and " + (int) MAX_NEARBY_RADIUS_METERS
+                    + " meters");
+        }
+        if (limit != null && limit < 1) {
+            throw new BadRequestException("Limit must be at least 1");
+        }
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+
+        return restaurantCatalog.findNearby(latitude, longitude, radius, rating, priceRange, size).stream()
+                .map(match -> {
+                    ApiRestaurantDto restaurant = mapToApiRestaurantDto(match.getListing());
+                    restaurant.setDistanceMeters(match.getDistanceMeters());
+                    return restaurant;
+                })
                 .collect(Collectors.toList());
     }
 
     public ApiRestaurantDto getRestaurantById(Integer id) {
         log.info("Fetching restaurant by ID: {}", id);
 
-        Optional<Restaurant> optionalRestaurant = restaurantRepository.findById(id);
-        if (optionalRestaurant.isEmpty()) {
+        Optional<? extends RestaurantListingProjection> optionalListing = catalogEnabled
+                ? restaurantCatalog.find(id)
+                : restaurantRepository.findRestaurantListingById(id);
+        if (optionalListing.isEmpty()) {
             log.error("Restaurant with id {} not found", id);
             throw new ResourceNotFoundException("Restaurant with id " + id + " not found");
         }
 
-        Restaurant restaurant = optionalRestaurant.get();
-        log.info("Converting entity to DTO: {}", restaurant);
-        return mapToApiRestaurantDto(restaurant);
+        RestaurantListingProjection listing = optionalListing.get();
+        log.info("Converting listing to DTO: {}", listing.getId());
+        return mapToApiRestaurantDto(listing);
     }
 
+    /**
+     * Updates a restaurant.
+     *
+     * @param caller the authenticated user; only the owner of the restaurant or
+     *               an employee may update it, and only an employee may hand it
+     *               to another user.
+     * @throws ForbiddenException if the caller may not update it.
+     */
     @Transactional
-    public ApiRestaurantDto updateRestaurant(Integer id, @Valid ApiCreateRestaurantDto restaurantDto) {
+    public ApiRestaurantDto updateRestaurant(Integer id, @Valid ApiCreateRestaurantDto restaurantDto,
+            UserEntity caller) {
         log.info("Validating updated restaurant data: {}", restaurantDto);
 
         if (restaurantDto.getAddress() == null) {
             log.error("Address is required");
             throw new ValidationException("Address is required");
         }
+        requireSelfOrEmployee(caller, restaurantDto.getUserId());
 
         UserEntity userEntity = userRepository.findById(restaurantDto.getUserId())
                 .orElseThrow(() -> new ValidationException("User not found"));
 
         log.info("Fetching existing restaurant by ID: {}", id);
-        Optional<Restaurant> optionalRestaurant = restaurantRepository.findById(id);
+        Optional<Restaurant> optionalRestaurant = restaurantRepository.findById(id).filter(Restaurant::isActive);
         if (optionalRestaurant.isEmpty()) {
             log.error("Restaurant with id {} not found", id);
             throw new ResourceNotFoundException("Restaurant with id " + id + " not found");
         }
 
         Restaurant existingRestaurant = optionalRestaurant.get();
+        requireOwnerOrEmployee(caller, existingRestaurant);
         Address updatedAddress = mapToAddressEntity(restaurantDto.getAddress());
 
         log.info("Updating entity fields with DTO data: {}", restaurantDto);
@@ -142,54 +338,90 @@ public class RestaurantService {
         log.info("Saving updated restaurant entity: {}", existingRestaurant);
         addressRepository.save(updatedAddress);
         Restaurant updatedRestaurant = restaurantRepository.save(existingRestaurant);
+        restaurantCatalog.refreshAfterCommit(updatedRestaurant.getId());
+        searchIndex.refreshRestaurantAfterCommit(updatedRestaurant.getId());
 
         log.info("Converting updated entity to DTO: {}", updatedRestaurant);
         return mapToApiRestaurantDto(updatedRestaurant);
     }
 
+    /**
+     * Soft-deletes a restaurant.
+     *
+     * @param caller the authenticated user; only the owner of the restaurant or
+     *               an employee may delete it.
+     * @throws ForbiddenException if the caller may not delete it.
+     */
     @Transactional
-    public ApiRestaurantDto deleteRestaurant(Integer id) {
+    public ApiRestaurantDto deleteRestaurant(Integer id, UserEntity caller) {
         log.info("Fetching restaurant by ID: {}", id);
 
-        Optional<Restaurant> optionalRestaurant = restaurantRepository.findById(id);
+        Optional<Restaurant> optionalRestaurant = restaurantRepository.findById(id).filter(Restaurant::isActive);
         if (optionalRestaurant.isEmpty()) {
             log.error("Restaurant with id {} not found", id);
             throw new ResourceNotFoundException("Restaurant with id " + id + " not found");
         }
 
         Restaurant restaurant = optionalRestaurant.get();
+        requireOwnerOrEmployee(caller, restaurant);
 
-        // Delete related products first
-        List<Product> products = productRepository.findByRestaurantId(restaurant.getId());
-        for (Product product : products) {
-            productRepository.deleteById(product.getId());
+        // Soft-delete the restaurant so it disappears from reads at once; its
+        // products, orders and the row itself are purged in the background
+        log.info("Deactivating restaurant entity: {}", restaurant);
+        if (restaurantRepository.deactivateRestaurantById(restaurant.getId()) == 0) {
+            log.error("Restaurant with id {} is already deleted", id);
+            throw new ResourceNotFoundException("Restaurant with id " + id + " not found");
         }
-
-        // Delete related orders and product orders
-        orderRepository.findByRestaurantId(restaurant.getId()).forEach(order -> {
-            productOrderRepository.deleteProductOrdersByOrderId(order.getId());
-            orderRepository.deleteOrderById(order.getId());
-        });
-
-        // Now delete the restaurant
-        log.info("Deleting restaurant entity: {}", restaurant);
-        restaurantRepository.deleteRestaurantById(restaurant.getId());
-
-        // Directly delete the address as it should be unique to the restaurant
-        addressRepository.deleteById(restaurant.getAddress().getId());
+        restaurantPurgeService.schedulePurge(restaurant.getId());
+        restaurantCatalog.refreshAfterCommit(restaurant.getId());
+        searchIndex.refreshRestaurantAfterCommit(restaurant.getId());
 
         // Return the deleted restaurant details as DTO
         return mapToApiRestaurantDto(restaurant);
     }
 
+    private static void requireSelfOrEmployee(UserEntity caller, Integer userId) {
+        if (caller == null || (!caller.isEmployee() && !Integer.valueOf(caller.getId()).equals(userId))) {
+            throw new ForbiddenException("Restaurants can only be managed for your own user");
+        }
+    }
+
+    private static void requireOwnerOrEmployee(UserEntity caller, Restaurant restaurant) {
+        if (caller == null || (!caller.isEmployee()
+                && (restaurant.getUserEntity() == null || restaurant.getUserEntity().getId() != caller.getId()))) {
+            throw new ForbiddenException("Restaurant with id " + restaurant.getId() + " is not yours");
+        }
+    }
+
+    /**
+     * Maps an address DTO to an entity, geocoding its postal code when no
+     * coordinates are given.
+     *
+     * @throws ValidationException if only one coordinate is given, or one is out of range.
+     */
     private Address mapToAddressEntity(ApiAddressDto addressDto) {
+        Double latitude = addressDto.getLatitude();
+        Double longitude = addressDto.getLongitude();
+        if (latitude == null && longitude == null) {
+            Optional<PostalCodeGeocoder.Coordinates> centroid = postalCodeGeocoder.geocode(addressDto.getPostalCode());
+            latitude = centroid.map(PostalCodeGeocoder.Coordinates::getLatitude).orElse(null);
+            longitude = centroid.map(PostalCodeGeocoder.Coordinates::getLongitude).orElse(null);
+        } else if (latitude == null || longitude == null || !isValidLocation(latitude, longitude)) {
+            throw new ValidationException("Latitude and longitude must be given together and be in range");
+        }
         return Address.builder()
                 .streetAddress(addressDto.getStreetAddress())
                 .city(addressDto.getCity())
                 .postalCode(addressDto.getPostalCode())
+                .latitude(latitude)
+                .longitude(longitude)
                 .build();
     }
 
+    private static boolean isValidLocation(double latitude, double longitude) {
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+
     private Restaurant mapToRestaurantEntity(ApiCreateRestaurantDto restaurantDto, Address address,
             UserEntity userEntity) {
         return Restaurant.builder()
@@ -199,6 +431,7 @@ public class RestaurantService {
                 .priceRange(restaurantDto.getPriceRange())
                 .address(address)
                 .userEntity(userEntity)
+                .active(true)
                 .build();
     }
 
@@ -212,24 +445,28 @@ public class RestaurantService {
                 .build();
     }
 
-    private ApiRestaurantDto mapToApiRestaurantDtoFromData(Object[] data) {
-        log.info("Mapping restaurant data to DTO: {}", Arrays.toString(data));
-        Address address = addressRepository.findById((Integer) data[4]).orElse(null);
-        ApiRestaurantDto restaurantDto = ApiRestaurantDto.builder()
-                .id((Integer) data[0])
-                .name((String) data[1])
-                .priceRange((Integer) data[2])
-                .rating(((BigDecimal) data[3]).intValue())
-                .address(mapToApiAddressDto(address))
+    private ApiRestaurantDto mapToApiRestaurantDto(RestaurantListingProjection listing) {
+        ApiAddressDto addressDto = listing.getAddressId() == null ? null
+                : ApiAddressDto.builder()
+                        .id(listing.getAddressId())
+                        .streetAddress(listing.getStreetAddress())
+                        .city(listing.getCity())
+                        .postalCode(listing.getPostalCode())
+                        .latitude(listing.getLatitude())
+                        .longitude(listing.getLongitude())
+                        .build();
+        return ApiRestaurantDto.builder()
+                .id(listing.getId())
+                .name(listing.getName())
+                .priceRange(listing.getPriceRange())
+                .rating(listing.getRating())
+                .address(addressDto)
                 .build();
-        log.info("Mapped restaurant DTO: {}", restaurantDto);
-        return restaurantDto;
     }
 
     private int calculateRestaurantRating(Restaurant restaurant) {
         log.info("Calculating rating for restaurant: {}", restaurant.getId());
-        List<Object[]> ratingData = restaurantRepository.findRestaurantWithAverageRatingById(restaurant.getId());
-        int rating = ratingData.isEmpty() ? 0 : ((BigDecimal) ratingData.get(0)[3]).intValue();
+        int rating = restaurantRatingService.getRating(restaurant.getId());
         log.info("Calculated rating: {}", rating);
         return rating;
     }
@@ -243,6 +480,8 @@ public class RestaurantService {
                 .streetAddress(address.getStreetAddress())
                 .city(address.getCity())
                 .postalCode(address.getPostalCode())
+                .latitude(address.getLatitude())
+                .longitude(address.getLongitude())
                 .build();
         log.info("Mapped address DTO: {}", addressDto);
         return addressDto;
@@ -0,0 +1,232 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantListingRow;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Immutable KD-tree over the restaurant listings that have coordinates.
+ * Points are placed on the unit sphere, so the straight-line distance
+ * between two points orders them exactly like their great-circle distance,
+ * with no special case for the antimeridian or the poles. The tree is
+ * implicit: each subrange stores its median at its middle index, and the
+ * split axis cycles through x, y and z.
+ */
+public final class RestaurantSpatialIndex {
+
+    static final RestaurantSpatialIndex EMPTY = new RestaurantSpatialIndex(List.of());
+
+    private static final Comparator<Candidate> FARTHEST_FIRST = Comparator
+            .comparingDouble((Candidate candidate) -> candidate.squaredChord)
+            .thenComparingInt(candidate -> candidate.row.getId())
+            .reversed();
+
+    private final RestaurantListingRow[] rows;
+    private final double[][] coordinates;
+
+    /**
+     * Builds the tree over the listings that have both a latitude and a
+     * longitude, in O(n log n).
+     *
+     * @param listings the listings to index.
+     */
+    RestaurantSpatialIndex(Collection<RestaurantListingRow> listings) {
+        List<RestaurantListingRow> located = new ArrayList<>(listings.size());
+        for (RestaurantListingRow listing : listings) {
+            if (listing.getLatitude() != null && listing.getLongitude() != null) {
+                located.add(listing);
+            }
+        }
+        rows = located.toArray(new RestaurantListingRow[0]);
+        coordinates = new double[3][rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            double[] point = toUnitVector(rows[i].getLatitude(), rows[i].getLongitude());
+            for (int axis = 0; axis < 3; axis++) {
+                coordinates[axis][i] = point[axis];
+            }
+        }
+        build(0, rows.length, 0);
+    }
+
+    /**
+     * Returns the number of indexed listings.
+     *
+     * @return the number of listings with coordinates.
+     */
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * Finds the listings nearest to a point, within a radius, that match a
+     * filter, nearest first.
+     *
+     * @param latitude     the latitude of the point.
+     * @param longitude    the longitude of the point.
+     * @param radiusMeters the search radius.
+     * @param filter       the condition listings must meet.
+     * @param limit        the maximum number of listings to return.
+     * @return the matches, nearest first, ties broken by ID.
+     */
+    public List<Match> findNearest(double latitude, double longitude, double radiusMeters,
+            Predicate<RestaurantListingRow> filter, int limit) {
+        double angle = Math.min(Math.PI, radiusMeters / CourierLocationService.EARTH_RADIUS_METERS);
+        double chord = 2 * Math.sin(angle / 2);
+        Search search = new Search(toUnitVector(latitude, longitude), chord * chord, filter, limit);
+        search.visit(0, rows.length, 0);
+
+        List<Candidate> found = new ArrayList<>(search.best);
+        found.sort(FARTHEST_FIRST.reversed());
+        List<Match> matches = new ArrayList<>(found.size());
+        for (Candidate candidate : found) {
+            double distance = 2 * CourierLocationService.EARTH_RADIUS_METERS
+                    * Math.asin(Math.min(1, Math.sqrt(candidate.squaredChord) / 2));
+            matches.add(new Match(candidate.row, distance));
+        }
+        return matches;
+    }
+
+    private void build(int from, int to, int axis) {
+        if (to - from <= 1) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        select(from, to - 1, middle, coordinates[axis]);
+        int next = (axis + 1) % 3;
+        build(from, middle, next);
+        build(middle + 1, to, next);
+    }
+
+    /**
+     * Moves the k-th smallest value of the range on the axis to index k, with
+     * smaller or equal values before it and greater or equal values after.
+     */
+    private void select(int left, int right, int k, double[] values) {
+        while (left < right) {
+            double pivot = values[k];
+            int i = left;
+            int j = right;
+            do {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (pivot < values[j]) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            } while (i <= j);
+            if (j < k) {
+                left = i;
+            }
+            if (k < i) {
+                right = j;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        RestaurantListingRow row = rows[i];
+        rows[i] = rows[j];
+        rows[j] = row;
+        for (double[] values : coordinates) {
+            double value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    private static double[] toUnitVector(double latitude, double longitude) {
+        double phi = Math.toRadians(latitude);
+        double lambda = Math.toRadians(longitude);
+        double cos = Math.cos(phi);
+        return new double[] { cos * Math.cos(lambda), cos * Math.sin(lambda), Math.sin(phi) };
+    }
+
+    /**
+     * State of one nearest-neighbour search: the best candidates so far in a
+     * bounded max-heap, so the farthest one can be evicted.
+     */
+    private final class Search {
+
+        final double[] point;
+        final double maxSquaredChord;
+        final Predicate<RestaurantListingRow> filter;
+        final int limit;
+        final PriorityQueue<Candidate> best;
+
+        Search(double[] point, double maxSquaredChord, Predicate<RestaurantListingRow> filter, int limit) {
+            this.point = point;
+            this.maxSquaredChord = maxSquaredChord;
+            this.filter = filter;
+            this.limit = limit;
+            this.best = new PriorityQueue<>(limit + 1, FARTHEST_FIRST);
+        }
+
+        void visit(int from, int to, int axis) {
+            if (from >= to) {
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            double squaredChord = 0;
+            for (int i = 0; i < 3; i++) {
+                double delta = point[i] - coordinates[i][middle];
+                squaredChord += delta * delta;
+            }
+            if (squaredChord <= bound() && filter.test(rows[middle])) {
+                best.add(new Candidate(rows[middle], squaredChord));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+
+            double delta = point[axis] - coordinates[axis][middle];
+            int next = (axis + 1) % 3;
+            if (delta < 0) {
+                visit(from, middle, next);
+                if (delta * delta <= bound()) {
+                    visit(middle + 1, to, next);
+                }
+            } else {
+                visit(middle + 1, to, next);
+                if (delta * delta <= bound()) {
+                    visit(from, middle, next);
+                }
+            }
+        }
+
+        // Once the heap is full, only points nearer than its farthest one can qualify
+        double bound() {
+            return best.size() < limit ? maxSquaredChord : best.peek().squaredChord;
+        }
+    }
+
+    private static final class Candidate {
+
+        final RestaurantListingRow row;
+        final double squaredChord;
+
+        Candidate(RestaurantListingRow row, double squaredChord) {
+            this.row = row;
+            this.squaredChord = squaredChord;
+        }
+    }
+
+    /**
+     * A listing found by a search, with its distance to the searched point.
+     */
+    @Value
+    public static class Match {
+        RestaurantListingRow listing;
+        double distanceMeters;
+    }
+}
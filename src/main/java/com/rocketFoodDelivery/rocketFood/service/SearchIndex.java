@@ -0,0 +1,546 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiPageDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiSearchResultDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiSearchStatsDto;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.repository.ProductRepository;
+import com.rocketFoodDelivery.rocketFood.repository.ProductSearchProjection;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantListingProjection;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantListingRow;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRepository;
+import com.rocketFoodDelivery.rocketFood.util.KeysetCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-process inverted index over restaurant names and product names and
+ * descriptions. Text is folded to lower case without accents and split into
+ * terms; each term is also indexed by its trigrams, so a misspelled query
+ * term still finds the terms that share most of its trigrams. Results are
+ * ranked by the idf-weighted sum of the best match of each query term, a
+ * match in a name counting three times one in a description.
+ * Restaurant writes reindex the restaurant and its products once their
+ * transaction commits, and a periodic rebuild picks up everything else.
+ */
+@Slf4j
+@Component
+public class SearchIndex {
+
+    static final int MAX_QUERY_LENGTH = 200;
+    static final int MAX_QUERY_TERMS = 8;
+    static final int MIN_TERM_LENGTH = 2;
+    static final int MAX_TERM_LENGTH = 32;
+    static final float NAME_WEIGHT = 3;
+    static final float DESCRIPTION_WEIGHT = 1;
+    static final double MIN_SIMILARITY = 0.5;
+    static final double FUZZY_PENALTY = 0.8;
+    static final int MAX_FUZZY_TERMS = 10;
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble((Hit hit) -> hit.score).reversed()
+            .thenComparingInt(hit -> hit.document.type.ordinal())
+            .thenComparingInt(hit -> hit.document.id);
+
+    private final RestaurantRepository restaurantRepository;
+    private final ProductRepository productRepository;
+    // Serializes rebuilds and refreshes; searches only take the read lock
+    private final Object writeLock = new Object();
+    private final ReentrantReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private final LongAdder queries = new LongAdder();
+
+    private Index index = new Index();
+    private volatile boolean loaded;
+    private volatile Instant lastRebuildAt;
+    private volatile long lastRebuildMillis;
+
+    /**
+     * Constructor for dependency injection of the RestaurantRepository and
+     * ProductRepository.
+     *
+     * @param restaurantRepository the repository for restaurants.
+     * @param productRepository    the repository for products.
+     */
+    public SearchIndex(RestaurantRepository restaurantRepository, ProductRepository productRepository) {
+        this.restaurantRepository = restaurantRepository;
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Returns one page of the restaurants and products matching a query,
+     * best first.
+     *
+     * @param query  the words to search for.
+     * @param type   optional filter, "restaurant" or "product".
+     * @param cursor opaque cursor returned with the previous page, or null.
+     * @param limit  requested page size, capped at MAX_PAGE_SIZE.
+     * @return the page of results and the cursor of the next page.
+     * @throws BadRequestException if the query, type, cursor or limit is invalid.
+     */
+    public ApiPageDto<ApiSearchResultDto> search(String query, String type, String cursor, Integer limit) {
+        if (query == null || query.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException("Query is required and at most " + MAX_QUERY_LENGTH + " characters long");
+        }
+        List<String> terms = tokenize(query).stream().distinct().limit(MAX_QUERY_TERMS)
+                .collect(Collectors.toList());
+        if (terms.isEmpty()) {
+            throw new BadRequestException("Query must contain a word of at least " + MIN_TERM_LENGTH + " characters");
+        }
+        DocumentType filter = type == null || type.isBlank() ? null : DocumentType.fromKey(type);
+        if (limit != null && limit < 1) {
+            throw new BadRequestException("Limit must be at least 1");
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+
+        // The cursor is bound to the query, and seeks past the (score, type, id) of the last result
+        String sortKey = "search-" + Integer.toHexString(String.join(" ", terms).hashCode())
+                + (filter == null ? "" : "-" + filter.key);
+        Hit after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            after = decodeCursor(KeysetCursor.decode(cursor, sortKey));
+        }
+
+        ensureLoaded();
+        queries.increment();
+        indexLock.readLock().lock();
+        try {
+            Map<Document, Double> scores = score(terms, filter);
+            List<Hit> hits = new ArrayList<>();
+            for (Map.Entry<Document, Double> entry : scores.entrySet()) {
+                Hit hit = new Hit(entry.getKey(), entry.getValue());
+                if (after == null || RANKING.compare(hit, after) > 0) {
+                    hits.add(hit);
+                }
+            }
+            hits.sort(RANKING);
+
+            String nextCursor = null;
+            if (hits.size() > pageSize) {
+                hits = hits.subList(0, pageSize);
+                Hit last = hits.get(pageSize - 1);
+                nextCursor = new KeysetCursor(sortKey, last.document.id,
+                        last.score + "," + last.document.type.ordinal()).encode();
+            }
+            return ApiPageDto.<ApiSearchResultDto>builder()
+                    .items(hits.stream().map(this::toDto).collect(Collectors.toList()))
+                    .nextCursor(nextCursor)
+                    .limit(pageSize)
+                    .build();
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reindexes a restaurant and its products once the current transaction
+     * commits, or immediately when no transaction is active. Nothing happens
+     * if the transaction rolls back.
+     *
+     * @param restaurantId the ID of the created, updated or deleted restaurant.
+     */
+    public void refreshRestaurantAfterCommit(int restaurantId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshRestaurant(restaurantId);
+                }
+            });
+        } else {
+            refreshRestaurant(restaurantId);
+        }
+    }
+
+    /**
+     * Re-reads a restaurant and its products and replaces their documents,
+     * removing them if the restaurant no longer exists or is inactive.
+     *
+     * @param restaurantId the ID of the restaurant.
+     */
+    public void refreshRestaurant(int restaurantId) {
+        synchronized (writeLock) {
+            if (!loaded) {
+                rebuild();
+                return;
+            }
+            Optional<RestaurantListingProjection> listing = restaurantRepository.findRestaurantListingById(restaurantId);
+            List<Document> documents = new ArrayList<>();
+            listing.ifPresent(restaurant -> {
+                documents.add(Document.restaurant(restaurant.getId(), restaurant.getName()));
+                productRepository.findSearchableProductsByRestaurantId(restaurantId)
+                        .forEach(product -> documents.add(Document.product(product)));
+            });
+
+            indexLock.writeLock().lock();
+            try {
+                index.removeRestaurant(restaurantId);
+                documents.forEach(index::add);
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+            log.debug("Reindexed restaurant ID {} with {} documents", restaurantId, documents.size());
+        }
+    }
+
+    /**
+     * Rebuilds the whole index from the database on the configured interval,
+     * which also picks up products changed outside the API.
+     */
+    @Scheduled(fixedDelayString = "${app.search.rebuild-interval-ms:300000}",
+            initialDelayString = "${app.search.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        synchronized (writeLock) {
+            long start = System.nanoTime();
+            Index fresh = new Index();
+            for (RestaurantListingRow restaurant : restaurantRepository.findAllRestaurantListings()) {
+                fresh.add(Document.restaurant(restaurant.getId(), restaurant.getName()));
+            }
+            for (ProductSearchProjection product : productRepository.findSearchableProducts()) {
+                if (fresh.documents.containsKey(Document.key(DocumentType.RESTAURANT, product.getRestaurantId()))) {
+                    fresh.add(Document.product(product));
+                }
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            indexLock.writeLock().lock();
+            try {
+                index = fresh;
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+            loaded = true;
+            lastRebuildAt = Instant.now();
+            lastRebuildMillis = elapsedMillis;
+            log.info("Rebuilt search index with {} restaurants and {} products in {} ms", fresh.restaurants,
+                    fresh.products, elapsedMillis);
+        }
+    }
+
+    /**
+     * Returns the size, query count and rebuild timing of the index.
+     *
+     * @return the index statistics.
+     */
+    public ApiSearchStatsDto getStats() {
+        indexLock.readLock().lock();
+        try {
+            return ApiSearchStatsDto.builder()
+                    .restaurants(index.restaurants)
+                    .products(index.products)
+                    .terms(index.postings.size())
+                    .trigrams(index.trigrams.size())
+                    .postings(index.postingCount)
+                    .queries(queries.sum())
+                    .lastRebuildAt(lastRebuildAt)
+                    .lastRebuildMillis(lastRebuildMillis)
+                    .build();
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Folds text to lower case without accents and splits it into terms of
+     * MIN_TERM_LENGTH characters or more.
+     *
+     * @param text the text to split.
+     * @return the terms, in order, with repetitions.
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String term : SEPARATORS.split(folded)) {
+            if (term.length() >= MIN_TERM_LENGTH) {
+                terms.add(term.length() > MAX_TERM_LENGTH ? term.substring(0, MAX_TERM_LENGTH) : term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Returns the distinct trigrams of a term padded with one boundary
+     * marker on each side, so short terms still have trigrams and matches at
+     * the start and end of a word count.
+     */
+    static Set<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Scores every document matching at least one query term: for each term,
+     * the best of its exact and fuzzy matches in the document, summed over
+     * the terms. Must be called with the read lock held.
+     */
+    private Map<Document, Double> score(List<String> terms, DocumentType filter) {
+        Map<Document, Double> scores = new HashMap<>();
+        int documentCount = index.documents.size();
+        for (String term : terms) {
+            Map<Document, Double> best = new HashMap<>();
+            expand(term).forEach((candidate, similarity) -> {
+                Map<Document, Float> postings = index.postings.get(candidate);
+                double idf = Math.log(1 + (double) documentCount / postings.size());
+                postings.forEach((document, weight) -> {
+                    if (filter == null || document.type == filter) {
+                        best.merge(document, similarity * idf * weight, Math::max);
+                    }
+                });
+            });
+            best.forEach((document, score) -> scores.merge(document, score, Double::sum));
+        }
+        return scores;
+    }
+
+    /**
+     * Returns the indexed terms a query term matches, with their similarity:
+     * 1 for the term itself, and a penalized Dice coefficient over trigrams
+     * for the most similar other terms. Must be called with the read lock held.
+     */
+    private Map<String, Double> expand(String term) {
+        Map<String, Double> matches = new HashMap<>();
+        if (index.postings.containsKey(term)) {
+            matches.put(term, 1.0);
+        }
+        if (term.length() < 3) {
+            return matches;
+        }
+        Set<String> termTrigrams = trigrams(term);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : termTrigrams) {
+            Set<String> candidates = index.trigrams.get(trigram);
+            if (candidates != null) {
+                candidates.forEach(candidate -> shared.merge(candidate, 1, Integer::sum));
+            }
+        }
+        shared.entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(term))
+                .map(entry -> Map.entry(entry.getKey(),
+                        2.0 * entry.getValue() / (termTrigrams.size() + trigrams(entry.getKey()).size())))
+                .filter(entry -> entry.getValue() >= MIN_SIMILARITY)
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(MAX_FUZZY_TERMS)
+                .forEach(entry -> matches.put(entry.getKey(), entry.getValue() * FUZZY_PENALTY));
+        return matches;
+    }
+
+    private ApiSearchResultDto toDto(Hit hit) {
+        Document document = hit.document;
+        Document restaurant = index.documents.get(Document.key(DocumentType.RESTAURANT, document.restaurantId));
+        return ApiSearchResultDto.builder()
+                .type(document.type.key)
+                .id(document.id)
+                .restaurantId(document.restaurantId)
+                .restaurantName(restaurant == null ? null : restaurant.name)
+                .name(document.name)
+                .description(document.description)
+                .score(hit.score)
+                .build();
+    }
+
+    private static Hit decodeCursor(KeysetCursor cursor) {
+        try {
+            String[] parts = cursor.getValue().split(",", 2);
+            DocumentType type = DocumentType.values()[Integer.parseInt(parts[1])];
+            return new Hit(new Document(type, cursor.getId(), 0, null, null, Map.of()),
+                    Double.parseDouble(parts[0]));
+        } catch (RuntimeException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Loads the index on first use.
+     */
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (writeLock) {
+                if (!loaded) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    /**
+     * Kinds of indexed documents.
+     */
+    enum DocumentType {
+        RESTAURANT("restaurant"),
+        PRODUCT("product");
+
+        final String key;
+
+        DocumentType(String key) {
+            this.key = key;
+        }
+
+        static DocumentType fromKey(String key) {
+            for (DocumentType type : values()) {
+                if (type.key.equalsIgnoreCase(key)) {
+                    return type;
+                }
+            }
+            throw new BadRequestException("Type must be restaurant or product");
+        }
+    }
+
+    /**
+     * An indexed restaurant or product, with the weight of each of its terms.
+     * Compared by identity, as the postings key.
+     */
+    private static final class Document {
+
+        final DocumentType type;
+        final int id;
+        final int restaurantId;
+        final String name;
+        final String description;
+        final Map<String, Float> weights;
+
+        Document(DocumentType type, int id, int restaurantId, String name, String description,
+                Map<String, Float> weights) {
+            this.type = type;
+            this.id = id;
+            this.restaurantId = restaurantId;
+            this.name = name;
+            this.description = description;
+            this.weights = weights;
+        }
+
+        static Document restaurant(int id, String name) {
+            return new Document(DocumentType.RESTAURANT, id, id, name, null, weigh(name, null));
+        }
+
+        static Document product(ProductSearchProjection product) {
+            return new Document(DocumentType.PRODUCT, product.getId(), product.getRestaurantId(), product.getName(),
+                    product.getDescription(), weigh(product.getName(), product.getDescription()));
+        }
+
+        static long key(DocumentType type, int id) {
+            return ((long) type.ordinal() << 32) | (id & 0xFFFFFFFFL);
+        }
+
+        long key() {
+            return key(type, id);
+        }
+
+        private static Map<String, Float> weigh(String name, String description) {
+            Map<String, Float> weights = new HashMap<>();
+            tokenize(name).forEach(term -> weights.merge(term, NAME_WEIGHT, Float::sum));
+            tokenize(description).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Float::sum));
+            return weights;
+        }
+    }
+
+    /**
+     * A scored document.
+     */
+    private static final class Hit {
+
+        final Document document;
+        final double score;
+
+        Hit(Document document, double score) {
+            this.document = document;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Mutable index state, guarded by indexLock.
+     */
+    private static final class Index {
+
+        final Map<Long, Document> documents = new HashMap<>();
+        final Map<Integer, List<Document>> byRestaurant = new HashMap<>();
+        final Map<String, Map<Document, Float>> postings = new HashMap<>();
+        final Map<String, Set<String>> trigrams = new HashMap<>();
+        int restaurants;
+        int products;
+        long postingCount;
+
+        void add(Document document) {
+            documents.put(document.key(), document);
+            byRestaurant.computeIfAbsent(document.restaurantId, id -> new ArrayList<>()).add(document);
+            document.weights.forEach((term, weight) -> {
+                Map<Document, Float> termPostings = postings.get(term);
+                if (termPostings == null) {
+                    termPostings = new HashMap<>();
+                    postings.put(term, termPostings);
+                    for (String trigram : trigrams(term)) {
+                        trigrams.computeIfAbsent(trigram, key -> new HashSet<>()).add(term);
+                    }
+                }
+                termPostings.put(document, weight);
+                postingCount++;
+            });
+            if (document.type == DocumentType.RESTAURANT) {
+                restaurants++;
+            } else {
+                products++;
+            }
+        }
+
+        void removeRestaurant(int restaurantId) {
+            List<Document> removed = byRestaurant.remove(restaurantId);
+            if (removed == null) {
+                return;
+            }
+            for (Document document : removed) {
+                documents.remove(document.key());
+                for (String term : document.weights.keySet()) {
+                    Map<Document, Float> termPostings = postings.get(term);
+                    termPostings.remove(document);
+                    postingCount--;
+                    if (termPostings.isEmpty()) {
+                        postings.remove(term);
+                        for (String trigram : trigrams(term)) {
+                            Set<String> terms = trigrams.get(trigram);
+                            terms.remove(term);
+                            if (terms.isEmpty()) {
+                                trigrams.remove(trigram);
+                            }
+                        }
+                    }
+                }
+                if (document.type == DocumentType.RESTAURANT) {
+                    restaurants--;
+                } else {
+                    products--;
+                }
+            }
+        }
+    }
+}
@@ -2,8 +2,12 @@ package com.rocketFoodDelivery.rocketFood.service;
 
 import com.rocketFoodDelivery.rocketFood.models.Employee;
 import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.repository.CourierRepository;
+import com.rocketFoodDelivery.rocketFood.repository.CustomerRepository;
 import com.rocketFoodDelivery.rocketFood.repository.EmployeeRepository;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRepository;
 import com.rocketFoodDelivery.rocketFood.repository.UserRepository;
+import com.rocketFoodDelivery.rocketFood.security.CachedUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -17,27 +21,55 @@ import java.util.Optional;
 public class UserService {
     private final UserRepository userRepository;
     private final EmployeeRepository employeeRepository;
+    private final CustomerRepository customerRepository;
+    private final CourierRepository courierRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final CachedUserDetailsService userDetailsService;
 
     /**
      * Constructor for dependency injection of UserRepository and EmployeeRepository.
      * 
      * @param userRepository the repository for users.
      * @param employeeRepository the repository for employees.
+     * @param customerRepository the repository for customers.
+     * @param courierRepository the repository for couriers.
+     * @param restaurantRepository the repository for restaurants.
+     * @param userDetailsService the login user lookup, whose cache is evicted on changes.
      */
     @Autowired
-    public UserService(UserRepository userRepository, EmployeeRepository employeeRepository) {
+    public UserService(UserRepository userRepository, EmployeeRepository employeeRepository,
+            CustomerRepository customerRepository, CourierRepository courierRepository,
+            RestaurantRepository restaurantRepository, CachedUserDetailsService userDetailsService) {
         this.userRepository = userRepository;
         this.employeeRepository = employeeRepository;
+        this.customerRepository = customerRepository;
+        this.courierRepository = courierRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.userDetailsService = userDetailsService;
     }
 
     /**
-     * Populates the employee status in a UserEntity.
+     * Populates what the roles of a UserEntity are derived from, as put in its
+     * access tokens: the employee flag, the customer and courier IDs, and the
+     * restaurant owner flag. The links live on the employees, customers,
+     * courier and restaurants rows (user_id), so a customer or courier ID
+     * missing from the user row is looked up there.
      * 
      * @param userEntity the user entity to update.
      */
-    public void populateEmployeeStatus(UserEntity userEntity) {
-        Optional<Employee> employee = employeeRepository.findByUserEntityId(userEntity.getId());
+    public void populateRoles(UserEntity userEntity) {
+        int userId = userEntity.getId();
+        Optional<Employee> employee = employeeRepository.findByUserEntityId(userId);
         userEntity.setEmployee(employee.isPresent());
+        if (userEntity.getCustomerId() == null) {
+            customerRepository.findByUserEntityId(userId)
+                    .ifPresent(customer -> userEntity.setCustomerId(customer.getId()));
+        }
+        if (userEntity.getCourierId() == null) {
+            courierRepository.findByUserEntityId(userId)
+                    .ifPresent(courier -> userEntity.setCourierId(courier.getId()));
+        }
+        userEntity.setRestaurantOwner(!restaurantRepository.findActiveRestaurantIdsByUserId(userId).isEmpty());
     }
 
     /**
@@ -80,7 +112,9 @@ public class UserService {
      * @return the saved user entity.
      */
     public UserEntity saveUser(UserEntity user) {
-        return userRepository.save(user);
+        UserEntity saved = userRepository.save(user);
+        userDetailsService.evict(saved.getId());
+        return saved;
     }
 
     /**
@@ -90,5 +124,6 @@ public class UserService {
      */
     public void delete(int id) {
         userRepository.deleteById(id);
+        userDetailsService.evict(id);
     }
 }
@@ -0,0 +1,53 @@
+package com.rocketFoodDelivery.rocketFood.util;
+
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for keyset pagination.
+ * It carries the sort key, the sort value of the last row of a page and that
+ * row's ID, so the next page can continue with a seek instead of an OFFSET.
+ */
+@Value
+public class KeysetCursor {
+
+    private static final String SEPARATOR = ":";
+
+    String sort; // The sort key the cursor was issued for
+    int id; // The ID of the last row of the previous page
+    String value; // The sort value of the last row of the previous page
+
+    /**
+     * Encodes the cursor into an URL-safe token.
+     *
+     * @return the opaque cursor token.
+     */
+    public String encode() {
+        String raw = sort + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor token and checks that it was issued for the given sort.
+     *
+     * @param token        the opaque cursor token.
+     * @param expectedSort the sort key of the current request.
+     * @return the decoded cursor.
+     * @throws BadRequestException if the token is malformed or belongs to another sort.
+     */
+    public static KeysetCursor decode(String token, String expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 3);
+            if (parts.length != 3 || !parts[0].equals(expectedSort)) {
+                throw new BadRequestException("Cursor does not match the requested sort");
+            }
+            return new KeysetCursor(parts[0], Integer.parseInt(parts[1]), parts[2]);
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
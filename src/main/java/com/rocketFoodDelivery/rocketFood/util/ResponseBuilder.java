@@ -2,6 +2,7 @@ package com.rocketFoodDelivery.rocketFood.util;
 
 import com.rocketFoodDelivery.rocketFood.dtos.*;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -32,6 +33,99 @@ public class ResponseBuilder {
         return ResponseEntity.status(status).body(response);
     }
 
+    /**
+     * Builds a response carrying an ETag header, for read endpoints that
+     * support conditional requests.
+     *
+     * @param message the response message.
+     * @param data    the response data.
+     * @param status  the HTTP status.
+     * @param eTag    the quoted ETag of the data.
+     * @return the response entity.
+     */
+    public static ResponseEntity<ApiResponseDto> buildResponse(String message, Object data, HttpStatus status,
+            String eTag) {
+        ApiResponseDto response = ApiResponseDto.builder()
+                .message(message)
+                .data(data)
+                .build();
+        log.info("Building response with status {} and ETag {}", status, eTag);
+        return ResponseEntity.status(status).eTag(eTag).body(response);
+    }
+
+    /**
+     * Builds an empty 304 Not Modified response.
+     *
+     * @param eTag the quoted ETag the client already holds.
+     * @return the response entity.
+     */
+    public static ResponseEntity<ApiResponseDto> buildNotModifiedResponse(String eTag) {
+        log.debug("Building not modified response for ETag {}", eTag);
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+
+    /**
+     * Checks whether an If-None-Match header matches the current ETag of a
+     * resource that always exists, such as a collection.
+     * Read endpoints call this before loading any data, and answer with
+     * buildNotModifiedResponse when it returns true.
+     *
+     * @param ifNoneMatch the If-None-Match request header, may be null.
+     * @param eTag        the current quoted ETag.
+     * @return true if the client's copy is still current.
+     */
+    public static boolean isNotModified(String ifNoneMatch, String eTag) {
+        return isNotModified(ifNoneMatch, eTag, true);
+    }
+
+    /**
+     * Checks whether an If-None-Match header matches the current ETag.
+     * The "*" wildcard only matches a resource known to exist, so endpoints
+     * of resources that may not exist check the tags alone before loading,
+     * and the wildcard once the resource is found.
+     *
+     * @param ifNoneMatch the If-None-Match request header, may be null.
+     * @param eTag        the current quoted ETag.
+     * @param exists      whether the resource is known to exist.
+     * @return true if the client's copy is still current.
+     */
+    public static boolean isNotModified(String ifNoneMatch, String eTag, boolean exists) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ((exists && tag.equals("*")) || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds an error response with a Retry-After header, for requests the
+     * client may repeat once the server has caught up.
+     *
+     * @param message           the error message.
+     * @param status            the HTTP status, such as 429 or 503.
+     * @param retryAfterSeconds the number of seconds to wait before retrying.
+     * @return the response entity.
+     */
+    public static ResponseEntity<ApiResponseDto> buildRetryLaterResponse(String message, HttpStatus status,
+            long retryAfterSeconds) {
+        ApiResponseDto response = ApiResponseDto.builder()
+                .message(message)
+                .data(null)
+                .build();
+        log.info("Building response with status {} and Retry-After {}: {}", status, retryAfterSeconds, response);
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(response);
+    }
+
     public static ResponseEntity<AuthResponseSuccessDto> buildAuthSuccessResponse(String accessToken) {
         AuthResponseSuccessDto response = AuthResponseSuccessDto.builder()
                 .success(true)
@@ -74,4 +168,20 @@ public class ResponseBuilder {
             response.getWriter().write("{\"message\":\"" + message + "\", \"data\":null}");
         }
     }
+
+    /**
+     * Builds an error response with a Retry-After header, for requests the
+     * client may repeat once the server has caught up.
+     *
+     * @param response          the HttpServletResponse.
+     * @param message           the error message.
+     * @param status            the HTTP status, such as 429 or 503.
+     * @param retryAfterSeconds the number of seconds to wait before retrying.
+     * @throws IOException if an input or output exception occurs.
+     */
+    public static void buildRetryLaterResponse(HttpServletResponse response, String message, HttpStatus status,
+            long retryAfterSeconds) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        buildErrorResponse(response, message, status);
+    }
 }
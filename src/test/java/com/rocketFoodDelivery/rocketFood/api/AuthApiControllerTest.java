@@ -1,16 +1,22 @@
 package com.rocketFoodDelivery.rocketFood.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.rocketFoodDelivery.rocketFood.RocketFoodApplication;
+import com.rocketFoodDelivery.rocketFood.controller.api.AuthController;
 import com.rocketFoodDelivery.rocketFood.dtos.AuthRequestDto;
 import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.security.JwtTokenFilter;
 import com.rocketFoodDelivery.rocketFood.security.JwtUtil;
+import com.rocketFoodDelivery.rocketFood.security.RateLimitFilter;
+import com.rocketFoodDelivery.rocketFood.security.TokenRevocationList;
+import com.rocketFoodDelivery.rocketFood.service.AuthService;
+import com.rocketFoodDelivery.rocketFood.service.RefreshTokenService;
+import com.rocketFoodDelivery.rocketFood.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,7 +24,6 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.test.context.support.WithMockUser;
-import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -26,22 +31,41 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
- * Integration tests for the AuthApiController.
+ * Web layer tests for the AuthApiController. Services are mocked and the security
+ * filters are left out, so the role rules of SecurityConfig are not
+ * exercised here.
  */
-@SpringBootTest(classes = RocketFoodApplication.class)
-@AutoConfigureMockMvc
-@TestPropertySource(locations = "classpath:application-test.properties")
+@WebMvcTest(AuthController.class)
+@AutoConfigureMockMvc(addFilters = false)
 public class AuthApiControllerTest {
 
         @Autowired
         private MockMvc mockMvc;
 
+        @MockBean
+        private AuthService authService;
+
+        @MockBean
+        private TokenRevocationList tokenRevocationList;
+
+        @MockBean
+        private JwtTokenFilter jwtTokenFilter;
+
+        @MockBean
+        private RateLimitFilter rateLimitFilter;
+
         @MockBean
         private AuthenticationManager authManager;
 
         @MockBean
         private JwtUtil jwtUtil;
 
+        @MockBean
+        private RefreshTokenService refreshTokenService;
+
+        @MockBean
+        private UserService userService;
+
         @Autowired
         private ObjectMapper objectMapper;
 
@@ -1,10 +1,19 @@
 package com.rocketFoodDelivery.rocketFood.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.rocketFoodDelivery.rocketFood.RocketFoodApplication;
 import com.rocketFoodDelivery.rocketFood.controller.api.OrderApiController;
 import com.rocketFoodDelivery.rocketFood.dtos.*;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ConflictException;
 import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
+import com.rocketFoodDelivery.rocketFood.repository.IdempotencyRecordRepository;
+import com.rocketFoodDelivery.rocketFood.security.JwtTokenFilter;
+import com.rocketFoodDelivery.rocketFood.security.RateLimitFilter;
+import com.rocketFoodDelivery.rocketFood.service.IdempotencyService;
+import com.rocketFoodDelivery.rocketFood.service.OrderEventService;
+import com.rocketFoodDelivery.rocketFood.service.OrderExportService;
+import com.rocketFoodDelivery.rocketFood.service.OrderIntakeService;
+import com.rocketFoodDelivery.rocketFood.service.OrderJournal;
 import com.rocketFoodDelivery.rocketFood.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,12 +22,13 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
-import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Arrays;
 import java.util.List;
@@ -30,11 +40,13 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
- * Integration tests for the OrderApiController.
+ * Web layer tests for the OrderApiController. Services are mocked and the security
+ * filters are left out, so the role rules of SecurityConfig are not
+ * exercised here.
  */
-@SpringBootTest(classes = RocketFoodApplication.class)
-@AutoConfigureMockMvc
-@TestPropertySource(locations = "classpath:application-test.properties")
+@WebMvcTest(OrderApiController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(IdempotencyService.class)
 public class OrderApiControllerTest {
 
         private static final String BASE_URL = "/api/order";
@@ -44,6 +56,30 @@ public class OrderApiControllerTest {
         @Autowired
         private MockMvc mockMvc;
 
+        @MockBean
+        private OrderExportService orderExportService;
+
+        @MockBean
+        private OrderIntakeService orderIntakeService;
+
+        @MockBean
+        private OrderEventService orderEventService;
+
+        @MockBean
+        private OrderJournal orderJournal;
+
+        @MockBean
+        private IdempotencyRecordRepository idempotencyRecordRepository;
+
+        @MockBean
+        private PlatformTransactionManager transactionManager;
+
+        @MockBean
+        private JwtTokenFilter jwtTokenFilter;
+
+        @MockBean
+        private RateLimitFilter rateLimitFilter;
+
         @MockBean
         private OrderService orderService;
 
@@ -98,9 +134,9 @@ public class OrderApiControllerTest {
          * @throws Exception if an error occurs during the test.
          */
         @Test
-        @WithMockUser
+        @WithMockUser(roles = "COURIER")
         public void testChangeOrderStatus() throws Exception {
-                when(orderService.changeOrderStatus(orderId, orderStatusDto)).thenReturn(orderStatusDto.getStatus());
+                when(orderService.changeOrderStatus(eq(orderId), eq(orderStatusDto), any())).thenReturn(orderStatusDto.getStatus());
 
                 mockMvc.perform(post(BASE_URL + "/{order_id}/status", orderId)
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -109,7 +145,7 @@ public class OrderApiControllerTest {
                                 .andExpect(jsonPath("$.message").value(SUCCESS_MESSAGE))
                                 .andExpect(jsonPath("$.data.status").value(orderStatusDto.getStatus()));
 
-                verify(orderService, times(1)).changeOrderStatus(orderId, orderStatusDto);
+                verify(orderService, times(1)).changeOrderStatus(eq(orderId), eq(orderStatusDto), any());
         }
 
         /**
@@ -118,9 +154,9 @@ public class OrderApiControllerTest {
          * @throws Exception if an error occurs during the test.
          */
         @Test
-        @WithMockUser
+        @WithMockUser(roles = "COURIER")
         public void testChangeOrderStatus_NotFound() throws Exception {
-                when(orderService.changeOrderStatus(orderId, orderStatusDto))
+                when(orderService.changeOrderStatus(eq(orderId), eq(orderStatusDto), any()))
                                 .thenThrow(new ResourceNotFoundException(NOT_FOUND_MESSAGE));
 
                 mockMvc.perform(post(BASE_URL + "/{order_id}/status", orderId)
@@ -130,7 +166,27 @@ public class OrderApiControllerTest {
                                 .andExpect(jsonPath("$.message").value(NOT_FOUND_MESSAGE))
                                 .andExpect(jsonPath("$.data").doesNotExist());
 
-                verify(orderService, times(1)).changeOrderStatus(orderId, orderStatusDto);
+                verify(orderService, times(1)).changeOrderStatus(eq(orderId), eq(orderStatusDto), any());
+        }
+
+        /**
+         * Tests changing the status of an order that was changed concurrently.
+         * 
+         * @throws Exception if an error occurs during the test.
+         */
+        @Test
+        @WithMockUser(roles = "COURIER")
+        public void testChangeOrderStatus_Conflict() throws Exception {
+                when(orderService.changeOrderStatus(eq(orderId), any(ApiOrderStatusDto.class), any()))
+                                .thenThrow(new ConflictException("Order 1 was modified concurrently, status was cancelled"));
+
+                mockMvc.perform(post(BASE_URL + "/{order_id}/status", orderId)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(orderStatusDto)))
+                                .andExpect(status().isConflict())
+                                .andExpect(jsonPath("$.message")
+                                                .value("Order 1 was modified concurrently, status was cancelled"))
+                                .andExpect(jsonPath("$.data").doesNotExist());
         }
 
         /**
@@ -145,32 +201,60 @@ public class OrderApiControllerTest {
                                 ApiOrderDto.builder().id(1).customer_id(1).status("in progress").build(),
                                 ApiOrderDto.builder().id(2).customer_id(1).status("delivered").build());
 
-                when(orderService.getOrdersByTypeAndId("customer", 1)).thenReturn(orders);
+                ApiPageDto<ApiOrderDto> page = ApiPageDto.<ApiOrderDto>builder()
+                                .items(orders)
+                                .nextCursor("next")
+                                .limit(2)
+                                .build();
+
+                when(orderService.getOrdersByTypeAndId("customer", 1, null, 2)).thenReturn(page);
 
                 mockMvc.perform(get(BASE_URL)
                                 .param("type", "customer")
                                 .param("id", String.valueOf(1))
+                                .param("limit", "2")
                                 .contentType(MediaType.APPLICATION_JSON))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.message").value(SUCCESS_MESSAGE))
-                                .andExpect(jsonPath("$.data", hasSize(orders.size())))
-                                .andExpect(jsonPath("$.data[0].id").value(orders.get(0).getId()))
-                                .andExpect(jsonPath("$.data[0].customer_id").value(orders.get(0).getCustomer_id()))
-                                .andExpect(jsonPath("$.data[0].status").value(orders.get(0).getStatus()))
-                                .andExpect(jsonPath("$.data[1].id").value(orders.get(1).getId()))
-                                .andExpect(jsonPath("$.data[1].customer_id").value(orders.get(1).getCustomer_id()))
-                                .andExpect(jsonPath("$.data[1].status").value(orders.get(1).getStatus()));
-
-                verify(orderService, times(1)).getOrdersByTypeAndId("customer", 1);
+                                .andExpect(jsonPath("$.data.items", hasSize(orders.size())))
+                                .andExpect(jsonPath("$.data.items[0].id").value(orders.get(0).getId()))
+                                .andExpect(jsonPath("$.data.items[0].customer_id").value(orders.get(0).getCustomer_id()))
+                                .andExpect(jsonPath("$.data.items[0].status").value(orders.get(0).getStatus()))
+                                .andExpect(jsonPath("$.data.items[1].id").value(orders.get(1).getId()))
+                                .andExpect(jsonPath("$.data.items[1].customer_id").value(orders.get(1).getCustomer_id()))
+                                .andExpect(jsonPath("$.data.items[1].status").value(orders.get(1).getStatus()))
+                                .andExpect(jsonPath("$.data.next_cursor").value("next"));
+
+                verify(orderService, times(1)).getOrdersByTypeAndId("customer", 1, null, 2);
         }
 
         /**
-         * Tests creating a new order.
+         * Tests retrieving orders with an invalid cursor.
          * 
          * @throws Exception if an error occurs during the test.
          */
         @Test
         @WithMockUser
+        public void testGetOrdersByTypeAndId_InvalidCursor() throws Exception {
+                when(orderService.getOrdersByTypeAndId("customer", 1, "bogus", null))
+                                .thenThrow(new BadRequestException("Invalid cursor"));
+
+                mockMvc.perform(get(BASE_URL)
+                                .param("type", "customer")
+                                .param("id", String.valueOf(1))
+                                .param("cursor", "bogus")
+                                .contentType(MediaType.APPLICATION_JSON))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+        }
+
+        /**
+         * Tests creating a new order.
+         * 
+         * @throws Exception if an error occurs during the test.
+         */
+        @Test
+        @WithMockUser(roles = "CUSTOMER")
         public void testCreateOrder() throws Exception {
                 when(orderService.createOrder(any(ApiOrderRequestDto.class))).thenReturn(newOrder);
 
@@ -188,13 +272,36 @@ public class OrderApiControllerTest {
                 verify(orderService, times(1)).createOrder(any(ApiOrderRequestDto.class));
         }
 
+        /**
+         * Tests that a retried order with the same Idempotency-Key returns the
+         * original order without creating another one.
+         * 
+         * @throws Exception if an error occurs during the test.
+         */
+        @Test
+        @WithMockUser(roles = "CUSTOMER")
+        public void testCreateOrderWithIdempotencyKey() throws Exception {
+                when(orderService.createOrder(any(ApiOrderRequestDto.class))).thenReturn(newOrder);
+
+                for (int attempt = 0; attempt < 2; attempt++) {
+                        mockMvc.perform(post(BASE_URL)
+                                        .header("Idempotency-Key", "order-attempt-1")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(orderRequestDto)))
+                                        .andExpect(status().isCreated())
+                                        .andExpect(jsonPath("$.data.id").value(newOrder.getId()));
+                }
+
+                verify(orderService, times(1)).createOrder(any(ApiOrderRequestDto.class));
+        }
+
         /**
          * Tests creating a new order when the customer is not found.
          * 
          * @throws Exception if an error occurs during the test.
          */
         @Test
-        @WithMockUser
+        @WithMockUser(roles = "CUSTOMER")
         public void testCreateOrder_Exception() throws Exception {
                 when(orderService.createOrder(any(ApiOrderRequestDto.class)))
                                 .thenThrow(new ResourceNotFoundException("Customer not found"));
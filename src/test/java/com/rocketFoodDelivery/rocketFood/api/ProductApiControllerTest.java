@@ -1,19 +1,22 @@
 package com.rocketFoodDelivery.rocketFood.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.rocketFoodDelivery.rocketFood.RocketFoodApplication;
+import com.rocketFoodDelivery.rocketFood.controller.api.ProductApiController;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiProductDto;
+import com.rocketFoodDelivery.rocketFood.security.JwtTokenFilter;
+import com.rocketFoodDelivery.rocketFood.security.RateLimitFilter;
 import com.rocketFoodDelivery.rocketFood.service.ProductService;
+import com.rocketFoodDelivery.rocketFood.service.ResourceVersionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
-import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Collections;
@@ -24,16 +27,24 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
- * Integration tests for the ProductApiController.
+ * Web layer tests for the ProductApiController. Services are mocked and the security
+ * filters are left out, so the role rules of SecurityConfig are not
+ * exercised here.
  */
-@SpringBootTest(classes = RocketFoodApplication.class)
-@AutoConfigureMockMvc
-@TestPropertySource(locations = "classpath:application-test.properties")
+@WebMvcTest(ProductApiController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(ResourceVersionService.class)
 public class ProductApiControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @MockBean
+    private JwtTokenFilter jwtTokenFilter;
+
+    @MockBean
+    private RateLimitFilter rateLimitFilter;
+
     @MockBean
     private ProductService productService;
 
@@ -1,13 +1,18 @@
 package com.rocketFoodDelivery.rocketFood.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.rocketFoodDelivery.rocketFood.RocketFoodApplication;
+import com.rocketFoodDelivery.rocketFood.controller.api.RestaurantApiController;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiAddressDto;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiCreateRestaurantDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiPageDto;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiRestaurantDto;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
 import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
 import com.rocketFoodDelivery.rocketFood.models.Address;
 import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.security.JwtTokenFilter;
+import com.rocketFoodDelivery.rocketFood.security.RateLimitFilter;
+import com.rocketFoodDelivery.rocketFood.service.ResourceVersionService;
 import com.rocketFoodDelivery.rocketFood.service.RestaurantService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,15 +20,16 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
 
-import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.security.test.context.support.WithMockUser;
 
@@ -34,22 +40,33 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
- * Integration tests for the RestaurantApiController.
+ * Web layer tests for the RestaurantApiController. Services are mocked and the security
+ * filters are left out, so the role rules of SecurityConfig are not
+ * exercised here.
  */
-@SpringBootTest(classes = RocketFoodApplication.class)
-@AutoConfigureMockMvc
-@TestPropertySource(locations = "classpath:application-test.properties")
+@WebMvcTest(RestaurantApiController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(ResourceVersionService.class)
 public class RestaurantApiControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @MockBean
+    private JwtTokenFilter jwtTokenFilter;
+
+    @MockBean
+    private RateLimitFilter rateLimitFilter;
+
     @MockBean
     private RestaurantService restaurantService;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
     private static final String BASE_URI = "/api/restaurants";
     private static final String VALID_PHONE = "123-456-7890";
     private static final String INVALID_PHONE = "invalid-phone";
@@ -121,7 +138,7 @@ public class RestaurantApiControllerTest {
      * @throws Exception if an error occurs during the test.
      */
     @Test
-    @WithMockUser
+    @WithMockUser(roles = "RESTAURANT_OWNER")
     public void testCreateRestaurantWithValidData() throws Exception {
         ApiRestaurantDto createdRestaurant = ApiRestaurantDto.builder()
                 .id(1)
@@ -130,7 +147,7 @@ public class RestaurantApiControllerTest {
                 .rating(5)
                 .build();
 
-        Mockito.when(restaurantService.createRestaurant(Mockito.any(ApiCreateRestaurantDto.class)))
+        Mockito.when(restaurantService.createRestaurant(Mockito.any(ApiCreateRestaurantDto.class), Mockito.any()))
                 .thenReturn(createdRestaurant);
 
         performPostRequest(validRestaurantDto, 201, SUCCESS_MESSAGE, createdRestaurant);
@@ -142,7 +159,7 @@ public class RestaurantApiControllerTest {
      * @throws Exception if an error occurs during the test.
      */
     @Test
-    @WithMockUser
+    @WithMockUser(roles = "RESTAURANT_OWNER")
     public void testCreateRestaurantWithMissingFields() throws Exception {
         ApiCreateRestaurantDto incompleteRestaurantDto = ApiCreateRestaurantDto.builder()
                 .name(VALID_NAME)
@@ -158,7 +175,7 @@ public class RestaurantApiControllerTest {
      * @throws Exception if an error occurs during the test.
      */
     @Test
-    @WithMockUser
+    @WithMockUser(roles = "RESTAURANT_OWNER")
     public void testCreateRestaurantWithInvalidData() throws Exception {
         ApiCreateRestaurantDto invalidRestaurantDto = ApiCreateRestaurantDto.builder()
                 .name("")
@@ -186,7 +203,8 @@ public class RestaurantApiControllerTest {
                 .rating(5)
                 .build();
 
-        Mockito.when(restaurantService.getRestaurants(null, null)).thenReturn(List.of(restaurantDto));
+        Mockito.when(restaurantService.getRestaurants(null, null, null, null, null))
+                .thenReturn(page(List.of(restaurantDto)));
 
         performGetRequest(null, null, 200, SUCCESS_MESSAGE, List.of(restaurantDto));
     }
@@ -199,6 +217,8 @@ public class RestaurantApiControllerTest {
     @Test
     @WithMockUser
     public void testFetchRestaurantsWithRatingFilter() throws Exception {
+        Mockito.when(restaurantService.getRestaurants(5, null, null, null, null)).thenReturn(page(List.of()));
+
         performGetRequest("5", null, 200, SUCCESS_MESSAGE, List.of());
     }
 
@@ -217,7 +237,8 @@ public class RestaurantApiControllerTest {
                 .rating(5)
                 .build();
 
-        Mockito.when(restaurantService.getRestaurants(null, 2)).thenReturn(List.of(restaurantDto));
+        Mockito.when(restaurantService.getRestaurants(null, 2, null, null, null))
+                .thenReturn(page(List.of(restaurantDto)));
 
         performGetRequest(null, "2", 200, SUCCESS_MESSAGE, List.of(restaurantDto));
     }
@@ -230,9 +251,61 @@ public class RestaurantApiControllerTest {
     @Test
     @WithMockUser
     public void testFetchRestaurantsWithRatingAndPriceRangeFilters() throws Exception {
+        Mockito.when(restaurantService.getRestaurants(5, 2, null, null, null)).thenReturn(page(List.of()));
+
         performGetRequest("5", "2", 200, SUCCESS_MESSAGE, List.of());
     }
 
+    /**
+     * Tests that the next cursor and sort are passed through for keyset
+     * pagination.
+     * 
+     * @throws Exception if an error occurs during the test.
+     */
+    @Test
+    @WithMockUser
+    public void testFetchRestaurantsWithSortAndCursor() throws Exception {
+        ApiRestaurantDto restaurantDto = ApiRestaurantDto.builder()
+                .id(2)
+                .name(validRestaurantDto.getName())
+                .priceRange(validRestaurantDto.getPriceRange())
+                .rating(4)
+                .build();
+        ApiPageDto<ApiRestaurantDto> page = ApiPageDto.<ApiRestaurantDto>builder()
+                .items(List.of(restaurantDto))
+                .nextCursor("next")
+                .limit(1)
+                .build();
+
+        Mockito.when(restaurantService.getRestaurants(null, null, "-rating", "current", 1)).thenReturn(page);
+
+        mockMvc.perform(get(BASE_URI)
+                .param("sort", "-rating")
+                .param("cursor", "current")
+                .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items", hasSize(1)))
+                .andExpect(jsonPath("$.data.items[0].rating").value(4))
+                .andExpect(jsonPath("$.data.next_cursor").value("next"))
+                .andExpect(jsonPath("$.data.limit").value(1));
+    }
+
+    /**
+     * Tests that an invalid sort is rejected with a bad request.
+     * 
+     * @throws Exception if an error occurs during the test.
+     */
+    @Test
+    @WithMockUser
+    public void testFetchRestaurantsWithInvalidSort() throws Exception {
+        Mockito.when(restaurantService.getRestaurants(null, null, "phone", null, null))
+                .thenThrow(new BadRequestException("Invalid sort: phone"));
+
+        mockMvc.perform(get(BASE_URI).param("sort", "phone"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid sort: phone"));
+    }
+
     /**
      * Tests fetching a restaurant by a valid ID.
      * 
@@ -253,6 +326,56 @@ public class RestaurantApiControllerTest {
         performGetRequestById(1, 200, SUCCESS_MESSAGE, restaurantDto);
     }
 
+    /**
+     * Tests that a fetch carrying the current ETag gets an empty 304 without
+     * reaching the service, and that a stale ETag gets the full response.
+     * 
+     * @throws Exception if an error occurs during the test.
+     */
+    @Test
+    @WithMockUser
+    public void testFetchRestaurantByIdWithIfNoneMatch() throws Exception {
+        ApiRestaurantDto restaurantDto = ApiRestaurantDto.builder()
+                .id(1)
+                .name(validRestaurantDto.getName())
+                .priceRange(validRestaurantDto.getPriceRange())
+                .rating(5)
+                .build();
+        Mockito.when(restaurantService.getRestaurantById(1)).thenReturn(restaurantDto);
+        String eTag = resourceVersionService.restaurantETag(1);
+
+        mockMvc.perform(get(BASE_URI + "/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+        Mockito.verify(restaurantService, Mockito.never()).getRestaurantById(1);
+
+        mockMvc.perform(get(BASE_URI + "/1").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(jsonPath("$.data.id").value(1));
+
+        mockMvc.perform(get(BASE_URI + "/1").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+    }
+
+    /**
+     * Tests that If-None-Match: * does not hide that a restaurant does not
+     * exist.
+     * 
+     * @throws Exception if an error occurs during the test.
+     */
+    @Test
+    @WithMockUser
+    public void testFetchMissingRestaurantWithWildcardIfNoneMatch() throws Exception {
+        Mockito.when(restaurantService.getRestaurantById(999))
+                .thenThrow(new ResourceNotFoundException(NOT_FOUND_MESSAGE));
+
+        mockMvc.perform(get(BASE_URI + "/999").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotFound());
+    }
+
     /**
      * Tests fetching a restaurant by an invalid ID.
      * 
@@ -273,7 +396,7 @@ public class RestaurantApiControllerTest {
      * @throws Exception if an error occurs during the test.
      */
     @Test
-    @WithMockUser
+    @WithMockUser(roles = "RESTAURANT_OWNER")
     public void testUpdateRestaurantWithValidData() throws Exception {
         ApiCreateRestaurantDto updatedRestaurantDto = ApiCreateRestaurantDto.builder()
                 .name(UPDATED_NAME)
@@ -295,7 +418,8 @@ public class RestaurantApiControllerTest {
                 .rating(5)
                 .build();
 
-        Mockito.when(restaurantService.updateRestaurant(Mockito.eq(1), Mockito.any(ApiCreateRestaurantDto.class)))
+        Mockito.when(restaurantService.updateRestaurant(Mockito.eq(1), Mockito.any(ApiCreateRestaurantDto.class),
+                Mockito.any()))
                 .thenReturn(updatedRestaurant);
 
         performPutRequest(1, updatedRestaurantDto, 200, SUCCESS_MESSAGE, updatedRestaurant);
@@ -307,7 +431,7 @@ public class RestaurantApiControllerTest {
      * @throws Exception if an error occurs during the test.
      */
     @Test
-    @WithMockUser
+    @WithMockUser(roles = "RESTAURANT_OWNER")
     public void testUpdateRestaurantWithMissingFields() throws Exception {
         ApiCreateRestaurantDto incompleteRestaurantDto = ApiCreateRestaurantDto.builder()
                 .name(UPDATED_NAME)
@@ -322,7 +446,7 @@ public class RestaurantApiControllerTest {
      * @throws Exception if an error occurs during the test.
      */
     @Test
-    @WithMockUser
+    @WithMockUser(roles = "RESTAURANT_OWNER")
     public void testUpdateRestaurantWithInvalidData() throws Exception {
         ApiCreateRestaurantDto invalidRestaurantDto = ApiCreateRestaurantDto.builder()
                 .name("")
@@ -341,7 +465,7 @@ public class RestaurantApiControllerTest {
      * @throws Exception if an error occurs during the test.
      */
     @Test
-    @WithMockUser
+    @WithMockUser(roles = "RESTAURANT_OWNER")
     public void testUpdateRestaurantWithNonExistingId() throws Exception {
         ApiCreateRestaurantDto updatedRestaurantDto = ApiCreateRestaurantDto.builder()
                 .name(UPDATED_NAME)
@@ -356,7 +480,8 @@ public class RestaurantApiControllerTest {
                 .userId(1)
                 .build();
 
-        Mockito.when(restaurantService.updateRestaurant(Mockito.eq(999), Mockito.any(ApiCreateRestaurantDto.class)))
+        Mockito.when(restaurantService.updateRestaurant(Mockito.eq(999), Mockito.any(ApiCreateRestaurantDto.class),
+                Mockito.any()))
                 .thenThrow(new ResourceNotFoundException(NOT_FOUND_MESSAGE));
 
         performPutRequest(999, updatedRestaurantDto, 404, NOT_FOUND_MESSAGE, null);
@@ -368,7 +493,7 @@ public class RestaurantApiControllerTest {
      * @throws Exception if an error occurs during the test.
      */
     @Test
-    @WithMockUser
+    @WithMockUser(roles = "RESTAURANT_OWNER")
     public void testDeleteRestaurantWithValidId() throws Exception {
         ApiRestaurantDto deletedRestaurant = ApiRestaurantDto.builder()
                 .id(1)
@@ -377,7 +502,7 @@ public class RestaurantApiControllerTest {
                 .rating(5)
                 .build();
 
-        Mockito.when(restaurantService.deleteRestaurant(1)).thenReturn(deletedRestaurant);
+        Mockito.when(restaurantService.deleteRestaurant(Mockito.eq(1), Mockito.any())).thenReturn(deletedRestaurant);
 
         performDeleteRequest(1, 200, SUCCESS_MESSAGE, deletedRestaurant);
     }
@@ -388,10 +513,10 @@ public class RestaurantApiControllerTest {
      * @throws Exception if an error occurs during the test.
      */
     @Test
-    @WithMockUser
+    @WithMockUser(roles = "RESTAURANT_OWNER")
     public void testDeleteRestaurantWithInvalidId() throws Exception {
         Mockito.doThrow(new ResourceNotFoundException(NOT_FOUND_MESSAGE))
-                .when(restaurantService).deleteRestaurant(999);
+                .when(restaurantService).deleteRestaurant(Mockito.eq(999), Mockito.any());
 
         performDeleteRequest(999, 404, NOT_FOUND_MESSAGE, null);
     }
@@ -422,6 +547,19 @@ public class RestaurantApiControllerTest {
         }
     }
 
+    /**
+     * Helper method to wrap restaurants into a last page.
+     * 
+     * @param restaurants the restaurants of the page.
+     * @return the page.
+     */
+    private ApiPageDto<ApiRestaurantDto> page(List<ApiRestaurantDto> restaurants) {
+        return ApiPageDto.<ApiRestaurantDto>builder()
+                .items(restaurants)
+                .limit(20)
+                .build();
+    }
+
     /**
      * Helper method to perform GET request and validate the response.
      * 
@@ -449,11 +587,12 @@ public class RestaurantApiControllerTest {
                 .andExpect(jsonPath("$.message").value(expectedMessage));
 
         if (expectedData != null) {
-            resultActions.andExpect(jsonPath("$.data", hasSize(expectedData.size())));
+            resultActions.andExpect(jsonPath("$.data.items", hasSize(expectedData.size())));
             for (int i = 0; i < expectedData.size(); i++) {
-                resultActions.andExpect(jsonPath("$.data[" + i + "].name").value(expectedData.get(i).getName()))
-                        .andExpect(jsonPath("$.data[" + i + "].price_range").value(expectedData.get(i).getPriceRange()))
-                        .andExpect(jsonPath("$.data[" + i + "].rating").value(expectedData.get(i).getRating()));
+                resultActions.andExpect(jsonPath("$.data.items[" + i + "].name").value(expectedData.get(i).getName()))
+                        .andExpect(jsonPath("$.data.items[" + i + "].price_range")
+                                .value(expectedData.get(i).getPriceRange()))
+                        .andExpect(jsonPath("$.data.items[" + i + "].rating").value(expectedData.get(i).getRating()));
             }
         } else {
             resultActions.andExpect(jsonPath("$.data").doesNotExist());
@@ -0,0 +1,59 @@
+package com.rocketFoodDelivery.rocketFood.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for RestaurantRepositoryCustomImpl.
+ */
+public class RestaurantRepositoryCustomImplTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private RestaurantRepositoryCustomImpl repository;
+
+    /**
+     * Setup method to initialize the mocks before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of());
+        repository = new RestaurantRepositoryCustomImpl(jdbcTemplate);
+    }
+
+    /**
+     * Test that a rating-sorted page keeps restaurants without a rating row,
+     * seeking and filtering on the same 0 default as the catalog.
+     */
+    @Test
+    public void testRatingSortKeepsUnratedRestaurants() {
+        repository.findRestaurantListingPage(0, null, RestaurantSort.RATING, true, 0, 42, 20);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(SqlParameterSource.class), any(RowMapper.class));
+        assertThat(sql.getValue())
+                .contains("FROM restaurants r LEFT JOIN restaurant_ratings rr ON rr.restaurant_id = r.id ")
+                .contains("AND COALESCE(rr.rating, 0) = :rating ")
+                .contains("AND (COALESCE(rr.rating, 0) < :afterValue OR (COALESCE(rr.rating, 0) = :afterValue "
+                        + "AND r.id < :afterId)) ")
+                .contains("ORDER BY COALESCE(rr.rating, 0) DESC, r.id DESC")
+                .doesNotContain("JOIN restaurants r");
+    }
+}
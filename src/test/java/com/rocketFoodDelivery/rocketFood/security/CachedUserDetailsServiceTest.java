@@ -0,0 +1,95 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CachedUserDetailsService.
+ */
+public class CachedUserDetailsServiceTest {
+
+    private static final String EMAIL = "jane@example.com";
+
+    @Mock
+    private UserRepository userRepository;
+
+    private CachedUserDetailsService service;
+
+    /**
+     * Setup method to initialize the service with a one second cache.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new CachedUserDetailsService(userRepository, 100, 1_000);
+        when(userRepository.findByEmail(EMAIL)).thenAnswer(invocation -> Optional.of(
+                UserEntity.builder().id(3).email(EMAIL).password("{bcrypt}hash").courierId(9).build()));
+    }
+
+    /**
+     * Tests that a user is read once per time to live, and that every caller
+     * gets its own copy.
+     */
+    @Test
+    public void testUsersAreCachedForTheirTimeToLive() {
+        UserEntity first = service.load(EMAIL, 0);
+        first.setEmployee(true);
+        first.setPassword("changed");
+
+        UserEntity second = service.load(EMAIL, 999);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getPassword()).isEqualTo("{bcrypt}hash");
+        assertThat(second.getCourierId()).isEqualTo(9);
+        assertThat(second.isEmployee()).isFalse();
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+
+        service.load(EMAIL, 1_000);
+        verify(userRepository, times(2)).findByEmail(EMAIL);
+        assertThat(service.getStats().getHits()).isEqualTo(1);
+        assertThat(service.getStats().getMisses()).isEqualTo(2);
+    }
+
+    /**
+     * Tests that unknown emails are refused without being cached.
+     */
+    @Test
+    public void testUnknownEmailsAreNotCached() {
+        when(userRepository.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.load("nobody@example.com", 0))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> service.load("nobody@example.com", 0))
+                .isInstanceOf(UsernameNotFoundException.class);
+        verify(userRepository, times(2)).findByEmail("nobody@example.com");
+        assertThat(service.getStats().getEntries()).isZero();
+    }
+
+    /**
+     * Tests that rehashing a legacy password stores it and evicts the user.
+     */
+    @Test
+    public void testUpdatePasswordStoresAndEvicts() {
+        UserEntity user = service.load(EMAIL, 0);
+        assertThat(service.getStats().getEntries()).isEqualTo(1);
+
+        UserEntity updated = (UserEntity) service.updatePassword(user, "{bcrypt}new");
+
+        assertThat(updated.getPassword()).isEqualTo("{bcrypt}new");
+        verify(userRepository).updatePassword(3, "{bcrypt}new");
+        assertThat(service.getStats().getEntries()).isZero();
+        assertThat(service.getStats().getRehashed()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,106 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for JwtTokenFilter.
+ */
+public class JwtTokenFilterTest {
+
+    private static final String SECRET = "test-secret-for-jwt-token-filter-test";
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private JwtUtil jwtUtil;
+    private TokenRevocationList tokenRevocationList;
+    private JwtTokenFilter filter;
+
+    /**
+     * Setup method to wire the filter with a real JwtUtil and revocation list.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        jwtUtil = new JwtUtil(SECRET, 900_000, 1000, 60_000);
+        tokenRevocationList = new TokenRevocationList(revokedTokenRepository, 1000, 0.001);
+        filter = new JwtTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "tokenRevocationList", tokenRevocationList);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Tests that the authorities are rebuilt from the roles claim without
+     * touching the database.
+     */
+    @Test
+    public void testAuthoritiesComeFromRolesClaim() throws Exception {
+        UserEntity user = UserEntity.builder().id(5).email("staff@example.com").courierId(2).build();
+        user.setEmployee(true);
+
+        MockHttpServletResponse response = doFilter(jwtUtil.generateAccessToken(user));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_EMPLOYEE", "ROLE_COURIER");
+        UserEntity principal = (UserEntity) authentication.getPrincipal();
+        assertThat(principal.getId()).isEqualTo(5);
+        assertThat(principal.isEmployee()).isTrue();
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    /**
+     * Tests that a user without roles is authenticated as a plain user, and
+     * that a revoked token is refused.
+     */
+    @Test
+    public void testPlainUserAndRevokedToken() throws Exception {
+        String token = jwtUtil.generateAccessToken(UserEntity.builder().id(6).email("a@example.com").build());
+
+        doFilter(token);
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+                .extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+
+        SecurityContextHolder.clearContext();
+        JwtPrincipal principal = jwtUtil.verifyAccessToken(token).get();
+        tokenRevocationList.revoke(principal.getTokenId(), Instant.ofEpochMilli(principal.getExpiresAt()));
+        when(revokedTokenRepository.existsById(principal.getTokenId())).thenReturn(true);
+
+        MockHttpServletResponse response = doFilter(token);
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    private MockHttpServletResponse doFilter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/restaurants");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
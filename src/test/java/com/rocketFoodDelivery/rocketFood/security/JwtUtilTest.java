@@ -0,0 +1,179 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import com.rocketFoodDelivery.rocketFood.models.Restaurant;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.models.UserRole;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for JwtUtil and its verified-token cache.
+ */
+public class JwtUtilTest {
+
+    private static final String SECRET = "test-secret-for-jwt-util-test";
+
+    /**
+     * Tests that a valid token yields its principal, with a unique ID and the
+     * configured expiry, and that verifying it again is served from the cache.
+     */
+    @Test
+    public void testVerifyAccessTokenParsesOnce() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 900_000, 1000, 60_000);
+        UserEntity user = UserEntity.builder().id(42).email("jane@example.com").build();
+        long before = System.currentTimeMillis();
+        String token = jwtUtil.generateAccessToken(user);
+
+        Optional<JwtPrincipal> principal = jwtUtil.verifyAccessToken(token);
+
+        assertThat(principal).isPresent();
+        assertThat(principal.get().getUserId()).isEqualTo(42);
+        assertThat(principal.get().getEmail()).isEqualTo("jane@example.com");
+        assertThat(principal.get().getTokenId()).isNotBlank();
+        // JWT dates have a precision of one second
+        assertThat(principal.get().getExpiresAt()).isBetween(before + 899_000, System.currentTimeMillis() + 900_000);
+        assertThat(jwtUtil.verifyAccessToken(jwtUtil.generateAccessToken(user)).get().getTokenId())
+                .isNotEqualTo(principal.get().getTokenId());
+        assertThat(jwtUtil.verifyAccessToken(token)).containsSame(principal.get());
+        assertThat(jwtUtil.validateAccessToken(token)).isTrue();
+        assertThat(jwtUtil.verifiedCacheSize()).isEqualTo(2);
+    }
+
+    /**
+     * Tests that the roles and the customer and courier IDs of the user round
+     * trip through the token, that unknown role names are ignored and that
+     * tokens without the claim carry no role.
+     */
+    @Test
+    public void testRolesRoundTrip() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 900_000, 1000, 60_000);
+        UserEntity owner = UserEntity.builder().id(7).email("owner@example.com").customerId(3)
+                .restaurant(new Restaurant()).build();
+        UserEntity employee = UserEntity.builder().id(8).email("staff@example.com").courierId(4).build();
+        employee.setEmployee(true);
+
+        assertThat(jwtUtil.verifyAccessToken(jwtUtil.generateAccessToken(owner)).get().getRoles())
+                .containsExactlyInAnyOrder(UserRole.CUSTOMER, UserRole.RESTAURANT_OWNER);
+        assertThat(jwtUtil.verifyAccessToken(jwtUtil.generateAccessToken(employee)).get().getRoles())
+                .containsExactlyInAnyOrder(UserRole.EMPLOYEE, UserRole.COURIER);
+        JwtPrincipal courier = jwtUtil.verifyAccessToken(jwtUtil.generateAccessToken(employee)).get();
+        assertThat(courier.getCourierId()).isEqualTo(4);
+        assertThat(courier.getCustomerId()).isNull();
+
+        String future = token("9,a@example.com").claim(JwtUtil.ROLES_CLAIM, List.of("courier", "auditor"))
+                .signWith(SignatureAlgorithm.HS512, SECRET).compact();
+        String legacy = token("9,a@example.com").signWith(SignatureAlgorithm.HS512, SECRET).compact();
+        String invalid = token("9,a@example.com").claim(JwtUtil.ROLES_CLAIM, "employee")
+                .signWith(SignatureAlgorithm.HS512, SECRET).compact();
+        assertThat(jwtUtil.verifyAccessToken(future).get().getRoles()).containsExactly(UserRole.COURIER);
+        assertThat(jwtUtil.verifyAccessToken(legacy).get().getRoles()).isEmpty();
+        assertThat(jwtUtil.verifyAccessToken(invalid)).isEmpty();
+    }
+
+    /**
+     * Tests that tampered, foreign, expired and malformed tokens are refused
+     * and never cached, even after the genuine token was cached.
+     */
+    @Test
+    public void testInvalidTokensAreRefused() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 900_000, 1000, 60_000);
+        String token = jwtUtil.generateAccessToken(UserEntity.builder().id(1).email("a@example.com").build());
+        assertThat(jwtUtil.verifyAccessToken(token)).isPresent();
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        String foreign = token("1,a@example.com").signWith(SignatureAlgorithm.HS512, "another-secret").compact();
+        String expired = token("1,a@example.com").setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(SignatureAlgorithm.HS512, SECRET).compact();
+        String malformed = token("a@example.com").signWith(SignatureAlgorithm.HS512, SECRET).compact();
+
+        assertThat(jwtUtil.verifyAccessToken(tampered)).isEmpty();
+        assertThat(jwtUtil.verifyAccessToken(foreign)).isEmpty();
+        assertThat(jwtUtil.verifyAccessToken(expired)).isEmpty();
+        assertThat(jwtUtil.verifyAccessToken(malformed)).isEmpty();
+        assertThat(jwtUtil.verifyAccessToken("")).isEmpty();
+        assertThat(jwtUtil.verifiedCacheSize()).isEqualTo(1);
+    }
+
+    /**
+     * Tests that tokens issued without an expiry or an ID are refused, since
+     * they would never expire and could not be revoked at logout.
+     */
+    @Test
+    public void testTokensWithoutExpiryOrIdAreRefused() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 900_000, 1000, 60_000);
+        String legacy = Jwts.builder().setSubject("1,a@example.com")
+                .signWith(SignatureAlgorithm.HS512, SECRET).compact();
+        String withoutExpiry = Jwts.builder().setSubject("1,a@example.com").setId("a")
+                .signWith(SignatureAlgorithm.HS512, SECRET).compact();
+        String withoutId = Jwts.builder().setSubject("1,a@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS512, SECRET).compact();
+
+        assertThat(jwtUtil.verifyAccessToken(legacy)).isEmpty();
+        assertThat(jwtUtil.verifyAccessToken(withoutExpiry)).isEmpty();
+        assertThat(jwtUtil.verifyAccessToken(withoutId)).isEmpty();
+        assertThat(jwtUtil.validateAccessToken(legacy)).isFalse();
+        assertThat(jwtUtil.verifiedCacheSize()).isZero();
+    }
+
+    /**
+     * Tests that a token is trusted from the cache only until it expires, and
+     * that the cache time to live caps every entry.
+     */
+    @Test
+    public void testCachedEntriesRespectExpiry() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, 10_000);
+        long now = 1_000_000;
+        cache.put("expiring", new JwtPrincipal(1, "a@example.com", "a", now + 500, Set.of(), null, null), now);
+        cache.put("lasting", new JwtPrincipal(2, "b@example.com", "b", now + 60_000, Set.of(), null, null), now);
+        cache.put("expired", new JwtPrincipal(3, "c@example.com", "c", now, Set.of(), null, null), now);
+
+        assertThat(cache.get("expiring", now + 499)).isNotNull();
+        assertThat(cache.get("expiring", now + 500)).isNull();
+        assertThat(cache.get("lasting", now + 9_999)).isNotNull();
+        assertThat(cache.get("lasting", now + 10_000)).isNull();
+        assertThat(cache.get("expired", now)).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.hits()).isEqualTo(2);
+        assertThat(cache.misses()).isEqualTo(3);
+    }
+
+    /**
+     * Tests that the cache stays within its bound, evicting the least recently
+     * used tokens, and that a size of 0 disables it.
+     */
+    @Test
+    public void testCacheIsBoundedLru() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(64, 60_000);
+        JwtPrincipal principal = new JwtPrincipal(1, "a@example.com", "a", Long.MAX_VALUE, Set.of(), null, null);
+        cache.put("token-0", principal, 0);
+        for (int i = 1; i < 10_000; i++) {
+            // Keep the first token recently used
+            assertThat(cache.get("token-0", 0)).isSameAs(principal);
+            cache.put("token-" + i, principal, 0);
+        }
+        assertThat(cache.size()).isLessThanOrEqualTo(64);
+        assertThat(cache.get("token-0", 0)).isSameAs(principal);
+        assertThat(cache.get("token-1", 0)).isNull();
+
+        VerifiedTokenCache disabled = new VerifiedTokenCache(0, 60_000);
+        disabled.put("token", principal, 0);
+        assertThat(disabled.get("token", 0)).isNull();
+    }
+
+    // A token with the expiry and ID every access token carries
+    private static JwtBuilder token(String subject) {
+        return Jwts.builder().setSubject(subject).setId(UUID.randomUUID().toString())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000));
+    }
+}
@@ -0,0 +1,149 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for PasswordHashingExecutor.
+ */
+public class PasswordHashingExecutorTest {
+
+    private PasswordHashingExecutor hashing;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        hashing.close();
+    }
+
+    /**
+     * Tests a burst of logins at the default BCrypt work factor: every
+     * password is checked on the pool, legacy plain text passwords still
+     * match and are flagged for rehashing, and BCrypt hashes are not.
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testLoginBurstAtRealWorkFactor() throws Exception {
+        hashing = new PasswordHashingExecutor(4, 64, 30_000);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(10)));
+        delegating.setDefaultPasswordEncoderForMatches(NoOpPasswordEncoder.getInstance());
+        PasswordEncoder encoder = hashing.offload(delegating);
+
+        String hash = encoder.encode("secret");
+        assertThat(hash).startsWith("{bcrypt}$2a$10$");
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+        assertThat(encoder.matches("secret", "secret")).isTrue();
+        assertThat(encoder.upgradeEncoding("secret")).isTrue();
+
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Boolean>> logins = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                String password = i % 2 == 0 ? "secret" : "wrong";
+                logins.add(callers.submit(() -> encoder.matches(password, hash)));
+            }
+            for (int i = 0; i < logins.size(); i++) {
+                assertThat(logins.get(i).get(30, TimeUnit.SECONDS)).isEqualTo(i % 2 == 0);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertThat(hashing.getStats().getCompleted()).isEqualTo(34);
+        assertThat(hashing.getStats().getRejected()).isZero();
+        assertThat(hashing.getStats().getAverageHashMillis()).isPositive();
+        assertThat(hashing.getStats().getMaxLatencyMillis())
+                .isGreaterThanOrEqualTo(hashing.getStats().getAverageLatencyMillis());
+    }
+
+    /**
+     * Tests that once every thread is busy and the queue is full, a login is
+     * refused at once instead of waiting, and that the waiting ones complete.
+     */
+    @Test
+    public void testSaturatedPoolFailsFast() throws Exception {
+        hashing = new PasswordHashingExecutor(1, 1, 30_000);
+        PasswordEncoder encoder = hashing.offload(blockingEncoder());
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "a"));
+        waitFor(() -> hashing.getStats().getActive() == 1);
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "b"));
+        waitFor(() -> hashing.getStats().getQueued() == 1);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> encoder.matches("c", "c")).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(hashing.getStats().getRejected()).isEqualTo(1);
+        assertThat(hashing.getStats().getCompleted()).isEqualTo(2);
+    }
+
+    /**
+     * Tests that a caller gives up after the timeout and the pool recovers.
+     */
+    @Test
+    public void testHashTimesOut() {
+        hashing = new PasswordHashingExecutor(1, 1, 100);
+        PasswordEncoder encoder = hashing.offload(blockingEncoder());
+
+        assertThatThrownBy(() -> encoder.matches("a", "a")).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(hashing.getStats().getTimedOut()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(encoder.matches("a", "a")).isTrue();
+    }
+
+    /**
+     * Returns an encoder whose hashes block until the test releases them.
+     */
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
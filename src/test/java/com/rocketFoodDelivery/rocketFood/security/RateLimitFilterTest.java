@@ -0,0 +1,86 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RateLimitFilter.
+ */
+public class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    /**
+     * Setup method to wire the filter with a limiter of two orders per minute.
+     */
+    @BeforeEach
+    public void setUp() {
+        filter = new RateLimitFilter();
+        ReflectionTestUtils.setField(filter, "rateLimiter",
+                new RateLimiter(true, "POST /api/order=2:0.0166", 100, 100, 1000));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Tests that an anonymous client over its limit gets a 429 with a
+     * Retry-After header, without reaching the rest of the chain, and that
+     * other clients are unaffected.
+     */
+    @Test
+    public void testAnonymousClientsAreLimitedByAddress() throws Exception {
+        assertThat(doFilter("10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(doFilter("10.0.0.1").getStatus()).isEqualTo(200);
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse refused = doFilter("10.0.0.1", chain);
+        assertThat(refused.getStatus()).isEqualTo(429);
+        assertThat(Long.parseLong(refused.getHeader("Retry-After"))).isBetween(1L, 61L);
+        assertThat(refused.getContentAsString()).contains("Too many requests");
+        assertThat(chain.getRequest()).isNull();
+
+        assertThat(doFilter("10.0.0.2").getStatus()).isEqualTo(200);
+    }
+
+    /**
+     * Tests that an authenticated user is limited as one client whatever
+     * address its requests come from.
+     */
+    @Test
+    public void testAuthenticatedUsersAreLimitedByUser() throws Exception {
+        UserEntity user = UserEntity.builder().id(12).email("a@example.com").build();
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+
+        assertThat(doFilter("10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(doFilter("10.0.0.2").getStatus()).isEqualTo(200);
+        assertThat(doFilter("10.0.0.3").getStatus()).isEqualTo(429);
+    }
+
+    private MockHttpServletResponse doFilter(String address) throws Exception {
+        return doFilter(address, new MockFilterChain());
+    }
+
+    private MockHttpServletResponse doFilter(String address, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/order");
+        request.setRemoteAddr(address);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
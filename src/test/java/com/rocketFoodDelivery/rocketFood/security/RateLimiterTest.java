@@ -0,0 +1,169 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for RateLimiter.
+ */
+public class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Tests that a bucket lets a burst of its capacity through, then refuses
+     * with the time until the next token, and refills at its rate.
+     */
+    @Test
+    public void testBucketAllowsBurstThenRefills() {
+        RateLimiter limiter = new RateLimiter(true, "POST /api/order=3:1", 100, 100, 1000);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("POST", "/api/order", "ip:1", now)).isZero();
+        }
+        assertThat(limiter.tryAcquire("POST", "/api/order", "ip:1", now)).isEqualTo(SECOND);
+        assertThat(limiter.tryAcquire("POST", "/api/order", "ip:1", now + SECOND / 2)).isEqualTo(SECOND / 2);
+        assertThat(limiter.tryAcquire("POST", "/api/order", "ip:1", now + SECOND)).isZero();
+        assertThat(limiter.tryAcquire("POST", "/api/order", "ip:1", now + SECOND)).isPositive();
+
+        // A long pause refills the bucket to its capacity, not beyond
+        long later = now + 60 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("POST", "/api/order", "ip:1", later)).isZero();
+        }
+        assertThat(limiter.tryAcquire("POST", "/api/order", "ip:1", later)).isPositive();
+        assertThat(limiter.getStats().getAllowed()).isEqualTo(7);
+        assertThat(limiter.getStats().getLimited()).isEqualTo(4);
+    }
+
+    /**
+     * Tests that rules match by method and path, first match first, and that
+     * every client and rule has its own bucket.
+     */
+    @Test
+    public void testRoutesAndClientsHaveSeparateBuckets() {
+        RateLimiter limiter = new RateLimiter(true, "POST /api/order=1:1, /api/order/**=2:1", 5, 1, 1000);
+        long now = System.nanoTime();
+
+        assertThat(limiter.tryAcquire("POST", "/api/order", "user:1", now)).isZero();
+        assertThat(limiter.tryAcquire("POST", "/api/order", "user:1", now)).isPositive();
+        assertThat(limiter.tryAcquire("POST", "/api/order", "user:2", now)).isZero();
+
+        assertThat(limiter.tryAcquire("GET", "/api/order/export", "user:1", now)).isZero();
+        assertThat(limiter.tryAcquire("POST", "/api/order/7/status", "user:1", now)).isZero();
+        assertThat(limiter.tryAcquire("GET", "/api/order/export", "user:1", now)).isPositive();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("GET", "/api/restaurants", "user:1", now)).isZero();
+        }
+        assertThat(limiter.tryAcquire("GET", "/api/restaurants", "user:1", now)).isPositive();
+        assertThat(limiter.getStats().getRules()).isEqualTo(3);
+
+        RateLimiter disabled = new RateLimiter(false, "POST /api/order=1:1", 1, 1, 1000);
+        for (int i = 0; i < 10; i++) {
+            assertThat(disabled.tryAcquire("POST", "/api/order", "user:1", now)).isZero();
+        }
+    }
+
+    /**
+     * Tests that the number of buckets stays bounded, that clients finding
+     * their stripe full share its bucket, and that refilled buckets are
+     * dropped.
+     */
+    @Test
+    public void testBucketsAreBoundedAndIdleOnesEvicted() {
+        // One bucket per stripe
+        RateLimiter limiter = new RateLimiter(true, "", 2, 1, 64);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("GET", "/api/restaurants", "ip:" + i, now);
+        }
+        assertThat(limiter.getStats().getBuckets()).isLessThanOrEqualTo(64);
+        assertThat(limiter.getStats().getOverflowed()).isPositive();
+        // The shared buckets hold the overflowing clients to the limit of one
+        assertThat(limiter.getStats().getAllowed()).isLessThanOrEqualTo(64 * 2 + 64 * 2);
+
+        // Once refilled, the buckets of a stripe make room for new clients
+        long later = now + 10 * SECOND;
+        long evictedBefore = limiter.getStats().getEvicted();
+        assertThat(limiter.tryAcquire("GET", "/api/restaurants", "ip:new", later)).isZero();
+        assertThat(limiter.getStats().getEvicted()).isGreaterThan(evictedBefore);
+
+        // A bucket still refilling survives the sweep, a full one does not
+        RateLimiter swept = new RateLimiter(true, "", 2, 1, 1000);
+        long start = System.nanoTime();
+        swept.tryAcquire("GET", "/", "ip:busy", start + 60 * SECOND);
+        swept.tryAcquire("GET", "/", "ip:idle", start - 60 * SECOND);
+        swept.sweep();
+        assertThat(swept.getStats().getBuckets()).isEqualTo(1);
+        assertThat(swept.getStats().getEvicted()).isEqualTo(1);
+    }
+
+    /**
+     * Tests the limiter under 64 concurrent threads: on one shared bucket
+     * exactly its capacity is let through, however the compare-and-sets
+     * interleave, and threads with their own buckets are never refused.
+     */
+    @Test
+    public void testConcurrentAcquireIsExact() throws Exception {
+        RateLimiter limiter = new RateLimiter(true, "/shared=10000:0.001, /own=100000:0.001", 1, 1, 100_000);
+        ExecutorService threads = Executors.newFixedThreadPool(64);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < 64; t++) {
+                String own = "user:" + t;
+                results.add(threads.submit(() -> {
+                    start.await();
+                    int[] allowed = new int[2];
+                    for (int i = 0; i < 1_000; i++) {
+                        if (limiter.tryAcquire("GET", "/shared", "ip:1") == 0) {
+                            allowed[0]++;
+                        }
+                        if (limiter.tryAcquire("GET", "/own", own) == 0) {
+                            allowed[1]++;
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            start.countDown();
+            int shared = 0;
+            for (Future<int[]> result : results) {
+                int[] allowed = result.get(30, TimeUnit.SECONDS);
+                shared += allowed[0];
+                assertThat(allowed[1]).isEqualTo(1_000);
+            }
+            assertThat(shared).isEqualTo(10_000);
+            assertThat(limiter.getStats().getLimited()).isEqualTo(64 * 1_000 - 10_000);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that malformed rules are refused at startup.
+     */
+    @Test
+    public void testMalformedRulesAreRefused() {
+        assertThatThrownBy(() -> RateLimiter.parseRules("/api/order=10", 1, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RateLimiter.parseRules("/api/order=0:1", 1, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RateLimiter.parseRules("/api/order=ten:1", 1, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(RateLimiter.parseRules(" GET /api/order/** = 10 : 2 ,", 1, 1)).hasSize(2);
+    }
+}
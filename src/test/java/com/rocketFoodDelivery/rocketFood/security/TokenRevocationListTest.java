@@ -0,0 +1,127 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import com.rocketFoodDelivery.rocketFood.models.RevokedToken;
+import com.rocketFoodDelivery.rocketFood.repository.RevokedTokenRepository;
+import com.rocketFoodDelivery.rocketFood.util.BloomFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for TokenRevocationList and its Bloom filter.
+ */
+public class TokenRevocationListTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private final Set<String> table = new HashSet<>();
+
+    /**
+     * Setup method to back the mocked repository with an in-memory table.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(revokedTokenRepository.save(any(RevokedToken.class))).thenAnswer(invocation -> {
+            RevokedToken token = invocation.getArgument(0);
+            table.add(token.getTokenId());
+            return token;
+        });
+        when(revokedTokenRepository.existsById(anyString()))
+                .thenAnswer(invocation -> table.contains(invocation.<String>getArgument(0)));
+    }
+
+    /**
+     * Tests that revoked tokens are rejected and that, over 100,000 tokens
+     * never revoked, only about the configured share reaches the table.
+     */
+    @Test
+    public void testOnlyFilterPositivesReachTheTable() {
+        TokenRevocationList revocations = new TokenRevocationList(revokedTokenRepository, 10_000, 0.01);
+        List<String> revoked = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String tokenId = UUID.randomUUID().toString();
+            revocations.revoke(tokenId, Instant.now().plusSeconds(900));
+            revoked.add(tokenId);
+        }
+
+        for (String tokenId : revoked) {
+            assertThat(revocations.isRevoked(tokenId)).isTrue();
+        }
+        int accepted = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (!revocations.isRevoked(UUID.randomUUID().toString())) {
+                accepted++;
+            }
+        }
+
+        assertThat(accepted).isEqualTo(100_000);
+        assertThat(revocations.isRevoked(null)).isFalse();
+        assertThat(revocations.getStats().getEntries()).isEqualTo(10_000);
+        assertThat(revocations.getStats().getLookups()).isEqualTo(10_000 + revocations.getStats().getFalsePositives());
+        assertThat(revocations.getStats().getFalsePositives()).isLessThan(2_000);
+    }
+
+    /**
+     * Tests that a reload deletes expired rows and rebuilds the filter from
+     * the table, so revocations made elsewhere are picked up.
+     */
+    @Test
+    public void testReloadRebuildsFromTable() {
+        TokenRevocationList revocations = new TokenRevocationList(revokedTokenRepository, 1_000, 0.001);
+        table.add("revoked-elsewhere");
+        when(revokedTokenRepository.findUnexpiredTokenIds(any(Instant.class)))
+                .thenReturn(List.of("revoked-elsewhere"));
+        assertThat(revocations.isRevoked("revoked-elsewhere")).isFalse();
+
+        revocations.reload();
+
+        assertThat(revocations.isRevoked("revoked-elsewhere")).isTrue();
+        assertThat(revocations.getStats().getEntries()).isEqualTo(1);
+        assertThat(revocations.getStats().getLastReloadAt()).isNotNull();
+        verify(revokedTokenRepository).deleteExpired(any(Instant.class));
+    }
+
+    /**
+     * Tests that a value never added is rejected without a lookup, and that a
+     * filter never forgets a value.
+     */
+    @Test
+    public void testBloomFilterHasNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(50_000, 0.001);
+        for (int i = 0; i < 50_000; i++) {
+            filter.put("token-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 50_000; i++) {
+            assertThat(filter.mightContain("token-" + i)).isTrue();
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives).isLessThan(200);
+        assertThat(filter.hashCount()).isEqualTo(10);
+        // About 1.8 bytes per entry at 0.1%
+        assertThat(filter.bitSize() / 8).isLessThan(100_000);
+        TokenRevocationList empty = new TokenRevocationList(revokedTokenRepository, 1_000, 0.01);
+        assertThat(empty.isRevoked("token")).isFalse();
+        verify(revokedTokenRepository, never()).existsById(anyString());
+    }
+}
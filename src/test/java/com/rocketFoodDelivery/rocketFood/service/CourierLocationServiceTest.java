@@ -0,0 +1,264 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierLocationBatchDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierLocationDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierLocationResultDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiNearbyCourierDto;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ForbiddenException;
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.repository.CourierRepository;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantLocationProjection;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CourierLocationService.
+ */
+public class CourierLocationServiceTest {
+
+    private static final double CENTER_LATITUDE = 45.5017;
+    private static final double CENTER_LONGITUDE = -73.5673;
+    private static final UserEntity EMPLOYEE = UserEntity.builder().id(99).isEmployee(true).build();
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+    @Mock
+    private CourierRepository courierRepository;
+
+    /**
+     * Setup method to initialize the mocks before each test. Every courier
+     * below 1000 exists.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(courierRepository.findExistingIds(anyCollection())).thenAnswer(invocation -> invocation
+                .<Collection<Integer>>getArgument(0).stream().filter(id -> id < 1000).collect(Collectors.toList()));
+    }
+
+    /**
+     * Tests that each courier keeps only its newest positions, newest first,
+     * and that positions older than the latest one are ignored.
+     */
+    @Test
+    public void testHistoryKeepsNewestPositions() {
+        CourierLocationService service = service(4, 100);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 6; i++) {
+            service.update(1, CENTER_LATITUDE + i * 0.001, CENTER_LONGITUDE, now - 10_000 + i);
+        }
+
+        ApiCourierLocationResultDto result = service.record(batch(
+                location(1, CENTER_LATITUDE, CENTER_LONGITUDE, now - 20_000),
+                location(2, CENTER_LATITUDE, CENTER_LONGITUDE, null)), EMPLOYEE);
+
+        assertThat(result.getAccepted()).isEqualTo(1);
+        assertThat(result.getIgnored()).isEqualTo(1);
+        assertThat(service.getHistory(1)).extracting(ApiCourierLocationDto::getTimestamp)
+                .containsExactly(now - 9_995, now - 9_996, now - 9_997, now - 9_998);
+        assertThat(service.getStats().getCouriers()).isEqualTo(2);
+    }
+
+    /**
+     * Tests that radius queries over 50,000 couriers spread across a city
+     * return exactly what a brute-force scan finds.
+     */
+    @Test
+    public void testFindNearMatchesBruteForce() {
+        CourierLocationService service = service(16, 100_000);
+        Random random = new Random(42);
+        int couriers = 50_000;
+        double[][] positions = new double[couriers + 1][];
+        long now = System.currentTimeMillis();
+        for (int id = 1; id <= couriers; id++) {
+            positions[id] = new double[] { CENTER_LATITUDE + (random.nextDouble() - 0.5) * 0.4,
+                    CENTER_LONGITUDE + (random.nextDouble() - 0.5) * 0.6 };
+            service.update(id, positions[id][0], positions[id][1], now);
+        }
+        assertThat(service.indexedEntries()).isEqualTo(couriers);
+
+        for (int query = 0; query < 20; query++) {
+            double latitude = CENTER_LATITUDE + (random.nextDouble() - 0.5) * 0.3;
+            double longitude = CENTER_LONGITUDE + (random.nextDouble() - 0.5) * 0.4;
+            double radius = 200 + random.nextDouble() * 1500;
+            List<Integer> expected = new ArrayList<>();
+            for (int id = 1; id <= couriers; id++) {
+                if (CourierLocationService.distanceMeters(latitude, longitude, positions[id][0],
+                        positions[id][1]) <= radius) {
+                    expected.add(id);
+                }
+            }
+
+            List<ApiNearbyCourierDto> found = service.findNear(latitude, longitude, radius, 100);
+            assertThat(found).hasSize(Math.min(100, expected.size()));
+            assertThat(found).isSortedAccordingTo((a, b) -> Double.compare(a.getDistanceMeters(), b.getDistanceMeters()));
+            assertThat(expected).containsAll(found.stream().map(ApiNearbyCourierDto::getCourierId)
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Tests that the grid wraps around the antimeridian, and that stale
+     * positions are neither found nor kept.
+     */
+    @Test
+    public void testAntimeridianAndStalePositions() {
+        CourierLocationService service = service(4, 100);
+        long now = System.currentTimeMillis();
+        service.update(1, 0, 179.999, now);
+        service.update(2, 0, -179.999, now - 600_000);
+
+        assertThat(service.findNear(0, -179.999, 1000, null)).extracting(ApiNearbyCourierDto::getCourierId)
+                .containsExactly(1);
+
+        service.evictSilentCouriers();
+        assertThat(service.getStats().getCouriers()).isEqualTo(1);
+        assertThat(service.getStats().getEvicted()).isEqualTo(1);
+        assertThat(service.indexedEntries()).isEqualTo(1);
+    }
+
+    /**
+     * Tests the restaurant query, and that invalid input and new couriers
+     * beyond max-couriers are refused.
+     */
+    @Test
+    public void testRestaurantQueryAndValidation() {
+        CourierLocationService service = service(4, 2);
+        RestaurantLocationProjection location = new RestaurantLocationProjection() {
+            @Override
+            public Double getLatitude() {
+                return CENTER_LATITUDE;
+            }
+
+            @Override
+            public Double getLongitude() {
+                return CENTER_LONGITUDE;
+            }
+        };
+        when(restaurantRepository.findRestaurantLocationById(3)).thenReturn(Optional.of(location));
+        service.record(batch(location(1, CENTER_LATITUDE + 0.001, CENTER_LONGITUDE, null),
+                location(2, CENTER_LATITUDE + 0.1, CENTER_LONGITUDE, null)), EMPLOYEE);
+
+        assertThat(service.findNearRestaurant(3, 1000, null)).extracting(ApiNearbyCourierDto::getCourierId)
+                .containsExactly(1);
+        assertThatThrownBy(() -> service.record(batch(location(1, 91.0, 0.0, null)), EMPLOYEE))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.findNear(0, 0, 100_000, null)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.record(batch(location(3, 0.0, 0.0, null)), EMPLOYEE))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    /**
+     * Tests that a courier may only report its own position, without a
+     * query, and that unknown couriers are refused before they take a slot
+     * of max-couriers.
+     */
+    @Test
+    public void testCouriersReportOnlyThemselves() {
+        CourierLocationService service = service(4, 100);
+        UserEntity courier = UserEntity.builder().id(10).courierId(5).build();
+
+        assertThat(service.record(batch(location(5, CENTER_LATITUDE, CENTER_LONGITUDE, null)), courier)
+                .getAccepted()).isEqualTo(1);
+        assertThatThrownBy(() -> service.record(batch(location(5, CENTER_LATITUDE, CENTER_LONGITUDE, null),
+                location(6, CENTER_LATITUDE, CENTER_LONGITUDE, null)), courier))
+                .isInstanceOf(ForbiddenException.class);
+        assertThatThrownBy(() -> service.record(batch(location(5, CENTER_LATITUDE, CENTER_LONGITUDE, null)),
+                UserEntity.builder().id(11).build())).isInstanceOf(ForbiddenException.class);
+        assertThatThrownBy(() -> service.record(batch(location(5, CENTER_LATITUDE, CENTER_LONGITUDE, null)), null))
+                .isInstanceOf(ForbiddenException.class);
+        verify(courierRepository, never()).findExistingIds(anyCollection());
+
+        assertThatThrownBy(() -> service.record(batch(location(6, CENTER_LATITUDE, CENTER_LONGITUDE, null),
+                location(1000, CENTER_LATITUDE, CENTER_LONGITUDE, null)), EMPLOYEE))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Unknown courier 1000");
+        assertThat(service.getStats().getCouriers()).isEqualTo(1);
+    }
+
+    /**
+     * Tests that concurrent updates and queries leave every courier in exactly
+     * one grid cell. This is a correctness check, not a benchmark.
+     */
+    @Test
+    public void testConcurrentUpdatesKeepOneCellPerCourier() throws Exception {
+        CourierLocationService service = service(8, 100_000);
+        int threads = 4;
+        int couriersPerThread = 2_000;
+        int moves = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            Future<?> reader = executor.submit(() -> {
+                Random random = new Random(7);
+                while (writing.get()) {
+                    service.findNear(CENTER_LATITUDE + (random.nextDouble() - 0.5) * 0.2, CENTER_LONGITUDE, 2000, 50);
+                }
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int first = t * couriersPerThread + 1;
+                writers.add(executor.submit(() -> {
+                    Random random = new Random(first);
+                    long timestamp = System.currentTimeMillis() - moves;
+                    for (int move = 0; move < moves; move++) {
+                        for (int id = first; id < first + couriersPerThread; id++) {
+                            service.update(id, CENTER_LATITUDE + (random.nextDouble() - 0.5) * 0.2,
+                                    CENTER_LONGITUDE + (random.nextDouble() - 0.5) * 0.2, timestamp + move);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int couriers = threads * couriersPerThread;
+        assertThat(service.getStats().getCouriers()).isEqualTo(couriers);
+        assertThat(service.getStats().getUpdates()).isEqualTo((long) couriers * moves);
+        assertThat(service.indexedEntries()).isEqualTo(couriers);
+        assertThat(service.getHistory(1)).hasSize(8);
+    }
+
+    private CourierLocationService service(int historySize, int maxCouriers) {
+        return new CourierLocationService(restaurantRepository, courierRepository, historySize, 500, maxCouriers,
+                120_000, 300_000);
+    }
+
+    private static ApiCourierLocationBatchDto batch(ApiCourierLocationDto... locations) {
+        return new ApiCourierLocationBatchDto(List.of(locations));
+    }
+
+    private static ApiCourierLocationDto location(int courierId, Double latitude, Double longitude, Long timestamp) {
+        return new ApiCourierLocationDto(courierId, latitude, longitude, timestamp);
+    }
+}
@@ -0,0 +1,317 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiDispatchStatsDto;
+import com.rocketFoodDelivery.rocketFood.models.CourierStatus;
+import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
+import com.rocketFoodDelivery.rocketFood.repository.CourierAssignment;
+import com.rocketFoodDelivery.rocketFood.repository.CourierRepository;
+import com.rocketFoodDelivery.rocketFood.repository.OrderRepository;
+import com.rocketFoodDelivery.rocketFood.repository.OrderSummaryRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the dispatch engine of CourierService, simulated against
+ * in-memory courier and order tables.
+ */
+public class CourierServiceTest {
+
+    private static final int FREE = 1;
+    private static final int BUSY = 2;
+    private static final int PENDING = 1;
+    private static final int DELIVERED = 3;
+
+    @Mock
+    private CourierRepository courierRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private ReferenceDataRegistry referenceDataRegistry;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // In-memory tables: courier ID to status ID, order ID to assigned courier ID (0 when unassigned)
+    private final Map<Integer, Integer> couriers = new TreeMap<>();
+    private final Map<Integer, Integer> orderStatuses = new TreeMap<>();
+    private final Map<Integer, Integer> orderCouriers = new HashMap<>();
+    private final List<CourierAssignment> applied = new ArrayList<>();
+    // Orders not committed yet, invisible to the queries
+    private final Set<Integer> uncommitted = new HashSet<>();
+
+    /**
+     * Setup method to back the repositories with the in-memory tables.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(referenceDataRegistry.findCourierStatus("free")).thenReturn(Optional.of(new CourierStatus(FREE, "free")));
+        when(referenceDataRegistry.findCourierStatus("busy")).thenReturn(Optional.of(new CourierStatus(BUSY, "busy")));
+        when(referenceDataRegistry.findOrderStatus("pending")).thenReturn(Optional.of(new OrderStatus(PENDING, "pending")));
+        when(referenceDataRegistry.findOrderStatus("in progress")).thenReturn(Optional.empty());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        when(courierRepository.findActiveCourierIdsByStatus(anyInt())).thenAnswer(invocation -> {
+            int statusId = invocation.getArgument(0);
+            return couriers.entrySet().stream().filter(entry -> entry.getValue() == statusId)
+                    .map(Map.Entry::getKey).collect(Collectors.toList());
+        });
+        when(courierRepository.updateStatusesIfCurrent(anyCollection(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            Collection<Integer> ids = invocation.getArgument(0);
+            int expected = invocation.getArgument(1);
+            int next = invocation.getArgument(2);
+            return ids.stream().mapToInt(id -> {
+                if (couriers.get(id) != expected) {
+                    return 0;
+                }
+                couriers.put(id, next);
+                return 1;
+            }).toArray();
+        });
+        when(orderRepository.findUnassignedOrders(anyCollection(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            Collection<Integer> statusIds = invocation.getArgument(0);
+            int afterId = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            return orderStatuses.entrySet().stream()
+                    .filter(entry -> entry.getKey() > afterId && statusIds.contains(entry.getValue())
+                            && orderCouriers.get(entry.getKey()) == 0 && !uncommitted.contains(entry.getKey()))
+                    .limit(limit)
+                    .map(entry -> new OrderSummaryRow(entry.getKey(), 5, entry.getKey() % 7, null, entry.getValue()))
+                    .collect(Collectors.toList());
+        });
+        when(orderRepository.assignCouriers(anyList(), anyCollection())).thenAnswer(invocation -> {
+            List<CourierAssignment> assignments = invocation.getArgument(0);
+            Collection<Integer> statusIds = invocation.getArgument(1);
+            return assignments.stream().mapToInt(assignment -> {
+                int orderId = assignment.getOrderId();
+                if (orderCouriers.get(orderId) != 0 || !statusIds.contains(orderStatuses.get(orderId))) {
+                    return 0;
+                }
+                orderCouriers.put(orderId, assignment.getCourierId());
+                applied.add(assignment);
+                return 1;
+            }).toArray();
+        });
+    }
+
+    /**
+     * Tests a simulated rush of 5000 orders and 3000 couriers: every courier
+     * gets exactly one order, no order gets two couriers, and the oldest
+     * orders are served first.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDispatchAssignsOldestOrdersOncePerCourier() {
+        addCouriers(1, 3000);
+        addOrders(1, 5000);
+        CourierService service = service(500, 16, new IdleTimeDispatchScorer());
+
+        int total = 0;
+        for (int round = 0; round < 20; round++) {
+            total += service.dispatch();
+        }
+
+        assertThat(total).isEqualTo(3000);
+        assertThat(applied).hasSize(3000);
+        assertThat(applied.stream().map(CourierAssignment::getCourierId).collect(Collectors.toSet())).hasSize(3000);
+        assertThat(applied.stream().map(CourierAssignment::getOrderId).collect(Collectors.toSet()))
+                .isEqualTo(range(1, 3000));
+        assertThat(couriers.values()).containsOnly(BUSY);
+        ApiDispatchStatsDto stats = service.getStats();
+        assertThat(stats.getAssigned()).isEqualTo(3000);
+        assertThat(stats.getPendingOrders()).isEqualTo(2000);
+        assertThat(stats.getIdleCouriers()).isZero();
+        assertThat(stats.getConflicts()).isZero();
+        assertThat(stats.getBatches()).isEqualTo(6);
+        // Every assigned order is journaled and published, like any other order change
+        ArgumentCaptor<Collection<Integer>> recorded = ArgumentCaptor.forClass(Collection.class);
+        verify(orderService, times(6)).recordCourierAssignments(recorded.capture());
+        assertThat(recorded.getAllValues().stream().flatMap(Collection::stream).collect(Collectors.toSet()))
+                .isEqualTo(range(1, 3000));
+    }
+
+    /**
+     * Tests that a courier taken elsewhere is dropped while its order waits
+     * for another courier, and that an order assigned or closed elsewhere is
+     * dropped while its courier is released for the next order.
+     */
+    @Test
+    public void testConflictsRequeueTheOtherSide() {
+        addCouriers(1, 2);
+        addOrders(1, 3);
+        // Between matching and persisting, courier 1 is taken and order 2 delivered elsewhere
+        boolean[] changed = { false };
+        DispatchScorer scorer = (order, courier, now) -> {
+            if (!changed[0]) {
+                changed[0] = true;
+                couriers.put(1, BUSY);
+                orderStatuses.put(2, DELIVERED);
+            }
+            return -(now - courier.getIdleSinceMillis());
+        };
+        CourierService service = new CourierService(courierRepository, orderRepository, orderService,
+                referenceDataRegistry, scorer, transactionManager, true, 500, 1, 60_000, 60_000);
+
+        assertThat(service.dispatch()).isZero();
+        assertThat(service.getStats().getConflicts()).isEqualTo(2);
+        assertThat(couriers).containsEntry(2, FREE);
+
+        assertThat(service.dispatch()).isEqualTo(1);
+        assertThat(applied).extracting(CourierAssignment::getOrderId).containsExactly(1);
+        assertThat(applied).extracting(CourierAssignment::getCourierId).containsExactly(2);
+        ApiDispatchStatsDto stats = service.getStats();
+        assertThat(stats.getPendingOrders()).isEqualTo(1);
+        assertThat(stats.getIdleCouriers()).isZero();
+    }
+
+    /**
+     * Tests that a custom scorer decides which courier an order gets, and
+     * that an order no courier is eligible for keeps waiting.
+     */
+    @Test
+    public void testCustomScorerIsRespected() {
+        addCouriers(1, 4);
+        addOrders(1, 2);
+        // Order 1 only accepts even couriers and prefers the highest ID, order 2 accepts none
+        DispatchScorer scorer = (order, courier, now) -> {
+            if (order.getOrderId() == 2 || courier.getCourierId() % 2 != 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return -courier.getCourierId();
+        };
+        CourierService service = service(500, 4, scorer);
+
+        assertThat(service.dispatch()).isEqualTo(1);
+        assertThat(service.dispatch()).isZero();
+
+        assertThat(applied).extracting(CourierAssignment::getCourierId).containsExactly(4);
+        assertThat(applied).extracting(CourierAssignment::getOrderId).containsExactly(1);
+        ApiDispatchStatsDto stats = service.getStats();
+        assertThat(stats.getPendingOrders()).isEqualTo(1);
+        assertThat(stats.getIdleCouriers()).isEqualTo(3);
+    }
+
+    /**
+     * Tests that a courier released by the delivery of its order, as
+     * OrderService does in the status change transaction, gets the next
+     * order in a later batch.
+     */
+    @Test
+    public void testDeliveredOrderFreesItsCourier() {
+        addCouriers(1, 1);
+        addOrders(1, 2);
+        CourierService service = service(500, 16, new IdleTimeDispatchScorer());
+
+        assertThat(service.dispatch()).isEqualTo(1);
+        assertThat(service.dispatch()).isZero();
+        assertThat(couriers).containsEntry(1, BUSY);
+
+        orderStatuses.put(1, DELIVERED);
+        courierRepository.updateStatusesIfCurrent(List.of(1), BUSY, FREE);
+
+        assertThat(service.dispatch()).isEqualTo(1);
+        assertThat(applied).extracting(CourierAssignment::getOrderId).containsExactly(1, 2);
+        assertThat(applied).extracting(CourierAssignment::getCourierId).containsExactly(1, 1);
+        assertThat(service.getStats().getPendingOrders()).isZero();
+    }
+
+    /**
+     * Tests that a rescan queues an order that became visible after a higher
+     * ID was read, which an incremental refresh never would, and drops an
+     * order assigned elsewhere.
+     */
+    @Test
+    public void testRescanQueuesLateOrdersAndDropsAssignedOnes() {
+        addOrders(1, 3);
+        uncommitted.add(2);
+        CourierService service = service(500, 16, new IdleTimeDispatchScorer(), 0);
+        service.dispatch();
+
+        // Order 2 commits after order 3 was read, and order 3 is assigned elsewhere
+        uncommitted.clear();
+        orderCouriers.put(3, 99);
+        addCouriers(1, 2);
+
+        assertThat(service.dispatch()).isEqualTo(2);
+        assertThat(applied).extracting(CourierAssignment::getOrderId).containsExactly(1, 2);
+        assertThat(service.getStats().getConflicts()).isZero();
+        assertThat(service.getStats().getPendingOrders()).isZero();
+        verify(orderService).recordCourierAssignments(Set.of(1, 2));
+    }
+
+    /**
+     * Tests that a disabled engine never touches the database.
+     */
+    @Test
+    public void testDisabledDispatchDoesNothing() {
+        addCouriers(1, 2);
+        addOrders(1, 2);
+        CourierService service = new CourierService(courierRepository, orderRepository, orderService,
+                referenceDataRegistry, new IdleTimeDispatchScorer(), transactionManager, false, 500, 16, 0, 0);
+
+        assertThat(service.dispatch()).isZero();
+        assertThat(applied).isEmpty();
+        assertThat(service.getStats().isEnabled()).isFalse();
+    }
+
+    private CourierService service(int batchSize, int candidates, DispatchScorer scorer) {
+        // A refresh interval of 0 reloads the queues before every micro-batch
+        return service(batchSize, candidates, scorer, 0);
+    }
+
+    private CourierService service(int batchSize, int candidates, DispatchScorer scorer, long rescanMillis) {
+        return new CourierService(courierRepository, orderRepository, orderService, referenceDataRegistry, scorer,
+                transactionManager, true, batchSize, candidates, 0, rescanMillis);
+    }
+
+    private void addCouriers(int from, int to) {
+        for (int id = from; id <= to; id++) {
+            couriers.put(id, FREE);
+        }
+    }
+
+    private void addOrders(int from, int to) {
+        for (int id = from; id <= to; id++) {
+            orderStatuses.put(id, PENDING);
+            orderCouriers.put(id, 0);
+        }
+    }
+
+    private static Set<Integer> range(int from, int to) {
+        Set<Integer> ids = new HashSet<>();
+        for (int id = from; id <= to; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+}
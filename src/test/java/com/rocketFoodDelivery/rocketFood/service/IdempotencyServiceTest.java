@@ -0,0 +1,245 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderDto;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ConflictException;
+import com.rocketFoodDelivery.rocketFood.models.IdempotencyRecord;
+import com.rocketFoodDelivery.rocketFood.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for IdempotencyService.
+ */
+public class IdempotencyServiceTest {
+
+    private static final Map<String, Integer> REQUEST = Map.of("restaurant_id", 3);
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyService idempotencyService;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    /**
+     * Setup method to initialize the in-memory service before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyService = service(false, 100);
+    }
+
+    /**
+     * Tests that a replayed key returns the original result without running
+     * the action again.
+     */
+    @Test
+    public void testReplayReturnsOriginalResult() {
+        ApiOrderDto first = idempotencyService.execute("user", "key-1", REQUEST, ApiOrderDto.class, this::createOrder);
+        ApiOrderDto second = idempotencyService.execute("user", "key-1", REQUEST, ApiOrderDto.class, this::createOrder);
+
+        assertThat(second.getId()).isEqualTo(first.getId());
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(idempotencyService.getReplayCount()).isEqualTo(1);
+
+        idempotencyService.execute("other-user", "key-1", REQUEST, ApiOrderDto.class, this::createOrder);
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    /**
+     * Tests that reusing a key with a different request is a conflict, and
+     * that blank keys are rejected.
+     */
+    @Test
+    public void testKeyReuseWithDifferentRequestIsRejected() {
+        idempotencyService.execute("user", "key-1", REQUEST, ApiOrderDto.class, this::createOrder);
+
+        assertThatThrownBy(() -> idempotencyService.execute("user", "key-1", Map.of("restaurant_id", 4),
+                ApiOrderDto.class, this::createOrder))
+                .isInstanceOf(ConflictException.class);
+        assertThatThrownBy(() -> idempotencyService.execute("user", " ", REQUEST, ApiOrderDto.class,
+                this::createOrder))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    /**
+     * Tests that a key is rejected up front when, scoped by the user, it
+     * would not fit the idempotency_keys column.
+     */
+    @Test
+    public void testScopedKeyMustFitTheColumn() {
+        String email = "a".repeat(200) + "@example.com";
+        String longest = "k".repeat(IdempotencyRecord.MAX_KEY_LENGTH - email.length() - 1);
+
+        idempotencyService.execute(email, longest, REQUEST, ApiOrderDto.class, this::createOrder);
+        assertThatThrownBy(() -> idempotencyService.execute(email, longest + "k", REQUEST, ApiOrderDto.class,
+                this::createOrder))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Idempotency-Key must be 1 to " + longest.length() + " characters");
+        assertThatThrownBy(() -> idempotencyService.execute("user", "k".repeat(256), REQUEST, ApiOrderDto.class,
+                this::createOrder))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    /**
+     * Tests that a failed request is forgotten, so a retry runs again.
+     */
+    @Test
+    public void testFailureIsNotRemembered() {
+        assertThatThrownBy(() -> idempotencyService.execute("user", "key-1", REQUEST, ApiOrderDto.class, () -> {
+            throw new IllegalStateException("Database unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+
+        idempotencyService.execute("user", "key-1", REQUEST, ApiOrderDto.class, this::createOrder);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    /**
+     * Tests that concurrent requests with the same key are coalesced into a
+     * single execution.
+     */
+    @Test
+    public void testConcurrentRequestsAreCoalesced() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Callable<ApiOrderDto> request = () -> idempotencyService.execute("user", "key-1", REQUEST,
+                    ApiOrderDto.class, () -> {
+                        running.countDown();
+                        await(release);
+                        return createOrder();
+                    });
+            Future<ApiOrderDto> leader = executor.submit(request);
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+            List<Future<ApiOrderDto>> followers = List.of(executor.submit(request), executor.submit(request), executor.submit(request));
+            release.countDown();
+
+            int leaderId = leader.get(5, TimeUnit.SECONDS).getId();
+            for (Future<ApiOrderDto> follower : followers) {
+                assertThat(follower.get(5, TimeUnit.SECONDS).getId()).isEqualTo(leaderId);
+            }
+            assertThat(executions.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that the in-memory store stays within its bound by evicting the
+     * oldest keys.
+     */
+    @Test
+    public void testStoreIsBounded() {
+        IdempotencyService small = service(false, 2);
+        small.execute("user", "key-1", REQUEST, ApiOrderDto.class, this::createOrder);
+        small.execute("user", "key-2", REQUEST, ApiOrderDto.class, this::createOrder);
+        small.execute("user", "key-3", REQUEST, ApiOrderDto.class, this::createOrder);
+
+        small.execute("user", "key-3", REQUEST, ApiOrderDto.class, this::createOrder);
+        assertThat(executions.get()).isEqualTo(3);
+        small.execute("user", "key-1", REQUEST, ApiOrderDto.class, this::createOrder);
+        assertThat(executions.get()).isEqualTo(4);
+    }
+
+    /**
+     * Tests that a key still running is never evicted to make room, so a
+     * retry waits for it instead of running the request a second time.
+     */
+    @Test
+    public void testRunningKeysAreNotEvicted() throws Exception {
+        IdempotencyService small = service(false, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Callable<ApiOrderDto> slow = () -> small.execute("user", "key-1", REQUEST, ApiOrderDto.class, () -> {
+                running.countDown();
+                await(release);
+                return createOrder();
+            });
+            Future<ApiOrderDto> first = executor.submit(slow);
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+            small.execute("user", "key-2", REQUEST, ApiOrderDto.class, this::createOrder);
+            small.execute("user", "key-3", REQUEST, ApiOrderDto.class, this::createOrder);
+            Future<ApiOrderDto> retry = executor.submit(slow);
+            release.countDown();
+
+            assertThat(retry.get(5, TimeUnit.SECONDS).getId()).isEqualTo(first.get(5, TimeUnit.SECONDS).getId());
+            assertThat(executions.get()).isEqualTo(3);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that in persistent mode a key stored by an earlier run is
+     * replayed from the table, and a new key is stored with its result.
+     */
+    @Test
+    public void testPersistentModeReplaysStoredResult() throws Exception {
+        IdempotencyService persistent = service(true, 100);
+        ObjectMapper objectMapper = new ObjectMapper();
+        when(idempotencyRecordRepository.findById("user:key-1")).thenReturn(Optional.of(IdempotencyRecord.builder()
+                .idempotencyKey("user:key-1")
+                .requestHash(sha256(objectMapper.writeValueAsBytes(REQUEST)))
+                .responseBody(objectMapper.writeValueAsString(ApiOrderDto.builder().id(77).build()))
+                .createdAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build()));
+
+        ApiOrderDto replayed = persistent.execute("user", "key-1", REQUEST, ApiOrderDto.class, this::createOrder);
+        assertThat(replayed.getId()).isEqualTo(77);
+        assertThat(executions.get()).isEqualTo(0);
+
+        persistent.execute("user", "key-2", REQUEST, ApiOrderDto.class, this::createOrder);
+        assertThat(executions.get()).isEqualTo(1);
+        verify(idempotencyRecordRepository).save(any(IdempotencyRecord.class));
+        verify(transactionManager).commit(any());
+    }
+
+    private IdempotencyService service(boolean persistent, int maxEntries) {
+        return new IdempotencyService(idempotencyRecordRepository, new ObjectMapper(), transactionManager,
+                persistent, maxEntries, 60000, 5000);
+    }
+
+    private ApiOrderDto createOrder() {
+        return ApiOrderDto.builder().id(executions.incrementAndGet()).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
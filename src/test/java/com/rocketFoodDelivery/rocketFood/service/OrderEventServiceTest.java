@@ -0,0 +1,252 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderEventDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderEventStatsDto;
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
+import com.rocketFoodDelivery.rocketFood.repository.OrderOwner;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for OrderEventService.
+ */
+public class OrderEventServiceTest {
+
+    /**
+     * Tests that an event reaches the subscribers of its customer, restaurant
+     * and courier, and nobody else.
+     */
+    @Test
+    public void testEventsReachSubscribersOfOrderOwners() {
+        OrderEventService service = new OrderEventService(8, 100, 0, 60_000, Runnable::run);
+        RecordingSink customer = new RecordingSink();
+        RecordingSink restaurant = new RecordingSink();
+        RecordingSink courier = new RecordingSink();
+        RecordingSink otherCustomer = new RecordingSink();
+        service.subscribe(OrderOwner.CUSTOMER, 5, customer);
+        service.subscribe(OrderOwner.RESTAURANT, 3, restaurant);
+        service.subscribe(OrderOwner.COURIER, 7, courier);
+        service.subscribe(OrderOwner.CUSTOMER, 6, otherCustomer);
+
+        service.publish(event(1, "delivered"));
+
+        assertThat(customer.statuses()).containsExactly("delivered");
+        assertThat(restaurant.statuses()).containsExactly("delivered");
+        assertThat(courier.statuses()).containsExactly("delivered");
+        assertThat(otherCustomer.statuses()).isEmpty();
+        ApiOrderEventStatsDto stats = service.getStats();
+        assertThat(stats.getSubscribers()).isEqualTo(4);
+        assertThat(stats.getPublished()).isEqualTo(1);
+        assertThat(stats.getDelivered()).isEqualTo(3);
+    }
+
+    /**
+     * Tests that a subscriber stuck writing to its client never blocks the
+     * publisher: newer events of a buffered order replace older ones, and the
+     * subscriber is dropped once its buffer is full of distinct orders, while
+     * other subscribers keep receiving events.
+     */
+    @Test
+    public void testSlowSubscriberIsCoalescedThenDropped() throws Exception {
+        ExecutorService sender = Executors.newFixedThreadPool(2);
+        try {
+            OrderEventService service = new OrderEventService(3, 100, 0, 60_000, sender);
+            CountDownLatch sending = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            RecordingSink slow = new RecordingSink() {
+                @Override
+                public void send(ApiOrderEventDto event) {
+                    sending.countDown();
+                    await(release);
+                    super.send(event);
+                }
+            };
+            RecordingSink fast = new RecordingSink();
+            service.subscribe(OrderOwner.RESTAURANT, 3, slow);
+            service.subscribe(OrderOwner.COURIER, 8, fast);
+
+            service.publish(event(1, "in progress"));
+            assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+            service.publish(event(2, "in progress"));
+            service.publish(event(2, "delivered"));
+            service.publish(event(3, "in progress"));
+            service.publish(event(4, "in progress"));
+            assertThat(service.getStats().getDropped()).isZero();
+            service.publish(event(5, "in progress"));
+
+            ApiOrderEventStatsDto stats = service.getStats();
+            assertThat(stats.getDropped()).isEqualTo(1);
+            assertThat(stats.getCoalesced()).isGreaterThanOrEqualTo(1);
+            assertThat(stats.getSubscribers()).isEqualTo(1);
+
+            release.countDown();
+            assertThat(slow.closed.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(slow.statuses()).containsExactly("in progress");
+            ApiOrderEventDto reassigned = event(6, "delivered");
+            reassigned.setCourierId(8);
+            service.publish(reassigned);
+            assertThat(fast.received(6).await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            sender.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that a write stalled past the send timeout does not starve the
+     * other subscribers of the only sender thread: the watchdog drops the
+     * stalled subscriber and lends the pool a thread until the write returns,
+     * then the stream is closed.
+     */
+    @Test
+    public void testStalledWriteIsDroppedAndDoesNotStarveOthers() throws Exception {
+        ThreadPoolExecutor sender = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
+        try {
+            OrderEventService service = new OrderEventService(8, 100, 0, 10, sender);
+            CountDownLatch sending = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            RecordingSink stalled = new RecordingSink() {
+                @Override
+                public void send(ApiOrderEventDto event) {
+                    sending.countDown();
+                    await(release);
+                    super.send(event);
+                }
+            };
+            RecordingSink fast = new RecordingSink();
+            service.subscribe(OrderOwner.RESTAURANT, 3, stalled);
+            service.subscribe(OrderOwner.COURIER, 7, fast);
+
+            service.publish(event(1, "in progress"));
+            assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(50);
+            service.closeStalledStreams();
+            service.closeStalledStreams();
+
+            assertThat(fast.received(1).await(5, TimeUnit.SECONDS)).isTrue();
+            ApiOrderEventStatsDto stats = service.getStats();
+            assertThat(stats.getStalled()).isEqualTo(1);
+            assertThat(stats.getDropped()).isEqualTo(1);
+            assertThat(stats.getSubscribers()).isEqualTo(1);
+            assertThat(sender.getCorePoolSize()).isEqualTo(2);
+
+            release.countDown();
+            assertThat(stalled.closed.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(stalled.statuses()).containsExactly("in progress");
+            assertThat(sender.getCorePoolSize()).isEqualTo(1);
+        } finally {
+            sender.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that events published inside a transaction are only delivered
+     * once it commits.
+     */
+    @Test
+    public void testPublishAfterCommitWaitsForCommit() {
+        OrderEventService service = new OrderEventService(8, 100, 0, 60_000, Runnable::run);
+        RecordingSink sink = new RecordingSink();
+        service.subscribe(OrderOwner.CUSTOMER, 5, sink);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.publishAfterCommit(event(1, "delivered"));
+            assertThat(sink.statuses()).isEmpty();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(sink.statuses()).containsExactly("delivered");
+    }
+
+    /**
+     * Tests that subscriptions beyond max-subscribers are refused.
+     */
+    @Test
+    public void testSubscriberLimit() {
+        OrderEventService service = new OrderEventService(8, 1, 0, 60_000, Runnable::run);
+        service.subscribe(OrderOwner.CUSTOMER, 5, new RecordingSink()).unsubscribe();
+        service.subscribe(OrderOwner.CUSTOMER, 5, new RecordingSink());
+
+        assertThatThrownBy(() -> service.subscribe(OrderOwner.CUSTOMER, 6, new RecordingSink()))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(service.getStats().getSubscribers()).isEqualTo(1);
+    }
+
+    private static ApiOrderEventDto event(int orderId, String status) {
+        return ApiOrderEventDto.builder()
+                .type(ApiOrderEventDto.Type.STATUS)
+                .orderId(orderId)
+                .customerId(5)
+                .restaurantId(3)
+                .courierId(7)
+                .status(status)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sink that records the events it is sent.
+     */
+    private static class RecordingSink implements OrderEventService.EventSink {
+
+        final List<ApiOrderEventDto> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch closed = new CountDownLatch(1);
+        private volatile CountDownLatch expected = new CountDownLatch(0);
+        private volatile int expectedOrderId;
+
+        @Override
+        public void send(ApiOrderEventDto event) {
+            events.add(event);
+            if (event.getOrderId() == expectedOrderId) {
+                expected.countDown();
+            }
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        List<String> statuses() {
+            return events.stream().map(ApiOrderEventDto::getStatus).collect(Collectors.toList());
+        }
+
+        /**
+         * Returns a latch released when an event of the order is sent.
+         */
+        CountDownLatch received(int orderId) {
+            CountDownLatch latch = new CountDownLatch(1);
+            expectedOrderId = orderId;
+            expected = latch;
+            if (events.stream().anyMatch(event -> event.getOrderId() == orderId)) {
+                latch.countDown();
+            }
+            return latch;
+        }
+    }
+}
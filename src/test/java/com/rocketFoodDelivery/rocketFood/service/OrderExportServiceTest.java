@@ -0,0 +1,156 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
+import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
+import com.rocketFoodDelivery.rocketFood.repository.OrderLineRow;
+import com.rocketFoodDelivery.rocketFood.repository.OrderOwner;
+import com.rocketFoodDelivery.rocketFood.repository.OrderRepository;
+import com.rocketFoodDelivery.rocketFood.repository.OrderSummaryRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for OrderExportService.
+ */
+public class OrderExportServiceTest {
+
+    private static final OrderSummaryRow FIRST = new OrderSummaryRow(1, 5, 3, null, 1);
+    private static final OrderSummaryRow SECOND = new OrderSummaryRow(2, 6, 3, 7, 1);
+    private static final OrderSummaryRow THIRD = new OrderSummaryRow(3, 5, 3, null, 1);
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private ReferenceDataRegistry referenceDataRegistry;
+
+    private OrderExportService orderExportService;
+
+    /**
+     * Setup method to initialize the service before each test. The mocked
+     * repository streams two orders with lines and one order without.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        orderExportService = new OrderExportService(orderRepository, referenceDataRegistry, new ObjectMapper(),
+                Integer.MIN_VALUE, 1, 1);
+        when(referenceDataRegistry.findOrderStatus(1)).thenReturn(Optional.of(new OrderStatus(1, "pending")));
+        doAnswer(invocation -> {
+            BiConsumer<OrderSummaryRow, OrderLineRow> handler = invocation.getArgument(3);
+            handler.accept(FIRST, new OrderLineRow(1, 10, "Pizza", 2, 500));
+            handler.accept(FIRST, new OrderLineRow(1, 11, "Salad, \"large\"", 1, 300));
+            handler.accept(SECOND, null);
+            handler.accept(THIRD, new OrderLineRow(3, 10, "Pizza", 1, 500));
+            return null;
+        }).when(orderRepository).streamOrdersWithLines(eq(OrderOwner.RESTAURANT), eq(3), anyInt(), any());
+    }
+
+    /**
+     * Tests that NDJSON writes one complete order per line.
+     */
+    @Test
+    public void testExportNdjsonWritesOneOrderPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderExportService.exportOrders(OrderOwner.RESTAURANT, 3, OrderExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertThat(first.get("id").asInt()).isEqualTo(1);
+        assertThat(first.get("status").asText()).isEqualTo("pending");
+        assertThat(first.get("products")).hasSize(2);
+        assertThat(first.get("total_cost").asInt()).isEqualTo(1300);
+        JsonNode second = new ObjectMapper().readTree(lines[1]);
+        assertThat(second.get("courier_id").asInt()).isEqualTo(7);
+        assertThat(second.get("products")).isEmpty();
+    }
+
+    /**
+     * Tests that CSV writes one row per product line, escapes product names
+     * and keeps orders without lines.
+     */
+    @Test
+    public void testExportCsvWritesOneRowPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderExportService.exportOrders(OrderOwner.RESTAURANT, 3, OrderExportService.Format.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                OrderExportService.CSV_HEADER,
+                "1,5,3,,pending,10,Pizza,2,500,1000",
+                "1,5,3,,pending,11,\"Salad, \"\"large\"\"\",1,300,300",
+                "2,6,3,7,pending,,,,,0",
+                "3,5,3,,pending,10,Pizza,1,500,500");
+    }
+
+    /**
+     * Tests that a failing write, such as a client disconnect, stops the
+     * export with the original IOException.
+     */
+    @Test
+    public void testExportStopsWhenClientGoesAway() {
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> orderExportService.exportOrders(OrderOwner.RESTAURANT, 3,
+                OrderExportService.Format.NDJSON, broken))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+    }
+
+    /**
+     * Tests that exports beyond max-concurrent are refused until a running
+     * one releases its slot, and that releasing twice frees one slot.
+     */
+    @Test
+    public void testConcurrentExportsAreCapped() {
+        OrderExportService.Slot slot = orderExportService.acquireSlot();
+        assertThatThrownBy(() -> orderExportService.acquireSlot())
+                .isInstanceOf(ServiceUnavailableException.class);
+
+        slot.close();
+        slot.close();
+        OrderExportService.Slot next = orderExportService.acquireSlot();
+        assertThatThrownBy(() -> orderExportService.acquireSlot())
+                .isInstanceOf(ServiceUnavailableException.class);
+        next.close();
+    }
+
+    /**
+     * Tests that unknown formats are rejected.
+     */
+    @Test
+    public void testUnknownFormatIsRejected() {
+        assertThat(OrderExportService.Format.fromKey("CSV")).isEqualTo(OrderExportService.Format.CSV);
+        assertThatThrownBy(() -> OrderExportService.Format.fromKey("xml"))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
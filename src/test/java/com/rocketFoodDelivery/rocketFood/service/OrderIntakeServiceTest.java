@@ -0,0 +1,154 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderIntakeDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderRequestDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiProductOrderRequestDto;
+import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
+import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OrderIntakeService.
+ */
+public class OrderIntakeServiceTest {
+
+    @Mock
+    private OrderService orderService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderIntakeService orderIntakeService;
+
+    /**
+     * Setup method to initialize the service before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        orderIntakeService = new OrderIntakeService(orderService, transactionManager, true, 1, 50, 10, 600000,
+                5000);
+        when(orderService.insertOrder(any())).thenAnswer(invocation -> order(
+                invocation.<OrderService.PreparedOrder>getArgument(0).getCustomerId()));
+    }
+
+    /**
+     * Tests that a batch is committed in one transaction, and that an order
+     * failing validation is rejected without affecting the others.
+     */
+    @Test
+    public void testCommitBatchSharesOneTransaction() {
+        ApiOrderRequestDto valid = request(1);
+        ApiOrderRequestDto missingCustomer = request(2);
+        ApiOrderRequestDto alsoValid = request(3);
+        when(orderService.prepareOrder(valid)).thenReturn(prepared(1));
+        when(orderService.prepareOrder(missingCustomer))
+                .thenThrow(new ResourceNotFoundException("Customer with id 2 not found"));
+        when(orderService.prepareOrder(alsoValid)).thenReturn(prepared(3));
+        List<OrderIntakeService.Intake> batch = List.of(intake(valid), intake(missingCustomer), intake(alsoValid));
+
+        orderIntakeService.commitBatch(batch);
+
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, times(1)).commit(any());
+        verify(orderService, times(2)).insertOrder(any());
+        assertThat(batch.get(0).toDto().getStatus()).isEqualTo("COMMITTED");
+        assertThat(batch.get(0).toDto().getOrder().getCustomer_id()).isEqualTo(1);
+        assertThat(batch.get(1).toDto().getStatus()).isEqualTo("REJECTED");
+        assertThat(batch.get(1).toDto().getError()).isEqualTo("Customer with id 2 not found");
+        assertThat(batch.get(2).toDto().getStatus()).isEqualTo("COMMITTED");
+        assertThat(orderIntakeService.getStats().getCommitted()).isEqualTo(2);
+        assertThat(orderIntakeService.getStats().getRejected()).isEqualTo(1);
+    }
+
+    /**
+     * Tests that a failed group commit is retried one order at a time.
+     */
+    @Test
+    public void testFailedGroupCommitFallsBackToSingleOrders() {
+        ApiOrderRequestDto first = request(1);
+        ApiOrderRequestDto second = request(2);
+        when(orderService.prepareOrder(any())).thenReturn(prepared(1));
+        doThrow(new IllegalStateException("Deadlock found")).when(orderService).insertOrder(any());
+        when(orderService.createOrder(first)).thenReturn(order(1));
+        when(orderService.createOrder(second)).thenThrow(new IllegalStateException("Deadlock found"));
+        List<OrderIntakeService.Intake> batch = List.of(intake(first), intake(second));
+
+        orderIntakeService.commitBatch(batch);
+
+        verify(transactionManager).rollback(any());
+        assertThat(batch.get(0).toDto().getStatus()).isEqualTo("COMMITTED");
+        assertThat(batch.get(1).toDto().getStatus()).isEqualTo("REJECTED");
+        assertThat(batch.get(1).toDto().getError()).isEqualTo("Order could not be saved");
+    }
+
+    /**
+     * Tests that orders are refused once the queue is full, and that stopping
+     * the intake drains the queued orders.
+     */
+    @Test
+    public void testFullQueueIsRejectedAndStopDrainsQueue() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.prepareOrder(any())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return prepared(invocation.<ApiOrderRequestDto>getArgument(0).getCustomer_id());
+        });
+        orderIntakeService.start();
+
+        ApiOrderIntakeDto first = orderIntakeService.submit(request(1));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        ApiOrderIntakeDto second = orderIntakeService.submit(request(2));
+        assertThatThrownBy(() -> orderIntakeService.submit(request(3)))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(orderIntakeService.getStats().getQueueDepth()).isEqualTo(1);
+        assertThat(orderIntakeService.getStats().getRejectedQueueFull()).isEqualTo(1);
+
+        release.countDown();
+        orderIntakeService.stop();
+
+        assertThat(orderIntakeService.getIntake(first.getHandle()).orElseThrow().getStatus()).isEqualTo("COMMITTED");
+        assertThat(orderIntakeService.getIntake(second.getHandle()).orElseThrow().getStatus())
+                .isEqualTo("COMMITTED");
+        assertThatThrownBy(() -> orderIntakeService.submit(request(4)))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    private static OrderIntakeService.Intake intake(ApiOrderRequestDto request) {
+        return new OrderIntakeService.Intake("handle-" + request.getCustomer_id(), request);
+    }
+
+    private static ApiOrderRequestDto request(int customerId) {
+        ApiOrderRequestDto request = new ApiOrderRequestDto();
+        request.setCustomer_id(customerId);
+        request.setRestaurant_id(3);
+        ApiProductOrderRequestDto product = new ApiProductOrderRequestDto();
+        product.setId(10);
+        product.setQuantity(1);
+        request.setProducts(List.of(product));
+        return request;
+    }
+
+    private static OrderService.PreparedOrder prepared(int customerId) {
+        return new OrderService.PreparedOrder(3, customerId, new OrderStatus(1, "in progress"), List.of());
+    }
+
+    private static ApiOrderDto order(int customerId) {
+        return ApiOrderDto.builder().id(100 + customerId).customer_id(customerId).restaurant_id(3).build();
+    }
+}
@@ -0,0 +1,216 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderEventDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderJournalEntryDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiPageDto;
+import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
+import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for OrderJournal, against segment files in a temporary directory.
+ */
+public class OrderJournalTest {
+
+    private static final int RECORDS_PER_SEGMENT = 10;
+    private static final int SEGMENT_SIZE = OrderJournal.HEADER_SIZE + RECORDS_PER_SEGMENT * OrderJournal.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ReferenceDataRegistry referenceDataRegistry;
+
+    private final List<OrderJournal> journals = new ArrayList<>();
+
+    /**
+     * Setup method to stub the order statuses before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(referenceDataRegistry.findOrderStatus(1)).thenReturn(Optional.of(new OrderStatus(1, "in progress")));
+        when(referenceDataRegistry.findOrderStatus(2)).thenReturn(Optional.of(new OrderStatus(2, "delivered")));
+    }
+
+    /**
+     * Closes the journals opened by the test.
+     */
+    @AfterEach
+    public void tearDown() {
+        journals.forEach(OrderJournal::close);
+    }
+
+    /**
+     * Tests that records survive segment rotation and a restart, and can be
+     * read back in pages, tailed, and filtered by order.
+     */
+    @Test
+    public void testAppendRotateReopenAndRead() throws IOException {
+        OrderJournal journal = open(16);
+        for (int i = 1; i <= 25; i++) {
+            assertThat(append(journal, i % 5, 2)).isEqualTo(i);
+        }
+        journal.close();
+        assertThat(segmentFiles()).hasSize(3);
+
+        OrderJournal reopened = open(16);
+        assertThat(append(reopened, 4, 1)).isEqualTo(26);
+
+        ApiPageDto<ApiOrderJournalEntryDto> all = reopened.read(1, 100, null);
+        assertThat(all.getItems()).extracting(ApiOrderJournalEntryDto::getSequence)
+                .containsExactlyElementsOf(sequences(1, 26));
+        assertThat(all.getNextCursor()).isEqualTo("27");
+        ApiOrderJournalEntryDto first = all.getItems().get(0);
+        assertThat(first.getType()).isEqualTo(ApiOrderEventDto.Type.STATUS);
+        assertThat(first.getOrderId()).isEqualTo(1);
+        assertThat(first.getCourierId()).isNull();
+        assertThat(first.getPreviousStatus()).isEqualTo("in progress");
+        assertThat(first.getStatus()).isEqualTo("delivered");
+
+        ApiPageDto<ApiOrderJournalEntryDto> tail = reopened.read(20, 3, null);
+        assertThat(tail.getItems()).extracting(ApiOrderJournalEntryDto::getSequence).containsExactly(20L, 21L, 22L);
+        assertThat(tail.getNextCursor()).isEqualTo("23");
+
+        assertThat(reopened.read(1, 100, 4).getItems()).extracting(ApiOrderJournalEntryDto::getSequence)
+                .containsExactly(4L, 9L, 14L, 19L, 24L, 26L);
+    }
+
+    /**
+     * Tests that only the newest max-segments segments are kept, and that
+     * reads start at the oldest retained record.
+     */
+    @Test
+    public void testRetentionDeletesOldestSegments() throws IOException {
+        OrderJournal journal = open(2);
+        for (int i = 1; i <= 35; i++) {
+            append(journal, i, 2);
+        }
+
+        assertThat(segmentFiles()).hasSize(2);
+        assertThat(journal.read(1, 100, null).getItems()).extracting(ApiOrderJournalEntryDto::getSequence)
+                .containsExactlyElementsOf(sequences(21, 35));
+    }
+
+    /**
+     * Tests that a torn last record is discarded on restart and its sequence
+     * reused.
+     */
+    @Test
+    public void testRecoveryStopsAtCorruptRecord() throws IOException {
+        OrderJournal journal = open(16);
+        for (int i = 1; i <= 3; i++) {
+            append(journal, i, 2);
+        }
+        journal.close();
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+            long thirdRecord = OrderJournal.HEADER_SIZE + 2L * OrderJournal.RECORD_SIZE;
+            file.seek(thirdRecord + 16);
+            file.writeInt(999);
+        }
+
+        OrderJournal reopened = open(16);
+        assertThat(reopened.read(1, 100, null).getItems()).hasSize(2);
+        assertThat(append(reopened, 3, 2)).isEqualTo(3);
+    }
+
+    /**
+     * Tests that concurrent appends get unique, gap-free sequences. This is a
+     * correctness check, not a benchmark.
+     */
+    @Test
+    public void testConcurrentAppendsAreGapFree() throws Exception {
+        OrderJournal journal = new OrderJournal(referenceDataRegistry, true, directory.toString(),
+                OrderJournal.HEADER_SIZE + 4096 * OrderJournal.RECORD_SIZE, 64);
+        journals.add(journal);
+        journal.open();
+        int threads = 4;
+        int appendsPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < appendsPerThread; i++) {
+                        append(journal, i, 2);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long[] count = { 0 };
+        long next = journal.replay(1, entry -> {
+            count[0]++;
+            return entry.getSequence() == count[0];
+        });
+        assertThat(count[0]).isEqualTo((long) threads * appendsPerThread);
+        assertThat(next).isEqualTo(count[0] + 1);
+    }
+
+    /**
+     * Tests that a disabled journal records nothing and refuses reads.
+     */
+    @Test
+    public void testDisabledJournal() throws IOException {
+        OrderJournal journal = new OrderJournal(referenceDataRegistry, false, directory.toString(), SEGMENT_SIZE, 16);
+        journal.open();
+        journal.appendAfterCommit(ApiOrderEventDto.Type.CREATED, 1, 5, 3, null, 0, 1);
+
+        assertThat(segmentFiles()).isEmpty();
+        assertThatThrownBy(() -> journal.read(1, 10, null)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private OrderJournal open(int maxSegments) throws IOException {
+        OrderJournal journal = new OrderJournal(referenceDataRegistry, true, directory.toString(), SEGMENT_SIZE,
+                maxSegments);
+        journals.add(journal);
+        journal.open();
+        return journal;
+    }
+
+    private static long append(OrderJournal journal, int orderId, int statusId) {
+        return journal.append(ApiOrderEventDto.Type.STATUS, orderId, 5, 3, null, 1, statusId);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static List<Long> sequences(long from, long to) {
+        List<Long> sequences = new ArrayList<>();
+        for (long sequence = from; sequence <= to; sequence++) {
+            sequences.add(sequence);
+        }
+        return sequences;
+    }
+}
@@ -0,0 +1,616 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiBulkOrderStatusRequestDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiBulkOrderStatusResultDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderEventDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderRequestDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderStatusDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderStatusUpdateDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderStatusUpdateResultDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiPageDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiProductForOrderApiDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiProductOrderRequestDto;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ConflictException;
+import com.rocketFoodDelivery.rocketFood.exception.ForbiddenException;
+import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
+import com.rocketFoodDelivery.rocketFood.models.*;
+import com.rocketFoodDelivery.rocketFood.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.Invocation;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OrderService.
+ */
+public class OrderServiceTest {
+
+    private static final int RESTAURANT_ID = 3;
+    private static final int CUSTOMER_ID = 5;
+    private static final int ORDER_ID = 42;
+    private static final UserEntity EMPLOYEE = UserEntity.builder().id(99).isEmployee(true).build();
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private ReferenceDataRegistry referenceDataRegistry;
+    @Mock
+    private ProductOrderRepository productOrderRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private RestaurantRepository restaurantRepository;
+    @Mock
+    private CustomerRepository customerRepository;
+    @Mock
+    private RestaurantRatingService restaurantRatingService;
+    @Mock
+    private OrderEventService orderEventService;
+    @Mock
+    private OrderJournal orderJournal;
+    @Mock
+    private CourierRepository courierRepository;
+
+    private OrderService orderService;
+
+    /**
+     * Setup method to initialize the service before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        orderService = new OrderService(orderRepository, referenceDataRegistry, productOrderRepository,
+                productRepository, restaurantRepository, customerRepository, restaurantRatingService,
+                orderEventService, orderJournal, courierRepository);
+        stubPlacement();
+    }
+
+    /**
+     * Tests that placing an order issues the same number of statements no
+     * matter how many line items it has, instead of one lookup per product and
+     * a re-read of the order.
+     */
+    @Test
+    public void testCreateOrderIssuesConstantNumberOfStatements() {
+        for (int size : new int[] { 1, 10, 100 }) {
+            reset(orderRepository, referenceDataRegistry, productOrderRepository, productRepository,
+                    restaurantRepository, customerRepository, restaurantRatingService);
+            stubPlacement();
+
+            ApiOrderDto order = orderService.createOrder(request(IntStream.rangeClosed(1, size)
+                    .mapToObj(id -> new ApiProductOrderRequestDto(id, 2)).collect(Collectors.toList())));
+
+            assertThat(order.getProducts()).hasSize(size);
+            assertThat(statementCount()).as("statements for %d line items", size).isEqualTo(5);
+            verify(productOrderRepository).insertProductOrders(eq(ORDER_ID), anyList());
+            verify(orderRepository, never()).findById(anyInt());
+            verify(productOrderRepository, never()).findByOrderId(anyInt());
+        }
+    }
+
+    /**
+     * Tests that the response is built from the validated products and that
+     * repeated products are merged into one line.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreateOrderBuildsResponseFromMemory() {
+        ApiOrderDto order = orderService.createOrder(request(List.of(
+                new ApiProductOrderRequestDto(1, 2),
+                new ApiProductOrderRequestDto(2, 1),
+                new ApiProductOrderRequestDto(1, 1))));
+
+        assertThat(order.getId()).isEqualTo(ORDER_ID);
+        assertThat(order.getCustomer_id()).isEqualTo(CUSTOMER_ID);
+        assertThat(order.getRestaurant_id()).isEqualTo(RESTAURANT_ID);
+        assertThat(order.getStatus()).isEqualTo("in progress");
+        assertThat(order.getProducts()).extracting(ApiProductForOrderApiDto::getProductId).containsExactly(1, 2);
+        assertThat(order.getProducts()).extracting(ApiProductForOrderApiDto::getQuantity).containsExactly(3, 1);
+        assertThat(order.getTotal_cost()).isEqualTo(3 * 100 + 200);
+
+        ArgumentCaptor<List<ProductOrderLine>> lines = ArgumentCaptor.forClass(List.class);
+        verify(productOrderRepository).insertProductOrders(eq(ORDER_ID), lines.capture());
+        assertThat(lines.getValue()).containsExactly(
+                new ProductOrderLine(1, "Product 1", 3, 100),
+                new ProductOrderLine(2, "Product 2", 1, 200));
+        verify(restaurantRatingService).recordOrderRating(RESTAURANT_ID, 1);
+        verify(orderEventService).publishAfterCommit(argThat(event -> event.getType() == ApiOrderEventDto.Type.CREATED
+                && event.getOrderId() == ORDER_ID && event.getRestaurantId() == RESTAURANT_ID));
+    }
+
+    /**
+     * Tests that a product of another restaurant rejects the whole order before
+     * anything is written.
+     */
+    @Test
+    public void testCreateOrderWithForeignProduct() {
+        when(productRepository.findOrderableProducts(eq(RESTAURANT_ID), anyCollection()))
+                .thenReturn(List.of(product(1)));
+
+        assertThatThrownBy(() -> orderService.createOrder(request(List.of(
+                new ApiProductOrderRequestDto(1, 1),
+                new ApiProductOrderRequestDto(99, 1)))))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Product with id 99 not found or does not belong to the restaurant");
+        verify(orderRepository, never()).save(any());
+        verify(productOrderRepository, never()).insertProductOrders(anyInt(), anyList());
+    }
+
+    /**
+     * Tests that a deleted restaurant is reported as not found.
+     */
+    @Test
+    public void testCreateOrderForDeletedRestaurant() {
+        when(productRepository.findOrderableProducts(eq(RESTAURANT_ID), anyCollection())).thenReturn(List.of());
+        when(restaurantRepository.findById(RESTAURANT_ID))
+                .thenReturn(Optional.of(Restaurant.builder().id(RESTAURANT_ID).active(false).build()));
+
+        assertThatThrownBy(() -> orderService.createOrder(request(List.of(new ApiProductOrderRequestDto(1, 1)))))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Restaurant with id " + RESTAURANT_ID + " not found");
+    }
+
+    /**
+     * Tests that empty orders and invalid quantities are rejected without
+     * touching the database.
+     */
+    @Test
+    public void testCreateOrderValidatesLineItems() {
+        assertThatThrownBy(() -> orderService.createOrder(request(List.of())))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> orderService.createOrder(request(List.of(new ApiProductOrderRequestDto(1, 0)))))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(statementCount()).isZero();
+    }
+
+    /**
+     * Tests that an order history page and all its product lines are read with
+     * two queries, whatever the page size, and never through the entities.
+     */
+    @Test
+    public void testGetOrdersIssuesConstantNumberOfQueries() {
+        when(referenceDataRegistry.findOrderStatus(1))
+                .thenReturn(Optional.of(OrderStatus.builder().id(1).name("in progress").build()));
+        for (int size : new int[] { 1, 10, 100 }) {
+            reset(orderRepository, productOrderRepository, productRepository, restaurantRepository,
+                    customerRepository, restaurantRatingService);
+            List<OrderSummaryRow> rows = IntStream.range(0, size + 1)
+                    .mapToObj(i -> new OrderSummaryRow(1000 - i, CUSTOMER_ID, RESTAURANT_ID, null, 1))
+                    .collect(Collectors.toList());
+            when(orderRepository.findOrderPage(OrderOwner.CUSTOMER, CUSTOMER_ID, null, size + 1)).thenReturn(rows);
+            when(orderRepository.findOrderLines(anyCollection())).thenAnswer(invocation -> {
+                Collection<Integer> ids = invocation.getArgument(0);
+                return ids.stream().map(id -> new OrderLineRow(id, 1, "Product 1", 2, 100))
+                        .collect(Collectors.toList());
+            });
+
+            ApiPageDto<ApiOrderDto> page = orderService.getOrdersByTypeAndId("customer", CUSTOMER_ID, null, size);
+
+            assertThat(page.getItems()).hasSize(size);
+            assertThat(page.getItems().get(0).getStatus()).isEqualTo("in progress");
+            assertThat(page.getItems().get(0).getTotal_cost()).isEqualTo(200);
+            assertThat(page.getNextCursor()).isNotNull();
+            assertThat(statementCount()).as("queries for %d orders", size).isEqualTo(2);
+        }
+    }
+
+    /**
+     * Tests that the next cursor seeks past the last order, that the page size
+     * is capped, and that cursors cannot be replayed against another listing.
+     */
+    @Test
+    public void testGetOrdersPagination() {
+        when(orderRepository.findOrderPage(eq(OrderOwner.RESTAURANT), eq(RESTAURANT_ID), any(), anyInt()))
+                .thenReturn(List.of(new OrderSummaryRow(9, CUSTOMER_ID, RESTAURANT_ID, null, 1),
+                        new OrderSummaryRow(8, CUSTOMER_ID, RESTAURANT_ID, null, 1)));
+
+        ApiPageDto<ApiOrderDto> first = orderService.getOrdersByTypeAndId("restaurant", RESTAURANT_ID, null, 1);
+        orderService.getOrdersByTypeAndId("restaurant", RESTAURANT_ID, first.getNextCursor(), 1000);
+
+        verify(orderRepository).findOrderPage(OrderOwner.RESTAURANT, RESTAURANT_ID, null, 2);
+        verify(orderRepository).findOrderPage(OrderOwner.RESTAURANT, RESTAURANT_ID, 9,
+                OrderService.MAX_PAGE_SIZE + 1);
+        assertThatThrownBy(() -> orderService.getOrdersByTypeAndId("customer", CUSTOMER_ID,
+                first.getNextCursor(), 1)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> orderService.getOrdersByTypeAndId("restaurant", RESTAURANT_ID, null, 0))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> orderService.getOrdersByTypeAndId("driver", 1, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Tests that a status change is one status read and one conditional
+     * UPDATE, without loading or saving the order entity.
+     */
+    @Test
+    public void testChangeOrderStatusUsesConditionalUpdate() {
+        stubStatuses();
+        when(orderRepository.findOrderSummaries(List.of(ORDER_ID))).thenReturn(orders(ORDER_ID, 1));
+        when(orderRepository.updateStatusIfCurrent(ORDER_ID, 1, 2)).thenReturn(1);
+
+        String status = orderService.changeOrderStatus(ORDER_ID, new ApiOrderStatusDto("Delivered"), EMPLOYEE);
+
+        assertThat(status).isEqualTo("delivered");
+        assertThat(statementCount()).isEqualTo(2);
+        verify(orderRepository, never()).findById(anyInt());
+        verify(orderRepository, never()).save(any());
+        ArgumentCaptor<ApiOrderEventDto> event = ArgumentCaptor.forClass(ApiOrderEventDto.class);
+        verify(orderEventService).publishAfterCommit(event.capture());
+        assertThat(event.getValue().getType()).isEqualTo(ApiOrderEventDto.Type.STATUS);
+        assertThat(event.getValue().getCustomerId()).isEqualTo(CUSTOMER_ID);
+        assertThat(event.getValue().getPreviousStatus()).isEqualTo("in progress");
+        assertThat(event.getValue().getStatus()).isEqualTo("delivered");
+        verify(orderJournal).appendAfterCommit(ApiOrderEventDto.Type.STATUS, ORDER_ID, CUSTOMER_ID, RESTAURANT_ID,
+                null, 1, 2);
+    }
+
+    /**
+     * Tests that courier assignments are journaled and published like status
+     * changes, with the courier read back from the assigned order.
+     */
+    @Test
+    public void testCourierAssignmentsAreJournaledAndPublished() {
+        stubStatuses();
+        when(orderRepository.findOrderSummaries(List.of(ORDER_ID))).thenReturn(Map.of(ORDER_ID,
+                new OrderSummaryRow(ORDER_ID, CUSTOMER_ID, RESTAURANT_ID, 7, 1)));
+
+        orderService.recordCourierAssignments(List.of(ORDER_ID));
+        orderService.recordCourierAssignments(List.of());
+
+        ArgumentCaptor<ApiOrderEventDto> event = ArgumentCaptor.forClass(ApiOrderEventDto.class);
+        verify(orderEventService).publishAfterCommit(event.capture());
+        assertThat(event.getValue().getType()).isEqualTo(ApiOrderEventDto.Type.ASSIGNED);
+        assertThat(event.getValue().getCourierId()).isEqualTo(7);
+        assertThat(event.getValue().getStatus()).isEqualTo("in progress");
+        verify(orderJournal).appendAfterCommit(ApiOrderEventDto.Type.ASSIGNED, ORDER_ID, CUSTOMER_ID, RESTAURANT_ID,
+                7, 1, 1);
+        verify(orderRepository).findOrderSummaries(anyCollection());
+    }
+
+    /**
+     * Tests that transitions outside the state machine and lost races are
+     * reported as conflicts, and that repeating the current status is a no-op.
+     */
+    @Test
+    public void testChangeOrderStatusConflicts() {
+        stubStatuses();
+        when(orderRepository.findOrderSummaries(List.of(ORDER_ID))).thenReturn(orders(ORDER_ID, 2));
+        assertThatThrownBy(() -> orderService.changeOrderStatus(ORDER_ID, new ApiOrderStatusDto("in progress"),
+                EMPLOYEE))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage("Cannot change status of order " + ORDER_ID + " from delivered to in progress");
+        assertThat(orderService.changeOrderStatus(ORDER_ID, new ApiOrderStatusDto("delivered"), EMPLOYEE))
+                .isEqualTo("delivered");
+        verify(orderRepository, never()).updateStatusIfCurrent(anyInt(), anyInt(), anyInt());
+        verify(orderEventService, never()).publishAfterCommit(any());
+        verifyNoInteractions(orderJournal);
+
+        when(orderRepository.findOrderSummaries(List.of(ORDER_ID))).thenReturn(orders(ORDER_ID, 1));
+        when(orderRepository.updateStatusIfCurrent(ORDER_ID, 1, 3)).thenReturn(0);
+        assertThatThrownBy(() -> orderService.changeOrderStatus(ORDER_ID, new ApiOrderStatusDto("cancelled"),
+                EMPLOYEE))
+                .isInstanceOf(ConflictException.class);
+
+        when(orderRepository.findOrderSummaries(List.of(404))).thenReturn(Map.of());
+        assertThatThrownBy(() -> orderService.changeOrderStatus(404, new ApiOrderStatusDto("cancelled"), EMPLOYEE))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    /**
+     * Contention test: many updaters race to deliver or cancel the same
+     * orders against an in-memory compare-and-set stand-in for the
+     * conditional UPDATE. Every order must be updated exactly once, and every
+     * updater asking for the other final status must get a conflict instead
+     * of silently overwriting the winner.
+     */
+    @Test
+    public void testConcurrentStatusUpdatesHaveSingleWinner() throws Exception {
+        stubStatuses();
+        int orders = 200;
+        int updaters = 16;
+        Map<Integer, AtomicInteger> statusIds = new ConcurrentHashMap<>();
+        Map<Integer, AtomicInteger> applied = new ConcurrentHashMap<>();
+        IntStream.range(0, orders).forEach(id -> {
+            statusIds.put(id, new AtomicInteger(1));
+            applied.put(id, new AtomicInteger());
+        });
+        when(orderRepository.findOrderSummaries(anyCollection())).thenAnswer(invocation -> {
+            int id = invocation.<List<Integer>>getArgument(0).get(0);
+            return orders(id, statusIds.get(id).get());
+        });
+        when(orderRepository.updateStatusIfCurrent(anyInt(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int id = invocation.getArgument(0);
+            if (!statusIds.get(id).compareAndSet(invocation.getArgument(1), invocation.getArgument(2))) {
+                return 0;
+            }
+            applied.get(id).incrementAndGet();
+            return 1;
+        });
+
+        AtomicInteger wins = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(updaters);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = IntStream.range(0, updaters).mapToObj(updater -> executor.submit(() -> {
+                start.await();
+                String target = updater % 2 == 0 ? "delivered" : "cancelled";
+                for (int id = 0; id < orders; id++) {
+                    try {
+                        orderService.changeOrderStatus(id, new ApiOrderStatusDto(target), EMPLOYEE);
+                        wins.incrementAndGet();
+                    } catch (ConflictException ex) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            })).collect(Collectors.toList());
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(wins.get() + conflicts.get()).isEqualTo(orders * updaters);
+        assertThat(applied.values()).allSatisfy(count -> assertThat(count.get()).isEqualTo(1));
+        assertThat(statusIds.values()).allSatisfy(status -> assertThat(status.get()).isIn(2, 3));
+        assertThat(conflicts.get()).isGreaterThanOrEqualTo(orders * updaters / 2);
+    }
+
+    /**
+     * Tests that a bulk status update reads every status with one query and
+     * applies every change with one batch, reporting each item separately.
+     */
+    @Test
+    public void testChangeOrderStatusesReportsEachItem() {
+        stubStatuses();
+        when(orderRepository.findOrderSummaries(anyCollection())).thenReturn(orders(1, 1, 2, 1, 3, 2, 4, 2, 5, 1));
+        when(orderRepository.updateStatusesIfCurrent(anyList())).thenReturn(new int[] { 1, 0 });
+
+        ApiBulkOrderStatusResultDto result = orderService.changeOrderStatuses(bulkRequest(false,
+                update(1, "delivered"),
+                update(2, "cancelled"),
+                update(3, "delivered"),
+                update(4, "in progress"),
+                update(6, "delivered"),
+                update(5, "shipped"),
+                update(1, "cancelled"),
+                update(null, "delivered")), EMPLOYEE);
+
+        assertThat(result.getResults()).extracting(ApiOrderStatusUpdateResultDto::getOutcome).containsExactly(
+                ApiOrderStatusUpdateResultDto.Outcome.UPDATED,
+                ApiOrderStatusUpdateResultDto.Outcome.CONFLICT,
+                ApiOrderStatusUpdateResultDto.Outcome.UNCHANGED,
+                ApiOrderStatusUpdateResultDto.Outcome.INVALID_TRANSITION,
+                ApiOrderStatusUpdateResultDto.Outcome.NOT_FOUND,
+                ApiOrderStatusUpdateResultDto.Outcome.UNKNOWN_STATUS,
+                ApiOrderStatusUpdateResultDto.Outcome.DUPLICATE,
+                ApiOrderStatusUpdateResultDto.Outcome.INVALID);
+        assertThat(result.isCommitted()).isTrue();
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getUnchanged()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(6);
+        assertThat(statementCount()).isEqualTo(2);
+        verify(orderRepository).updateStatusesIfCurrent(List.of(new OrderStatusChange(1, 1, 2),
+                new OrderStatusChange(2, 1, 3)));
+        verify(orderEventService, times(1)).publishAfterCommit(any());
+    }
+
+    /**
+     * Tests that delivering or cancelling an assigned order releases its
+     * courier from busy to free, conditionally, and that other transitions
+     * and unassigned orders leave couriers alone.
+     */
+    @Test
+    public void testFinalStatusReleasesTheCourier() {
+        stubStatuses();
+        when(referenceDataRegistry.findCourierStatus("busy")).thenReturn(Optional.of(new CourierStatus(5, "busy")));
+        when(referenceDataRegistry.findCourierStatus("free")).thenReturn(Optional.of(new CourierStatus(6, "free")));
+        when(orderRepository.findOrderSummaries(List.of(ORDER_ID))).thenReturn(Map.of(ORDER_ID,
+                new OrderSummaryRow(ORDER_ID, CUSTOMER_ID, RESTAURANT_ID, 7, 1)));
+        when(orderRepository.updateStatusIfCurrent(ORDER_ID, 1, 2)).thenReturn(1);
+
+        orderService.changeOrderStatus(ORDER_ID, new ApiOrderStatusDto("delivered"), EMPLOYEE);
+        verify(courierRepository).updateStatusesIfCurrent(List.of(7), 5, 6);
+
+        Map<Integer, OrderSummaryRow> assigned = new HashMap<>(orders(1, 1, 3, 1));
+        assigned.put(2, new OrderSummaryRow(2, CUSTOMER_ID, RESTAURANT_ID, 8, 1));
+        assigned.put(4, new OrderSummaryRow(4, CUSTOMER_ID, RESTAURANT_ID, 9, 1));
+        when(orderRepository.findOrderSummaries(anyCollection())).thenReturn(assigned);
+        when(orderRepository.updateStatusesIfCurrent(anyList())).thenReturn(new int[] { 1, 1, 1 });
+        orderService.changeOrderStatuses(bulkRequest(false,
+                update(1, "delivered"),
+                update(2, "cancelled"),
+                update(4, "delivered")), EMPLOYEE);
+        verify(courierRepository).updateStatusesIfCurrent(List.of(8, 9), 5, 6);
+        verifyNoMoreInteractions(courierRepository);
+    }
+
+    /**
+     * Tests that a courier may change the orders assigned to them and a user
+     * the orders of the restaurants they own, reading those once per bulk
+     * request, and that every other order is forbidden.
+     */
+    @Test
+    public void testStatusChangesAreLimitedToTheCourierAndRestaurantOwner() {
+        stubStatuses();
+        UserEntity courier = UserEntity.builder().id(10).courierId(7).build();
+        UserEntity owner = UserEntity.builder().id(11).build();
+        when(restaurantRepository.findActiveRestaurantIdsByUserId(11)).thenReturn(List.of(RESTAURANT_ID));
+        when(orderRepository.findOrderSummaries(List.of(ORDER_ID))).thenReturn(Map.of(ORDER_ID,
+                new OrderSummaryRow(ORDER_ID, CUSTOMER_ID, RESTAURANT_ID + 1, 8, 1)));
+
+        assertThatThrownBy(() -> orderService.changeOrderStatus(ORDER_ID, new ApiOrderStatusDto("delivered"),
+                courier)).isInstanceOf(ForbiddenException.class);
+        assertThatThrownBy(() -> orderService.changeOrderStatus(ORDER_ID, new ApiOrderStatusDto("delivered"),
+                owner)).isInstanceOf(ForbiddenException.class);
+        assertThatThrownBy(() -> orderService.changeOrderStatus(ORDER_ID, new ApiOrderStatusDto("delivered"),
+                null)).isInstanceOf(ForbiddenException.class);
+        verify(orderRepository, never()).updateStatusIfCurrent(anyInt(), anyInt(), anyInt());
+
+        Map<Integer, OrderSummaryRow> rows = new HashMap<>(orders(1, 1, 2, 1));
+        rows.put(3, new OrderSummaryRow(3, CUSTOMER_ID, RESTAURANT_ID + 1, 7, 1));
+        when(orderRepository.findOrderSummaries(anyCollection())).thenReturn(rows);
+        when(orderRepository.updateStatusesIfCurrent(anyList())).thenReturn(new int[] { 1, 1 });
+        ApiBulkOrderStatusResultDto result = orderService.changeOrderStatuses(bulkRequest(false,
+                update(1, "delivered"),
+                update(2, "cancelled"),
+                update(3, "delivered")), owner);
+
+        assertThat(result.getResults()).extracting(ApiOrderStatusUpdateResultDto::getOutcome).containsExactly(
+                ApiOrderStatusUpdateResultDto.Outcome.UPDATED,
+                ApiOrderStatusUpdateResultDto.Outcome.UPDATED,
+                ApiOrderStatusUpdateResultDto.Outcome.FORBIDDEN);
+        verify(restaurantRepository, times(2)).findActiveRestaurantIdsByUserId(11);
+
+        result = orderService.changeOrderStatuses(bulkRequest(false, update(3, "delivered")), courier);
+        assertThat(result.getResults().get(0).getOutcome()).isEqualTo(ApiOrderStatusUpdateResultDto.Outcome.UPDATED);
+    }
+
+    /**
+     * Tests that an atomic bulk update with a failing item writes nothing and
+     * reports the valid items as skipped.
+     */
+    @Test
+    public void testAtomicChangeOrderStatusesAppliesNothingOnFailure() {
+        stubStatuses();
+        when(orderRepository.findOrderSummaries(anyCollection())).thenReturn(orders(1, 1, 2, 2));
+
+        ApiBulkOrderStatusResultDto result = orderService.changeOrderStatuses(bulkRequest(true,
+                update(1, "delivered"),
+                update(2, "cancelled")), EMPLOYEE);
+
+        assertThat(result.isCommitted()).isFalse();
+        assertThat(result.getResults()).extracting(ApiOrderStatusUpdateResultDto::getOutcome).containsExactly(
+                ApiOrderStatusUpdateResultDto.Outcome.SKIPPED,
+                ApiOrderStatusUpdateResultDto.Outcome.INVALID_TRANSITION);
+        verify(orderRepository, never()).updateStatusesIfCurrent(anyList());
+        verify(orderEventService, never()).publishAfterCommit(any());
+        assertThatThrownBy(() -> orderService.changeOrderStatuses(bulkRequest(false), EMPLOYEE))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    /**
+     * Creates order rows of the test customer and restaurant from pairs of
+     * order ID and status ID.
+     */
+    private static Map<Integer, OrderSummaryRow> orders(int... idsAndStatusIds) {
+        Map<Integer, OrderSummaryRow> orders = new HashMap<>();
+        for (int i = 0; i < idsAndStatusIds.length; i += 2) {
+            orders.put(idsAndStatusIds[i], new OrderSummaryRow(idsAndStatusIds[i], CUSTOMER_ID, RESTAURANT_ID,
+                    null, idsAndStatusIds[i + 1]));
+        }
+        return orders;
+    }
+
+    private static ApiBulkOrderStatusRequestDto bulkRequest(boolean atomic, ApiOrderStatusUpdateDto... updates) {
+        return new ApiBulkOrderStatusRequestDto(List.of(updates), atomic);
+    }
+
+    private static ApiOrderStatusUpdateDto update(Integer orderId, String status) {
+        return new ApiOrderStatusUpdateDto(orderId, status);
+    }
+
+    /**
+     * Stubs the registry with the in progress, delivered and cancelled statuses.
+     */
+    private void stubStatuses() {
+        OrderStatus inProgress = OrderStatus.builder().id(1).name("in progress").build();
+        OrderStatus delivered = OrderStatus.builder().id(2).name("delivered").build();
+        OrderStatus cancelled = OrderStatus.builder().id(3).name("cancelled").build();
+        for (OrderStatus status : List.of(inProgress, delivered, cancelled)) {
+            when(referenceDataRegistry.findOrderStatus(status.getId())).thenReturn(Optional.of(status));
+            when(referenceDataRegistry.findOrderStatus(eq(status.getName()))).thenReturn(Optional.of(status));
+        }
+        when(referenceDataRegistry.findOrderStatus("Delivered")).thenReturn(Optional.of(delivered));
+    }
+
+    /**
+     * Stubs the repositories for a valid order whose product IDs are echoed
+     * back by the validation query.
+     */
+    private void stubPlacement() {
+        when(productRepository.findOrderableProducts(eq(RESTAURANT_ID), anyCollection())).thenAnswer(invocation -> {
+            Collection<Integer> ids = invocation.getArgument(1);
+            return ids.stream().map(OrderServiceTest::product).collect(Collectors.toList());
+        });
+        when(customerRepository.existsById(CUSTOMER_ID)).thenReturn(true);
+        when(customerRepository.getReferenceById(CUSTOMER_ID)).thenReturn(Customer.builder().id(CUSTOMER_ID).build());
+        when(restaurantRepository.getReferenceById(RESTAURANT_ID)).thenReturn(new Restaurant(RESTAURANT_ID));
+        when(referenceDataRegistry.findOrderStatus("in progress"))
+                .thenReturn(Optional.of(OrderStatus.builder().id(1).name("in progress").build()));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(ORDER_ID);
+            return order;
+        });
+    }
+
+    /**
+     * Counts the repository and rating calls that reach the database;
+     * getReferenceById only creates a proxy and is not counted, and statuses
+     * come from the in-memory registry.
+     */
+    private int statementCount() {
+        return (int) Stream.of(orderRepository, productOrderRepository, productRepository,
+                restaurantRepository, customerRepository, restaurantRatingService)
+                .flatMap(mock -> mockingDetails(mock).getInvocations().stream())
+                .map(Invocation::getMethod)
+                .filter(method -> !method.getName().equals("getReferenceById"))
+                .count();
+    }
+
+    private static ApiOrderRequestDto request(List<ApiProductOrderRequestDto> products) {
+        ApiOrderRequestDto request = new ApiOrderRequestDto();
+        request.setCustomer_id(CUSTOMER_ID);
+        request.setRestaurant_id(RESTAURANT_ID);
+        request.setProducts(products);
+        return request;
+    }
+
+    private static OrderableProductProjection product(int id) {
+        return new OrderableProductProjection() {
+            @Override
+            public int getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return "Product " + id;
+            }
+
+            @Override
+            public int getUnitCost() {
+                return id * 100;
+            }
+        };
+    }
+}
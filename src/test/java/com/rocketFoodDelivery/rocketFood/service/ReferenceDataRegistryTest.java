@@ -0,0 +1,115 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.models.CourierStatus;
+import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
+import com.rocketFoodDelivery.rocketFood.repository.CourierStatusRepository;
+import com.rocketFoodDelivery.rocketFood.repository.OrderStatusRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReferenceDataRegistry.
+ */
+public class ReferenceDataRegistryTest {
+
+    @Mock
+    private OrderStatusRepository orderStatusRepository;
+    @Mock
+    private CourierStatusRepository courierStatusRepository;
+
+    private ReferenceDataRegistry referenceDataRegistry;
+
+    /**
+     * Setup method to initialize the registry before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(orderStatusRepository.findAll()).thenReturn(List.of(
+                new OrderStatus(1, "in progress"),
+                new OrderStatus(2, "delivered")));
+        when(courierStatusRepository.findAll()).thenReturn(List.of(new CourierStatus(1, "free")));
+        referenceDataRegistry = new ReferenceDataRegistry(orderStatusRepository, courierStatusRepository);
+    }
+
+    /**
+     * Tests that statuses are loaded once and then resolved from memory,
+     * including unknown names.
+     */
+    @Test
+    public void testLookupsAreServedFromMemory() {
+        assertThat(referenceDataRegistry.findOrderStatus("in progress")).map(OrderStatus::getId).contains(1);
+        assertThat(referenceDataRegistry.findOrderStatus("Delivered")).map(OrderStatus::getId).contains(2);
+        assertThat(referenceDataRegistry.findOrderStatus(2)).map(OrderStatus::getName).contains("delivered");
+        assertThat(referenceDataRegistry.findOrderStatus("lost")).isEmpty();
+        assertThat(referenceDataRegistry.findOrderStatus((String) null)).isEmpty();
+        assertThat(referenceDataRegistry.findCourierStatus("free")).map(CourierStatus::getId).contains(1);
+        assertThat(referenceDataRegistry.findCourierStatus("busy")).isEmpty();
+
+        verify(orderStatusRepository, times(1)).findAll();
+        verify(courierStatusRepository, times(1)).findAll();
+        verifyNoMoreInteractions(orderStatusRepository, courierStatusRepository);
+    }
+
+    /**
+     * Tests that returned statuses are copies, so callers cannot alter the
+     * registry.
+     */
+    @Test
+    public void testReturnedStatusesAreCopies() {
+        referenceDataRegistry.findOrderStatus("in progress").orElseThrow().setName("changed");
+
+        assertThat(referenceDataRegistry.findOrderStatus(1)).map(OrderStatus::getName).contains("in progress");
+    }
+
+    /**
+     * Tests that an explicit refresh picks up new statuses.
+     */
+    @Test
+    public void testRefreshPicksUpChanges() {
+        assertThat(referenceDataRegistry.findOrderStatus("cancelled")).isEmpty();
+
+        when(orderStatusRepository.findAll()).thenReturn(List.of(
+                new OrderStatus(1, "in progress"),
+                new OrderStatus(2, "delivered"),
+                new OrderStatus(3, "cancelled")));
+        referenceDataRegistry.refresh();
+
+        assertThat(referenceDataRegistry.findOrderStatus("cancelled")).map(OrderStatus::getId).contains(3);
+        assertThat(referenceDataRegistry.getOrderStatuses()).extracting(OrderStatus::getId).containsExactly(1, 2, 3);
+    }
+
+    /**
+     * Tests that the statuses of the state machine missing from the table,
+     * such as "cancelled" in an older database, are seeded at startup and
+     * resolvable right after.
+     */
+    @Test
+    public void testMissingOrderStatusesAreSeeded() {
+        when(orderStatusRepository.save(any(OrderStatus.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThat(referenceDataRegistry.seedOrderStatuses()).isEqualTo(2);
+
+        ArgumentCaptor<OrderStatus> seeded = ArgumentCaptor.forClass(OrderStatus.class);
+        verify(orderStatusRepository, times(2)).save(seeded.capture());
+        assertThat(seeded.getAllValues()).extracting(OrderStatus::getName).containsExactly("pending", "cancelled");
+
+        when(orderStatusRepository.findAll()).thenReturn(List.of(
+                new OrderStatus(1, "in progress"),
+                new OrderStatus(2, "delivered"),
+                new OrderStatus(3, "pending"),
+                new OrderStatus(4, "Cancelled")));
+        assertThat(referenceDataRegistry.seedOrderStatuses()).isZero();
+        assertThat(referenceDataRegistry.findOrderStatus("cancelled")).map(OrderStatus::getId).contains(4);
+        verify(orderStatusRepository, times(2)).save(any(OrderStatus.class));
+    }
+}
@@ -0,0 +1,118 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.models.RefreshToken;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for RefreshTokenService.
+ */
+public class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private final List<RefreshToken> table = new ArrayList<>();
+    private final UserEntity user = UserEntity.builder().id(7).email("jane@example.com").build();
+    private RefreshTokenService refreshTokenService;
+
+    /**
+     * Setup method to back the mocked repository with an in-memory table.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
+            RefreshToken token = invocation.getArgument(0);
+            token.setId(table.size() + 1);
+            table.add(token);
+            return token;
+        });
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenAnswer(invocation -> table.stream()
+                .filter(token -> token.getTokenHash().equals(invocation.getArgument(0))).findFirst());
+        when(refreshTokenRepository.revokeIfUsable(anyLong(), any(Instant.class))).thenAnswer(invocation -> {
+            RefreshToken token = table.get(invocation.<Long>getArgument(0).intValue() - 1);
+            if (token.getRevokedAt() != null) {
+                return 0;
+            }
+            token.setRevokedAt(invocation.getArgument(1));
+            return 1;
+        });
+        when(refreshTokenRepository.revokeFamily(anyString(), any(Instant.class))).thenAnswer(invocation -> {
+            int revoked = 0;
+            for (RefreshToken token : table) {
+                if (token.getFamilyId().equals(invocation.getArgument(0)) && token.getRevokedAt() == null) {
+                    token.setRevokedAt(invocation.getArgument(1));
+                    revoked++;
+                }
+            }
+            return revoked;
+        });
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, 60_000);
+    }
+
+    /**
+     * Tests that each rotation returns a new token of the same family, and
+     * that only the hash of a token is stored.
+     */
+    @Test
+    public void testRotateIssuesNewTokenInFamily() {
+        String first = refreshTokenService.issue(user);
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(first);
+        RefreshTokenService.Rotation next = refreshTokenService.rotate(rotation.getRefreshToken());
+
+        assertThat(rotation.getUser()).isSameAs(user);
+        assertThat(next.getRefreshToken()).isNotIn(first, rotation.getRefreshToken());
+        assertThat(table).hasSize(3).extracting(RefreshToken::getFamilyId).containsOnly(table.get(0).getFamilyId());
+        assertThat(table).extracting(RefreshToken::getTokenHash).doesNotContain(first)
+                .contains(RefreshTokenService.hash(first));
+        assertThat(table.get(2).getRevokedAt()).isNull();
+    }
+
+    /**
+     * Tests that presenting an already rotated token revokes the whole
+     * family, including the token that replaced it, but not other logins.
+     */
+    @Test
+    public void testReuseRevokesFamily() {
+        String stolen = refreshTokenService.issue(user);
+        String other = refreshTokenService.issue(user);
+        String current = refreshTokenService.rotate(stolen).getRefreshToken();
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(stolen)).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(current)).isInstanceOf(BadCredentialsException.class);
+        assertThat(refreshTokenService.rotate(other).getUser()).isSameAs(user);
+    }
+
+    /**
+     * Tests that unknown, expired and logged out tokens are refused.
+     */
+    @Test
+    public void testUnknownExpiredAndRevokedTokensAreRefused() {
+        String expired = refreshTokenService.issue(user);
+        table.get(0).setExpiresAt(Instant.now().minusSeconds(1));
+        String loggedOut = refreshTokenService.issue(user);
+        refreshTokenService.revoke(loggedOut);
+        refreshTokenService.revoke("unknown");
+
+        assertThatThrownBy(() -> refreshTokenService.rotate("unknown")).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(expired)).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(loggedOut)).isInstanceOf(BadCredentialsException.class);
+    }
+}
@@ -0,0 +1,90 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ResourceVersionService and the conditional request helpers
+ * of ResponseBuilder.
+ */
+public class ResourceVersionServiceTest {
+
+    private ResourceVersionService resourceVersionService;
+
+    /**
+     * Setup method to initialize the service before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        resourceVersionService = new ResourceVersionService();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Tests that a write changes the ETag of its restaurant and of the catalog,
+     * but not the ETags of other restaurants.
+     */
+    @Test
+    public void testBumpChangesRestaurantAndCatalogETags() {
+        String catalogETag = resourceVersionService.catalogETag();
+        String restaurantETag = resourceVersionService.restaurantETag(1);
+        String otherETag = resourceVersionService.restaurantETag(2);
+
+        resourceVersionService.bumpRestaurant(1);
+
+        assertThat(resourceVersionService.catalogETag()).isNotEqualTo(catalogETag);
+        assertThat(resourceVersionService.restaurantETag(1)).isNotEqualTo(restaurantETag);
+        assertThat(resourceVersionService.restaurantETag(2)).isEqualTo(otherETag);
+        assertThat(resourceVersionService.restaurantETag(1)).startsWith("\"").endsWith("\"");
+    }
+
+    /**
+     * Tests that versions are only bumped once the transaction commits.
+     */
+    @Test
+    public void testBumpAfterCommit() {
+        String restaurantETag = resourceVersionService.restaurantETag(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        resourceVersionService.bumpRestaurantAfterCommit(1);
+        assertThat(resourceVersionService.restaurantETag(1)).isEqualTo(restaurantETag);
+
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(resourceVersionService.restaurantETag(1)).isEqualTo(restaurantETag);
+
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        assertThat(resourceVersionService.restaurantETag(1)).isNotEqualTo(restaurantETag);
+    }
+
+    /**
+     * Tests the If-None-Match matching rules: lists, weak tags and wildcard.
+     */
+    @Test
+    public void testIsNotModified() {
+        String eTag = resourceVersionService.catalogETag();
+
+        assertThat(ResponseBuilder.isNotModified(null, eTag)).isFalse();
+        assertThat(ResponseBuilder.isNotModified("", eTag)).isFalse();
+        assertThat(ResponseBuilder.isNotModified(eTag, eTag)).isTrue();
+        assertThat(ResponseBuilder.isNotModified("W/" + eTag, eTag)).isTrue();
+        assertThat(ResponseBuilder.isNotModified("\"stale\", " + eTag, eTag)).isTrue();
+        assertThat(ResponseBuilder.isNotModified("*", eTag)).isTrue();
+        assertThat(ResponseBuilder.isNotModified("*", eTag, false)).isFalse();
+        assertThat(ResponseBuilder.isNotModified(eTag, eTag, false)).isTrue();
+        assertThat(ResponseBuilder.isNotModified("\"stale\"", eTag)).isFalse();
+    }
+}
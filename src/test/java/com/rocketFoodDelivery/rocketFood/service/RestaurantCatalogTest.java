@@ -0,0 +1,246 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantListingProjection;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantListingRow;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRepository;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantSort;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the in-memory RestaurantCatalog.
+ */
+public class RestaurantCatalogTest {
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    private ResourceVersionService resourceVersionService;
+    private RestaurantCatalog restaurantCatalog;
+
+    /**
+     * Setup method to load a catalog of three restaurants before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(restaurantRepository.findAllRestaurantListings()).thenReturn(List.of(
+                row(1, "Bistro", 2, 4),
+                row(2, "alpha", 1, 5),
+                row(3, "Cafe", 2, 3)));
+        resourceVersionService = new ResourceVersionService();
+        restaurantCatalog = new RestaurantCatalog(restaurantRepository, resourceVersionService, 2);
+        restaurantCatalog.rebuild();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Tests that a write only becomes visible once its transaction commits.
+     */
+    @Test
+    public void testWriteBecomesVisibleAfterCommit() {
+        when(restaurantRepository.findRestaurantListingById(4)).thenReturn(Optional.of(row(4, "Diner", 3, 0)));
+        long version = restaurantCatalog.getStats().getVersion();
+
+        TransactionSynchronizationManager.initSynchronization();
+        restaurantCatalog.refreshAfterCommit(4);
+
+        assertThat(restaurantCatalog.find(4)).isEmpty();
+        verify(restaurantRepository, never()).findRestaurantListingById(4);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+
+        assertThat(restaurantCatalog.find(4)).map(RestaurantListingRow::getName).contains("Diner");
+        assertThat(restaurantCatalog.getStats().getVersion()).isEqualTo(version + 1);
+        assertThat(restaurantCatalog.getStats().getSize()).isEqualTo(4);
+    }
+
+    /**
+     * Tests that a refresh bumps the ETag of a restaurant together with
+     * publishing its new listing, and leaves it alone when nothing changed.
+     */
+    @Test
+    public void testRefreshBumpsETagWithTheListing() {
+        String eTag = resourceVersionService.restaurantETag(3);
+        when(restaurantRepository.findRestaurantListingById(3)).thenReturn(Optional.of(row(3, "Cafe", 2, 3)));
+        restaurantCatalog.refresh(3);
+        assertThat(resourceVersionService.restaurantETag(3)).isEqualTo(eTag);
+
+        when(restaurantRepository.findRestaurantListingById(3)).thenReturn(Optional.of(row(3, "Cafe", 2, 4)));
+        restaurantCatalog.refresh(3);
+        assertThat(resourceVersionService.restaurantETag(3)).isNotEqualTo(eTag);
+        assertThat(restaurantCatalog.find(3)).map(RestaurantListingRow::getRating).contains(4);
+    }
+
+    /**
+     * Tests that a rolled back write never reaches the snapshot.
+     */
+    @Test
+    public void testRolledBackWriteIsNotVisible() {
+        TransactionSynchronizationManager.initSynchronization();
+        restaurantCatalog.refreshAfterCommit(4);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(restaurantCatalog.find(4)).isEmpty();
+        verify(restaurantRepository, never()).findRestaurantListingById(anyInt());
+    }
+
+    /**
+     * Tests that deleted restaurants are removed from the snapshot.
+     */
+    @Test
+    public void testDeletedRestaurantIsRemoved() {
+        when(restaurantRepository.findRestaurantListingById(2)).thenReturn(Optional.empty());
+
+        restaurantCatalog.refreshAfterCommit(2);
+
+        assertThat(restaurantCatalog.find(2)).isEmpty();
+        assertThat(ids(restaurantCatalog.findRestaurantListingPage(null, null, RestaurantSort.NAME, false, null,
+                null, 10))).containsExactly(1, 3);
+    }
+
+    /**
+     * Tests that a rebuild only changes the ETags of restaurants whose listing
+     * changed, and leaves the catalog ETag alone when nothing changed.
+     */
+    @Test
+    public void testRebuildBumpsVersionsOfChangedListingsOnly() {
+        String catalogETag = resourceVersionService.catalogETag();
+        String unchangedETag = resourceVersionService.restaurantETag(1);
+        String changedETag = resourceVersionService.restaurantETag(3);
+
+        restaurantCatalog.rebuild();
+        assertThat(resourceVersionService.catalogETag()).isEqualTo(catalogETag);
+
+        when(restaurantRepository.findAllRestaurantListings()).thenReturn(List.of(
+                row(1, "Bistro", 2, 4),
+                row(2, "alpha", 1, 5),
+                row(3, "Cafe", 2, 4)));
+        restaurantCatalog.rebuild();
+
+        assertThat(resourceVersionService.restaurantETag(1)).isEqualTo(unchangedETag);
+        assertThat(resourceVersionService.restaurantETag(3)).isNotEqualTo(changedETag);
+        assertThat(resourceVersionService.catalogETag()).isNotEqualTo(catalogETag);
+    }
+
+    /**
+     * Tests that nearby searches follow restaurant creates, moves and
+     * deletes, and apply the rating and price range filters.
+     */
+    @Test
+    public void testNearbySearchFollowsWrites() {
+        when(restaurantRepository.findRestaurantListingById(4)).thenReturn(Optional.of(located(4, 2, 4, 45.5010)));
+        when(restaurantRepository.findRestaurantListingById(5)).thenReturn(Optional.of(located(5, 1, 4, 45.5020)));
+        restaurantCatalog.refreshAfterCommit(4);
+        restaurantCatalog.refreshAfterCommit(5);
+
+        assertThat(nearbyIds(null, null)).containsExactly(4, 5);
+        assertThat(nearbyIds(null, 1)).containsExactly(5);
+        assertThat(nearbyIds(3, null)).isEmpty();
+        assertThat(restaurantCatalog.getStats().getLocated()).isEqualTo(2);
+
+        when(restaurantRepository.findRestaurantListingById(4)).thenReturn(Optional.of(located(4, 2, 4, 46.0)));
+        restaurantCatalog.refreshAfterCommit(4);
+        assertThat(nearbyIds(null, null)).containsExactly(5);
+
+        when(restaurantRepository.findRestaurantListingById(5)).thenReturn(Optional.empty());
+        restaurantCatalog.refreshAfterCommit(5);
+        assertThat(nearbyIds(null, null)).isEmpty();
+    }
+
+    /**
+     * Tests that patched listings are merged into the pages and moved by
+     * their new sort values without a rebuild, and that once there are more
+     * patches than allowed they are folded into the sorted views.
+     */
+    @Test
+    public void testPatchesMergeIntoPagesUntilFolded() {
+        when(restaurantRepository.findRestaurantListingById(2)).thenReturn(Optional.of(row(2, "Zeta", 1, 5)));
+        when(restaurantRepository.findRestaurantListingById(4)).thenReturn(Optional.of(row(4, "Diner", 3, 1)));
+        restaurantCatalog.refresh(2);
+        restaurantCatalog.refresh(4);
+
+        assertThat(restaurantCatalog.getStats().getPatches()).isEqualTo(2);
+        assertThat(restaurantCatalog.getStats().getSize()).isEqualTo(4);
+        assertThat(ids(restaurantCatalog.findRestaurantListingPage(null, null, RestaurantSort.NAME, false, null,
+                null, 10))).containsExactly(1, 3, 4, 2);
+        assertThat(ids(restaurantCatalog.findRestaurantListingPage(null, null, RestaurantSort.NAME, true, "Diner",
+                4, 10))).containsExactly(3, 1);
+        assertThat(ids(restaurantCatalog.findRestaurantListingPage(null, null, RestaurantSort.RATING, false, null,
+                null, 2))).containsExactly(4, 3);
+        verify(restaurantRepository, times(1)).findAllRestaurantListings();
+
+        when(restaurantRepository.findRestaurantListingById(1)).thenReturn(Optional.empty());
+        restaurantCatalog.refresh(1);
+
+        assertThat(restaurantCatalog.getStats().getPatches()).isZero();
+        assertThat(restaurantCatalog.getStats().getSize()).isEqualTo(3);
+        assertThat(ids(restaurantCatalog.findRestaurantListingPage(null, null, RestaurantSort.NAME, false, null,
+                null, 10))).containsExactly(3, 4, 2);
+        verify(restaurantRepository, times(1)).findAllRestaurantListings();
+    }
+
+    /**
+     * Tests keyset pagination over the snapshot with filters and both
+     * directions.
+     */
+    @Test
+    public void testPagination() {
+        assertThat(ids(restaurantCatalog.findRestaurantListingPage(null, null, RestaurantSort.NAME, false, null,
+                null, 2))).containsExactly(2, 1);
+        assertThat(ids(restaurantCatalog.findRestaurantListingPage(null, null, RestaurantSort.NAME, false,
+                "Bistro", 1, 2))).containsExactly(3);
+        assertThat(ids(restaurantCatalog.findRestaurantListingPage(null, 2, RestaurantSort.RATING, true, null,
+                null, 10))).containsExactly(1, 3);
+        assertThat(ids(restaurantCatalog.findRestaurantListingPage(null, null, RestaurantSort.RATING, true, 4, 1,
+                10))).containsExactly(3);
+        assertThat(ids(restaurantCatalog.findRestaurantListingPage(5, null, RestaurantSort.ID, false, null, null,
+                10))).containsExactly(2);
+    }
+
+    private List<Integer> nearbyIds(Integer rating, Integer priceRange) {
+        List<Integer> ids = new ArrayList<>();
+        restaurantCatalog.findNearby(45.5000, -73.5700, 1_000, rating, priceRange, 10)
+                .forEach(match -> ids.add(match.getListing().getId()));
+        return ids;
+    }
+
+    private static RestaurantListingRow located(int id, int priceRange, int rating, double latitude) {
+        return new RestaurantListingRow(id, "Restaurant " + id, priceRange, rating, id, id + " Main St", "City",
+                "12345", latitude, -73.5700);
+    }
+
+    private static List<Integer> ids(List<RestaurantListingProjection> listings) {
+        List<Integer> ids = new ArrayList<>();
+        listings.forEach(listing -> ids.add(listing.getId()));
+        return ids;
+    }
+
+    private static RestaurantListingRow row(int id, String name, int priceRange, int rating) {
+        return new RestaurantListingRow(id, name, priceRange, rating, id, id + " Main St", "City", "12345", null,
+                null);
+    }
+}
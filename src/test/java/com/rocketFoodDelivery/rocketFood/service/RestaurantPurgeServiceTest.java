@@ -0,0 +1,115 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.models.Address;
+import com.rocketFoodDelivery.rocketFood.models.Restaurant;
+import com.rocketFoodDelivery.rocketFood.models.RestaurantPurge;
+import com.rocketFoodDelivery.rocketFood.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RestaurantPurgeService.
+ */
+public class RestaurantPurgeServiceTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private RestaurantPurgeRepository restaurantPurgeRepository;
+    @Mock
+    private RestaurantRepository restaurantRepository;
+    @Mock
+    private AddressRepository addressRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private ProductOrderRepository productOrderRepository;
+    @Mock
+    private RestaurantRatingService restaurantRatingService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RestaurantPurgeService restaurantPurgeService;
+
+    /**
+     * Setup method to initialize the service before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        restaurantPurgeService = new RestaurantPurgeService(restaurantPurgeRepository, restaurantRepository,
+                addressRepository, userRepository, productRepository, orderRepository, productOrderRepository,
+                restaurantRatingService, transactionManager, BATCH_SIZE);
+    }
+
+    /**
+     * Tests that a purge deletes orders, product orders and products in bounded
+     * batches, records the progress, and deletes the restaurant last.
+     */
+    @Test
+    public void testPurgeDeletesInBatchesAndRecordsProgress() {
+        RestaurantPurge purge = RestaurantPurge.pending(7);
+        when(orderRepository.findOrderIdBatchByRestaurantId(7, BATCH_SIZE))
+                .thenReturn(List.of(1, 2), List.of(3), List.of());
+        when(productOrderRepository.deleteProductOrdersByOrderIds(anyList())).thenReturn(4, 1);
+        when(orderRepository.deleteOrdersByIds(anyList())).thenReturn(2, 1);
+        when(productOrderRepository.deleteProductOrderBatchByRestaurantId(7, BATCH_SIZE)).thenReturn(1, 0);
+        when(productRepository.deleteProductBatchByRestaurantId(7, BATCH_SIZE)).thenReturn(2, 1, 0);
+        when(restaurantRepository.findById(7)).thenReturn(Optional.of(
+                Restaurant.builder().id(7).address(Address.builder().id(70).build()).build()));
+
+        restaurantPurgeService.purge(purge);
+
+        assertThat(purge.getStatus()).isEqualTo(RestaurantPurge.Status.COMPLETED);
+        assertThat(purge.getOrdersDeleted()).isEqualTo(3);
+        assertThat(purge.getProductOrdersDeleted()).isEqualTo(6);
+        assertThat(purge.getProductsDeleted()).isEqualTo(3);
+        assertThat(purge.getCompletedAt()).isNotNull();
+        verify(productOrderRepository).deleteProductOrdersByOrderIds(List.of(1, 2));
+        verify(orderRepository).deleteOrdersByIds(List.of(3));
+        verify(restaurantPurgeRepository, atLeast(6)).save(purge);
+
+        InOrder inOrder = inOrder(productRepository, userRepository, restaurantRepository, addressRepository);
+        inOrder.verify(productRepository, times(3)).deleteProductBatchByRestaurantId(7, BATCH_SIZE);
+        inOrder.verify(userRepository).clearRestaurantId(7);
+        inOrder.verify(restaurantRepository).deleteRestaurantById(7);
+        inOrder.verify(addressRepository).deleteById(70);
+        verify(restaurantRatingService).remove(7);
+    }
+
+    /**
+     * Tests that a failing purge is marked as failed, keeps its progress and
+     * does not stop the other purges.
+     */
+    @Test
+    public void testPurgePendingRecordsFailures() {
+        RestaurantPurge failing = RestaurantPurge.pending(7);
+        RestaurantPurge next = RestaurantPurge.pending(8);
+        when(restaurantPurgeRepository.findByStatusInOrderByRequestedAtAsc(anyCollection()))
+                .thenReturn(List.of(failing, next));
+        when(orderRepository.findOrderIdBatchByRestaurantId(7, BATCH_SIZE))
+                .thenThrow(new IllegalStateException("Lock wait timeout exceeded"));
+        when(orderRepository.findOrderIdBatchByRestaurantId(8, BATCH_SIZE)).thenReturn(List.of());
+
+        restaurantPurgeService.purgePending();
+
+        assertThat(failing.getStatus()).isEqualTo(RestaurantPurge.Status.FAILED);
+        assertThat(failing.getLastError()).isEqualTo("Lock wait timeout exceeded");
+        assertThat(next.getStatus()).isEqualTo(RestaurantPurge.Status.COMPLETED);
+    }
+}
@@ -0,0 +1,131 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.models.RestaurantRating;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRatingRepository;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRatingTotalsProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RestaurantRatingService and the RestaurantRating aggregate.
+ */
+public class RestaurantRatingServiceTest {
+
+    @Mock
+    private RestaurantRatingRepository restaurantRatingRepository;
+    @Mock
+    private RestaurantCatalog restaurantCatalog;
+
+    private RestaurantRatingService restaurantRatingService;
+
+    /**
+     * Setup method to initialize the service before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        restaurantRatingService = new RestaurantRatingService(restaurantRatingRepository, restaurantCatalog);
+    }
+
+    /**
+     * Tests that an incrementally maintained aggregate yields, after every
+     * order, the rating of the GROUP BY query
+     * COALESCE(CEIL(SUM(rating) / NULLIF(COUNT(id), 0)), 0), computed by hand.
+     */
+    @Test
+    public void testIncrementalAggregateMatchesGroupByQuery() {
+        int[] ratings = { 5, 4, 3, 1, 2, 1, 1 };
+        // 5/1, 9/2 = 4.5, 12/3, 13/4 = 3.25, 15/5, 16/6 = 2.6667, 17/7 = 2.4286
+        int[] expected = { 5, 5, 4, 4, 3, 3, 3 };
+        long ratingSum = 0;
+        long ratingCount = 0;
+        for (int i = 0; i < ratings.length; i++) {
+            ratingSum += ratings[i];
+            ratingCount++;
+            assertThat(RestaurantRating.deriveRating(ratingSum, ratingCount)).isEqualTo(expected[i]);
+        }
+    }
+
+    /**
+     * Tests the rounding edge cases of the SQL division, including a quotient
+     * whose fraction falls below MySQL's 4 decimal division precision.
+     */
+    @Test
+    public void testDeriveRatingRounding() {
+        assertThat(RestaurantRating.deriveRating(0, 0)).isEqualTo(0);
+        assertThat(RestaurantRating.deriveRating(5, 1)).isEqualTo(5);
+        assertThat(RestaurantRating.deriveRating(7, 2)).isEqualTo(4);
+        assertThat(RestaurantRating.deriveRating(10001, 10000)).isEqualTo(2);
+        // MySQL yields 1.0000 at 4 decimals, so CEIL does not round up
+        assertThat(RestaurantRating.deriveRating(100001, 100000)).isEqualTo(1);
+        assertThat(RestaurantRating.deriveRating(100009, 100000)).isEqualTo(2);
+    }
+
+    /**
+     * Tests that an order only refreshes the catalog when it moves the
+     * rounded rating of its restaurant.
+     */
+    @Test
+    public void testRecordOrderRatingRefreshesCatalogOnlyOnChange() {
+        when(restaurantRatingRepository.deriveRatingIfChanged(1)).thenReturn(0, 1);
+
+        restaurantRatingService.recordOrderRating(1, 4);
+        verify(restaurantRatingRepository).addRating(1, 4);
+        verifyNoInteractions(restaurantCatalog);
+
+        restaurantRatingService.recordOrderRating(1, 1);
+        verify(restaurantCatalog).refreshAfterCommit(1);
+    }
+
+    /**
+     * Tests that the reconcile job only resynchronizes missing or drifted
+     * aggregates.
+     */
+    @Test
+    public void testReconcileRepairsMissingAndDriftedAggregates() {
+        when(restaurantRatingRepository.findAll()).thenReturn(List.of(
+                new RestaurantRating(1, 9, 2, 5),
+                new RestaurantRating(2, 3, 1, 3)));
+        when(restaurantRatingRepository.aggregateRatingsFromOrders()).thenReturn(List.of(
+                totals(1, 9, 2),
+                totals(2, 7, 2),
+                totals(3, 0, 0)));
+
+        int repaired = restaurantRatingService.reconcile();
+
+        assertThat(repaired).isEqualTo(2);
+        verify(restaurantRatingRepository, never()).resyncFromOrders(1);
+        verify(restaurantRatingRepository).resyncFromOrders(2);
+        verify(restaurantRatingRepository).resyncFromOrders(3);
+        verify(restaurantRatingRepository).deleteOrphans();
+    }
+
+    /**
+     * Creates the rating totals of a restaurant as returned by the orders query.
+     */
+    private static RestaurantRatingTotalsProjection totals(int restaurantId, long ratingSum, long ratingCount) {
+        return new RestaurantRatingTotalsProjection() {
+            @Override
+            public int getRestaurantId() {
+                return restaurantId;
+            }
+
+            @Override
+            public long getRatingSum() {
+                return ratingSum;
+            }
+
+            @Override
+            public long getRatingCount() {
+                return ratingCount;
+            }
+        };
+    }
+}
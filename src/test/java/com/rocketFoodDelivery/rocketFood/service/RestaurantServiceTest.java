@@ -0,0 +1,329 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiAddressDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCreateRestaurantDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiPageDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiRestaurantDto;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ForbiddenException;
+import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
+import com.rocketFoodDelivery.rocketFood.models.Address;
+import com.rocketFoodDelivery.rocketFood.models.Restaurant;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.repository.*;
+import com.rocketFoodDelivery.rocketFood.util.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RestaurantService.
+ */
+public class RestaurantServiceTest {
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+    @Mock
+    private AddressRepository addressRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private CustomerRepository customerRepository;
+    @Mock
+    private RestaurantRatingService restaurantRatingService;
+    @Mock
+    private RestaurantPurgeService restaurantPurgeService;
+    @Mock
+    private RestaurantCatalog restaurantCatalog;
+    @Mock
+    private SearchIndex searchIndex;
+    @Mock
+    private AppMigrationRepository appMigrationRepository;
+
+    private RestaurantService restaurantService;
+
+    /**
+     * Setup method to initialize the service before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        restaurantService = new RestaurantService(restaurantRepository, addressRepository, userRepository,
+                employeeRepository, customerRepository, restaurantRatingService, restaurantPurgeService,
+                restaurantCatalog, new PostalCodeGeocoder(), searchIndex, appMigrationRepository, false);
+    }
+
+    /**
+     * Tests that listing restaurants issues exactly one query no matter how many
+     * restaurants are returned, instead of one address lookup per row.
+     */
+    @Test
+    public void testGetRestaurantsIssuesConstantNumberOfQueries() {
+        for (int size : new int[] { 1, 10, 100 }) {
+            reset(restaurantRepository, addressRepository, restaurantRatingService);
+            when(restaurantRepository.findRestaurantListingPage(null, null, RestaurantSort.ID, false, null, null,
+                    RestaurantService.MAX_PAGE_SIZE + 1)).thenReturn(listings(1, size));
+
+            ApiPageDto<ApiRestaurantDto> page = restaurantService.getRestaurants(null, null, null, null, 100);
+
+            assertThat(page.getItems()).hasSize(size);
+            assertThat(page.getItems().get(size - 1).getAddress().getCity()).isEqualTo("City " + size);
+            verify(restaurantRepository, times(1)).findRestaurantListingPage(null, null, RestaurantSort.ID, false,
+                    null, null, RestaurantService.MAX_PAGE_SIZE + 1);
+            verifyNoMoreInteractions(restaurantRepository);
+            verifyNoInteractions(addressRepository, restaurantRatingService);
+        }
+    }
+
+    /**
+     * Tests that a full page returns a cursor that seeks past its last row.
+     */
+    @Test
+    public void testGetRestaurantsReturnsCursorForNextPage() {
+        when(restaurantRepository.findRestaurantListingPage(4, null, RestaurantSort.PRICE_RANGE, true, null, null,
+                3)).thenReturn(listings(1, 3));
+
+        ApiPageDto<ApiRestaurantDto> firstPage = restaurantService.getRestaurants(4, null, "-price_range", null, 2);
+
+        assertThat(firstPage.getItems()).hasSize(2);
+        assertThat(firstPage.getLimit()).isEqualTo(2);
+        assertThat(firstPage.getNextCursor()).isNotNull();
+
+        when(restaurantRepository.findRestaurantListingPage(4, null, RestaurantSort.PRICE_RANGE, true, 3, 2, 3))
+                .thenReturn(listings(3, 1));
+
+        ApiPageDto<ApiRestaurantDto> lastPage = restaurantService.getRestaurants(4, null, "-price_range",
+                firstPage.getNextCursor(), 2);
+
+        assertThat(lastPage.getItems()).extracting(ApiRestaurantDto::getId).containsExactly(3);
+        assertThat(lastPage.getNextCursor()).isNull();
+    }
+
+    /**
+     * Tests that the page size is capped and the default sort is used.
+     */
+    @Test
+    public void testGetRestaurantsCapsPageSize() {
+        when(restaurantRepository.findRestaurantListingPage(null, null, RestaurantSort.ID, false, null, null,
+                RestaurantService.MAX_PAGE_SIZE + 1)).thenReturn(List.of());
+
+        ApiPageDto<ApiRestaurantDto> page = restaurantService.getRestaurants(null, null, null, null, 10_000);
+
+        assertThat(page.getLimit()).isEqualTo(RestaurantService.MAX_PAGE_SIZE);
+        assertThat(page.getItems()).isEmpty();
+    }
+
+    /**
+     * Tests that invalid sorts, limits and cursors are rejected.
+     */
+    @Test
+    public void testGetRestaurantsRejectsInvalidParameters() {
+        String nameCursor = new KeysetCursor("name", 1, "Restaurant 1").encode();
+
+        assertThatThrownBy(() -> restaurantService.getRestaurants(null, null, "phone", null, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> restaurantService.getRestaurants(null, null, null, null, 0))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> restaurantService.getRestaurants(null, null, "rating", nameCursor, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> restaurantService.getRestaurants(null, null, null, "not a cursor!", null))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    /**
+     * Tests that fetching a restaurant by ID maps the joined projection.
+     */
+    @Test
+    public void testGetRestaurantByIdUsesSingleQuery() {
+        when(restaurantRepository.findRestaurantListingById(7)).thenReturn(Optional.of(listing(7)));
+
+        ApiRestaurantDto restaurant = restaurantService.getRestaurantById(7);
+
+        assertThat(restaurant.getId()).isEqualTo(7);
+        assertThat(restaurant.getRating()).isEqualTo(7 % 5 + 1);
+        assertThat(restaurant.getAddress().getStreetAddress()).isEqualTo("7 Main St");
+        verifyNoInteractions(addressRepository, restaurantRatingService);
+    }
+
+    /**
+     * Tests that fetching an unknown restaurant raises ResourceNotFoundException.
+     */
+    @Test
+    public void testGetRestaurantByIdNotFound() {
+        when(restaurantRepository.findRestaurantListingById(999)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> restaurantService.getRestaurantById(999))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Restaurant with id 999 not found");
+    }
+
+    /**
+     * Tests that deleting a restaurant only deactivates it and schedules its
+     * purge, without touching its products or orders.
+     */
+    @Test
+    public void testDeleteRestaurantDeactivatesAndSchedulesPurge() {
+        Restaurant restaurant = Restaurant.builder().id(7).name("Restaurant 7").active(true)
+                .address(Address.builder().id(7).build()).build();
+        when(restaurantRepository.findById(7)).thenReturn(Optional.of(restaurant));
+        when(restaurantRepository.deactivateRestaurantById(7)).thenReturn(1);
+
+        ApiRestaurantDto deleted = restaurantService.deleteRestaurant(7, employee());
+
+        assertThat(deleted.getId()).isEqualTo(7);
+        verify(restaurantPurgeService).schedulePurge(7);
+        verify(restaurantCatalog).refreshAfterCommit(7);
+        verify(restaurantRepository, never()).deleteRestaurantById(anyInt());
+        verifyNoInteractions(addressRepository);
+    }
+
+    /**
+     * Tests that deleting an already soft-deleted restaurant raises
+     * ResourceNotFoundException and schedules no second purge.
+     */
+    @Test
+    public void testDeleteRestaurantAlreadyDeactivated() {
+        Restaurant restaurant = Restaurant.builder().id(7).active(false).build();
+        when(restaurantRepository.findById(7)).thenReturn(Optional.of(restaurant));
+
+        assertThatThrownBy(() -> restaurantService.deleteRestaurant(7, employee()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(restaurantPurgeService, never()).schedulePurge(anyInt());
+    }
+
+    /**
+     * Tests that a user who is not an employee may create a restaurant for
+     * themselves only, and may update or delete only the restaurants they own.
+     */
+    @Test
+    public void testOnlyOwnersManageTheirRestaurants() {
+        UserEntity owner = UserEntity.builder().id(1).build();
+        UserEntity other = UserEntity.builder().id(2).build();
+        ApiCreateRestaurantDto restaurantDto = ApiCreateRestaurantDto.builder().userId(1).name("Restaurant 7")
+                .address(ApiAddressDto.builder().streetAddress("7 Main St").city("City").postalCode("H1H")
+                        .latitude(45.0).longitude(-73.0).build())
+                .build();
+        when(userRepository.findById(1)).thenReturn(Optional.of(owner));
+        when(restaurantRepository.findById(7)).thenReturn(Optional.of(Restaurant.builder().id(7).active(true)
+                .userEntity(owner).build()));
+
+        assertThatThrownBy(() -> restaurantService.createRestaurant(restaurantDto, other))
+                .isInstanceOf(ForbiddenException.class);
+        assertThatThrownBy(() -> restaurantService.updateRestaurant(7, restaurantDto, other))
+                .isInstanceOf(ForbiddenException.class);
+        assertThatThrownBy(() -> restaurantService.deleteRestaurant(7, other))
+                .isInstanceOf(ForbiddenException.class);
+        assertThatThrownBy(() -> restaurantService.deleteRestaurant(7, null))
+                .isInstanceOf(ForbiddenException.class);
+        verify(restaurantRepository, never()).save(any());
+        verify(restaurantRepository, never()).deactivateRestaurantById(anyInt());
+
+        when(restaurantRepository.deactivateRestaurantById(7)).thenReturn(1);
+        assertThat(restaurantService.deleteRestaurant(7, owner).getId()).isEqualTo(7);
+    }
+
+    /**
+     * Tests that restaurants saved inactive before soft deletes existed are
+     * reactivated on the first startup only and reloaded into the catalog and
+     * search index, and that restaurants built without an explicit flag are
+     * active.
+     */
+    @Test
+    public void testLegacyRestaurantsStayVisible() {
+        when(restaurantRepository.activateRestaurantsWithoutPurge()).thenReturn(3);
+
+        assertThat(restaurantService.reactivateLegacyRestaurants()).isEqualTo(3);
+        verify(restaurantCatalog).rebuild();
+        verify(searchIndex).rebuild();
+
+        verify(appMigrationRepository).markApplied(eq(RestaurantService.LEGACY_REACTIVATION), any());
+
+        // Later startups find the marker and leave inactive restaurants alone
+        reset(restaurantRepository, restaurantCatalog, searchIndex);
+        when(appMigrationRepository.existsById(RestaurantService.LEGACY_REACTIVATION)).thenReturn(true);
+        assertThat(restaurantService.reactivateLegacyRestaurants()).isZero();
+        verifyNoInteractions(restaurantRepository, restaurantCatalog, searchIndex);
+
+        assertThat(Restaurant.builder().id(7).build().isActive()).isTrue();
+        assertThat(new Restaurant(7).isActive()).isTrue();
+    }
+
+    /**
+     * Tests that restaurant addresses saved without coordinates are geocoded
+     * at startup and the catalog reloaded, and that addresses with an unknown
+     * postal code are left alone.
+     */
+    @Test
+    public void testLegacyAddressesAreGeocoded() {
+        Address known = Address.builder().id(1).streetAddress("7 Main St").city("Montreal").postalCode("h2x 1y4")
+                .build();
+        Address unknown = Address.builder().id(2).streetAddress("1 Nowhere").city("Nowhere").postalCode("???")
+                .build();
+        when(addressRepository.findRestaurantAddressesWithoutCoordinates()).thenReturn(List.of(known, unknown));
+
+        assertThat(restaurantService.geocodeLegacyAddresses()).isEqualTo(1);
+        assertThat(known.getLatitude()).isEqualTo(45.5130);
+        assertThat(known.getLongitude()).isEqualTo(-73.5670);
+        assertThat(unknown.getLatitude()).isNull();
+        verify(addressRepository).saveAll(List.of(known));
+        verify(restaurantCatalog).rebuild();
+
+        reset(restaurantCatalog);
+        when(addressRepository.findRestaurantAddressesWithoutCoordinates()).thenReturn(List.of(unknown));
+        assertThat(restaurantService.geocodeLegacyAddresses()).isZero();
+        verifyNoInteractions(restaurantCatalog);
+    }
+
+    /**
+     * Tests that a nearby search by postal code is resolved to the centroid
+     * of its area and served from the catalog with the distances found.
+     */
+    @Test
+    public void testGetNearbyRestaurantsByPostalCode() {
+        RestaurantListingRow listing = new RestaurantListingRow(7, "Restaurant 7", 2, 4, 7, "7 Main St", "Montreal",
+                "H2X 1Y4", 45.514, -73.567);
+        when(restaurantCatalog.findNearby(45.5130, -73.5670, 2_000, 4, null, RestaurantService.DEFAULT_PAGE_SIZE))
+                .thenReturn(List.of(new RestaurantSpatialIndex.Match(listing, 111.2)));
+
+        List<ApiRestaurantDto> restaurants = restaurantService.getNearbyRestaurants(null, null, "h2x 1y4", 2_000.0,
+                4, null, null);
+
+        assertThat(restaurants).hasSize(1);
+        assertThat(restaurants.get(0).getDistanceMeters()).isEqualTo(111.2);
+        assertThat(restaurants.get(0).getAddress().getLatitude()).isEqualTo(45.514);
+        assertThatThrownBy(() -> restaurantService.getNearbyRestaurants(null, null, "Z9Z", null, null, null, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> restaurantService.getNearbyRestaurants(45.5, null, null, null, null, null, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> restaurantService.getNearbyRestaurants(45.5, -73.5, null, 100_000.0, null, null,
+                null)).isInstanceOf(BadRequestException.class);
+    }
+
+    private static List<RestaurantListingProjection> listings(int firstId, int size) {
+        return IntStream.range(firstId, firstId + size).mapToObj(RestaurantServiceTest::listing)
+                .collect(Collectors.toList());
+    }
+
+    private static RestaurantListingProjection listing(int id) {
+        return new RestaurantListingRow(id, "Restaurant " + id, id % 3 + 1, id % 5 + 1, id, id + " Main St",
+                "City " + id, "12345", null, null);
+    }
+
+    private static UserEntity employee() {
+        return UserEntity.builder().id(99).isEmployee(true).build();
+    }
+}
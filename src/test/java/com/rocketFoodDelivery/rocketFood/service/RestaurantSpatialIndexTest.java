@@ -0,0 +1,96 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantListingRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for RestaurantSpatialIndex, against a brute-force scan.
+ */
+public class RestaurantSpatialIndexTest {
+
+    /**
+     * Tests that searches over 100,000 restaurants, with and without filters,
+     * return exactly the nearest restaurants a brute-force scan finds.
+     */
+    @Test
+    public void testFindNearestMatchesBruteForce() {
+        Random random = new Random(11);
+        List<RestaurantListingRow> rows = new ArrayList<>();
+        for (int id = 1; id <= 100_000; id++) {
+            // Most restaurants in one metropolitan area, the rest anywhere
+            double latitude = id % 10 == 0 ? random.nextDouble() * 180 - 90 : 45.5 + random.nextGaussian() * 0.1;
+            double longitude = id % 10 == 0 ? random.nextDouble() * 360 - 180 : -73.6 + random.nextGaussian() * 0.15;
+            rows.add(row(id, id % 3 + 1, id % 5 + 1, latitude, longitude));
+        }
+        rows.add(row(100_001, 1, 1, null, null));
+        RestaurantSpatialIndex index = new RestaurantSpatialIndex(rows);
+        assertThat(index.size()).isEqualTo(100_000);
+
+        for (int query = 0; query < 50; query++) {
+            double latitude = 45.5 + random.nextGaussian() * 0.1;
+            double longitude = -73.6 + random.nextGaussian() * 0.15;
+            double radius = query % 5 == 0 ? 50_000 : 500 + random.nextDouble() * 3_000;
+            Integer rating = query % 2 == 0 ? null : query % 5 + 1;
+            Integer priceRange = query % 3 == 0 ? null : query % 3 + 1;
+            Predicate<RestaurantListingRow> filter = row -> (rating == null || row.getRating() == rating)
+                    && (priceRange == null || row.getPriceRange() == priceRange);
+
+            List<RestaurantSpatialIndex.Match> found = index.findNearest(latitude, longitude, radius, filter, 20);
+
+            List<Integer> expected = bruteForce(rows, latitude, longitude, radius, filter, 20);
+            assertThat(found).extracting(match -> match.getListing().getId()).containsExactlyElementsOf(expected);
+            for (RestaurantSpatialIndex.Match match : found) {
+                assertThat(match.getDistanceMeters()).isCloseTo(CourierLocationService.distanceMeters(latitude,
+                        longitude, match.getListing().getLatitude(), match.getListing().getLongitude()),
+                        within(0.01));
+            }
+        }
+    }
+
+    /**
+     * Tests that a search near the antimeridian finds restaurants on both
+     * sides, and that an empty index finds nothing.
+     */
+    @Test
+    public void testAntimeridianAndEmptyIndex() {
+        RestaurantSpatialIndex index = new RestaurantSpatialIndex(List.of(
+                row(1, 1, 1, -17.0, 179.99),
+                row(2, 1, 1, -17.0, -179.99),
+                row(3, 1, 1, -17.0, 170.0)));
+
+        assertThat(index.findNearest(-17.0, 179.999, 5_000, row -> true, 10))
+                .extracting(match -> match.getListing().getId()).containsExactly(1, 2);
+        assertThat(RestaurantSpatialIndex.EMPTY.findNearest(0, 0, 5_000, row -> true, 10)).isEmpty();
+    }
+
+    private static List<Integer> bruteForce(List<RestaurantListingRow> rows, double latitude, double longitude,
+            double radius, Predicate<RestaurantListingRow> filter, int limit) {
+        return rows.stream()
+                .filter(row -> row.getLatitude() != null && filter.test(row))
+                .filter(row -> distance(row, latitude, longitude) <= radius)
+                .sorted(Comparator.comparingDouble((RestaurantListingRow row) -> distance(row, latitude, longitude))
+                        .thenComparingInt(RestaurantListingRow::getId))
+                .limit(limit)
+                .map(RestaurantListingRow::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static double distance(RestaurantListingRow row, double latitude, double longitude) {
+        return CourierLocationService.distanceMeters(latitude, longitude, row.getLatitude(), row.getLongitude());
+    }
+
+    private static RestaurantListingRow row(int id, int priceRange, int rating, Double latitude, Double longitude) {
+        return new RestaurantListingRow(id, "Restaurant " + id, priceRange, rating, id, id + " Main St", "City",
+                "12345", latitude, longitude);
+    }
+}
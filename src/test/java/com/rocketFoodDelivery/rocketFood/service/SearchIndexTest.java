@@ -0,0 +1,218 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiPageDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiSearchResultDto;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.repository.ProductRepository;
+import com.rocketFoodDelivery.rocketFood.repository.ProductSearchProjection;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantListingProjection;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantListingRow;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for SearchIndex, against a LIKE-style substring scan.
+ */
+public class SearchIndexTest {
+
+    // Words far enough apart that none is a fuzzy match for another
+    private static final String[] WORDS = { "pizza", "sushi", "burger", "taco", "curry", "ramen", "salad",
+            "poutine", "falafel", "kebab", "bagel", "dumpling" };
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+    @Mock
+    private ProductRepository productRepository;
+
+    private SearchIndex searchIndex;
+
+    /**
+     * Setup method to initialize the mocks and the index before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        searchIndex = new SearchIndex(restaurantRepository, productRepository);
+    }
+
+    /**
+     * Tests that over 1,000 restaurants and 10,000 products, every word query
+     * finds exactly what a LIKE scan of names and descriptions finds, ranked
+     * by score, and that following the cursors visits each result once.
+     */
+    @Test
+    public void testSearchMatchesLikeScan() {
+        Random random = new Random(5);
+        List<RestaurantListingRow> restaurants = new ArrayList<>();
+        for (int id = 1; id <= 1_000; id++) {
+            restaurants.add(row(id, "The " + word(random) + " House " + id));
+        }
+        List<ProductSearchProjection> products = new ArrayList<>();
+        for (int id = 1; id <= 10_000; id++) {
+            products.add(product(id, random.nextInt(1_000) + 1, word(random) + " plate",
+                    "Served with " + word(random) + " and " + word(random)));
+        }
+        load(restaurants, products);
+
+        for (String word : WORDS) {
+            Set<String> expected = new HashSet<>();
+            restaurants.stream().filter(row -> like(row.getName(), word))
+                    .forEach(row -> expected.add("restaurant:" + row.getId()));
+            products.stream().filter(product -> like(product.getName(), word) || like(product.getDescription(), word))
+                    .forEach(product -> expected.add("product:" + product.getId()));
+
+            List<ApiSearchResultDto> found = new ArrayList<>();
+            String cursor = null;
+            do {
+                ApiPageDto<ApiSearchResultDto> page = searchIndex.search(word.toUpperCase(Locale.ROOT), null,
+                        cursor, 100);
+                found.addAll(page.getItems());
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            assertThat(found).extracting(result -> result.getType() + ":" + result.getId())
+                    .doesNotHaveDuplicates()
+                    .containsExactlyInAnyOrderElementsOf(expected);
+            assertThat(found).isSortedAccordingTo((a, b) -> Double.compare(b.getScore(), a.getScore()));
+        }
+        assertThat(searchIndex.getStats().getRestaurants()).isEqualTo(1_000);
+        assertThat(searchIndex.getStats().getProducts()).isEqualTo(10_000);
+    }
+
+    /**
+     * Tests that misspelled and unaccented queries still match, that a match
+     * in a name outranks one in a description, and the type filter.
+     */
+    @Test
+    public void testTypoToleranceAndRanking() {
+        load(List.of(row(1, "Pizza Palace"), row(2, "Crème Brûlée Café")),
+                List.of(product(10, 1, "Margherita", "Tomato, basil and pizza dough"),
+                        product(11, 2, "Pizza slice", "Thin crust"),
+                        product(12, 2, "Crème brûlée", "Vanilla custard")));
+
+        ApiPageDto<ApiSearchResultDto> page = searchIndex.search("piza", null, null, null);
+        assertThat(page.getItems()).extracting(result -> result.getType() + ":" + result.getId())
+                .containsExactlyInAnyOrder("restaurant:1", "product:11", "product:10");
+        assertThat(page.getItems().get(page.getItems().size() - 1).getId()).isEqualTo(10);
+
+        assertThat(searchIndex.search("creme brulee", "product", null, null).getItems())
+                .extracting(ApiSearchResultDto::getId, ApiSearchResultDto::getRestaurantName)
+                .first().isEqualTo(tuple(12, "Crème Brûlée Café"));
+        assertThat(searchIndex.search("pizza", "restaurant", null, null).getItems())
+                .extracting(ApiSearchResultDto::getId).containsExactly(1);
+    }
+
+    /**
+     * Tests that refreshing a restaurant replaces its documents and those of
+     * its products, and that a restaurant gone from the database is removed.
+     */
+    @Test
+    public void testRefreshRestaurant() {
+        load(List.of(row(1, "Sushi Bar"), row(2, "Taco Stand")),
+                List.of(product(10, 1, "Salmon roll", null), product(20, 2, "Fish taco", null)));
+        assertThat(searchIndex.search("sushi", null, null, null).getItems()).hasSize(1);
+
+        when(restaurantRepository.findRestaurantListingById(1))
+                .thenReturn(Optional.<RestaurantListingProjection>of(row(1, "Ramen Bar")));
+        when(productRepository.findSearchableProductsByRestaurantId(1))
+                .thenReturn(List.of(product(10, 1, "Tonkotsu ramen", null), product(11, 1, "Gyoza", null)));
+        searchIndex.refreshRestaurantAfterCommit(1);
+
+        assertThat(searchIndex.search("sushi", null, null, null).getItems()).isEmpty();
+        assertThat(searchIndex.search("salmon", null, null, null).getItems()).isEmpty();
+        assertThat(searchIndex.search("ramen", null, null, null).getItems())
+                .extracting(result -> result.getType() + ":" + result.getId())
+                .containsExactly("restaurant:1", "product:10");
+        assertThat(searchIndex.getStats().getProducts()).isEqualTo(3);
+
+        when(restaurantRepository.findRestaurantListingById(2)).thenReturn(Optional.empty());
+        searchIndex.refreshRestaurant(2);
+
+        assertThat(searchIndex.search("taco", null, null, null).getItems()).isEmpty();
+        assertThat(searchIndex.getStats().getRestaurants()).isEqualTo(1);
+        assertThat(searchIndex.getStats().getProducts()).isEqualTo(2);
+        assertThat(searchIndex.getStats().getTerms()).isEqualTo(4);
+        verify(restaurantRepository).findAllRestaurantListings();
+    }
+
+    /**
+     * Tests that invalid queries, types and cursors are refused, including a
+     * cursor from another query.
+     */
+    @Test
+    public void testValidation() {
+        load(List.of(row(1, "Pizza Palace"), row(2, "Pizza Place")), List.of());
+        String cursor = searchIndex.search("pizza", null, null, 1).getNextCursor();
+        assertThat(cursor).isNotNull();
+        assertThat(searchIndex.search("pizza", null, cursor, 1).getItems()).extracting(ApiSearchResultDto::getId)
+                .containsExactly(2);
+
+        assertThatThrownBy(() -> searchIndex.search("a !", null, null, null)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> searchIndex.search("pizza", "menu", null, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> searchIndex.search("pizza", null, "garbage", null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> searchIndex.search("palace", null, cursor, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> searchIndex.search("pizza", null, null, 0)).isInstanceOf(BadRequestException.class);
+    }
+
+    private void load(List<RestaurantListingRow> restaurants, List<ProductSearchProjection> products) {
+        when(restaurantRepository.findAllRestaurantListings()).thenReturn(restaurants);
+        when(productRepository.findSearchableProducts()).thenReturn(products);
+        searchIndex.rebuild();
+    }
+
+    private static boolean like(String text, String word) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(word);
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static RestaurantListingRow row(int id, String name) {
+        return new RestaurantListingRow(id, name, 1, 1, id, id + " Main St", "City", "12345", null, null);
+    }
+
+    private static ProductSearchProjection product(int id, int restaurantId, String name, String description) {
+        return new ProductSearchProjection() {
+            @Override
+            public int getId() {
+                return id;
+            }
+
+            @Override
+            public int getRestaurantId() {
+                return restaurantId;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+}